@@ -0,0 +1,15 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner;
+
+/**
+ * Defines which columns of the old row are emitted in the {@code before} field of UPDATE and DELETE records
+ */
+public enum BeforeImageMode {
+    FULL, // old values of all columns
+    KEYS_ONLY, // primary key columns only, the old values are not parsed
+    NONE // no before image, the old values are not parsed
+}
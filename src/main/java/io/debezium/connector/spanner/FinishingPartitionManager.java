@@ -8,6 +8,8 @@ package io.debezium.connector.spanner;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -19,18 +21,21 @@ import io.debezium.function.BlockingConsumer;
 /**
  * Tracking Finish State of a Partition when handling kafka connect commit, finish event.
  * Sending a notification to the {@code finishedPartitionConsumer}
+ * <p>
+ * Records of a partition are numbered by a monotonic sequence starting from 1,
+ * so a partition can be finished once the highest committed record reaches the last emitted one.
  */
 public class FinishingPartitionManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FinishingPartitionManager.class);
 
+    private static final long NO_RECORD = 0;
+
     private final BlockingConsumer<String> finishedPartitionConsumer;
     private final SpannerConnectorConfig connectorConfig;
 
-    private final Map<String, String> lastEmittedRecord = new ConcurrentHashMap<>();
-    private final Map<String, Boolean> partitionPendingFinish = new ConcurrentHashMap<>();
+    private final Map<String, PartitionRecords> partitions = new ConcurrentHashMap<>();
 
-    private final Map<String, String> lastCommittedRecord = new ConcurrentHashMap<>();
     private volatile String taskUid;
 
     public FinishingPartitionManager(SpannerConnectorConfig connectorConfig, BlockingConsumer<String> finishedPartitionConsumer) {
@@ -42,55 +47,56 @@ public class FinishingPartitionManager {
         }
     }
 
-    public String newRecord(String token) {
-        String recordUid = lastEmittedRecord.get(token) == null ? "aaaaaaaa" : next(lastEmittedRecord.get(token));
-        lastEmittedRecord.put(token, recordUid);
+    /**
+     * Must be called only by the thread, which emits the records of the partition.
+     *
+     * @return uid of the new record, unique within the partition
+     */
+    public long newRecord(String token) {
+        PartitionRecords records = partitions.computeIfAbsent(token, t -> new PartitionRecords());
+        long recordUid = records.lastEmitted + 1;
+        records.lastEmitted = recordUid;
         return recordUid;
     }
 
     public void registerPartition(String token) {
-        partitionPendingFinish.put(token, false);
+        PartitionRecords records = partitions.computeIfAbsent(token, t -> new PartitionRecords());
+        records.pendingFinish = false;
+        records.registered = true;
     }
 
-    public void commitRecord(String token, String recordUid) throws InterruptedException {
-        Boolean pendingFinishFlag = partitionPendingFinish.get(token);
+    public void commitRecord(String token, long recordUid) throws InterruptedException {
+        PartitionRecords records = partitions.get(token);
 
-        if (pendingFinishFlag == null) {
-            LOGGER.warn("Task: {}, Partition has not been registered to finish or already finished {} for task {}", taskUid, token);
+        if (records == null || !records.registered) {
+            LOGGER.warn("Task: {}, Partition has not been registered to finish or already finished {}", taskUid, token);
             return;
         }
 
-        if (!pendingFinishFlag) {
-            if (lastCommittedRecord.get(token) == null) {
-                lastCommittedRecord.put(token, recordUid);
-            }
-            else {
-                if (recordUid.compareTo(lastCommittedRecord.get(token)) > 0) {
-                    lastCommittedRecord.put(token, recordUid);
-                }
-            }
-            return;
-        }
+        records.lastCommitted.accumulateAndGet(recordUid, Math::max);
 
-        if (lastEmittedRecord.get(token) == null || lastEmittedRecord.get(token).equals(recordUid)) {
+        if (records.pendingFinish && records.isAllCommitted()) {
             LOGGER.info("Task: {}, Finished forcing the token to be finished {}", taskUid, token);
-            forceFinish(token);
+            finish(token, records);
         }
     }
 
     public void onPartitionFinishEvent(String token) throws InterruptedException {
         LOGGER.info("Task: {}, onPartitionFinishEvent: {}", taskUid, token);
 
-        Boolean pendingFinishFlag = partitionPendingFinish.get(token);
+        PartitionRecords records = partitions.get(token);
 
-        if (pendingFinishFlag == null) {
+        if (records == null || !records.registered) {
             LOGGER.warn("Task: {}, Partition has not been registered to finish or already finished {}", taskUid, token);
             return;
         }
 
-        if (lastEmittedRecord.get(token) == null || lastEmittedRecord.get(token).equals(lastCommittedRecord.get(token))) {
+        // The flag is set before the check, so either this call or the last commit finishes the partition
+        records.pendingFinish = true;
+
+        if (records.isAllCommitted()) {
             LOGGER.info("Task: {}, Forcing the token to be finished {}", taskUid, token);
-            forceFinish(token);
+            finish(token, records);
             LOGGER.info("Task: {}, Done forcing the token to be finished {}", taskUid, token);
         }
         else {
@@ -99,57 +105,50 @@ public class FinishingPartitionManager {
                             + " lastEmittedRecord {}",
                     taskUid,
                     token,
-                    lastCommittedRecord.get(token),
-                    lastEmittedRecord.get(token));
-            partitionPendingFinish.put(token, true);
+                    records.lastCommitted.get(),
+                    records.lastEmitted);
         }
     }
 
     public void forceFinish(String token) throws InterruptedException {
         finishedPartitionConsumer.accept(token);
 
-        partitionPendingFinish.remove(token);
-        lastEmittedRecord.remove(token);
-        lastCommittedRecord.remove(token);
+        partitions.remove(token);
     }
 
     public Set<String> getPendingFinishPartitions() {
-        return partitionPendingFinish.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(true))
+        return partitions.entrySet().stream()
+                .filter(entry -> entry.getValue().registered && entry.getValue().pendingFinish)
                 .map(Map.Entry::getKey)
                 .collect(Collectors.toSet());
     }
 
     public Set<String> getPendingPartitions() {
-        return partitionPendingFinish.entrySet().stream()
+        return partitions.entrySet().stream()
+                .filter(entry -> entry.getValue().registered)
                 .map(Map.Entry::getKey)
                 .collect(Collectors.toSet());
     }
 
-    private String next(String str) {
-        // If string is empty.
-        if (str.isEmpty()) {
-            return "a";
+    private void finish(String token, PartitionRecords records) throws InterruptedException {
+        // The finish event and the last commit may both see the partition as finished
+        if (records.finishing.compareAndSet(false, true)) {
+            forceFinish(token);
         }
+    }
 
-        // Find first character from right
-        // which is not z.
+    private static final class PartitionRecords {
 
-        int i = str.length() - 1;
-        while (i >= 0 && str.charAt(i) == 'z') {
-            i--;
-        }
-        if (i == -1) {
-            str = str + 'a';
-        }
-        else {
-            String suffix = "";
-            for (int j = i + 1; j < str.length(); j++) {
-                suffix += 'a';
-            }
-            str = str.substring(0, i) + (char) ((int) (str.charAt(i)) + 1) + suffix;
+        // Written only by the thread emitting the records of the partition
+        private volatile long lastEmitted = NO_RECORD;
+        private final AtomicLong lastCommitted = new AtomicLong(NO_RECORD);
+
+        private volatile boolean registered;
+        private volatile boolean pendingFinish;
+        private final AtomicBoolean finishing = new AtomicBoolean();
+
+        private boolean isAllCommitted() {
+            return lastCommitted.get() >= lastEmitted;
         }
-        return str;
     }
-
 }
@@ -6,7 +6,7 @@
 package io.debezium.connector.spanner;
 
 import java.time.Instant;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -15,7 +15,8 @@ import org.apache.kafka.connect.source.SourceRecord;
 import io.debezium.config.Field;
 import io.debezium.connector.common.BaseSourceTask;
 import io.debezium.connector.spanner.context.offset.SpannerOffsetContext;
-import io.debezium.connector.spanner.processor.SourceRecordUtils;
+import io.debezium.connector.spanner.metrics.latency.HeaderLatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestampsStore;
 import io.debezium.pipeline.spi.Offsets;
 import io.debezium.util.Collect;
 
@@ -27,7 +28,7 @@ public abstract class SpannerBaseSourceTask
 
     protected SpannerChangeEventSourceCoordinator coordinator;
 
-    private final List<SourceRecord> records = new LinkedList<>();
+    private List<SourceRecord> records = new ArrayList<>();
 
     @Override
     public void commitRecord(SourceRecord sourceRecord, RecordMetadata metadata) throws InterruptedException {
@@ -38,7 +39,7 @@ public abstract class SpannerBaseSourceTask
         }
 
         if (metadata != null) {
-            sourceRecord = SourceRecordUtils.addPublishTimestamp(sourceRecord, Instant.now().toEpochMilli());
+            sourceRecord = getLatencyTimestampsStore().addPublishTimestamp(sourceRecord, Instant.now().toEpochMilli());
         }
 
         this.onRecordSent(sourceRecord);
@@ -46,6 +47,10 @@ public abstract class SpannerBaseSourceTask
 
     protected abstract void onRecordSent(SourceRecord sourceRecord);
 
+    protected LatencyTimestampsStore getLatencyTimestampsStore() {
+        return HeaderLatencyTimestampsStore.INSTANCE;
+    }
+
     @Override
     public void commit() throws InterruptedException {
         super.commit();
@@ -53,10 +58,13 @@ public abstract class SpannerBaseSourceTask
         if (coordinator == null) {
             return;
         }
+        // The records are swapped, so that the producer callbacks are not blocked while the records are committed
+        List<SourceRecord> committedRecords;
         synchronized (this) {
-            coordinator.commitRecords(records);
-            records.clear();
+            committedRecords = records;
+            records = new ArrayList<>(committedRecords.size());
         }
+        coordinator.commitRecords(committedRecords);
     }
 
     protected Offsets<SpannerPartition, SpannerOffsetContext> getInitialOffsets() {
@@ -9,19 +9,31 @@ import java.time.Instant;
 
 import org.apache.kafka.connect.source.SourceRecord;
 
-import io.debezium.connector.spanner.processor.SourceRecordUtils;
+import io.debezium.connector.spanner.metrics.latency.HeaderLatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestampsStore;
 import io.debezium.pipeline.DataChangeEvent;
 
 /**
  * Creates Spanner Data Change Events
  */
 public class SpannerChangeEventCreator implements io.debezium.pipeline.spi.ChangeEventCreator {
+
+    private final LatencyTimestampsStore latencyTimestampsStore;
+
+    public SpannerChangeEventCreator() {
+        this(HeaderLatencyTimestampsStore.INSTANCE);
+    }
+
+    public SpannerChangeEventCreator(LatencyTimestampsStore latencyTimestampsStore) {
+        this.latencyTimestampsStore = latencyTimestampsStore;
+    }
+
     @Override
     public DataChangeEvent createDataChangeEvent(SourceRecord sourceRecord) {
         return new DataChangeEvent(getRecord(sourceRecord));
     }
 
     private SourceRecord getRecord(SourceRecord record) {
-        return SourceRecordUtils.addEmitTimestamp(record, Instant.now().toEpochMilli());
+        return latencyTimestampsStore.addEmitTimestamp(record, Instant.now().toEpochMilli());
     }
 }
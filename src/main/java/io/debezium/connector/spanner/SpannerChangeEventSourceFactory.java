@@ -86,7 +86,8 @@ public class SpannerChangeEventSourceFactory implements ChangeEventSourceFactory
     @Override
     public SpannerStreamingChangeEventSource getStreamingChangeEventSource() {
 
-        StreamEventQueue streamEventQueue = new StreamEventQueue(connectorConfig.queueCapacity(), spannerMeter.getMetricsEventPublisher());
+        StreamEventQueue streamEventQueue = new StreamEventQueue(connectorConfig.queueCapacity(), connectorConfig.queueMaxBytes(),
+                spannerMeter.getMetricsEventPublisher());
 
         SpannerOffsetContextFactory offsetContextFactory = new SpannerOffsetContextFactory(sourceInfoFactory);
 
@@ -21,6 +21,7 @@ import io.debezium.config.Configuration;
 import io.debezium.connector.SourceInfoStructMaker;
 import io.debezium.connector.spanner.config.BaseSpannerConnectorConfig;
 import io.debezium.connector.spanner.context.source.SourceInfo;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
 
 /**
  * Configuration API for the Spanner connector
@@ -93,6 +94,22 @@ public class SpannerConnectorConfig extends BaseSpannerConnectorConfig {
         return getConfig().getInteger(MAX_MISSED_HEARTBEATS);
     }
 
+    public int getMaxConcurrentPartitionQueries() {
+        return getConfig().getInteger(MAX_CONCURRENT_PARTITION_QUERIES);
+    }
+
+    public int getStreamDecodeThreads() {
+        return getConfig().getInteger(STREAM_DECODE_THREADS);
+    }
+
+    public int getStreamDecodeBufferSize() {
+        return getConfig().getInteger(STREAM_DECODE_BUFFER_SIZE);
+    }
+
+    public int getProcessingWorkers() {
+        return getConfig().getInteger(PROCESSING_WORKERS);
+    }
+
     public Duration getLowWatermarkStampInterval() {
         return getConfig().getDuration(LOW_WATERMARK_STAMP_INTERVAL, ChronoUnit.MILLIS);
     }
@@ -143,6 +160,10 @@ public class SpannerConnectorConfig extends BaseSpannerConnectorConfig {
         return getConfig().getInteger(STREAM_EVENT_QUEUE_CAPACITY, (int) STREAM_EVENT_QUEUE_CAPACITY.defaultValue());
     }
 
+    public long queueMaxBytes() {
+        return getConfig().getLong(STREAM_EVENT_QUEUE_MAX_BYTES, (Long) STREAM_EVENT_QUEUE_MAX_BYTES.defaultValue());
+    }
+
     public String gcpSpannerCredentialsJson() {
         return getConfig().getString(GCP_SPANNER_CREDENTIALS_JSON_PROPERTY_NAME);
     }
@@ -159,6 +180,19 @@ public class SpannerConnectorConfig extends BaseSpannerConnectorConfig {
         return getConfig().getString(TABLE_INCLUDE_LIST);
     }
 
+    public BeforeImageMode getBeforeImageMode() {
+        String mode = getConfig().getString(BEFORE_IMAGE_MODE);
+        return mode == null ? BeforeImageMode.FULL : BeforeImageMode.valueOf(mode.toUpperCase());
+    }
+
+    public String columnExcludeList() {
+        return getConfig().getString(COLUMN_EXCLUDE_LIST);
+    }
+
+    public String columnIncludeList() {
+        return getConfig().getString(COLUMN_INCLUDE_LIST);
+    }
+
     public String bootStrapServer() {
 
         // try to get configured value, if it is specified
@@ -201,6 +235,15 @@ public class SpannerConnectorConfig extends BaseSpannerConnectorConfig {
         return getConfig().getInteger(SYNC_EVENT_PUBLISH_WAITING_TIMEOUT);
     }
 
+    public int syncDeltaSnapshotInterval() {
+        return getConfig().getInteger(SYNC_DELTA_SNAPSHOT_INTERVAL);
+    }
+
+    public SyncEventFormat syncEventFormat() {
+        String format = getConfig().getString(SYNC_EVENT_FORMAT);
+        return format == null ? SyncEventFormat.V1 : SyncEventFormat.valueOf(format.toUpperCase());
+    }
+
     public Duration awaitInitializationTimeout() {
         return getConfig().getDuration(TASK_AWAIT_INITIALIZATION_TMEOUT, ChronoUnit.MILLIS);
     }
@@ -287,6 +330,10 @@ public class SpannerConnectorConfig extends BaseSpannerConnectorConfig {
         return getConfig().getDuration(PERCENTAGE_METRICS_CLEAR_INTERVAL, ChronoUnit.MILLIS);
     }
 
+    public boolean isLatencyHeadersEnabled() {
+        return getConfig().getBoolean(LATENCY_HEADERS_ENABLED);
+    }
+
     public boolean failOverloadedTask() {
         return getConfig().getBoolean(TASKS_FAIL_OVERLOADED);
     }
@@ -6,8 +6,8 @@
 package io.debezium.connector.spanner;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.RetriableException;
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import io.debezium.config.Configuration;
 import io.debezium.connector.base.ChangeEventQueue;
+import io.debezium.connector.spanner.config.SpannerColumnFilter;
 import io.debezium.connector.spanner.config.SpannerTableFilter;
 import io.debezium.connector.spanner.context.offset.SpannerOffsetContext;
 import io.debezium.connector.spanner.context.source.SourceInfoFactory;
@@ -31,7 +32,7 @@ import io.debezium.connector.spanner.kafka.KafkaAdminClientFactory;
 import io.debezium.connector.spanner.kafka.KafkaPartitionInfoProvider;
 import io.debezium.connector.spanner.metrics.SpannerChangeEventSourceMetricsFactory;
 import io.debezium.connector.spanner.metrics.SpannerMeter;
-import io.debezium.connector.spanner.processor.SourceRecordUtils;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestampsStore;
 import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
 import io.debezium.connector.spanner.processor.heartbeat.SpannerHeartbeatFactory;
 import io.debezium.connector.spanner.processor.metadata.SpannerEventMetadataProvider;
@@ -105,7 +106,7 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
         final SpannerErrorHandler errorHandler = new SpannerErrorHandler(this, queue);
 
         this.spannerMeter = new SpannerMeter(
-                this, connectorConfig, errorHandler, () -> lowWatermarkHolder.getLowWatermark());
+                this, connectorConfig, () -> lowWatermarkHolder.getLowWatermark());
 
         final SchemaNameAdjuster schemaNameAdjuster = connectorConfig.schemaNameAdjuster();
 
@@ -124,7 +125,9 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
                 topicNamingStrategy,
                 schemaNameAdjuster,
                 schemaRegistry,
-                connectorConfig.getSourceInfoStructMaker().schema());
+                connectorConfig.getSourceInfoStructMaker().schema(),
+                new SpannerColumnFilter(connectorConfig),
+                connectorConfig.getBeforeImageMode());
 
         schema = new KafkaSpannerSchema(tableSchemaFactory);
 
@@ -146,7 +149,10 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
         this.changeStream = spannerChangeStreamFactory.getStream(
                 connectorConfig.changeStreamName(),
                 connectorConfig.getHeartbeatInterval(),
-                connectorConfig.getMaxMissedHeartbeats());
+                connectorConfig.getMaxMissedHeartbeats(),
+                connectorConfig.getMaxConcurrentPartitionQueries(),
+                connectorConfig.getStreamDecodeThreads(),
+                connectorConfig.getStreamDecodeBufferSize());
 
         this.lowWatermarkHolder = new LowWatermarkHolder();
 
@@ -162,7 +168,7 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
                 schema,
                 queue,
                 tableFilter,
-                new SpannerChangeEventCreator(),
+                new SpannerChangeEventCreator(spannerMeter.getMetricsEventPublisher().getLatencyTimestampsStore()),
                 metadataProvider,
                 spannerHeartbeatFactory,
                 schemaNameAdjuster,
@@ -210,8 +216,6 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
                 schema,
                 notificationService);
 
-        this.spannerMeter.start();
-
         this.coordinator.start(taskContext, this.queue, metadataProvider);
 
         this.synchronizationTaskContext.init();
@@ -235,10 +239,11 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
 
         long pollAtTimestamp = Instant.now().toEpochMilli();
 
-        List<SourceRecord> resultedRecords = records.stream()
-                .map(DataChangeEvent::getRecord)
-                .map(record -> SourceRecordUtils.addPollTimestamp(record, pollAtTimestamp))
-                .collect(Collectors.toList());
+        LatencyTimestampsStore latencyTimestampsStore = getLatencyTimestampsStore();
+        List<SourceRecord> resultedRecords = new ArrayList<>(records.size());
+        for (DataChangeEvent record : records) {
+            resultedRecords.add(latencyTimestampsStore.addPollTimestamp(record.getRecord(), pollAtTimestamp));
+        }
 
         if (!resultedRecords.isEmpty()) {
             LOGGER.debug("Records sent to Kafka: {}", resultedRecords);
@@ -252,6 +257,11 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
         this.spannerMeter.getMetricsEventPublisher().logLatency(sourceRecord);
     }
 
+    @Override
+    protected LatencyTimestampsStore getLatencyTimestampsStore() {
+        return this.spannerMeter.getMetricsEventPublisher().getLatencyTimestampsStore();
+    }
+
     @Override
     protected void doStop() {
         LOGGER.info("Stopping task {}, changeStream", taskUid);
@@ -274,6 +284,8 @@ public class SpannerConnectorTask extends SpannerBaseSourceTask {
 
         spannerMeter.shutdown();
 
+        getLatencyTimestampsStore().clear();
+
         LOGGER.info("Task {} was stopped", taskUid);
     }
 
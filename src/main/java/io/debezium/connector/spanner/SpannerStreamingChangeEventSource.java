@@ -9,6 +9,9 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.apache.kafka.connect.source.SourceRecord;
@@ -33,11 +36,14 @@ import io.debezium.connector.spanner.db.model.event.HeartbeatEvent;
 import io.debezium.connector.spanner.db.stream.ChangeStream;
 import io.debezium.connector.spanner.db.stream.PartitionEventListener;
 import io.debezium.connector.spanner.exception.FinishingPartitionTimeout;
+import io.debezium.connector.spanner.metrics.MetricKey;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
+import io.debezium.connector.spanner.metrics.ThroughputMetrics;
 import io.debezium.connector.spanner.metrics.event.ChildPartitionsMetricEvent;
 import io.debezium.connector.spanner.processor.SourceRecordUtils;
 import io.debezium.connector.spanner.processor.SpannerChangeRecordEmitter;
 import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
+import io.debezium.function.BlockingConsumer;
 import io.debezium.pipeline.ErrorHandler;
 import io.debezium.util.Clock;
 
@@ -54,6 +60,8 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
     private static final long INITIAL_TOKEN_BATCH_SIZE = 200;
 
+    private static final int EVENT_BATCH_SIZE = 128;
+
     private final FinishPartitionStrategy finishPartitionStrategy;
 
     private final ErrorHandler errorHandler;
@@ -62,6 +70,10 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
     private final MetricsEventPublisher metricsEventPublisher;
 
+    private final ThroughputMetrics partitionThroughput;
+
+    private final ThroughputMetrics tableThroughput;
+
     private final ChangeStream stream;
 
     private final PartitionManager partitionManager;
@@ -78,7 +90,7 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
     private final SpannerConnectorConfig connectorConfig;
 
-    private volatile Thread thread;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
 
     public SpannerStreamingChangeEventSource(SpannerConnectorConfig connectorConfig,
                                              ErrorHandler errorHandler,
@@ -95,6 +107,8 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
         this.errorHandler = errorHandler;
         this.eventQueue = eventQueue;
         this.metricsEventPublisher = metricsEventPublisher;
+        this.partitionThroughput = metricsEventPublisher.getMetric(MetricKey.PARTITION_THROUGHPUT);
+        this.tableThroughput = metricsEventPublisher.getMetric(MetricKey.TABLE_THROUGHPUT);
         this.stream = stream;
         this.partitionManager = partitionManager;
         this.schemaRegistry = schemaRegistry;
@@ -165,95 +179,146 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
             finishPartitionWatchDog.stop();
 
-            if (thread != null) {
-                thread.interrupt();
-            }
+            threads.forEach(Thread::interrupt);
         }
 
     }
 
     private void startProcessing(ChangeEventSourceContext context) {
-        thread = new Thread(() -> {
+        int processingWorkers = connectorConfig.getProcessingWorkers();
+        if (processingWorkers <= 1) {
+            startThread("SpannerConnector-SpannerStreamingChangeEventSource", context, eventQueue::drainTo, new EventProcessor()::process);
+            return;
+        }
+
+        // Events of a partition are always routed to the same worker, so they are processed in order.
+        // It also keeps the batched initial child partitions together with the FinishPartitionEvent of the initial partition.
+        // The workers dispatch concurrently: every mod has its own emitter, the schema registry is read without locking
+        // and the event dispatcher passes the records to the thread-safe change event queue.
+        int workerQueueCapacity = Math.max(1, connectorConfig.queueCapacity() / processingWorkers);
+        List<BlockingQueue<ChangeStreamEvent>> workerQueues = new ArrayList<>(processingWorkers);
+        for (int i = 0; i < processingWorkers; i++) {
+            BlockingQueue<ChangeStreamEvent> workerQueue = new ArrayBlockingQueue<>(workerQueueCapacity);
+            workerQueues.add(workerQueue);
+            startThread("SpannerConnector-SpannerStreamingChangeEventSource-Worker-" + i, context, (events, maxEvents) -> {
+                events.add(workerQueue.take());
+                workerQueue.drainTo(events, maxEvents - 1);
+            }, new EventProcessor()::process);
+        }
+
+        LOGGER.info("Processing change stream events with {} workers", processingWorkers);
+
+        startThread("SpannerConnector-SpannerStreamingChangeEventSource", context, eventQueue::drainTo,
+                event -> workerQueues.get(Math.floorMod(event.getPartitionToken().hashCode(), processingWorkers)).put(event));
+    }
+
+    private void startThread(String name, ChangeEventSourceContext context, EventSource source, BlockingConsumer<ChangeStreamEvent> handler) {
+        Thread thread = new Thread(() -> {
             try {
-                List<ChildPartitionsEvent> initialChildPartitionTokens = new ArrayList<ChildPartitionsEvent>();
+                List<ChangeStreamEvent> batch = new ArrayList<>(EVENT_BATCH_SIZE);
                 while (context.isRunning()) {
-                    ChangeStreamEvent event = eventQueue.take();
+                    source.drainTo(batch, EVENT_BATCH_SIZE);
+                    for (ChangeStreamEvent event : batch) {
+                        if (!context.isRunning()) {
+                            return;
+                        }
+                        handler.accept(event);
+                    }
+                    batch.clear();
+                }
+            }
+            catch (InterruptedException e) {
+                LOGGER.info("Interrupting {} task", name);
+                Thread.currentThread().interrupt();
+            }
+            catch (Exception ex) {
+                processFailure(ex);
+            }
+        }, name);
 
-                    if (event instanceof DataChangeEvent) {
+        threads.add(thread);
+        thread.start();
+    }
 
-                        DataChangeEvent dataChangeEvent = (DataChangeEvent) event;
+    @FunctionalInterface
+    private interface EventSource {
+        void drainTo(List<ChangeStreamEvent> events, int maxEvents) throws InterruptedException;
+    }
 
-                        processDataChangeEvent(dataChangeEvent);
-                    }
-                    else if (event instanceof HeartbeatEvent) {
+    /**
+     * Processes the events of the partitions assigned to a single thread
+     */
+    private class EventProcessor {
 
-                        HeartbeatEvent heartbeatEvent = (HeartbeatEvent) event;
+        private final List<ChildPartitionsEvent> initialChildPartitionTokens = new ArrayList<>();
 
-                        processHeartBeatEvent(heartbeatEvent);
-                    }
-                    else if (event instanceof ChildPartitionsEvent) {
+        void process(ChangeStreamEvent event) throws InterruptedException {
+            if (event instanceof DataChangeEvent) {
 
-                        ChildPartitionsEvent childPartitionsEvent = (ChildPartitionsEvent) event;
+                DataChangeEvent dataChangeEvent = (DataChangeEvent) event;
 
-                        if (!childPartitionsEvent.getChildPartitions().isEmpty() &&
-                                childPartitionsEvent.getChildPartitions().get(0).getParentTokens().contains(InitialPartition.PARTITION_TOKEN)) {
-                            LOGGER.info("Batching child partition event {}", childPartitionsEvent);
-                            initialChildPartitionTokens.add(childPartitionsEvent);
-                        }
-                        else {
-                            processChildPartitionsEvent(Collections.singletonList(childPartitionsEvent));
-                        }
+                processDataChangeEvent(dataChangeEvent);
+            }
+            else if (event instanceof HeartbeatEvent) {
 
-                    }
-                    else if (event instanceof FinishPartitionEvent) {
+                HeartbeatEvent heartbeatEvent = (HeartbeatEvent) event;
 
-                        if (!initialChildPartitionTokens.isEmpty()) {
-                            LOGGER.info("Received FinishPartitionEvent {}, so clearing initial tokens", event.getMetadata().getPartitionToken());
-                            if (initialChildPartitionTokens.size() <= INITIAL_TOKEN_BATCH_SIZE) {
-                                processChildPartitionsEvent(initialChildPartitionTokens);
-                            }
-                            else {
-                                List<ChildPartitionsEvent> batchedInitialTokens = new ArrayList<>();
-                                // Make sure to send the child partitions downstream in batches.
-                                for (ChildPartitionsEvent childPartitionsEvent : initialChildPartitionTokens) {
-                                    batchedInitialTokens.add(childPartitionsEvent);
-                                    if (batchedInitialTokens.size() >= INITIAL_TOKEN_BATCH_SIZE) {
-                                        processChildPartitionsEvent(batchedInitialTokens);
-                                        batchedInitialTokens.clear();
-                                    }
-
-                                }
-                                if (!batchedInitialTokens.isEmpty()) {
-                                    processChildPartitionsEvent(batchedInitialTokens);
-                                }
-                            }
-                            initialChildPartitionTokens.clear();
-                        }
+                processHeartBeatEvent(heartbeatEvent);
+            }
+            else if (event instanceof ChildPartitionsEvent) {
 
-                        LOGGER.info("Received FinishPartitionEvent for partition {}", event.getMetadata().getPartitionToken());
+                ChildPartitionsEvent childPartitionsEvent = (ChildPartitionsEvent) event;
 
-                        if (finishPartitionStrategy.equals(FinishPartitionStrategy.AFTER_COMMIT)) {
-                            this.finishingPartitionManager.onPartitionFinishEvent(event.getMetadata().getPartitionToken());
-                        }
-                        else if (finishPartitionStrategy.equals(FinishPartitionStrategy.AFTER_STREAMING_FINISH)) {
-                            finishingPartitionManager.forceFinish(event.getMetadata().getPartitionToken());
-                        }
+                if (!childPartitionsEvent.getChildPartitions().isEmpty() &&
+                        childPartitionsEvent.getChildPartitions().get(0).getParentTokens().contains(InitialPartition.PARTITION_TOKEN)) {
+                    LOGGER.info("Batching child partition event {}", childPartitionsEvent);
+                    initialChildPartitionTokens.add(childPartitionsEvent);
+                }
+                else {
+                    processChildPartitionsEvent(Collections.singletonList(childPartitionsEvent));
+                }
+
+            }
+            else if (event instanceof FinishPartitionEvent) {
+
+                if (!initialChildPartitionTokens.isEmpty()) {
+                    LOGGER.info("Received FinishPartitionEvent {}, so clearing initial tokens", event.getMetadata().getPartitionToken());
+                    if (initialChildPartitionTokens.size() <= INITIAL_TOKEN_BATCH_SIZE) {
+                        processChildPartitionsEvent(initialChildPartitionTokens);
                     }
                     else {
-                        // ignore event
+                        List<ChildPartitionsEvent> batchedInitialTokens = new ArrayList<>();
+                        // Make sure to send the child partitions downstream in batches.
+                        for (ChildPartitionsEvent childPartitionsEvent : initialChildPartitionTokens) {
+                            batchedInitialTokens.add(childPartitionsEvent);
+                            if (batchedInitialTokens.size() >= INITIAL_TOKEN_BATCH_SIZE) {
+                                processChildPartitionsEvent(batchedInitialTokens);
+                                batchedInitialTokens.clear();
+                            }
+
+                        }
+                        if (!batchedInitialTokens.isEmpty()) {
+                            processChildPartitionsEvent(batchedInitialTokens);
+                        }
                     }
+                    initialChildPartitionTokens.clear();
+                }
+
+                LOGGER.info("Received FinishPartitionEvent for partition {}", event.getMetadata().getPartitionToken());
+
+                partitionThroughput.remove(event.getMetadata().getPartitionToken());
+
+                if (finishPartitionStrategy.equals(FinishPartitionStrategy.AFTER_COMMIT)) {
+                    finishingPartitionManager.onPartitionFinishEvent(event.getMetadata().getPartitionToken());
+                }
+                else if (finishPartitionStrategy.equals(FinishPartitionStrategy.AFTER_STREAMING_FINISH)) {
+                    finishingPartitionManager.forceFinish(event.getMetadata().getPartitionToken());
                 }
             }
-            catch (InterruptedException e) {
-                LOGGER.info("Interrupting SpannerConnector-SpannerStreamingChangeEventSource task");
-                Thread.currentThread().interrupt();
-            }
-            catch (Exception ex) {
-                processFailure(ex);
+            else {
+                // ignore event
             }
-        }, "SpannerConnector-SpannerStreamingChangeEventSource");
-
-        thread.start();
+        }
     }
 
     @VisibleForTesting
@@ -264,10 +329,13 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
         SpannerPartition partition = new SpannerPartition(event.getPartitionToken());
 
-        for (Mod mod : event.getMods()) {
+        List<Mod> mods = event.getMods();
+        recordThroughput(event, mods.size());
+
+        for (Mod mod : mods) {
             SpannerOffsetContext offsetContext = offsetContextFactory.getOffsetContextFromDataChangeEvent(mod.getModNumber(), event);
 
-            String recordUid = this.finishingPartitionManager.newRecord(event.getPartitionToken());
+            long recordUid = this.finishingPartitionManager.newRecord(event.getPartitionToken());
 
             boolean dispatched = spannerEventDispatcher.dispatchDataChangeEvent(partition, tableId,
                     new SpannerChangeRecordEmitter(recordUid, event.getModType(), mod, partition, offsetContext,
@@ -283,6 +351,14 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
     }
 
+    private void recordThroughput(DataChangeEvent event, int records) {
+        Timestamp commitTimestamp = event.getCommitTimestamp();
+        long commitTimestampMillis = commitTimestamp.getSeconds() * 1000 + commitTimestamp.getNanos() / 1_000_000;
+
+        partitionThroughput.record(event.getPartitionToken(), records, event.getEstimatedSize(), commitTimestampMillis);
+        tableThroughput.record(event.getTableName(), records, event.getEstimatedSize(), commitTimestampMillis);
+    }
+
     private void processHeartBeatEvent(HeartbeatEvent event) throws InterruptedException {
         SpannerOffsetContext offsetContext = offsetContextFactory.getOffsetContextFromHeartbeatEvent(event);
 
@@ -334,7 +410,7 @@ public class SpannerStreamingChangeEventSource implements CommittingRecordsStrea
 
         for (SourceRecord sourceRecord : records) {
             String token = SourceRecordUtils.extractToken(sourceRecord);
-            String recordUid = SourceRecordUtils.extractRecordUid(sourceRecord);
+            Long recordUid = SourceRecordUtils.extractRecordUid(sourceRecord);
 
             if (token == null || recordUid == null) {
                 continue;
@@ -5,43 +5,372 @@
  */
 package io.debezium.connector.spanner;
 
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
 
 import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.metrics.Gauge;
+import io.debezium.connector.spanner.metrics.MetricKey;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
-import io.debezium.connector.spanner.metrics.event.SpannerEventQueueUpdateEvent;
 
 /**
  * Internal queue which holds Spanner Events
- * before they will be processed
+ * before they will be processed.
+ * <p>
+ * Bounded ring buffer with many producers (the partition streaming threads) and a single consumer.
+ * Producers claim a slot with a CAS on the producer index and publish the event into it,
+ * the consumer drains the published slots in batches.
+ * The occupancy is sampled by the consumer instead of being published on every put and take.
+ * <p>
+ * Optionally the queue is also bounded by the estimated size in bytes of the events.
+ * Each partition with queued events gets a fair share of the bytes and can borrow the unused shares
+ * of the other partitions, unless a partition within its share is waiting for space.
+ * Partition readers, which cannot put an event, are blocked until the consumer frees enough space.
  */
 public class StreamEventQueue {
-    private final BlockingDeque<ChangeStreamEvent> queue;
-    private final MetricsEventPublisher metricsEventPublisher;
+
+    private static final Duration OCCUPANCY_SAMPLE_INTERVAL = Duration.ofMillis(100);
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int PRODUCER_SPINS = 64;
+
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<ChangeStreamEvent> buffer;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    // Advanced only by the consumer, after the consumed slots are cleared
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    private volatile Thread parkedConsumer;
+
+    // Producers block on the lock only when the queue is full
+    private final ReentrantLock notFullLock = new ReentrantLock();
+    private final Condition notFull = notFullLock.newCondition();
+    private final AtomicInteger waitingProducers = new AtomicInteger();
+
+    // Estimated size of the queued events, tracked only if the queue is bounded by bytes
+    private final long maxBytes;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Map<String, Long> partitionQueuedBytes = new ConcurrentHashMap<>();
+    private final AtomicInteger starvingPartitions = new AtomicInteger();
+
+    private final Gauge remainingCapacityMetric;
+    private final long occupancySampleIntervalNanos;
+    private long lastOccupancySampleNanos;
 
     public StreamEventQueue(int capacity, MetricsEventPublisher metricsEventPublisher) {
-        this.queue = new LinkedBlockingDeque<>(capacity);
-        this.metricsEventPublisher = metricsEventPublisher;
+        this(capacity, 0, metricsEventPublisher);
+    }
+
+    /**
+     * @param maxBytes maximum estimated size of the queued events, 0 means that the size is not limited
+     */
+    public StreamEventQueue(int capacity, long maxBytes, MetricsEventPublisher metricsEventPublisher) {
+        this(capacity, maxBytes, metricsEventPublisher, OCCUPANCY_SAMPLE_INTERVAL);
+    }
 
-        this.metricsEventPublisher.publishMetricEvent(
-                new SpannerEventQueueUpdateEvent(queue.remainingCapacity() + queue.size(), queue.remainingCapacity()));
+    @VisibleForTesting
+    StreamEventQueue(int capacity, MetricsEventPublisher metricsEventPublisher, Duration occupancySampleInterval) {
+        this(capacity, 0, metricsEventPublisher, occupancySampleInterval);
+    }
+
+    @VisibleForTesting
+    StreamEventQueue(int capacity, long maxBytes, MetricsEventPublisher metricsEventPublisher, Duration occupancySampleInterval) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Queue capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Queue max bytes must not be negative: " + maxBytes);
+        }
+        int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.mask = slots - 1;
+        this.buffer = new AtomicReferenceArray<>(slots);
+        this.remainingCapacityMetric = metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY);
+        this.occupancySampleIntervalNanos = occupancySampleInterval.toNanos();
+
+        metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY).set(capacity);
+
+        publishOccupancy(System.nanoTime());
     }
 
     public void put(ChangeStreamEvent changeStreamEvent) throws InterruptedException {
-        this.queue.put(changeStreamEvent);
+        Objects.requireNonNull(changeStreamEvent);
+
+        if (maxBytes > 0) {
+            reserveBytes(changeStreamEvent.getPartitionToken(), changeStreamEvent.getEstimatedSize());
+        }
+
+        long index;
+        try {
+            index = claimSlot();
+        }
+        catch (InterruptedException e) {
+            if (maxBytes > 0) {
+                // No slot is claimed, so the event is never taken and its reserved bytes are released here
+                queuedBytes.addAndGet(-releasePartitionBytes(changeStreamEvent));
+                signalNotFull();
+            }
+            throw e;
+        }
+        buffer.set(slot(index), changeStreamEvent);
 
-        this.metricsEventPublisher.publishMetricEvent(
-                new SpannerEventQueueUpdateEvent(queue.remainingCapacity() + queue.size(), queue.remainingCapacity()));
+        Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
     }
 
+    /**
+     * Waits for an event and removes it from the queue. Must be called only by the consumer thread.
+     */
     public ChangeStreamEvent take() throws InterruptedException {
-        ChangeStreamEvent event = this.queue.take();
+        long index = consumerIndex.get();
+        ChangeStreamEvent event = awaitEvent(index);
 
-        this.metricsEventPublisher.publishMetricEvent(
-                new SpannerEventQueueUpdateEvent(queue.remainingCapacity() + queue.size(), queue.remainingCapacity()));
+        buffer.lazySet(slot(index), null);
+        if (maxBytes > 0) {
+            queuedBytes.addAndGet(-releasePartitionBytes(event));
+        }
+        advanceConsumer(index + 1);
+
+        sampleOccupancy();
 
         return event;
     }
 
+    /**
+     * Waits for at least one event and moves up to {@code maxEvents} available events into the collection.
+     * Must be called only by the consumer thread.
+     *
+     * @return number of drained events
+     */
+    public int drainTo(Collection<? super ChangeStreamEvent> events, int maxEvents) throws InterruptedException {
+        long index = consumerIndex.get();
+        ChangeStreamEvent event = awaitEvent(index);
+
+        int drained = 0;
+        long releasedBytes = 0;
+        do {
+            buffer.lazySet(slot(index), null);
+            if (maxBytes > 0) {
+                releasedBytes += releasePartitionBytes(event);
+            }
+            events.add(event);
+            index++;
+            drained++;
+        } while (drained < maxEvents && (event = buffer.get(slot(index))) != null);
+
+        if (releasedBytes > 0) {
+            queuedBytes.addAndGet(-releasedBytes);
+        }
+        advanceConsumer(index);
+
+        sampleOccupancy();
+
+        return drained;
+    }
+
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * @return estimated size of the queued events, if the queue is bounded by bytes, otherwise 0
+     */
+    public long sizeInBytes() {
+        return queuedBytes.get();
+    }
+
+    private void reserveBytes(String token, long size) throws InterruptedException {
+        if (!tryReserveBytes(token, size, false)) {
+            // A waiting partition takes part in the fair share even if it has no queued events
+            partitionQueuedBytes.putIfAbsent(token, 0L);
+
+            // A partition within its fair share is waiting, so the other partitions stop borrowing
+            boolean withinShare = partitionBytes(token) + size <= fairShare(token);
+            if (withinShare) {
+                starvingPartitions.incrementAndGet();
+            }
+            try {
+                awaitNotFull(() -> tryReserveBytes(token, size, withinShare));
+            }
+            catch (InterruptedException e) {
+                partitionQueuedBytes.remove(token, 0L);
+                throw e;
+            }
+            finally {
+                if (withinShare) {
+                    starvingPartitions.decrementAndGet();
+                }
+            }
+        }
+        // Only the reader of the partition adds its bytes, so the share check above is not raced
+        partitionQueuedBytes.merge(token, size, Long::sum);
+    }
+
+    private boolean tryReserveBytes(String token, long size, boolean starving) {
+        while (true) {
+            long total = queuedBytes.get();
+            if (!canReserveBytes(total, token, size, starving)) {
+                return false;
+            }
+            if (queuedBytes.compareAndSet(total, total + size)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean canReserveBytes(long total, String token, long size, boolean starving) {
+        if (total == 0) {
+            // An event larger than the whole limit is let through, when the queue is empty
+            return true;
+        }
+        if (total + size > maxBytes) {
+            return false;
+        }
+        if (partitionBytes(token) + size <= fairShare(token)) {
+            return true;
+        }
+        return starvingPartitions.get() <= (starving ? 1 : 0);
+    }
+
+    private long fairShare(String token) {
+        int activePartitions = partitionQueuedBytes.size() + (partitionQueuedBytes.containsKey(token) ? 0 : 1);
+        return maxBytes / activePartitions;
+    }
+
+    private long partitionBytes(String token) {
+        return partitionQueuedBytes.getOrDefault(token, 0L);
+    }
+
+    private long releasePartitionBytes(ChangeStreamEvent event) {
+        long size = event.getEstimatedSize();
+        partitionQueuedBytes.computeIfPresent(event.getPartitionToken(), (token, bytes) -> bytes > size ? bytes - size : null);
+        return size;
+    }
+
+    private long claimSlot() throws InterruptedException {
+        int spins = 0;
+        while (true) {
+            long index = producerIndex.get();
+            if (index - consumerIndex.get() < capacity) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    return index;
+                }
+            }
+            else if (++spins > PRODUCER_SPINS) {
+                awaitNotFull(() -> producerIndex.get() - consumerIndex.get() < capacity);
+            }
+            else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void awaitNotFull(BooleanSupplier tryAcquireSpace) throws InterruptedException {
+        notFullLock.lockInterruptibly();
+        try {
+            // The consumer checks the waiting producers after freeing space,
+            // so the queue is checked again after the producer is registered
+            waitingProducers.incrementAndGet();
+            try {
+                while (!tryAcquireSpace.getAsBoolean()) {
+                    notFull.await();
+                }
+            }
+            finally {
+                waitingProducers.decrementAndGet();
+            }
+        }
+        finally {
+            notFullLock.unlock();
+        }
+    }
+
+    private void advanceConsumer(long index) {
+        consumerIndex.set(index);
+
+        signalNotFull();
+    }
+
+    private void signalNotFull() {
+        if (waitingProducers.get() > 0) {
+            notFullLock.lock();
+            try {
+                notFull.signalAll();
+            }
+            finally {
+                notFullLock.unlock();
+            }
+        }
+    }
+
+    private ChangeStreamEvent awaitEvent(long index) throws InterruptedException {
+        int slot = slot(index);
+        ChangeStreamEvent event = buffer.get(slot);
+        if (event != null) {
+            return event;
+        }
+
+        // A producer checks the parked consumer after publishing its event,
+        // so the slot is checked again after the consumer is registered
+        parkedConsumer = Thread.currentThread();
+        try {
+            while ((event = buffer.get(slot)) == null) {
+                if (producerIndex.get() > index) {
+                    // The slot is claimed, but the producer has not published the event yet
+                    Thread.yield();
+                    continue;
+                }
+                LockSupport.parkNanos(this, occupancySampleIntervalNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                sampleOccupancy();
+            }
+        }
+        finally {
+            parkedConsumer = null;
+        }
+        return event;
+    }
+
+    private void sampleOccupancy() {
+        long now = System.nanoTime();
+        if (now - lastOccupancySampleNanos >= occupancySampleIntervalNanos) {
+            publishOccupancy(now);
+        }
+    }
+
+    private void publishOccupancy(long now) {
+        lastOccupancySampleNanos = now;
+        remainingCapacityMetric.set(remainingCapacity());
+    }
+
+    private int slot(long index) {
+        return (int) index & mask;
+    }
 }
@@ -17,8 +17,10 @@ import io.debezium.config.CommonConnectorConfig;
 import io.debezium.config.ConfigDefinition;
 import io.debezium.config.Configuration;
 import io.debezium.config.Field;
+import io.debezium.connector.spanner.BeforeImageMode;
 import io.debezium.connector.spanner.SpannerSourceInfoStructMaker;
 import io.debezium.connector.spanner.config.validation.FieldValidator;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
 import io.debezium.heartbeat.Heartbeat;
 import io.debezium.schema.AbstractTopicNamingStrategy;
 
@@ -48,15 +50,22 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
     protected static final String GCP_SPANNER_CREDENTIALS_PATH_PROPERTY_NAME = "gcp.spanner.credentials.path";
     protected static final String GCP_SPANNER_CREDENTIALS_JSON_PROPERTY_NAME = "gcp.spanner.credentials.json";
     private static final String STREAM_EVENT_QUEUE_CAPACITY_PROPERTY_NAME = "gcp.spanner.stream.event.queue.capacity";
+    private static final String STREAM_EVENT_QUEUE_MAX_BYTES_PROPERTY_NAME = "gcp.spanner.stream.event.queue.max.bytes";
 
     private static final String TASK_STATE_CHANGE_EVENT_QUEUE_CAPACITY_PROPERTY_NAME = "connector.spanner.task.state.change.event.queue.capacity";
 
     private static final String VALUE_CAPTURE_MODE_PROPERTY_NAME = "gcp.spanner.value.capture.mode";
 
+    private static final String BEFORE_IMAGE_MODE_PROPERTY_NAME = "gcp.spanner.before.image.mode";
+
     private static final String TABLE_EXCLUDE_LIST_PROPERTY_NAME = "table.exclude.list";
 
     private static final String TABLE_INCLUDE_LIST_PROPERTY_NAME = "table.include.list";
 
+    private static final String COLUMN_EXCLUDE_LIST_PROPERTY_NAME = "column.exclude.list";
+
+    private static final String COLUMN_INCLUDE_LIST_PROPERTY_NAME = "column.include.list";
+
     private static final String CONNECTOR_SPANNER_SYNC_TOPIC_PROPERTY_NAME = "connector.spanner.sync.topic";
     private static final String CONNECTOR_SPANNER_REBALANCING_TOPIC_PROPERTY_NAME = "connector.spanner.rebalancing.topic";
     private static final String CONNECTOR_SPANNER_REBALANCING_POLL_DURATION_PROPERTY_NAME = "connector.spanner.rebalancing.poll.duration";
@@ -81,11 +90,19 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
 
     private static final String CONNECTOR_SPANNER_REBALANCING_TASK_WAITING_TIMEOUT_PROPERTY_NAME = "connector.spanner.rebalancing.task.wait.timeout";
     private static final String CONNECTOR_SPANNER_SYNC_EVENT_PUBLISH_WAITING_TIMEOUT_PROPERTY_NAME = "connector.spanner.sync.publisher.wait.timeout";
+    private static final String CONNECTOR_SPANNER_SYNC_DELTA_SNAPSHOT_INTERVAL_PROPERTY_NAME = "connector.spanner.sync.delta.snapshot.interval";
+    private static final String CONNECTOR_SPANNER_SYNC_EVENT_FORMAT_PROPERTY_NAME = "connector.spanner.sync.event.format";
     private static final String CONNECTOR_SPANNER_TASK_AWAIT_INITIALIZATION_TIMEOUT_PROPERTY_NAME = "connector.spanner.task.await.initialization.timeout";
     private static final String CONNECTOR_SPANNER_TASK_AWAIT_TASK_ANSWER_TIMEOUT_PROPERTY_NAME = "connector.spanner.task.await.task.answer.timeout";
 
     private static final String MAX_MISSED_HEARTBEATS_PROPERTY_NAME = "connector.spanner.max.missed.heartbeats";
 
+    private static final String MAX_CONCURRENT_PARTITION_QUERIES_PROPERTY_NAME = "connector.spanner.max.concurrent.partition.queries";
+
+    private static final String STREAM_DECODE_THREADS_PROPERTY_NAME = "connector.spanner.stream.decode.threads";
+    private static final String STREAM_DECODE_BUFFER_SIZE_PROPERTY_NAME = "connector.spanner.stream.decode.buffer.size";
+    private static final String PROCESSING_WORKERS_PROPERTY_NAME = "connector.spanner.processing.workers";
+
     private static final String MAX_TASKS_PROPERTY_NAME = "tasks.max";
     private static final String MIN_TASKS_PROPERTY_NAME = "tasks.min";
     private static final String DESIRED_PARTITIONS_TASKS_PROPERTY_NAME = "tasks.desired.partitions";
@@ -101,6 +118,7 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
     public static final String KAFKA_INTERNAL_CLIENT_CONFIG_PREFIX = "kafka.internal.client.";
 
     private static final String PERCENTAGE_METRICS_CLEAR_INTERVAL_PROPERTY_NAME = "connector.spanner.metrics.percentage.clear.interval";
+    private static final String LATENCY_HEADERS_ENABLED_PROPERTY_NAME = "connector.spanner.metrics.latency.headers.enabled";
     private static final String TASKS_FAIL_OVERLOADED_PROPERTY_NAME = "tasks.fail.overloaded";
     private static final String TASKS_FAIL_OVERLOADED_CHECK_INTERVAL_PROPERTY_NAME = "tasks.fail.overloaded.check.interval";
 
@@ -213,6 +231,18 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withValidation(Field::isPositiveInteger)
             .withDescription("Change stream event queue capacity");
 
+    public static final Field STREAM_EVENT_QUEUE_MAX_BYTES = Field.create(STREAM_EVENT_QUEUE_MAX_BYTES_PROPERTY_NAME)
+            .withDisplayName("Change steam queue max bytes")
+            .withType(Type.LONG)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTOR, 4))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.MEDIUM)
+            .withDefault(0L)
+            .withValidation(Field::isNonNegativeLong)
+            .withDescription("Maximum estimated size in bytes of the change stream events in the queue. "
+                    + "Each partition gets a fair share of it and can borrow the unused shares of the other partitions. "
+                    + "0 means that the queue is bounded only by its capacity");
+
     public static final Field TASK_STATE_CHANGE_EVENT_QUEUE_CAPACITY = Field.create(TASK_STATE_CHANGE_EVENT_QUEUE_CAPACITY_PROPERTY_NAME)
             .withDisplayName("Task state change event queue capacity")
             .withType(Type.INT)
@@ -275,6 +305,50 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withDefault(10)
             .withValidation(Field::isNonNegativeInteger);
 
+    protected static final Field MAX_CONCURRENT_PARTITION_QUERIES = Field.create(MAX_CONCURRENT_PARTITION_QUERIES_PROPERTY_NAME)
+            .withDisplayName("Maximum concurrent partition queries")
+            .withType(Type.INT)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTION_ADVANCED, 0))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDescription("Maximum number of change stream partitions queried concurrently by a single task. " +
+                    "Other partitions wait in a FIFO queue until a running query completes. 0 means no limit")
+            .withDefault(0)
+            .withValidation(Field::isNonNegativeInteger);
+
+    protected static final Field STREAM_DECODE_THREADS = Field.create(STREAM_DECODE_THREADS_PROPERTY_NAME)
+            .withDisplayName("Change stream decode threads")
+            .withType(Type.INT)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTION_ADVANCED, 0))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDescription("Number of threads shared by all partitions of a task, which map change stream rows into events. " +
+                    "If greater than 0, partition threads only read rows from Spanner and the mapping is pipelined. " +
+                    "0 means rows are mapped on the partition threads")
+            .withDefault(0)
+            .withValidation(Field::isNonNegativeInteger);
+
+    protected static final Field STREAM_DECODE_BUFFER_SIZE = Field.create(STREAM_DECODE_BUFFER_SIZE_PROPERTY_NAME)
+            .withDisplayName("Change stream decode buffer size")
+            .withType(Type.INT)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTION_ADVANCED, 0))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDescription("Maximum number of change stream rows of a single partition, which are read but not yet mapped into events")
+            .withDefault(64)
+            .withValidation(Field::isPositiveInteger);
+
+    protected static final Field PROCESSING_WORKERS = Field.create(PROCESSING_WORKERS_PROPERTY_NAME)
+            .withDisplayName("Number of processing workers")
+            .withType(Type.INT)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTION_ADVANCED, 0))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDescription("Number of threads, which process change stream events of a task. "
+                    + "Events are sharded by partition token, so the events of a partition are processed in order by the same thread")
+            .withDefault(1)
+            .withValidation(Field::isPositiveInteger);
+
     private static final Field VALUE_CAPTURE_MODE = Field.create(VALUE_CAPTURE_MODE_PROPERTY_NAME)
             .withDisplayName("Value capture mode")
             .withType(Type.STRING)
@@ -285,6 +359,18 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withDefault("OLD_AND_NEW_VALUES")
             .withDescription("Value capture mode");
 
+    protected static final Field BEFORE_IMAGE_MODE = Field.create(BEFORE_IMAGE_MODE_PROPERTY_NAME)
+            .withDisplayName("Before image mode")
+            .withType(Type.STRING)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTOR_ADVANCED, 1))
+            .withWidth(Width.SHORT)
+            .withImportance(ConfigDef.Importance.LOW)
+            .withValidation(FieldValidator::isCorrectBeforeImageMode)
+            .withDefault(BeforeImageMode.FULL.name())
+            .withDescription("Columns of the old row emitted in the before field of UPDATE and DELETE records: "
+                    + "FULL emits all columns, KEYS_ONLY emits the primary key columns only and NONE omits the before field. "
+                    + "The old values are not parsed with KEYS_ONLY and NONE");
+
     protected static final Field TABLE_INCLUDE_LIST = Field.create(TABLE_INCLUDE_LIST_PROPERTY_NAME)
             .withDisplayName("Include Tables")
             .withType(Type.LIST)
@@ -303,6 +389,26 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withValidation(Field::isListOfRegex)
             .withDescription("A comma-separated list of regular expressions that match the fully-qualified names of tables to be excluded from monitoring");
 
+    protected static final Field COLUMN_INCLUDE_LIST = Field.create(COLUMN_INCLUDE_LIST_PROPERTY_NAME)
+            .withDisplayName("Include Columns")
+            .withType(Type.LIST)
+            .withGroup(Field.createGroupEntry(Field.Group.FILTERS, 2))
+            .withWidth(Width.LONG)
+            .withImportance(Importance.MEDIUM)
+            .withValidation(Field::isListOfRegex)
+            .withDescription("A comma-separated list of regular expressions that match the fully-qualified names of columns "
+                    + "(<table>.<column>) to be included in the change event values. Primary key columns are always included");
+
+    protected static final Field COLUMN_EXCLUDE_LIST = Field.create(COLUMN_EXCLUDE_LIST_PROPERTY_NAME)
+            .withDisplayName("Exclude Columns")
+            .withType(Type.LIST)
+            .withGroup(Field.createGroupEntry(Field.Group.FILTERS, 3))
+            .withWidth(Width.LONG)
+            .withImportance(Importance.MEDIUM)
+            .withValidation(Field::isListOfRegex)
+            .withDescription("A comma-separated list of regular expressions that match the fully-qualified names of columns "
+                    + "(<table>.<column>) to be excluded from the change event values. Primary key columns are always included");
+
     protected static final Field SYNC_TOPIC = Field.create(CONNECTOR_SPANNER_SYNC_TOPIC_PROPERTY_NAME)
             .withDisplayName("Sync Topic Prefix")
             .withType(Type.STRING)
@@ -545,6 +651,30 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withDefault(5)
             .withDescription("Connector rebalancing task waiting timeout, default 5 ms");
 
+    protected static final Field SYNC_DELTA_SNAPSHOT_INTERVAL = Field.create(CONNECTOR_SPANNER_SYNC_DELTA_SNAPSHOT_INTERVAL_PROPERTY_NAME)
+            .withDisplayName("Sync Event delta snapshot interval")
+            .withType(Type.INT)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTOR, 17))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDefault(0)
+            .withValidation(Field::isNonNegativeInteger)
+            .withDescription("If greater than 0, a task publishes only the changes of its state to the Sync topic "
+                    + "and its full state after the given number of changes. "
+                    + "All tasks of the connector must support the delta messages, default 0 (always the full state)");
+
+    protected static final Field SYNC_EVENT_FORMAT = Field.create(CONNECTOR_SPANNER_SYNC_EVENT_FORMAT_PROPERTY_NAME)
+            .withDisplayName("Sync Event format")
+            .withType(Type.STRING)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTOR, 17))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withValidation(FieldValidator::isCorrectSyncEventFormat)
+            .withDefault(SyncEventFormat.V1.name())
+            .withDescription("Format of the events written to the Sync topic: V1, or V2 with the token dictionary, "
+                    + "uncompressed or compressed by V2_LZ4 and V2_ZSTD. Tasks read all the formats, "
+                    + "so V2 can be enabled after all tasks of the connector are upgraded, default V1");
+
     protected static final Field TASK_AWAIT_INITIALIZATION_TMEOUT = Field.create(CONNECTOR_SPANNER_TASK_AWAIT_INITIALIZATION_TIMEOUT_PROPERTY_NAME)
             .withDisplayName("Task await initialization timeout")
             .withType(Type.INT)
@@ -570,7 +700,21 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
             .withWidth(Width.SHORT)
             .withImportance(Importance.LOW)
             .withDefault(10000)
-            .withDescription("Percentage metrics clear interval");
+            .withDescription("Percentage metrics clear interval. "
+                    + "The percentiles of each latency metric are kept in buckets with 1% relative accuracy, "
+                    + "a copy per recording thread up to 8 copies. The buckets are allocated for the range of the recorded values, "
+                    + "latencies of up to an hour in milliseconds take about 7 KB per copy");
+
+    protected static final Field LATENCY_HEADERS_ENABLED = Field.create(LATENCY_HEADERS_ENABLED_PROPERTY_NAME)
+            .withDisplayName("Latency headers enabled")
+            .withType(Type.BOOLEAN)
+            .withGroup(Field.createGroupEntry(Field.Group.CONNECTOR, 18))
+            .withWidth(Width.SHORT)
+            .withImportance(Importance.LOW)
+            .withDefault(true)
+            .withDescription("Defines if the emit, poll and publish timestamps used for the latency metrics are added "
+                    + "as headers to the records. If disabled, the timestamps are kept by the task until the record is committed, "
+                    + "so the records written to Kafka are smaller, default true");
 
     protected static final Field SYNC_TOPIC_MAX_MESSAGE_BYTES = Field.create(CONNECTOR_SPANNER_SYNC_TOPIC_MAX_MESSAGE_BYTES_PROPERTY_NAME)
             .withDisplayName("Sync topic max message size")
@@ -598,9 +742,15 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
                     SPANNER_HOST,
                     SPANNER_EMULATOR_HOST,
                     STREAM_EVENT_QUEUE_CAPACITY,
+                    STREAM_EVENT_QUEUE_MAX_BYTES,
                     TASK_STATE_CHANGE_EVENT_QUEUE_CAPACITY,
                     VALUE_CAPTURE_MODE,
+                    BEFORE_IMAGE_MODE,
                     SPANNER_HEART_BEAT_INTERVAL,
+                    MAX_CONCURRENT_PARTITION_QUERIES,
+                    STREAM_DECODE_THREADS,
+                    STREAM_DECODE_BUFFER_SIZE,
+                    PROCESSING_WORKERS,
                     TOPIC_DEFAULT_AUTO_CREATION_PARTITIONS_FIELD,
 
                     MAX_BATCH_SIZE,
@@ -616,11 +766,14 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
                     REBALANCING_COMMIT_OFFSETS_INTERVAL_MS,
                     REBALANCING_TASK_WAITING_TIMEOUT,
                     SYNC_EVENT_PUBLISH_WAITING_TIMEOUT,
+                    SYNC_DELTA_SNAPSHOT_INTERVAL,
+                    SYNC_EVENT_FORMAT,
                     TASK_AWAIT_INITIALIZATION_TMEOUT,
                     TASK_AWAIT_ANSWER_TIMEOUT,
                     CONNECTOR_SPANNER_PARTITION_FINISHING_AFTER_COMMIT_FIELD,
                     CONNECTOR_SPANNER_FINISHED_PARTITION_DELETION_DELAY_FIELD,
                     PERCENTAGE_METRICS_CLEAR_INTERVAL,
+                    LATENCY_HEADERS_ENABLED,
 
                     SYNC_TOPIC,
                     SYNC_KAFKA_BOOTSTRAP_SERVERS,
@@ -643,6 +796,8 @@ public abstract class BaseSpannerConnectorConfig extends CommonConnectorConfig {
                     LOGGING_JSON_ENABLED)
             .events(TABLE_EXCLUDE_LIST,
                     TABLE_INCLUDE_LIST,
+                    COLUMN_EXCLUDE_LIST,
+                    COLUMN_INCLUDE_LIST,
                     CUSTOM_CONVERTERS,
                     TOMBSTONES_ON_DELETE,
                     AbstractTopicNamingStrategy.TOPIC_HEARTBEAT_PREFIX,
@@ -0,0 +1,49 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.config;
+
+import java.util.function.Predicate;
+
+import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.db.metadata.TableId;
+import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.function.Predicates;
+
+/**
+ * Checks if table column is included in the change event values.
+ * Columns are matched by the fully-qualified name {@code <table>.<column>},
+ * primary key columns are always included.
+ */
+public class SpannerColumnFilter {
+
+    public static final SpannerColumnFilter INCLUDE_ALL = new SpannerColumnFilter(null, null);
+
+    private final Predicate<String> includePredicate;
+    private final Predicate<String> excludePredicate;
+
+    public SpannerColumnFilter(SpannerConnectorConfig connectorConfig) {
+        this(connectorConfig.columnIncludeList(), connectorConfig.columnExcludeList());
+    }
+
+    private SpannerColumnFilter(String includeList, String excludeList) {
+        this.includePredicate = includeList != null ? Predicates.includes(includeList) : null;
+        this.excludePredicate = excludeList != null ? Predicates.excludes(excludeList) : null;
+    }
+
+    public boolean isIncluded(TableId tableId, Column column) {
+        if (column.isPrimaryKey()) {
+            return true;
+        }
+        if (includePredicate == null && excludePredicate == null) {
+            return true;
+        }
+        String columnName = tableId.getTableName() + "." + column.getName();
+        if (includePredicate != null) {
+            return includePredicate.test(columnName);
+        }
+        return excludePredicate.test(columnName);
+    }
+}
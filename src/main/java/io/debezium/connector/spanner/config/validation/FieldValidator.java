@@ -18,6 +18,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.debezium.config.Configuration;
 import io.debezium.config.Field;
+import io.debezium.connector.spanner.BeforeImageMode;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
 
 /**
  * Validates specific configuration fields
@@ -39,6 +41,10 @@ public class FieldValidator {
 
     private static final String ONLY_OLD_AND_NEW_VALUES_ALLOWED = "Only OLD_AND_NEW_VALUES is allowed";
 
+    private static final String INVALID_BEFORE_IMAGE_MODE_MSG = "Only FULL, KEYS_ONLY and NONE are allowed";
+
+    private static final String INVALID_SYNC_EVENT_FORMAT_MSG = "Only V1, V2, V2_LZ4 and V2_ZSTD are allowed";
+
     private FieldValidator() {
     }
 
@@ -140,6 +146,50 @@ public class FieldValidator {
         return 0;
     }
 
+    /**
+     * Checks config parameter is valid before image mode
+     * @param config Configuration
+     * @param field field
+     * @param problems validation result store
+     * @return 0 if before image mode is valid, 1 if not
+     */
+    public static int isCorrectBeforeImageMode(Configuration config, Field field, Field.ValidationOutput problems) {
+        String value = config.getString(field);
+        if (value == null) {
+            return 0;
+        }
+        for (BeforeImageMode mode : BeforeImageMode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return 0;
+            }
+        }
+        LOGGER.error(VALUE_IS_INVALID_MSG, field, INVALID_BEFORE_IMAGE_MODE_MSG);
+        problems.accept(field, value, INVALID_BEFORE_IMAGE_MODE_MSG);
+        return 1;
+    }
+
+    /**
+     * Checks config parameter is valid sync event format
+     * @param config Configuration
+     * @param field field
+     * @param problems validation result store
+     * @return 0 if sync event format is valid, 1 if not
+     */
+    public static int isCorrectSyncEventFormat(Configuration config, Field field, Field.ValidationOutput problems) {
+        String value = config.getString(field);
+        if (value == null) {
+            return 0;
+        }
+        for (SyncEventFormat format : SyncEventFormat.values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return 0;
+            }
+        }
+        LOGGER.error(VALUE_IS_INVALID_MSG, field, INVALID_SYNC_EVENT_FORMAT_MSG);
+        problems.accept(field, value, INVALID_SYNC_EVENT_FORMAT_MSG);
+        return 1;
+    }
+
     /**
      * Checks config parameter is valid timestamp
      * @param config Configuration
@@ -21,4 +21,13 @@ public interface LowWatermarkProvider {
      *         if any thread has interrupted the current thread.
      */
     Timestamp getLowWatermark() throws InterruptedException;
+
+    /**
+     * Returns the last calculated watermark without blocking
+     * @return Timestamp
+     *         low watermark or null, if it has not been calculated yet
+     */
+    default Timestamp getLastLowWatermark() {
+        return null;
+    }
 }
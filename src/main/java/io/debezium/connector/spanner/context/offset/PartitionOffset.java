@@ -24,6 +24,9 @@ public class PartitionOffset {
 
     private final StreamEventMetadata metadata;
 
+    // The offset map is shared by the records of all mods of a data change event
+    private volatile Map<String, String> offsetMap;
+
     public PartitionOffset(Timestamp offset, StreamEventMetadata metadata) {
         this.offset = offset;
         this.metadata = metadata;
@@ -38,11 +41,24 @@ public class PartitionOffset {
         if (this.offset == null) {
             return null;
         }
+        Map<String, String> offsetMap = this.offsetMap;
+        if (offsetMap == null) {
+            offsetMap = createOffsetMap();
+            this.offsetMap = offsetMap;
+        }
+        return offsetMap;
+    }
+
+    private Map<String, String> createOffsetMap() {
         return Map.of(OFFSET_KEY, offset.toString(),
                 DEBUG_START_TIME_KEY, metadata.getPartitionStartTimestamp().toString(),
                 DEBUG_QUERY_STARTED_AT_KEY, metadata.getQueryStartedAt() != null ? metadata.getQueryStartedAt().toString() : "");
     }
 
+    boolean isOf(Timestamp offset, StreamEventMetadata metadata) {
+        return this.offset == offset && this.metadata == metadata;
+    }
+
     public static Timestamp extractOffset(Map<String, ?> offsets) {
         if (offsets == null) {
             return null;
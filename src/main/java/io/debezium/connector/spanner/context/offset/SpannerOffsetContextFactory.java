@@ -16,6 +16,8 @@ public class SpannerOffsetContextFactory {
 
     private final TransactionContext transactionContext;
 
+    private volatile PartitionOffset lastPartitionOffset;
+
     public SpannerOffsetContextFactory(SourceInfoFactory sourceInfoFactory) {
         this.sourceInfoFactory = sourceInfoFactory;
         this.transactionContext = new TransactionContext();
@@ -23,8 +25,17 @@ public class SpannerOffsetContextFactory {
 
     public SpannerOffsetContext getOffsetContextFromDataChangeEvent(int modNumber, DataChangeEvent dataChangeEvent) throws InterruptedException {
         SourceInfo sourceInfo = sourceInfoFactory.getSourceInfo(modNumber, dataChangeEvent);
-        PartitionOffset partitionOffset = new PartitionOffset(dataChangeEvent.getCommitTimestamp(), dataChangeEvent.getMetadata());
-        return new SpannerOffsetContext(sourceInfo, partitionOffset, transactionContext);
+        return new SpannerOffsetContext(sourceInfo, getPartitionOffset(dataChangeEvent), transactionContext);
+    }
+
+    // The mods of a data change event are processed one after another by the same worker, so the offset of the last event is shared
+    private PartitionOffset getPartitionOffset(DataChangeEvent dataChangeEvent) {
+        PartitionOffset partitionOffset = lastPartitionOffset;
+        if (partitionOffset == null || !partitionOffset.isOf(dataChangeEvent.getCommitTimestamp(), dataChangeEvent.getMetadata())) {
+            partitionOffset = new PartitionOffset(dataChangeEvent.getCommitTimestamp(), dataChangeEvent.getMetadata());
+            lastPartitionOffset = partitionOffset;
+        }
+        return partitionOffset;
     }
 
     public SpannerOffsetContext getOffsetContextFromHeartbeatEvent(HeartbeatEvent heartbeatEvent) {
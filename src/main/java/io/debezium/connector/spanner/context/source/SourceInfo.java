@@ -48,6 +48,8 @@ public class SourceInfo extends BaseSourceInfo {
 
     public static final String LAST_RECORD_IN_TRANSACTION_IN_PARTITION = "is_last_record_in_transaction_in_partition";
 
+    private final SpannerConnectorConfig connectorConfig;
+
     private final String projectId;
     private final String instanceId;
     private final String databaseId;
@@ -87,11 +89,28 @@ public class SourceInfo extends BaseSourceInfo {
                       Long recordSequence, Instant lowWatermark, Long numberRecordsInTransaction,
                       String transactionTag, Boolean isSystemTransaction, String valueCaptureType, String partitionToken,
                       Integer modNumber, Boolean isLastRecordInTransactionInPartition, Long numberOfPartitionsInTransaction) {
+        this(connectorConfig, connectorConfig.projectId(), connectorConfig.instanceId(), connectorConfig.databaseId(),
+                connectorConfig.changeStreamName(), tableName, recordTimestamp, commitTimestamp, readAtTimestamp,
+                serverTransactionId, recordSequence, lowWatermark, numberRecordsInTransaction, transactionTag,
+                isSystemTransaction, valueCaptureType, partitionToken, modNumber, isLastRecordInTransactionInPartition,
+                numberOfPartitionsInTransaction);
+    }
+
+    /**
+     * Takes the connector identity, which is resolved from the configuration once per task
+     */
+    SourceInfo(SpannerConnectorConfig connectorConfig, String projectId, String instanceId, String databaseId,
+               String changeStreamName, String tableName, Instant recordTimestamp,
+               Instant commitTimestamp, Instant readAtTimestamp, String serverTransactionId,
+               Long recordSequence, Instant lowWatermark, Long numberRecordsInTransaction,
+               String transactionTag, Boolean isSystemTransaction, String valueCaptureType, String partitionToken,
+               Integer modNumber, Boolean isLastRecordInTransactionInPartition, Long numberOfPartitionsInTransaction) {
         super(connectorConfig);
-        this.projectId = connectorConfig.projectId();
-        this.instanceId = connectorConfig.instanceId();
-        this.databaseId = connectorConfig.databaseId();
-        this.changeStreamName = connectorConfig.changeStreamName();
+        this.connectorConfig = connectorConfig;
+        this.projectId = projectId;
+        this.instanceId = instanceId;
+        this.databaseId = databaseId;
+        this.changeStreamName = changeStreamName;
         this.tableName = tableName;
         this.recordTimestamp = recordTimestamp;
         this.commitTimestamp = commitTimestamp;
@@ -109,6 +128,19 @@ public class SourceInfo extends BaseSourceInfo {
         this.numberOfPartitionsInTransaction = numberOfPartitionsInTransaction;
     }
 
+    /**
+     * Shares the fields of the data change event with the source info of another mod of the same event
+     */
+    SourceInfo(SourceInfo eventSourceInfo, Integer modNumber) {
+        this(eventSourceInfo.connectorConfig, eventSourceInfo.projectId, eventSourceInfo.instanceId, eventSourceInfo.databaseId,
+                eventSourceInfo.changeStreamName, eventSourceInfo.tableName, eventSourceInfo.recordTimestamp,
+                eventSourceInfo.commitTimestamp, eventSourceInfo.readAtTimestamp, eventSourceInfo.serverTransactionId,
+                eventSourceInfo.recordSequence, eventSourceInfo.lowWatermark, eventSourceInfo.numberRecordsInTransaction,
+                eventSourceInfo.transactionTag, eventSourceInfo.isSystemTransaction, eventSourceInfo.valueCaptureType,
+                eventSourceInfo.partitionToken, modNumber, eventSourceInfo.isLastRecordInTransactionInPartition,
+                eventSourceInfo.numberOfPartitionsInTransaction);
+    }
+
     @Override
     public Instant timestamp() {
         return recordTimestamp;
@@ -7,24 +7,51 @@ package io.debezium.connector.spanner.context.source;
 
 import java.time.Instant;
 
+import com.google.cloud.Timestamp;
+
 import io.debezium.connector.spanner.SpannerConnectorConfig;
 import io.debezium.connector.spanner.context.offset.LowWatermarkProvider;
 import io.debezium.connector.spanner.db.metadata.TableId;
 import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
 
 /**
- * Creates {@link SourceInfo} from the input {@link DataChangeEvent}
+ * Creates {@link SourceInfo} from the input {@link DataChangeEvent}.
+ * <p>
+ * The fields of a data change event are computed once and shared by the source infos of all its mods.
  */
 public class SourceInfoFactory {
     private final SpannerConnectorConfig connectorConfig;
     private final LowWatermarkProvider lowWatermarkProvider;
 
+    // Connector identity, which does not change during the task lifetime
+    private final String projectId;
+    private final String instanceId;
+    private final String databaseId;
+    private final String changeStreamName;
+    private final boolean lowWatermarkEnabled;
+
+    private volatile EventSourceInfo lastEventSourceInfo;
+
     public SourceInfoFactory(SpannerConnectorConfig connectorConfig, LowWatermarkProvider lowWatermarkProvider) {
         this.connectorConfig = connectorConfig;
         this.lowWatermarkProvider = lowWatermarkProvider;
+        this.projectId = connectorConfig.projectId();
+        this.instanceId = connectorConfig.instanceId();
+        this.databaseId = connectorConfig.databaseId();
+        this.changeStreamName = connectorConfig.changeStreamName();
+        this.lowWatermarkEnabled = connectorConfig.isLowWatermarkEnabled();
     }
 
     public SourceInfo getSourceInfo(int modNumber, DataChangeEvent dataChangeEvent) throws InterruptedException {
+        EventSourceInfo eventSourceInfo = lastEventSourceInfo;
+        if (eventSourceInfo == null || eventSourceInfo.event != dataChangeEvent) {
+            eventSourceInfo = new EventSourceInfo(dataChangeEvent, getEventSourceInfo(dataChangeEvent));
+            lastEventSourceInfo = eventSourceInfo;
+        }
+        return new SourceInfo(eventSourceInfo.sourceInfo, modNumber);
+    }
+
+    private SourceInfo getEventSourceInfo(DataChangeEvent dataChangeEvent) throws InterruptedException {
         Instant commitTimestamp = dataChangeEvent.getCommitTimestamp().toSqlTimestamp().toInstant();
         Instant recordTimestamp = dataChangeEvent.getRecordTimestamp().toSqlTimestamp().toInstant();
         Instant readAtTimestamp = dataChangeEvent.getMetadata().getRecordReadAt().toSqlTimestamp().toInstant();
@@ -38,29 +65,45 @@ public class SourceInfoFactory {
         boolean isLastRecordInTransactionInPartition = dataChangeEvent.isLastRecordInTransactionInPartition();
         long numberOfPartitionsInTransaction = dataChangeEvent.getNumberOfPartitionsInTransaction();
 
-        Instant lowWatermark = null;
-
-        if (connectorConfig.isLowWatermarkEnabled()) {
-            lowWatermark = lowWatermarkProvider.getLowWatermark().toSqlTimestamp().toInstant();
-        }
+        Instant lowWatermark = getLowWatermark();
 
-        return new SourceInfo(connectorConfig, dataChangeEvent.getTableName(), recordTimestamp, commitTimestamp,
+        return new SourceInfo(connectorConfig, projectId, instanceId, databaseId, changeStreamName,
+                dataChangeEvent.getTableName(), recordTimestamp, commitTimestamp,
                 readAtTimestamp, serverTransactionId, recordSequence, lowWatermark, numberRecordInTransaction,
-                transactionTag, systemTransaction, valueCaptureType, partitionToken, modNumber,
+                transactionTag, systemTransaction, valueCaptureType, partitionToken, null,
                 isLastRecordInTransactionInPartition, numberOfPartitionsInTransaction);
     }
 
     public SourceInfo getSourceInfoForLowWatermarkStamp(TableId tableId) throws InterruptedException {
 
-        Instant lowWatermark = null;
-
-        if (connectorConfig.isLowWatermarkEnabled()) {
-            lowWatermark = lowWatermarkProvider.getLowWatermark().toSqlTimestamp().toInstant();
-        }
+        Instant lowWatermark = getLowWatermark();
 
-        return new SourceInfo(connectorConfig, tableId.getTableName(), null, null,
+        return new SourceInfo(connectorConfig, projectId, instanceId, databaseId, changeStreamName,
+                tableId.getTableName(), null, null,
                 null, null, null, lowWatermark, null,
                 null, null, null, null, null,
                 null, null);
     }
+
+    private Instant getLowWatermark() throws InterruptedException {
+        if (!lowWatermarkEnabled) {
+            return null;
+        }
+        Timestamp lowWatermark = lowWatermarkProvider.getLastLowWatermark();
+        if (lowWatermark == null) {
+            // Waits only until the first low watermark is calculated
+            lowWatermark = lowWatermarkProvider.getLowWatermark();
+        }
+        return lowWatermark.toSqlTimestamp().toInstant();
+    }
+
+    private static final class EventSourceInfo {
+        private final DataChangeEvent event;
+        private final SourceInfo sourceInfo;
+
+        private EventSourceInfo(DataChangeEvent event, SourceInfo sourceInfo) {
+            this.event = event;
+            this.sourceInfo = sourceInfo;
+        }
+    }
 }
@@ -12,6 +12,7 @@ import com.google.cloud.spanner.Options;
 
 import io.debezium.connector.spanner.db.dao.ChangeStreamDao;
 import io.debezium.connector.spanner.db.mapper.ChangeStreamRecordMapper;
+import io.debezium.connector.spanner.db.stream.PartitionThreadPool;
 import io.debezium.connector.spanner.db.stream.SpannerChangeStream;
 import io.debezium.connector.spanner.db.stream.SpannerChangeStreamService;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
@@ -39,6 +40,12 @@ public class SpannerChangeStreamFactory {
 
     public SpannerChangeStream getStream(
                                          String changeStreamName, Duration heartbeatMillis, int maxMissedHeartbeats) {
+        return getStream(changeStreamName, heartbeatMillis, maxMissedHeartbeats, PartitionThreadPool.UNLIMITED, 0, 0);
+    }
+
+    public SpannerChangeStream getStream(
+                                         String changeStreamName, Duration heartbeatMillis, int maxMissedHeartbeats,
+                                         int maxConcurrentPartitionQueries, int decodeThreads, int decodeBufferSize) {
 
         ChangeStreamDao changeStreamDao = daoFactory.getStreamDao(
                 changeStreamName,
@@ -48,9 +55,11 @@ public class SpannerChangeStreamFactory {
         ChangeStreamRecordMapper changeStreamRecordMapper = new ChangeStreamRecordMapper(databaseClientFactory.getDatabaseClient());
 
         SpannerChangeStreamService streamService = new SpannerChangeStreamService(
-                taskUid, changeStreamDao, changeStreamRecordMapper, heartbeatMillis, metricsEventPublisher);
+                taskUid, changeStreamDao, changeStreamRecordMapper, heartbeatMillis, metricsEventPublisher,
+                decodeThreads, decodeBufferSize);
 
         return new SpannerChangeStream(
-                streamService, metricsEventPublisher, heartbeatMillis, maxMissedHeartbeats, taskUid, databaseClientFactory);
+                streamService, metricsEventPublisher, heartbeatMillis, maxMissedHeartbeats, taskUid, databaseClientFactory,
+                maxConcurrentPartitionQueries);
     }
 }
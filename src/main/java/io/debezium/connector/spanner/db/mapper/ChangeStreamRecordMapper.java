@@ -9,10 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -22,16 +19,13 @@ import com.google.cloud.spanner.Dialect;
 import com.google.cloud.spanner.Struct;
 import com.google.cloud.spanner.Type;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Sets;
-import com.google.protobuf.InvalidProtocolBufferException;
-import com.google.protobuf.Value;
-import com.google.protobuf.util.JsonFormat;
 
 import io.debezium.connector.spanner.db.dao.ChangeStreamResultSet;
 import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
 import io.debezium.connector.spanner.db.mapper.parser.ColumnTypeParser;
 import io.debezium.connector.spanner.db.model.ChildPartition;
 import io.debezium.connector.spanner.db.model.InitialPartition;
+import io.debezium.connector.spanner.db.model.LazyJsonNode;
 import io.debezium.connector.spanner.db.model.Mod;
 import io.debezium.connector.spanner.db.model.ModType;
 import io.debezium.connector.spanner.db.model.Partition;
@@ -50,8 +44,6 @@ import io.debezium.connector.spanner.db.model.schema.ColumnType;
 
 public class ChangeStreamRecordMapper {
 
-    private final JsonFormat.Printer printer;
-    private final JsonFormat.Parser parser;
     private static final String DATA_CHANGE_RECORD_COLUMN = "data_change_record";
     private static final String HEARTBEAT_RECORD_COLUMN = "heartbeat_record";
     private static final String CHILD_PARTITIONS_RECORD_COLUMN = "child_partitions_record";
@@ -88,28 +80,49 @@ public class ChangeStreamRecordMapper {
 
     private final DatabaseClient databaseClient;
 
+    private final RowTypeCache rowTypeCache = new RowTypeCache();
+
+    private final PostgresChangeStreamRecordDecoder postgresDecoder;
+
+    // The dialect of a database never changes, so it is resolved only once
+    private volatile Dialect dialect;
+
     public ChangeStreamRecordMapper(DatabaseClient databaseClient) {
         this.databaseClient = databaseClient;
-
-        this.printer = JsonFormat.printer().preservingProtoFieldNames()
-                .omittingInsignificantWhitespace();
-        this.parser = JsonFormat.parser().ignoringUnknownFields();
+        this.postgresDecoder = new PostgresChangeStreamRecordDecoder(this, rowTypeCache);
     }
 
     public List<ChangeStreamEvent> toChangeStreamEvents(
                                                         Partition partition, ChangeStreamResultSet resultSet,
                                                         ChangeStreamResultSetMetadata resultSetMetadata) {
         if (this.isPostgres()) {
-            // In PostgresQL, change stream records are returned as JsonB.
-            return Collections.singletonList(
-                    toStreamEventJson(partition, resultSet.getPgJsonb(0), resultSetMetadata));
+            return toChangeStreamEventsFromJson(partition, resultSet.getPgJsonb(0), resultSetMetadata);
         }
-        // In GoogleSQL, change stream records are returned as an array of structs.
-        return resultSet.getCurrentRowAsStruct().getStructList(0).stream()
+        return toChangeStreamEvents(partition, resultSet.getCurrentRowAsStruct(), resultSetMetadata);
+    }
+
+    /**
+     * Maps an already fetched GoogleSQL change stream row,
+     * change stream records are returned as an array of structs.
+     */
+    public List<ChangeStreamEvent> toChangeStreamEvents(
+                                                        Partition partition, Struct row,
+                                                        ChangeStreamResultSetMetadata resultSetMetadata) {
+        return row.getStructList(0).stream()
                 .flatMap(struct -> toStreamEvent(partition, struct, resultSetMetadata))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Maps an already fetched PostgreSQL change stream row,
+     * change stream records are returned as JsonB.
+     */
+    public List<ChangeStreamEvent> toChangeStreamEventsFromJson(
+                                                                Partition partition, String row,
+                                                                ChangeStreamResultSetMetadata resultSetMetadata) {
+        return Collections.singletonList(toStreamEventJson(partition, row, resultSetMetadata));
+    }
+
     Stream<ChangeStreamEvent> toStreamEvent(Partition partition, Struct row,
                                             ChangeStreamResultSetMetadata resultSetMetadata) {
         final Stream<DataChangeEvent> dataChangeEvents = row.getStructList(DATA_CHANGE_RECORD_COLUMN).stream()
@@ -131,88 +144,7 @@ public class ChangeStreamRecordMapper {
 
     ChangeStreamEvent toStreamEventJson(
                                         Partition partition, String row, ChangeStreamResultSetMetadata resultSetMetadata) {
-        Value.Builder valueBuilder = Value.newBuilder();
-        try {
-            this.parser.merge(row, valueBuilder);
-        }
-        catch (InvalidProtocolBufferException exc) {
-            throw new IllegalArgumentException("Failed to parse record into proto: " + row);
-        }
-        Value value = valueBuilder.build();
-        if (isNonNullDataChangeRecordJson(value)) {
-            return toDataChangeEventJson(partition, value, resultSetMetadata);
-        }
-        else if (isNonNullHeartbeatRecordJson(value)) {
-            return toHeartbeatRecordJson(partition, value, resultSetMetadata);
-        }
-        else if (isNonNullChildPartitionsRecordJson(value)) {
-            return toChildPartitionsRecordJson(partition, value, resultSetMetadata);
-        }
-        else {
-            throw new IllegalArgumentException("Unknown change stream record type " + row);
-        }
-    }
-
-    private HeartbeatEvent toHeartbeatRecordJson(
-                                                 Partition partition, Value row, ChangeStreamResultSetMetadata resultSetMetadata) {
-        Value heartBeatRecordValue = Optional.ofNullable(
-                row.getStructValue().getFieldsMap().get(HEARTBEAT_RECORD_COLUMN))
-                .orElseThrow(IllegalArgumentException::new);
-        Map<String, Value> valueMap = heartBeatRecordValue.getStructValue().getFieldsMap();
-        String heartbeatTimestamp = Optional.ofNullable(valueMap.get(TIMESTAMP_COLUMN))
-                .orElseThrow(IllegalArgumentException::new)
-                .getStringValue();
-
-        return new HeartbeatEvent(
-                Timestamp.parseTimestamp(heartbeatTimestamp),
-                streamEventMetadataFrom(
-                        partition, Timestamp.parseTimestamp(heartbeatTimestamp), resultSetMetadata));
-    }
-
-    private ChildPartitionsEvent toChildPartitionsRecordJson(
-                                                             Partition partition, Value row, ChangeStreamResultSetMetadata resultSetMetadata) {
-        Value childPartitionsRecordValue = Optional.ofNullable(
-                row.getStructValue().getFieldsMap().get(CHILD_PARTITIONS_RECORD_COLUMN))
-                .orElseThrow(IllegalArgumentException::new);
-        Map<String, Value> valueMap = childPartitionsRecordValue.getStructValue().getFieldsMap();
-        String startTimestamp = Optional.ofNullable(valueMap.get(START_TIMESTAMP_COLUMN))
-                .orElseThrow(IllegalArgumentException::new)
-                .getStringValue();
-
-        return new ChildPartitionsEvent(
-                Timestamp.parseTimestamp(startTimestamp),
-                Optional.ofNullable(valueMap.get(RECORD_SEQUENCE_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                Optional.ofNullable(valueMap.get(CHILD_PARTITIONS_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new).getListValue().getValuesList().stream()
-                        .map(value -> childPartitionJsonFrom(partition.getToken(), value))
-                        .collect(Collectors.toList()),
-                streamEventMetadataFrom(
-                        partition, Timestamp.parseTimestamp(startTimestamp), resultSetMetadata));
-    }
-
-    private ChildPartition childPartitionJsonFrom(String partitionToken, Value row) {
-        Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
-        final HashSet<String> parentTokens = Sets.newHashSet();
-        for (Value parentToken : Optional.ofNullable(valueMap.get(PARENT_PARTITION_TOKENS_COLUMN))
-                .orElseThrow(IllegalArgumentException::new)
-                .getListValue()
-                .getValuesList()) {
-            parentTokens.add(parentToken.getStringValue());
-        }
-        if (InitialPartition.isInitialPartition(partitionToken)) {
-            parentTokens.add(partitionToken);
-        }
-        return new ChildPartition(
-                Optional.ofNullable(valueMap.get(TOKEN_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                parentTokens);
-    }
-
-    private boolean isNonNullDataChangeRecordJson(Value row) {
-        return row.getStructValue().getFieldsMap().containsKey(DATA_CHANGE_RECORD_COLUMN);
+        return postgresDecoder.decode(partition, row, resultSetMetadata);
     }
 
     boolean isNonNullDataChangeRecord(Struct row) {
@@ -227,27 +159,21 @@ public class ChangeStreamRecordMapper {
         return !row.isNull(START_TIMESTAMP_COLUMN);
     }
 
-    private boolean isNonNullHeartbeatRecordJson(Value row) {
-        return row.getStructValue().getFieldsMap().containsKey(HEARTBEAT_RECORD_COLUMN);
-    }
-
-    private boolean isNonNullChildPartitionsRecordJson(Value row) {
-        return row.getStructValue().getFieldsMap().containsKey(CHILD_PARTITIONS_RECORD_COLUMN);
-    }
-
     DataChangeEvent toDataChangeEvent(Partition partition, Struct row,
                                       ChangeStreamResultSetMetadata resultSetMetadata) {
         final Timestamp commitTimestamp = row.getTimestamp(COMMIT_TIMESTAMP_COLUMN);
+        final String tableName = row.getString(TABLE_NAME_COLUMN);
+        final List<Struct> columnTypes = row.getStructList(COLUMN_TYPES_COLUMN);
         return new DataChangeEvent(
                 partition.getToken(),
                 commitTimestamp,
                 row.getString(SERVER_TRANSACTION_ID_COLUMN),
                 row.getBoolean(IS_LAST_RECORD_IN_TRANSACTION_IN_PARTITION_COLUMN),
                 row.getString(RECORD_SEQUENCE_COLUMN),
-                row.getString(TABLE_NAME_COLUMN),
-                row.getStructList(COLUMN_TYPES_COLUMN).stream()
+                tableName,
+                rowTypeCache.intern(tableName, columnTypes, () -> columnTypes.stream()
                         .map(this::columnTypeFrom)
-                        .collect(Collectors.toList()),
+                        .collect(Collectors.toList())),
                 modListFrom(row.getStructList(MODS_COLUMN)),
                 modTypeFrom(row.getString(MOD_TYPE_COLUMN)),
                 valueCaptureTypeFrom(row.getString(VALUE_CAPTURE_TYPE_COLUMN)),
@@ -258,118 +184,6 @@ public class ChangeStreamRecordMapper {
                 streamEventMetadataFrom(partition, commitTimestamp, resultSetMetadata));
     }
 
-    DataChangeEvent toDataChangeEventJson(Partition partition, Value row,
-                                          ChangeStreamResultSetMetadata resultSetMetadata) {
-        Value dataChangeRecordValue = Optional.ofNullable(
-                row.getStructValue().getFieldsMap().get(DATA_CHANGE_RECORD_COLUMN))
-                .orElseThrow(IllegalArgumentException::new);
-        Map<String, Value> valueMap = dataChangeRecordValue.getStructValue().getFieldsMap();
-        final String commitTimestamp = Optional.ofNullable(valueMap.get(COMMIT_TIMESTAMP_COLUMN))
-                .orElseThrow(IllegalArgumentException::new)
-                .getStringValue();
-        AtomicInteger modIndex = new AtomicInteger();
-        List<Mod> mods = Optional.ofNullable(valueMap.get(MODS_COLUMN))
-                .orElseThrow(IllegalArgumentException::new)
-                .getListValue().getValuesList().stream()
-                .map(mod -> {
-                    modIndex.getAndIncrement();
-                    return modJsonFrom(mod, modIndex.get());
-                })
-                .collect(Collectors.toList());
-        return new DataChangeEvent(
-                partition.getToken(),
-                Timestamp.parseTimestamp(commitTimestamp),
-                Optional.ofNullable(valueMap.get(SERVER_TRANSACTION_ID_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                Optional.ofNullable(valueMap.get(IS_LAST_RECORD_IN_TRANSACTION_IN_PARTITION_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getBoolValue(),
-                Optional.ofNullable(valueMap.get(RECORD_SEQUENCE_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                Optional.ofNullable(valueMap.get(TABLE_NAME_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                Optional.ofNullable(valueMap.get(COLUMN_TYPES_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new).getListValue().getValuesList().stream()
-                        .map(this::columnTypeJsonFrom)
-                        .collect(Collectors.toList()),
-                mods,
-                modTypeFrom(
-                        Optional.ofNullable(valueMap.get(MOD_TYPE_COLUMN))
-                                .orElseThrow(IllegalArgumentException::new)
-                                .getStringValue()),
-                valueCaptureTypeFrom(
-                        Optional.ofNullable(valueMap.get(VALUE_CAPTURE_TYPE_COLUMN))
-                                .orElseThrow(IllegalArgumentException::new)
-                                .getStringValue()),
-                (long) Optional.ofNullable(valueMap.get(NUMBER_OF_RECORDS_IN_TRANSACTION_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getNumberValue(),
-                (long) Optional.ofNullable(valueMap.get(NUMBER_OF_PARTITIONS_IN_TRANSACTION_COLUMN))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getNumberValue(),
-                Optional.ofNullable(valueMap.get(TRANSACTION_TAG))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getStringValue(),
-                Optional.ofNullable(valueMap.get(SYSTEM_TRANSACTION))
-                        .orElseThrow(IllegalArgumentException::new)
-                        .getBoolValue(),
-                streamEventMetadataFrom(
-                        partition, Timestamp.parseTimestamp(commitTimestamp), resultSetMetadata));
-    }
-
-    private Column columnTypeJsonFrom(Value row) {
-        Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
-        try {
-            String type = this.printer.print(
-                    Optional.ofNullable(valueMap.get(TYPE_COLUMN))
-                            .orElseThrow(IllegalArgumentException::new));
-            final ColumnType columnType = ColumnTypeParser.parse(type);
-            return new Column(
-                    Optional.ofNullable(valueMap.get(NAME_COLUMN))
-                            .orElseThrow(IllegalArgumentException::new)
-                            .getStringValue(),
-                    columnType,
-                    Optional.ofNullable(valueMap.get(IS_PRIMARY_KEY_COLUMN))
-                            .orElseThrow(IllegalArgumentException::new)
-                            .getBoolValue(),
-                    (long) Optional.ofNullable(valueMap.get(ORDINAL_POSITION_COLUMN))
-                            .orElseThrow(IllegalArgumentException::new)
-                            .getNumberValue(),
-                    null);
-        }
-        catch (InvalidProtocolBufferException exc) {
-            throw new IllegalArgumentException("Failed to print type: " + row);
-        }
-    }
-
-    private Mod modJsonFrom(Value row, int modNumber) {
-        try {
-            Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
-            final String keys = this.printer.print(
-                    Optional.ofNullable(valueMap.get(KEYS_COLUMN))
-                            .orElseThrow(IllegalArgumentException::new));
-
-            final String oldValues = !valueMap.containsKey("old_values")
-                    ? null
-                    : this.printer.print(
-                            Optional.ofNullable(valueMap.get(OLD_VALUES_COLUMN))
-                                    .orElseThrow(IllegalArgumentException::new));
-            final String newValues = !valueMap.containsKey("new_values")
-                    ? null
-                    : this.printer.print(
-                            Optional.ofNullable(valueMap.get(NEW_VALUES_COLUMN))
-                                    .orElseThrow(IllegalArgumentException::new));
-            return new Mod(modNumber, MapperUtils.getJsonNode(keys),
-                    MapperUtils.getJsonNode(oldValues), MapperUtils.getJsonNode(newValues));
-        }
-        catch (InvalidProtocolBufferException exc) {
-            throw new IllegalArgumentException("Failed to print mod: " + row);
-        }
-    }
-
     private ValueCaptureType valueCaptureTypeFrom(String name) {
         try {
             return ValueCaptureType.valueOf(name);
@@ -438,7 +252,10 @@ public class ChangeStreamRecordMapper {
         final String keys = getJsonString(struct, KEYS_COLUMN);
         final String oldValues = struct.isNull(OLD_VALUES_COLUMN) ? null : getJsonString(struct, OLD_VALUES_COLUMN);
         final String newValues = struct.isNull(NEW_VALUES_COLUMN) ? null : getJsonString(struct, NEW_VALUES_COLUMN);
-        return new Mod(modNumber, MapperUtils.getJsonNode(keys), MapperUtils.getJsonNode(oldValues), MapperUtils.getJsonNode(newValues));
+        return new Mod(modNumber,
+                LazyJsonNode.of(keys, MapperUtils::getJsonNode),
+                LazyJsonNode.of(oldValues, MapperUtils::getJsonNode),
+                LazyJsonNode.of(newValues, MapperUtils::getJsonNode));
     }
 
     @VisibleForTesting
@@ -482,8 +299,13 @@ public class ChangeStreamRecordMapper {
         }
     }
 
-    private boolean isPostgres() {
-        return this.databaseClient.getDialect() == Dialect.POSTGRESQL;
+    public boolean isPostgres() {
+        Dialect resolved = this.dialect;
+        if (resolved == null) {
+            resolved = this.databaseClient.getDialect();
+            this.dialect = resolved;
+        }
+        return resolved == Dialect.POSTGRESQL;
     }
 
 }
@@ -0,0 +1,562 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.mapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.Timestamp;
+
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
+import io.debezium.connector.spanner.db.mapper.parser.ColumnTypeParser;
+import io.debezium.connector.spanner.db.mapper.parser.ParseException;
+import io.debezium.connector.spanner.db.model.ChildPartition;
+import io.debezium.connector.spanner.db.model.InitialPartition;
+import io.debezium.connector.spanner.db.model.LazyJsonNode;
+import io.debezium.connector.spanner.db.model.Mod;
+import io.debezium.connector.spanner.db.model.ModType;
+import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.ValueCaptureType;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.ChildPartitionsEvent;
+import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
+import io.debezium.connector.spanner.db.model.event.HeartbeatEvent;
+import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.connector.spanner.db.model.schema.ColumnType;
+
+/**
+ * Decodes PostgreSQL change stream records, returned as JsonB,
+ * into specific DTOs in a single pass over the JSON tokens.
+ * <p>
+ * Values are interpreted in the same way as the protobuf {@code Value} representation does:
+ * all JSON numbers are doubles, and a field of an unexpected type has its default value.
+ * Keys and values of mods are kept as raw JSON and parsed only when they are accessed.
+ */
+class PostgresChangeStreamRecordDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+    private static final String DATA_CHANGE_RECORD_COLUMN = "data_change_record";
+    private static final String HEARTBEAT_RECORD_COLUMN = "heartbeat_record";
+    private static final String CHILD_PARTITIONS_RECORD_COLUMN = "child_partitions_record";
+
+    private static final String COMMIT_TIMESTAMP_COLUMN = "commit_timestamp";
+    private static final String SERVER_TRANSACTION_ID_COLUMN = "server_transaction_id";
+    private static final String IS_LAST_RECORD_IN_TRANSACTION_IN_PARTITION_COLUMN = "is_last_record_in_transaction_in_partition";
+    private static final String RECORD_SEQUENCE_COLUMN = "record_sequence";
+    private static final String TABLE_NAME_COLUMN = "table_name";
+    private static final String COLUMN_TYPES_COLUMN = "column_types";
+    private static final String MODS_COLUMN = "mods";
+    private static final String MOD_TYPE_COLUMN = "mod_type";
+    private static final String VALUE_CAPTURE_TYPE_COLUMN = "value_capture_type";
+    private static final String NUMBER_OF_RECORDS_IN_TRANSACTION_COLUMN = "number_of_records_in_transaction";
+    private static final String NUMBER_OF_PARTITIONS_IN_TRANSACTION_COLUMN = "number_of_partitions_in_transaction";
+    private static final String NAME_COLUMN = "name";
+    private static final String TYPE_COLUMN = "type";
+    private static final String IS_PRIMARY_KEY_COLUMN = "is_primary_key";
+    private static final String ORDINAL_POSITION_COLUMN = "ordinal_position";
+    private static final String KEYS_COLUMN = "keys";
+    private static final String OLD_VALUES_COLUMN = "old_values";
+    private static final String NEW_VALUES_COLUMN = "new_values";
+
+    private static final String TIMESTAMP_COLUMN = "timestamp";
+
+    private static final String START_TIMESTAMP_COLUMN = "start_timestamp";
+    private static final String CHILD_PARTITIONS_COLUMN = "child_partitions";
+    private static final String PARENT_PARTITION_TOKENS_COLUMN = "parent_partition_tokens";
+    private static final String TOKEN_COLUMN = "token";
+
+    private static final String TRANSACTION_TAG = "transaction_tag";
+
+    private static final String SYSTEM_TRANSACTION = "is_system_transaction";
+
+    private final ChangeStreamRecordMapper changeStreamRecordMapper;
+    private final RowTypeCache rowTypeCache;
+
+    PostgresChangeStreamRecordDecoder(ChangeStreamRecordMapper changeStreamRecordMapper, RowTypeCache rowTypeCache) {
+        this.changeStreamRecordMapper = changeStreamRecordMapper;
+        this.rowTypeCache = rowTypeCache;
+    }
+
+    ChangeStreamEvent decode(Partition partition, String row, ChangeStreamResultSetMetadata resultSetMetadata) {
+        ChangeStreamEvent dataChangeEvent = null;
+        ChangeStreamEvent heartbeatEvent = null;
+        ChangeStreamEvent childPartitionsEvent = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(row)) {
+            startObject(parser, parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case DATA_CHANGE_RECORD_COLUMN:
+                        dataChangeEvent = dataChangeEvent(parser, token, row, partition, resultSetMetadata);
+                        break;
+                    case HEARTBEAT_RECORD_COLUMN:
+                        heartbeatEvent = heartbeatEvent(parser, token, partition, resultSetMetadata);
+                        break;
+                    case CHILD_PARTITIONS_RECORD_COLUMN:
+                        childPartitionsEvent = childPartitionsEvent(parser, token, partition, resultSetMetadata);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        catch (IOException exc) {
+            throw new IllegalArgumentException("Failed to parse record: " + row, exc);
+        }
+
+        if (dataChangeEvent != null) {
+            return dataChangeEvent;
+        }
+        else if (heartbeatEvent != null) {
+            return heartbeatEvent;
+        }
+        else if (childPartitionsEvent != null) {
+            return childPartitionsEvent;
+        }
+        throw new IllegalArgumentException("Unknown change stream record type " + row);
+    }
+
+    private DataChangeEvent dataChangeEvent(JsonParser parser, JsonToken token, String row, Partition partition,
+                                            ChangeStreamResultSetMetadata resultSetMetadata)
+            throws IOException {
+        startObject(parser, token);
+
+        String commitTimestamp = null;
+        String serverTransactionId = null;
+        Boolean isLastRecordInTransactionInPartition = null;
+        String recordSequence = null;
+        String tableName = null;
+        String columnTypes = null;
+        List<Mod> mods = null;
+        String modType = null;
+        String valueCaptureType = null;
+        Long numberOfRecordsInTransaction = null;
+        Long numberOfPartitionsInTransaction = null;
+        String transactionTag = null;
+        Boolean isSystemTransaction = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case COMMIT_TIMESTAMP_COLUMN:
+                    commitTimestamp = stringValue(parser, valueToken);
+                    break;
+                case SERVER_TRANSACTION_ID_COLUMN:
+                    serverTransactionId = stringValue(parser, valueToken);
+                    break;
+                case IS_LAST_RECORD_IN_TRANSACTION_IN_PARTITION_COLUMN:
+                    isLastRecordInTransactionInPartition = boolValue(parser, valueToken);
+                    break;
+                case RECORD_SEQUENCE_COLUMN:
+                    recordSequence = stringValue(parser, valueToken);
+                    break;
+                case TABLE_NAME_COLUMN:
+                    tableName = stringValue(parser, valueToken);
+                    break;
+                case COLUMN_TYPES_COLUMN:
+                    columnTypes = rawValue(parser, valueToken, row);
+                    break;
+                case MODS_COLUMN:
+                    mods = mods(parser, valueToken, row);
+                    break;
+                case MOD_TYPE_COLUMN:
+                    modType = stringValue(parser, valueToken);
+                    break;
+                case VALUE_CAPTURE_TYPE_COLUMN:
+                    valueCaptureType = stringValue(parser, valueToken);
+                    break;
+                case NUMBER_OF_RECORDS_IN_TRANSACTION_COLUMN:
+                    numberOfRecordsInTransaction = (long) numberValue(parser, valueToken);
+                    break;
+                case NUMBER_OF_PARTITIONS_IN_TRANSACTION_COLUMN:
+                    numberOfPartitionsInTransaction = (long) numberValue(parser, valueToken);
+                    break;
+                case TRANSACTION_TAG:
+                    transactionTag = stringValue(parser, valueToken);
+                    break;
+                case SYSTEM_TRANSACTION:
+                    isSystemTransaction = boolValue(parser, valueToken);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        final Timestamp commitTimestampValue = Timestamp.parseTimestamp(required(commitTimestamp));
+        final String rawColumnTypes = required(columnTypes);
+        final List<Column> rowType = rowTypeCache.intern(required(tableName), rawColumnTypes, () -> parseColumnTypes(rawColumnTypes));
+        return new DataChangeEvent(
+                partition.getToken(),
+                commitTimestampValue,
+                required(serverTransactionId),
+                required(isLastRecordInTransactionInPartition),
+                required(recordSequence),
+                tableName,
+                rowType,
+                required(mods),
+                modTypeFrom(required(modType)),
+                valueCaptureTypeFrom(required(valueCaptureType)),
+                required(numberOfRecordsInTransaction),
+                required(numberOfPartitionsInTransaction),
+                required(transactionTag),
+                required(isSystemTransaction),
+                changeStreamRecordMapper.streamEventMetadataFrom(partition, commitTimestampValue, resultSetMetadata));
+    }
+
+    private List<Column> parseColumnTypes(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return columnTypes(parser, parser.nextToken());
+        }
+        catch (IOException e) {
+            throw new ParseException(json, e);
+        }
+    }
+
+    private List<Column> columnTypes(JsonParser parser, JsonToken token) throws IOException {
+        startArray(parser, token);
+        List<Column> columns = new ArrayList<>();
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            columns.add(column(parser, elementToken));
+        }
+        return columns;
+    }
+
+    private Column column(JsonParser parser, JsonToken token) throws IOException {
+        startObject(parser, token);
+
+        String name = null;
+        ColumnType type = null;
+        Boolean isPrimaryKey = null;
+        Double ordinalPosition = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case NAME_COLUMN:
+                    name = stringValue(parser, valueToken);
+                    break;
+                case TYPE_COLUMN:
+                    type = ColumnTypeParser.parse(parser);
+                    break;
+                case IS_PRIMARY_KEY_COLUMN:
+                    isPrimaryKey = boolValue(parser, valueToken);
+                    break;
+                case ORDINAL_POSITION_COLUMN:
+                    ordinalPosition = numberValue(parser, valueToken);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return new Column(
+                required(name),
+                required(type),
+                required(isPrimaryKey),
+                (long) required(ordinalPosition).doubleValue(),
+                null);
+    }
+
+    private List<Mod> mods(JsonParser parser, JsonToken token, String row) throws IOException {
+        startArray(parser, token);
+        List<Mod> mods = new ArrayList<>();
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            // Mods of PostgreSQL records are numbered starting from 1
+            mods.add(mod(parser, elementToken, row, mods.size() + 1));
+        }
+        return mods;
+    }
+
+    private Mod mod(JsonParser parser, JsonToken token, String row, int modNumber) throws IOException {
+        startObject(parser, token);
+
+        LazyJsonNode keys = null;
+        LazyJsonNode oldValues = null;
+        LazyJsonNode newValues = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case KEYS_COLUMN:
+                    keys = lazyJsonNode(parser, valueToken, row);
+                    break;
+                case OLD_VALUES_COLUMN:
+                    oldValues = lazyJsonNode(parser, valueToken, row);
+                    break;
+                case NEW_VALUES_COLUMN:
+                    newValues = lazyJsonNode(parser, valueToken, row);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return new Mod(modNumber,
+                required(keys),
+                oldValues != null ? oldValues : LazyJsonNode.of(NODE_FACTORY.objectNode()),
+                newValues != null ? newValues : LazyJsonNode.of(NODE_FACTORY.objectNode()));
+    }
+
+    private HeartbeatEvent heartbeatEvent(JsonParser parser, JsonToken token, Partition partition,
+                                          ChangeStreamResultSetMetadata resultSetMetadata)
+            throws IOException {
+        startObject(parser, token);
+
+        String timestamp = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if (TIMESTAMP_COLUMN.equals(field)) {
+                timestamp = stringValue(parser, valueToken);
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+
+        final Timestamp heartbeatTimestamp = Timestamp.parseTimestamp(required(timestamp));
+        return new HeartbeatEvent(
+                heartbeatTimestamp,
+                changeStreamRecordMapper.streamEventMetadataFrom(partition, heartbeatTimestamp, resultSetMetadata));
+    }
+
+    private ChildPartitionsEvent childPartitionsEvent(JsonParser parser, JsonToken token, Partition partition,
+                                                      ChangeStreamResultSetMetadata resultSetMetadata)
+            throws IOException {
+        startObject(parser, token);
+
+        String startTimestamp = null;
+        String recordSequence = null;
+        List<ChildPartition> childPartitions = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case START_TIMESTAMP_COLUMN:
+                    startTimestamp = stringValue(parser, valueToken);
+                    break;
+                case RECORD_SEQUENCE_COLUMN:
+                    recordSequence = stringValue(parser, valueToken);
+                    break;
+                case CHILD_PARTITIONS_COLUMN:
+                    childPartitions = childPartitions(parser, valueToken, partition.getToken());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        final Timestamp startTimestampValue = Timestamp.parseTimestamp(required(startTimestamp));
+        return new ChildPartitionsEvent(
+                startTimestampValue,
+                required(recordSequence),
+                required(childPartitions),
+                changeStreamRecordMapper.streamEventMetadataFrom(partition, startTimestampValue, resultSetMetadata));
+    }
+
+    private List<ChildPartition> childPartitions(JsonParser parser, JsonToken token, String partitionToken) throws IOException {
+        startArray(parser, token);
+        List<ChildPartition> childPartitions = new ArrayList<>();
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            childPartitions.add(childPartition(parser, elementToken, partitionToken));
+        }
+        return childPartitions;
+    }
+
+    private ChildPartition childPartition(JsonParser parser, JsonToken token, String partitionToken) throws IOException {
+        startObject(parser, token);
+
+        String childToken = null;
+        Set<String> parentTokens = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            switch (field) {
+                case TOKEN_COLUMN:
+                    childToken = stringValue(parser, valueToken);
+                    break;
+                case PARENT_PARTITION_TOKENS_COLUMN:
+                    parentTokens = parentTokens(parser, valueToken);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        required(parentTokens);
+        if (InitialPartition.isInitialPartition(partitionToken)) {
+            parentTokens.add(partitionToken);
+        }
+        return new ChildPartition(required(childToken), parentTokens);
+    }
+
+    private Set<String> parentTokens(JsonParser parser, JsonToken token) throws IOException {
+        startArray(parser, token);
+        Set<String> parentTokens = new HashSet<>();
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            parentTokens.add(stringValue(parser, elementToken));
+        }
+        return parentTokens;
+    }
+
+    /**
+     * Captures the raw text of the current value, which is parsed only on the first access.
+     * Objects and arrays are skipped without decoding their content.
+     */
+    private static LazyJsonNode lazyJsonNode(JsonParser parser, JsonToken token, String row) throws IOException {
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            return LazyJsonNode.of(jsonNode(parser, token));
+        }
+        return LazyJsonNode.of(rawValue(parser, token, row), PostgresChangeStreamRecordDecoder::parseJsonNode);
+    }
+
+    /**
+     * Returns the raw text of the current array or object and skips it without decoding the content
+     */
+    private static String rawValue(JsonParser parser, JsonToken token, String row) throws IOException {
+        startContainer(parser, token);
+        int start = (int) parser.getTokenLocation().getCharOffset();
+        parser.skipChildren();
+        int end = (int) parser.getCurrentLocation().getCharOffset();
+        return row.substring(start, end);
+    }
+
+    static JsonNode parseJsonNode(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return jsonNode(parser, parser.nextToken());
+        }
+        catch (IOException e) {
+            throw new ParseException(json, e);
+        }
+    }
+
+    /**
+     * Builds a tree of the current value, numbers are represented as doubles
+     */
+    private static JsonNode jsonNode(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                ObjectNode objectNode = NODE_FACTORY.objectNode();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    objectNode.set(field, jsonNode(parser, parser.nextToken()));
+                }
+                return objectNode;
+            case START_ARRAY:
+                ArrayNode arrayNode = NODE_FACTORY.arrayNode();
+                JsonToken elementToken;
+                while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    arrayNode.add(jsonNode(parser, elementToken));
+                }
+                return arrayNode;
+            case VALUE_STRING:
+                return NODE_FACTORY.textNode(parser.getText());
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return NODE_FACTORY.numberNode(parser.getDoubleValue());
+            case VALUE_TRUE:
+                return NODE_FACTORY.booleanNode(true);
+            case VALUE_FALSE:
+                return NODE_FACTORY.booleanNode(false);
+            case VALUE_NULL:
+                return NODE_FACTORY.nullNode();
+            default:
+                throw new IllegalArgumentException("Unexpected token " + token);
+        }
+    }
+
+    private static String stringValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return "";
+    }
+
+    private static boolean boolValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_TRUE) {
+            return true;
+        }
+        parser.skipChildren();
+        return false;
+    }
+
+    private static double numberValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    private static void startObject(JsonParser parser, JsonToken token) {
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected JSON object, but was " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static void startContainer(JsonParser parser, JsonToken token) {
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected JSON object or array, but was " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static void startArray(JsonParser parser, JsonToken token) {
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected JSON array, but was " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static <T> T required(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        return value;
+    }
+
+    private static ValueCaptureType valueCaptureTypeFrom(String name) {
+        try {
+            return ValueCaptureType.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            // This is not logged to prevent flooding users with messages
+            return ValueCaptureType.UNKNOWN;
+        }
+    }
+
+    private static ModType modTypeFrom(String name) {
+        try {
+            return ModType.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            // This is not logged to prevent flooding users with messages
+            return ModType.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.mapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.debezium.connector.spanner.db.model.schema.Column;
+
+/**
+ * Interns row types of data change records per table.
+ * <p>
+ * The raw {@code column_types} payload of a record is used as its fingerprint:
+ * the JsonB text for PostgreSQL and the list of column structs for GoogleSQL.
+ * Records with the same payload share a single immutable {@code List<Column>},
+ * so the column types are parsed only once and the row type can be compared by identity.
+ */
+class RowTypeCache {
+
+    static final int DEFAULT_MAX_ROW_TYPES_PER_TABLE = 32;
+
+    private final int maxRowTypesPerTable;
+
+    private final Map<String, Map<Object, List<Column>>> rowTypes = new ConcurrentHashMap<>();
+
+    RowTypeCache() {
+        this(DEFAULT_MAX_ROW_TYPES_PER_TABLE);
+    }
+
+    RowTypeCache(int maxRowTypesPerTable) {
+        this.maxRowTypesPerTable = maxRowTypesPerTable;
+    }
+
+    List<Column> intern(String tableName, Object fingerprint, Supplier<List<Column>> parser) {
+        Map<Object, List<Column>> tableRowTypes = rowTypes.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+
+        List<Column> rowType = tableRowTypes.get(fingerprint);
+        if (rowType != null) {
+            return rowType;
+        }
+
+        // A table has a few row types at a time, a larger number means the old ones are outdated by DDL
+        if (tableRowTypes.size() >= maxRowTypesPerTable) {
+            tableRowTypes.clear();
+        }
+
+        rowType = List.copyOf(parser.get());
+        List<Column> previous = tableRowTypes.putIfAbsent(fingerprint, rowType);
+        return previous != null ? previous : rowType;
+    }
+
+    int size(String tableName) {
+        Map<Object, List<Column>> tableRowTypes = rowTypes.get(tableName);
+        return tableRowTypes == null ? 0 : tableRowTypes.size();
+    }
+}
@@ -5,6 +5,9 @@
  */
 package io.debezium.connector.spanner.db.mapper.parser;
 
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -27,4 +30,16 @@ public class ColumnTypeParser {
             throw new ParseException(json, e);
         }
     }
+
+    /**
+     * Reads the column type from the current value of the parser, without materializing it as a string
+     */
+    public static ColumnType parse(JsonParser parser) {
+        try {
+            return mapper.readValue(parser, ColumnType.class);
+        }
+        catch (IOException e) {
+            throw new ParseException(String.valueOf(parser.getCurrentLocation()), e);
+        }
+    }
 }
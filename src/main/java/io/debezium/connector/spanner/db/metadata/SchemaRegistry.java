@@ -7,7 +7,6 @@ package io.debezium.connector.spanner.db.metadata;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -27,7 +26,11 @@ import io.debezium.connector.spanner.db.model.schema.SpannerSchema;
 import io.debezium.connector.spanner.db.model.schema.TableSchema;
 
 /**
- * Stores schema of the Spanner change stream and database tables
+ * Stores schema of the Spanner change stream and database tables.
+ * <p>
+ * The schema is kept as an immutable {@link SchemaSnapshot} published through a volatile reference,
+ * so readers never take a lock. A refresh builds a new snapshot, while readers keep using the current one,
+ * and then swaps it in atomically. Refreshes are serialized with each other.
  */
 public class SchemaRegistry {
 
@@ -37,14 +40,12 @@ public class SchemaRegistry {
 
     private final SchemaDao schemaDao;
 
-    private volatile SpannerSchema spannerSchema;
-    private volatile ChangeStreamSchema changeStream;
     private final String streamName;
 
-    private volatile Timestamp timestamp;
-
     private final Runnable schemaResetTrigger;
 
+    private volatile SchemaSnapshot snapshot;
+
     public SchemaRegistry(String streamName, SchemaDao schemaDao, Runnable schemaResetTrigger) {
         this.schemaDao = schemaDao;
         this.streamName = streamName;
@@ -60,48 +61,48 @@ public class SchemaRegistry {
         LOGGER.info("Task Uid, done initializing schema registry", taskUid);
     }
 
-    public synchronized TableSchema getWatchedTable(TableId tableId) {
-        if (this.timestamp == null) {
-            throw new IllegalStateException(DATABASE_SCHEMA_NOT_CACHED);
-        }
-        TableSchema table = spannerSchema.getTable(tableId);
-
-        ChangeStreamSchema.Table streamTable = changeStream.getTable(table.getName());
-
-        List<Column> columns = table.columns().stream()
-                .filter(column -> column.isPrimaryKey() || streamTable.hasColumn(column.getName()))
-                .collect(Collectors.toList());
-
-        return new TableSchema(table.getName(), columns);
+    public TableSchema getWatchedTable(TableId tableId) {
+        return cachedSnapshot().getWatchedTable(tableId);
     }
 
-    public synchronized void checkSchema(TableId tableId, Timestamp timestamp, List<Column> rowType) {
-        if (!validate(tableId, rowType)) {
+    public void checkSchema(TableId tableId, Timestamp timestamp, List<Column> rowType) {
+        SchemaSnapshot current = cachedSnapshot();
+        if (current.isValidated(tableId, rowType)) {
+            return;
+        }
+        if (!validate(current, tableId, rowType)) {
             if (this.updateSchema(tableId, timestamp, rowType)) {
                 schemaResetTrigger.run();
                 return;
             }
             LOGGER.warn("Schema has not been updated");
+            return;
         }
+        current.markValidated(tableId, rowType);
     }
 
-    private boolean validate(TableId tableId, List<Column> rowType) {
-        if (this.timestamp == null) {
-            throw new IllegalStateException(DATABASE_SCHEMA_NOT_CACHED);
-        }
-        TableSchema schemaTable = this.spannerSchema.getTable(tableId);
-        TableSchema watchedTable = this.getWatchedTable(tableId);
+    @VisibleForTesting
+    boolean validate(SchemaSnapshot current, TableId tableId, List<Column> rowType) {
+        TableSchema schemaTable = current.getTable(tableId);
 
         if (schemaTable == null) {
             LOGGER.warn("Table not found in registry : {}", tableId.getTableName());
             return false;
         }
 
+        TableSchema watchedTable = current.getWatchedTable(tableId);
+
+        if (watchedTable == null) {
+            LOGGER.warn("ChangeStream doesn't watch table : {}", tableId.getTableName());
+            return false;
+        }
+
         return SchemaValidator.validate(schemaTable, watchedTable, rowType);
     }
 
     public synchronized boolean updateSchema(TableId tableId, Timestamp updatedTimestamp, List<Column> rowType) {
-        if (updatedTimestamp.equals(this.timestamp)) {
+        SchemaSnapshot current = this.snapshot;
+        if (current != null && updatedTimestamp.equals(current.getTimestamp())) {
             return false;
         }
 
@@ -111,7 +112,15 @@ public class SchemaRegistry {
         return true;
     }
 
-    public void updateSchemaFromStaleTimestamp(TableId tableId, Timestamp timestamp, List<Column> rowType) {
+    public synchronized void updateSchemaFromStaleTimestamp(TableId tableId, Timestamp timestamp, List<Column> rowType) {
+        SchemaSnapshot current = this.snapshot;
+        updateSchemaFromStaleTimestamp(tableId, timestamp, rowType,
+                current != null ? current.getTimestamp() : null,
+                current != null ? current.getChangeStream() : null);
+    }
+
+    private void updateSchemaFromStaleTimestamp(TableId tableId, Timestamp timestamp, List<Column> rowType,
+                                                @Nullable Timestamp snapshotTimestamp, @Nullable ChangeStreamSchema changeStream) {
         LOGGER.info("Schema is outdated. Try to update schema registry outside of retention period...");
         SpannerSchema.SpannerSchemaBuilder builder = SpannerSchema.builder();
         Dialect dialect = this.schemaDao.isPostgres() ? Dialect.POSTGRESQL : Dialect.GOOGLE_STANDARD_SQL;
@@ -123,40 +132,31 @@ public class SchemaRegistry {
                     column.isNullable(), dialect);
 
         }
-        SpannerSchema newSchema = builder.build();
-        if (this.spannerSchema == null) {
-            this.spannerSchema = newSchema;
-            return;
-        }
-        this.spannerSchema = SchemaMerger.merge(this.spannerSchema, newSchema);
+        publish(snapshotTimestamp, changeStream, builder.build());
         LOGGER.info("Schema registry has been updated to stale timestamp {}", timestamp);
-
     }
 
     @VisibleForTesting
-    void forceUpdateSchema(String taskUid, @Nullable TableId tableId, Timestamp updatedTimestamp, @Nullable List<Column> rowTypes) {
+    synchronized void forceUpdateSchema(String taskUid, @Nullable TableId tableId, Timestamp updatedTimestamp, @Nullable List<Column> rowTypes) {
+        SchemaSnapshot current = this.snapshot;
+        ChangeStreamSchema changeStream = current != null ? current.getChangeStream() : null;
         try {
             LOGGER.info("Task {}, started updating schema registry", taskUid);
-            this.timestamp = updatedTimestamp;
-            this.changeStream = schemaDao.getStream(timestamp, streamName);
+            changeStream = schemaDao.getStream(updatedTimestamp, streamName);
 
-            if (this.changeStream == null) {
+            if (changeStream == null) {
                 throw new IllegalStateException("Change stream doesn't exist at timestamp: "
-                        + streamName + ", " + timestamp);
+                        + streamName + ", " + updatedTimestamp);
             }
 
             SpannerSchema newSchema;
-            if (this.changeStream.isWatchedAllTables()) {
-                newSchema = schemaDao.getSchema(timestamp);
+            if (changeStream.isWatchedAllTables()) {
+                newSchema = schemaDao.getSchema(updatedTimestamp);
             }
             else {
-                newSchema = schemaDao.getSchema(timestamp, this.changeStream.getTables());
+                newSchema = schemaDao.getSchema(updatedTimestamp, changeStream.getTables());
             }
-            if (this.spannerSchema == null) {
-                this.spannerSchema = newSchema;
-                return;
-            }
-            this.spannerSchema = SchemaMerger.merge(this.spannerSchema, newSchema);
+            publish(updatedTimestamp, changeStream, newSchema);
             LOGGER.info("Task {} merged schema ", taskUid);
         }
         catch (SpannerException e) {
@@ -166,7 +166,7 @@ public class SchemaRegistry {
             // error code of FAILED_PRECONDITION, perform a manual update to merge the out of retention schema with current schema. Otherwise the
             // exception not match this scenario is re-throwed.
             if (e.getMessage().contains("has exceeded the maximum timestamp staleness") && e.getErrorCode().equals(ErrorCode.FAILED_PRECONDITION)) {
-                updateSchemaFromStaleTimestamp(tableId, timestamp, rowTypes);
+                updateSchemaFromStaleTimestamp(tableId, updatedTimestamp, rowTypes, updatedTimestamp, changeStream);
             }
             else {
                 throw e;
@@ -179,9 +179,27 @@ public class SchemaRegistry {
     }
 
     public Set<TableId> getAllTables() {
-        if (this.spannerSchema == null) {
+        SchemaSnapshot current = this.snapshot;
+        if (current == null) {
             throw new IllegalStateException("database schema is not cached yet");
         }
-        return this.spannerSchema.getAllTables();
+        return current.getSpannerSchema().getAllTables();
+    }
+
+    /**
+     * Merges the new schema into the current one and swaps the snapshot, must be called under the lock
+     */
+    private void publish(@Nullable Timestamp updatedTimestamp, @Nullable ChangeStreamSchema changeStream, SpannerSchema newSchema) {
+        SchemaSnapshot current = this.snapshot;
+        SpannerSchema mergedSchema = current == null ? newSchema : SchemaMerger.merge(current.getSpannerSchema(), newSchema);
+        this.snapshot = new SchemaSnapshot(updatedTimestamp, changeStream, mergedSchema);
+    }
+
+    private SchemaSnapshot cachedSnapshot() {
+        SchemaSnapshot current = this.snapshot;
+        if (current == null || !current.isSchemaCached()) {
+            throw new IllegalStateException(DATABASE_SCHEMA_NOT_CACHED);
+        }
+        return current;
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.metadata;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import com.google.cloud.Timestamp;
+
+import io.debezium.connector.spanner.db.model.schema.ChangeStreamSchema;
+import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.connector.spanner.db.model.schema.SpannerSchema;
+import io.debezium.connector.spanner.db.model.schema.TableSchema;
+
+/**
+ * Immutable version of the database and change stream schema, published by {@link SchemaRegistry}.
+ * Watched tables are projected once, when the snapshot is built.
+ */
+final class SchemaSnapshot {
+
+    static final int MAX_VALIDATED_ROW_TYPES = 1024;
+
+    private final Timestamp timestamp;
+    private final ChangeStreamSchema changeStream;
+    private final SpannerSchema spannerSchema;
+    private final Map<TableId, TableSchema> watchedTables;
+
+    // Row types, which have passed validation against this snapshot, compared by identity.
+    // Row types are interned by the change stream record mapper, so a repeated row type is the same instance.
+    // The map is copied on write, since new row types are rare.
+    private volatile Map<List<Column>, TableId> validatedRowTypes = Map.of();
+
+    SchemaSnapshot(@Nullable Timestamp timestamp, @Nullable ChangeStreamSchema changeStream, SpannerSchema spannerSchema) {
+        this.timestamp = timestamp;
+        this.changeStream = changeStream;
+        this.spannerSchema = spannerSchema;
+        this.watchedTables = projectWatchedTables(changeStream, spannerSchema);
+    }
+
+    @Nullable
+    Timestamp getTimestamp() {
+        return timestamp;
+    }
+
+    @Nullable
+    ChangeStreamSchema getChangeStream() {
+        return changeStream;
+    }
+
+    SpannerSchema getSpannerSchema() {
+        return spannerSchema;
+    }
+
+    boolean isSchemaCached() {
+        return timestamp != null;
+    }
+
+    @Nullable
+    TableSchema getTable(TableId tableId) {
+        return spannerSchema.getTable(tableId);
+    }
+
+    @Nullable
+    TableSchema getWatchedTable(TableId tableId) {
+        return watchedTables.get(tableId);
+    }
+
+    boolean isValidated(TableId tableId, List<Column> rowType) {
+        return tableId.equals(validatedRowTypes.get(rowType));
+    }
+
+    synchronized void markValidated(TableId tableId, List<Column> rowType) {
+        Map<List<Column>, TableId> validated = new IdentityHashMap<>();
+        if (validatedRowTypes.size() < MAX_VALIDATED_ROW_TYPES) {
+            validated.putAll(validatedRowTypes);
+        }
+        validated.put(rowType, tableId);
+        validatedRowTypes = validated;
+    }
+
+    private static Map<TableId, TableSchema> projectWatchedTables(@Nullable ChangeStreamSchema changeStream, SpannerSchema spannerSchema) {
+        Map<TableId, TableSchema> watchedTables = new HashMap<>();
+        if (changeStream == null) {
+            return watchedTables;
+        }
+        for (TableId tableId : spannerSchema.getAllTables()) {
+            TableSchema table = spannerSchema.getTable(tableId);
+            ChangeStreamSchema.Table streamTable = changeStream.getTable(table.getName());
+            if (streamTable == null) {
+                continue;
+            }
+            List<Column> columns = table.columns().stream()
+                    .filter(column -> column.isPrimaryKey() || streamTable.hasColumn(column.getName()))
+                    .collect(Collectors.toList());
+            watchedTables.put(tableId, new TableSchema(table.getName(), columns));
+        }
+        return watchedTables;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.model;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * JSON value, which is kept as the raw text received from the change stream
+ * and parsed into a tree only on the first access. The parsed tree is memoized.
+ */
+public final class LazyJsonNode {
+
+    private final String json;
+    private final Function<String, JsonNode> parser;
+
+    private volatile JsonNode node;
+
+    private LazyJsonNode(String json, Function<String, JsonNode> parser, JsonNode node) {
+        this.json = json;
+        this.parser = parser;
+        this.node = node;
+    }
+
+    /**
+     * @param json   raw JSON text, can be null if the value is absent
+     * @param parser function parsing the raw JSON text, it is invoked on the first access
+     *               and may be invoked again only if the first accesses race
+     */
+    public static LazyJsonNode of(String json, Function<String, JsonNode> parser) {
+        return new LazyJsonNode(json, Objects.requireNonNull(parser), null);
+    }
+
+    public static LazyJsonNode of(JsonNode node) {
+        return new LazyJsonNode(null, null, node);
+    }
+
+    public JsonNode get() {
+        JsonNode result = node;
+        if (result == null && parser != null) {
+            result = parser.apply(json);
+            node = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return raw JSON text, or null if the value was created from a parsed tree or is absent
+     */
+    public String getRawJson() {
+        return json;
+    }
+
+    public boolean isParsed() {
+        return parser == null || node != null;
+    }
+
+    /**
+     * @return length of the raw JSON text, which is used as a rough estimate of the size in bytes
+     */
+    public long getEstimatedSize() {
+        if (json != null) {
+            return json.length();
+        }
+        JsonNode result = node;
+        return result != null ? result.toString().length() : 0;
+    }
+
+    @Override
+    public String toString() {
+        JsonNode result = node;
+        return result != null ? result.toString() : json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(get(), ((LazyJsonNode) o).get());
+    }
+
+    @Override
+    public int hashCode() {
+        JsonNode result = get();
+        return result != null ? result.hashCode() : 0;
+    }
+}
@@ -13,14 +13,15 @@ import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
 
 /**
  * Represents a modification in a table emitted within a {@link DataChangeEvent}. Each mod contains
- * keys, new values and old values returned as JSON strings.
+ * keys, new values and old values returned as JSON strings. The strings are parsed only when
+ * the values are accessed for the first time.
  */
 public class Mod {
 
-    private final JsonNode keysJsonNode;
+    private final LazyJsonNode keysJsonNode;
 
-    private final JsonNode oldValuesJsonNode;
-    private final JsonNode newValuesJsonNode;
+    private final LazyJsonNode oldValuesJsonNode;
+    private final LazyJsonNode newValuesJsonNode;
 
     private final int modNumber;
 
@@ -38,6 +39,18 @@ public class Mod {
      *                          This JSON object can be null in the case of a DELETE
      */
     public Mod(int modNumber, JsonNode keysJsonNode, JsonNode oldValuesJsonNode, JsonNode newValuesJsonNode) {
+        this(modNumber, LazyJsonNode.of(keysJsonNode), LazyJsonNode.of(oldValuesJsonNode), LazyJsonNode.of(newValuesJsonNode));
+    }
+
+    /**
+     * Constructs a mod from the not yet parsed primary key values, old and new state of the row.
+     *
+     * @param modNumber         Modification index number
+     * @param keysJsonNode      primary key column values
+     * @param oldValuesJsonNode old state of the columns modified
+     * @param newValuesJsonNode new state of the columns modified
+     */
+    public Mod(int modNumber, LazyJsonNode keysJsonNode, LazyJsonNode oldValuesJsonNode, LazyJsonNode newValuesJsonNode) {
         this.modNumber = modNumber;
         this.keysJsonNode = keysJsonNode;
         this.oldValuesJsonNode = oldValuesJsonNode;
@@ -52,7 +65,7 @@ public class Mod {
      * @return JSON object as String representing the old column values before the row was modified
      */
     public JsonNode oldValuesJsonNode() {
-        return oldValuesJsonNode;
+        return oldValuesJsonNode.get();
     }
 
     /**
@@ -63,7 +76,7 @@ public class Mod {
      * @return JSON object as String representing the new column values after the row was modified
      */
     public JsonNode newValuesJsonNode() {
-        return newValuesJsonNode;
+        return newValuesJsonNode.get();
     }
 
     /**
@@ -74,25 +87,66 @@ public class Mod {
      * @return JSON object as String representing the primary key state for the row modified
      */
     public JsonNode keysJsonNode() {
+        return keysJsonNode.get();
+    }
+
+    /**
+     * @return primary key column values, which may be not parsed yet
+     */
+    public LazyJsonNode keys() {
         return keysJsonNode;
     }
 
+    /**
+     * @return old state of the columns modified, which may be not parsed yet
+     */
+    public LazyJsonNode oldValues() {
+        return oldValuesJsonNode;
+    }
+
+    /**
+     * @return new state of the columns modified, which may be not parsed yet
+     */
+    public LazyJsonNode newValues() {
+        return newValuesJsonNode;
+    }
+
     public JsonNode getKeyJsonNode(String name) {
-        return keysJsonNode.get(name);
+        return keysJsonNode.get().get(name);
     }
 
     public JsonNode getNewValueNode(String name) {
-        if (this.keysJsonNode.get(name) != null) {
-            return this.keysJsonNode.get(name);
+        JsonNode keyNode = this.keysJsonNode.get().get(name);
+        if (keyNode != null) {
+            return keyNode;
         }
-        return this.newValuesJsonNode.get(name);
+        return this.newValuesJsonNode.get().get(name);
     }
 
     public JsonNode getOldValueNode(String name) {
-        if (this.keysJsonNode.get(name) != null) {
-            return this.keysJsonNode.get(name);
+        JsonNode keyNode = this.keysJsonNode.get().get(name);
+        if (keyNode != null) {
+            return keyNode;
         }
-        return this.oldValuesJsonNode.get(name);
+        return this.oldValuesJsonNode.get().get(name);
+    }
+
+    /**
+     * @return true, if any of the keys, old or new values has been parsed
+     */
+    public boolean isParsed() {
+        return keysJsonNode.isParsed() || oldValuesJsonNode.isParsed() || newValuesJsonNode.isParsed();
+    }
+
+    /**
+     * @return rough size in bytes of the keys, old and new values, which does not require parsing them
+     */
+    public long getEstimatedSize() {
+        return estimatedSize(keysJsonNode) + estimatedSize(oldValuesJsonNode) + estimatedSize(newValuesJsonNode);
+    }
+
+    private static long estimatedSize(LazyJsonNode node) {
+        return node != null ? node.getEstimatedSize() : 0;
     }
 
     public int getModNumber() {
@@ -13,7 +13,24 @@ import io.debezium.connector.spanner.db.model.StreamEventMetadata;
  * Common contract for all types of the Spanner Change Stream events
  */
 public interface ChangeStreamEvent {
+
+    /**
+     * Estimated size in bytes of the events, which do not carry row data
+     */
+    long DEFAULT_ESTIMATED_SIZE = 256;
+
     Timestamp getRecordTimestamp();
 
     StreamEventMetadata getMetadata();
+
+    default String getPartitionToken() {
+        return getMetadata().getPartitionToken();
+    }
+
+    /**
+     * Rough size in bytes of the event on the heap, used to bound the memory of the event queue
+     */
+    default long getEstimatedSize() {
+        return DEFAULT_ESTIMATED_SIZE;
+    }
 }
@@ -85,6 +85,8 @@ public class DataChangeEvent implements ChangeStreamEvent {
     private final boolean isSystemTransaction;
     private final StreamEventMetadata metadata;
 
+    private final long estimatedSize;
+
     /**
      * Constructs a data change record for a given partition, at a given timestamp, for a given
      * transaction. The data change record needs to be given information about the table modified, the
@@ -139,6 +141,19 @@ public class DataChangeEvent implements ChangeStreamEvent {
         this.transactionTag = transactionTag;
         this.isSystemTransaction = isSystemTransaction;
         this.metadata = metadata;
+        this.estimatedSize = estimateSize(mods);
+    }
+
+    // The size is estimated once, when the event is mapped from the change stream record.
+    // The row type is interned and shared by the events of a table, so it is not taken into account.
+    private static long estimateSize(List<Mod> mods) {
+        long size = DEFAULT_ESTIMATED_SIZE;
+        if (mods != null) {
+            for (Mod mod : mods) {
+                size += mod.getEstimatedSize();
+            }
+        }
+        return size;
     }
 
     /**
@@ -152,6 +167,7 @@ public class DataChangeEvent implements ChangeStreamEvent {
     /**
      * The unique identifier of the partition that generated this record.
      */
+    @Override
     public String getPartitionToken() {
         return partitionToken;
     }
@@ -257,6 +273,11 @@ public class DataChangeEvent implements ChangeStreamEvent {
         return metadata;
     }
 
+    @Override
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
     @Override
     public String toString() {
         return "DataChangeEvent{" +
@@ -67,45 +67,51 @@ public class PartitionQueryingMonitor {
 
     public void checkPartitionThreads() throws InterruptedException {
         while (!Thread.currentThread().isInterrupted()) {
-            Set<String> activePartitions = partitionThreadPool.getActiveThreads();
-
-            Set<String> toRemove = lastEventTimestampMap.keySet().stream()
-                    .filter(partition -> !activePartitions.contains(partition))
-                    .collect(Collectors.toSet());
-
-            toRemove.forEach(lastEventTimestampMap::remove);
-
-            int maxStuckHeartbeatIntervals = -1;
-            for (String token : activePartitions) {
-                // Only measure stuck heartbeat interval for the partition queries.
-                if (InitialPartition.isInitialPartition(token)) {
-                    continue;
-                }
-
-                Instant lastEventTimestamp = lastEventTimestampMap.get(token);
-                if (lastEventTimestamp == null) {
-                    lastEventTimestampMap.put(token, Instant.now());
-                    continue;
-                }
-                LOGGER.info("PartitionQueryingMonitor, token {} last received timestamp {}", token, lastEventTimestamp);
-
-                int stuckHeartbeatIntervals = stuckHeartbeatIntervals(lastEventTimestamp);
-                if (stuckHeartbeatIntervals > maxStuckHeartbeatIntervals) {
-                    metricsEventPublisher.publishMetricEvent(
-                            new StuckHeartbeatIntervalsMetricEvent(stuckHeartbeatIntervals));
-                    maxStuckHeartbeatIntervals = stuckHeartbeatIntervals;
-                }
-
-                if (isPartitionStuck(lastEventTimestamp)) {
-                    lastEventTimestampMap.remove(token);
-                    onStuckPartitionConsumer.accept(token);
-                }
-            }
+            checkPartitions();
 
             Thread.sleep(CHECK_INTERVAL.toMillis());
         }
     }
 
+    @VisibleForTesting
+    void checkPartitions() throws InterruptedException {
+        // The pending partitions wait for a free slot of the pool, they are monitored, once their queries are started
+        Set<String> activePartitions = partitionThreadPool.getActiveThreads();
+
+        Set<String> toRemove = lastEventTimestampMap.keySet().stream()
+                .filter(partition -> !activePartitions.contains(partition))
+                .collect(Collectors.toSet());
+
+        toRemove.forEach(lastEventTimestampMap::remove);
+
+        int maxStuckHeartbeatIntervals = -1;
+        for (String token : activePartitions) {
+            // Only measure stuck heartbeat interval for the partition queries.
+            if (InitialPartition.isInitialPartition(token)) {
+                continue;
+            }
+
+            Instant lastEventTimestamp = lastEventTimestampMap.get(token);
+            if (lastEventTimestamp == null) {
+                lastEventTimestampMap.put(token, Instant.now());
+                continue;
+            }
+            LOGGER.info("PartitionQueryingMonitor, token {} last received timestamp {}", token, lastEventTimestamp);
+
+            int stuckHeartbeatIntervals = stuckHeartbeatIntervals(lastEventTimestamp);
+            if (stuckHeartbeatIntervals > maxStuckHeartbeatIntervals) {
+                metricsEventPublisher.publishMetricEvent(
+                        new StuckHeartbeatIntervalsMetricEvent(stuckHeartbeatIntervals));
+                maxStuckHeartbeatIntervals = stuckHeartbeatIntervals;
+            }
+
+            if (isPartitionStuck(lastEventTimestamp)) {
+                lastEventTimestampMap.remove(token);
+                onStuckPartitionConsumer.accept(token);
+            }
+        }
+    }
+
     @VisibleForTesting
     int stuckHeartbeatIntervals(Instant lastEventInstant) {
         long stuckMillis = Duration.between(lastEventInstant, Instant.now()).toMillis();
@@ -6,92 +6,235 @@
 package io.debezium.connector.spanner.db.stream;
 
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.debezium.util.Clock;
-import io.debezium.util.Metronome;
-
 /**
- * Partition thread pool, a thread is created for each partition token
+ * Partition thread pool, schedules partition queries onto a bounded pool of carrier threads.
+ * At most {@code maxConcurrentQueries} partitions are queried at the same time,
+ * the rest of the submitted partition tokens wait in a FIFO queue until a running query completes.
+ * A stopped query keeps its slot until its thread has exited.
  */
 public class PartitionThreadPool {
     private static final Logger LOGGER = LoggerFactory.getLogger(PartitionThreadPool.class);
 
-    private final ConcurrentMap<String, Thread> threadMap = new ConcurrentHashMap<>();
+    public static final int UNLIMITED = 0;
+
+    private static final String THREAD_NAME_PREFIX = "SpannerConnector-PartitionThreadPool-";
+
+    private static final Duration IDLE_THREAD_KEEP_ALIVE = Duration.ofSeconds(60);
 
     private final Duration sleepInterval = Duration.ofMillis(100);
 
-    private final Clock clock = Clock.system();
+    private final int maxConcurrentQueries;
 
-    public boolean submit(String token, Runnable runnable) {
-        clean();
+    private final ThreadPoolExecutor executor;
+
+    // All submitted tokens, both running and pending
+    private final Map<String, PartitionTask> tasks = new ConcurrentHashMap<>();
+
+    // Tokens, which are being queried right now
+    private final Map<String, PartitionTask> running = new ConcurrentHashMap<>();
+
+    // Queries, which hold a slot of the pool, including the stopped queries that have not exited yet, guarded by "this"
+    private int executing = 0;
+
+    // Tokens, which are waiting for a free slot in submission order, guarded by "this"
+    private final Map<String, PartitionTask> pending = new LinkedHashMap<>();
 
-        if (threadMap.containsKey(token)) {
+    private volatile boolean shutdown = false;
+
+    public PartitionThreadPool() {
+        this(UNLIMITED);
+    }
+
+    public PartitionThreadPool(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = maxConcurrentQueries <= UNLIMITED ? Integer.MAX_VALUE : maxConcurrentQueries;
+        this.executor = new ThreadPoolExecutor(this.maxConcurrentQueries, this.maxConcurrentQueries,
+                IDLE_THREAD_KEEP_ALIVE.toMillis(), TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new PartitionThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public boolean submit(String token, Runnable runnable) {
+        PartitionTask task = new PartitionTask(token, runnable);
+        if (tasks.putIfAbsent(token, task) != null) {
             LOGGER.info("Failed to submit token in PartitionThreadPool {} since it is already contained in the map", token);
             return false;
         }
 
-        AtomicBoolean insertedThread = new AtomicBoolean(false);
-
-        threadMap.computeIfAbsent(token, k -> {
-            Thread thread = new Thread(runnable, "SpannerConnector-PartitionThreadPool");
-            thread.start();
-            insertedThread.set(true);
-            return thread;
-        });
-        if (!insertedThread.get()) {
-            LOGGER.info("Failed to submit token in PartitionThreadPool {}", token);
+        synchronized (this) {
+            if (shutdown) {
+                LOGGER.info("Failed to submit token in PartitionThreadPool {} since the pool is shut down", token);
+                tasks.remove(token, task);
+                return false;
+            }
+            if (executing >= maxConcurrentQueries) {
+                pending.put(token, task);
+                LOGGER.info("Token {} is waiting for a free slot in PartitionThreadPool, running queries: {}, pending: {}",
+                        token, executing, pending.size());
+                return true;
+            }
+            return start(task);
         }
-
-        return insertedThread.get();
     }
 
     public void stop(String token) {
-        Thread thread = threadMap.remove(token);
-        if (thread != null) {
-            LOGGER.info("Interrupting SpannerConnector-PartitionThreadPool");
-            thread.interrupt();
+        PartitionTask task = tasks.remove(token);
+        if (task == null) {
+            return;
+        }
+        synchronized (this) {
+            if (running.remove(token, task)) {
+                LOGGER.info("Interrupting SpannerConnector-PartitionThreadPool, token {}", token);
+                // The slot is released, when the query exits
+                task.cancel();
+            }
+            else {
+                pending.remove(token, task);
+            }
         }
     }
 
     public void shutdown(String taskUid) {
         LOGGER.info("Trying to shut down partition thread pool for task {}", taskUid);
-        clean();
-        threadMap.values().forEach(Thread::interrupt);
-        final Metronome metronome = Metronome.sleeper(sleepInterval, clock);
-
-        while (!threadMap.isEmpty() && !threadMap.values().stream().allMatch(thread -> thread.getState().equals(Thread.State.TERMINATED))) {
-            try {
-                clean();
-
-                LOGGER.info("Still trying to shut down partition thread poll for task {} and threads {}", taskUid, threadMap.keySet());
-                threadMap.values().forEach(Thread::interrupt);
-                // Sleep for sleepInterval.
-                metronome.pause();
-            }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        synchronized (this) {
+            shutdown = true;
+            pending.forEach(tasks::remove);
+            pending.clear();
+        }
+        executor.shutdownNow();
+
+        try {
+            while (!executor.awaitTermination(sleepInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.info("Still trying to shut down partition thread pool for task {} and threads {}", taskUid, running.keySet());
+                executor.shutdownNow();
             }
-            LOGGER.info("Beginning to terminate threads, task {}", taskUid);
         }
-        LOGGER.info("Successfully shut down partition thread poll for task {}", taskUid);
-        clean();
-        LOGGER.info("Successfully cleaned partition thread poll for task {}", taskUid);
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            running.clear();
+            executing = 0;
+        }
+        tasks.clear();
+        LOGGER.info("Successfully shut down partition thread pool for task {}", taskUid);
     }
 
-    private void clean() {
-        threadMap.entrySet().removeIf(entry -> entry.getValue().getState().equals(Thread.State.TERMINATED));
+    public Set<String> getActiveThreads() {
+        return Set.copyOf(running.keySet());
     }
 
-    public Set<String> getActiveThreads() {
-        clean();
-        return Set.copyOf(threadMap.keySet());
+    /**
+     * Returns the number of the queries, which hold a slot of the pool
+     */
+    public synchronized int getActiveCount() {
+        return executing;
     }
 
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    // Must be called under the lock
+    private boolean start(PartitionTask task) {
+        running.put(task.token, task);
+        executing++;
+        try {
+            executor.execute(() -> run(task));
+            return true;
+        }
+        catch (RejectedExecutionException ex) {
+            LOGGER.info("Failed to submit token in PartitionThreadPool {}", task.token);
+            running.remove(task.token, task);
+            executing--;
+            tasks.remove(task.token, task);
+            return false;
+        }
+    }
+
+    // Must be called under the lock
+    private void startPending() {
+        Iterator<PartitionTask> iterator = pending.values().iterator();
+        while (!shutdown && executing < maxConcurrentQueries && iterator.hasNext()) {
+            PartitionTask task = iterator.next();
+            iterator.remove();
+            start(task);
+        }
+    }
+
+    private void run(PartitionTask task) {
+        try {
+            if (task.begin()) {
+                task.runnable.run();
+            }
+        }
+        catch (RuntimeException ex) {
+            LOGGER.error("Partition query with token {} failed", task.token, ex);
+            throw ex;
+        }
+        finally {
+            task.end();
+            tasks.remove(task.token, task);
+            synchronized (this) {
+                running.remove(task.token, task);
+                executing--;
+                startPending();
+            }
+        }
+    }
+
+    private static final class PartitionTask {
+        private final String token;
+        private final Runnable runnable;
+
+        // Guarded by "this"
+        private Thread thread;
+        private boolean cancelled;
+
+        private PartitionTask(String token, Runnable runnable) {
+            this.token = token;
+            this.runnable = runnable;
+        }
+
+        private synchronized boolean begin() {
+            if (cancelled) {
+                return false;
+            }
+            thread = Thread.currentThread();
+            return true;
+        }
+
+        private synchronized void end() {
+            thread = null;
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private static final class PartitionThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+        }
+    }
 }
@@ -67,8 +67,15 @@ public class SpannerChangeStream implements ChangeStream {
     public SpannerChangeStream(SpannerChangeStreamService streamService,
                                MetricsEventPublisher metricsEventPublisher, Duration heartBeatInterval, int maxMissedHeartbeats, String taskUid,
                                DatabaseClientFactory databaseClientFactory) {
+        this(streamService, metricsEventPublisher, heartBeatInterval, maxMissedHeartbeats, taskUid, databaseClientFactory,
+                PartitionThreadPool.UNLIMITED);
+    }
+
+    public SpannerChangeStream(SpannerChangeStreamService streamService,
+                               MetricsEventPublisher metricsEventPublisher, Duration heartBeatInterval, int maxMissedHeartbeats, String taskUid,
+                               DatabaseClientFactory databaseClientFactory, int maxConcurrentPartitionQueries) {
         this.streamService = streamService;
-        this.partitionThreadPool = new PartitionThreadPool();
+        this.partitionThreadPool = new PartitionThreadPool(maxConcurrentPartitionQueries);
         this.metricsEventPublisher = metricsEventPublisher;
         this.partitionQueryingMonitor = new PartitionQueryingMonitor(partitionThreadPool,
                 heartBeatInterval,
@@ -102,7 +109,7 @@ public class SpannerChangeStream implements ChangeStream {
                     throw exception.get();
                 }
 
-                metricsEventPublisher.publishMetricEvent(new ActiveQueriesUpdateMetricEvent(partitionThreadPool.getActiveThreads().size()));
+                metricsEventPublisher.publishMetricEvent(new ActiveQueriesUpdateMetricEvent(partitionThreadPool.getActiveCount()));
             }
 
         }
@@ -117,6 +124,7 @@ public class SpannerChangeStream implements ChangeStream {
             LOGGER.info("Task {}, Shutting down all partition streaming...", this.taskUid);
             this.isRunning.set(false);
             this.partitionThreadPool.shutdown(this.taskUid);
+            this.streamService.shutdown();
             LOGGER.info("Task {}, Shutdown all partition streaming...", this.taskUid);
         }
     }
@@ -162,7 +170,7 @@ public class SpannerChangeStream implements ChangeStream {
 
         if (submitted) {
             metricsEventPublisher.publishMetricEvent(new NewQueueMetricEvent());
-            metricsEventPublisher.publishMetricEvent(new ActiveQueriesUpdateMetricEvent(partitionThreadPool.getActiveThreads().size()));
+            metricsEventPublisher.publishMetricEvent(new ActiveQueriesUpdateMetricEvent(partitionThreadPool.getActiveCount()));
         }
 
         return submitted;
@@ -191,6 +199,7 @@ public class SpannerChangeStream implements ChangeStream {
         LOGGER.info("Task {}, Shutting down partition thread pool {}", this.taskUid, partitionThreadPool.getActiveThreads());
 
         partitionThreadPool.shutdown(this.taskUid);
+        streamService.shutdown();
         LOGGER.info("Task {}, Shutdown partition thread pool", this.taskUid);
     }
 
@@ -7,25 +7,43 @@ package io.debezium.connector.spanner.db.stream;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.cloud.spanner.Struct;
+
 import io.debezium.connector.spanner.db.dao.ChangeStreamDao;
 import io.debezium.connector.spanner.db.dao.ChangeStreamResultSet;
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
 import io.debezium.connector.spanner.db.mapper.ChangeStreamRecordMapper;
 import io.debezium.connector.spanner.db.model.Partition;
 import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
 import io.debezium.connector.spanner.db.model.event.ChildPartitionsEvent;
 import io.debezium.connector.spanner.db.model.event.FinishPartitionEvent;
 import io.debezium.connector.spanner.db.model.event.HeartbeatEvent;
+import io.debezium.connector.spanner.metrics.MetricKey;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
-import io.debezium.connector.spanner.metrics.event.DelayChangeStreamEventsMetricEvent;
+import io.debezium.connector.spanner.metrics.latency.Statistics;
 
 /**
  * This class queries the change stream, sends child partitions to SynchronizedPartitionManager,
  * and updates the last commit timestamp for each partition.
+ * <p>
+ * In the pipelined read mode ({@code decodeThreads > 0}) the partition thread only fetches raw rows
+ * from the result set, the rows are mapped into events by a decode pool shared between partitions.
+ * Each partition keeps a bounded buffer of in-flight rows, the decoded events are passed
+ * to the consumer in the order the rows were read.
  */
 public class SpannerChangeStreamService {
 
@@ -35,16 +53,31 @@ public class SpannerChangeStreamService {
     private final ChangeStreamRecordMapper changeStreamRecordMapper;
 
     private final Duration heartbeatMillis;
-    private final MetricsEventPublisher metricsEventPublisher;
+    private final Statistics delayChangeStreamEvents;
     private final String taskUid;
 
+    private final ExecutorService decodePool;
+    private final int decodeBufferSize;
+
     public SpannerChangeStreamService(String taskUid, ChangeStreamDao changeStreamDao, ChangeStreamRecordMapper changeStreamRecordMapper,
                                       Duration heartbeatMillis, MetricsEventPublisher metricsEventPublisher) {
+        this(taskUid, changeStreamDao, changeStreamRecordMapper, heartbeatMillis, metricsEventPublisher, 0, 0);
+    }
+
+    public SpannerChangeStreamService(String taskUid, ChangeStreamDao changeStreamDao, ChangeStreamRecordMapper changeStreamRecordMapper,
+                                      Duration heartbeatMillis, MetricsEventPublisher metricsEventPublisher,
+                                      int decodeThreads, int decodeBufferSize) {
         this.changeStreamDao = changeStreamDao;
         this.changeStreamRecordMapper = changeStreamRecordMapper;
         this.heartbeatMillis = heartbeatMillis;
-        this.metricsEventPublisher = metricsEventPublisher;
+        this.delayChangeStreamEvents = metricsEventPublisher.getMetric(MetricKey.DELAY_CHANGE_STREAM_EVENTS);
         this.taskUid = taskUid;
+        this.decodePool = decodeThreads > 0 ? Executors.newFixedThreadPool(decodeThreads, new DecodeThreadFactory()) : null;
+        this.decodeBufferSize = Math.max(1, decodeBufferSize);
+    }
+
+    public boolean isPipelined() {
+        return decodePool != null;
     }
 
     public void getEvents(Partition partition, ChangeStreamEventConsumer changeStreamEventConsumer,
@@ -58,43 +91,119 @@ public class SpannerChangeStreamService {
         try (ChangeStreamResultSet resultSet = changeStreamDao.streamQuery(token, partition.getStartTimestamp(),
                 partition.getEndTimestamp(), heartbeatMillis.toMillis())) {
 
+            if (isPipelined()) {
+                streamPipelined(partition, resultSet, changeStreamEventConsumer);
+            }
+            else {
+                stream(partition, resultSet, changeStreamEventConsumer);
+            }
+        }
+        catch (InterruptedException ex) {
+            LOGGER.info("task {}, Interrupting streaming partition task with token {}", this.taskUid, partition.getToken());
+            Thread.currentThread().interrupt();
+        }
+
+        partitionEventListener.onFinish(partition);
+        LOGGER.info("Task {}, Finished consuming partition {}", taskUid, partition);
+
+        changeStreamEventConsumer.acceptChangeStreamEvent(new FinishPartitionEvent(partition));
+    }
+
+    public void shutdown() {
+        if (decodePool != null) {
+            decodePool.shutdownNow();
+        }
+    }
+
+    private void stream(Partition partition, ChangeStreamResultSet resultSet, ChangeStreamEventConsumer changeStreamEventConsumer)
+            throws InterruptedException {
+        long start = now();
+        while (resultSet.next()) {
+            long delay = now() - start;
+
+            List<ChangeStreamEvent> events = changeStreamRecordMapper.toChangeStreamEvents(
+                    partition,
+                    resultSet, resultSet.getMetadata());
+
+            onEvents(partition, events, delay, changeStreamEventConsumer);
+
+            start = now();
+        }
+    }
+
+    private void streamPipelined(Partition partition, ChangeStreamResultSet resultSet, ChangeStreamEventConsumer changeStreamEventConsumer)
+            throws Exception {
+        final boolean postgres = changeStreamRecordMapper.isPostgres();
+        final Deque<DecodingRow> buffer = new ArrayDeque<>(decodeBufferSize);
+        try {
             long start = now();
             while (resultSet.next()) {
                 long delay = now() - start;
 
-                List<ChangeStreamEvent> events = changeStreamRecordMapper.toChangeStreamEvents(
-                        partition,
-                        resultSet, resultSet.getMetadata());
-                LOGGER.debug("Task: {}, Events receive from stream: {}", taskUid, events);
-
-                if (!events.isEmpty() && (events.get(0) instanceof HeartbeatEvent)) {
-                    var heartbeatEvent = (HeartbeatEvent) events.get(0);
-                    long heartbeatLag = System.currentTimeMillis() - heartbeatEvent.getRecordTimestamp().toSqlTimestamp().toInstant().toEpochMilli();
-                    if (heartbeatLag > 60_000) {
-                        LOGGER.warn("Task: {}, heartbeat has very old timestamp, lag: {}, token: {}, event: {}", taskUid, heartbeatLag,
-                                heartbeatEvent.getMetadata().getPartitionToken(),
-                                heartbeatEvent);
-                    }
-                }
-
-                processEvents(partition, events, changeStreamEventConsumer);
+                Callable<List<ChangeStreamEvent>> decoder = rowDecoder(partition, resultSet, postgres);
+                buffer.addLast(new DecodingRow(decodePool.submit(decoder), delay));
 
-                if (!events.isEmpty() && !(events.get(0) instanceof HeartbeatEvent)) {
-                    metricsEventPublisher.publishMetricEvent(new DelayChangeStreamEventsMetricEvent((int) delay));
+                // Pass on everything decoded so far, block only if the buffer of the partition is full
+                while (!buffer.isEmpty() && (buffer.size() >= decodeBufferSize || buffer.peekFirst().future.isDone())) {
+                    DecodingRow row = buffer.pollFirst();
+                    onEvents(partition, await(row.future), row.delay, changeStreamEventConsumer);
                 }
 
                 start = now();
             }
+            while (!buffer.isEmpty()) {
+                DecodingRow row = buffer.pollFirst();
+                onEvents(partition, await(row.future), row.delay, changeStreamEventConsumer);
+            }
         }
-        catch (InterruptedException ex) {
-            LOGGER.info("task {}, Interrupting streaming partition task with token {}", this.taskUid, partition.getToken());
-            Thread.currentThread().interrupt();
+        finally {
+            buffer.forEach(row -> row.future.cancel(true));
         }
+    }
 
-        partitionEventListener.onFinish(partition);
-        LOGGER.info("Task {}, Finished consuming partition {}", taskUid, partition);
+    private Callable<List<ChangeStreamEvent>> rowDecoder(Partition partition, ChangeStreamResultSet resultSet, boolean postgres) {
+        if (postgres) {
+            final String row = resultSet.getPgJsonb(0);
+            final ChangeStreamResultSetMetadata metadata = resultSet.getMetadata();
+            return () -> changeStreamRecordMapper.toChangeStreamEventsFromJson(partition, row, metadata);
+        }
+        final Struct row = resultSet.getCurrentRowAsStruct();
+        final ChangeStreamResultSetMetadata metadata = resultSet.getMetadata();
+        return () -> changeStreamRecordMapper.toChangeStreamEvents(partition, row, metadata);
+    }
 
-        changeStreamEventConsumer.acceptChangeStreamEvent(new FinishPartitionEvent(partition));
+    private List<ChangeStreamEvent> await(Future<List<ChangeStreamEvent>> future) throws Exception {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private void onEvents(Partition partition, List<ChangeStreamEvent> events, long delay,
+                          ChangeStreamEventConsumer changeStreamEventConsumer)
+            throws InterruptedException {
+        LOGGER.debug("Task: {}, Events receive from stream: {}", taskUid, events);
+
+        if (!events.isEmpty() && (events.get(0) instanceof HeartbeatEvent)) {
+            var heartbeatEvent = (HeartbeatEvent) events.get(0);
+            long heartbeatLag = System.currentTimeMillis() - heartbeatEvent.getRecordTimestamp().toSqlTimestamp().toInstant().toEpochMilli();
+            if (heartbeatLag > 60_000) {
+                LOGGER.warn("Task: {}, heartbeat has very old timestamp, lag: {}, token: {}, event: {}", taskUid, heartbeatLag,
+                        heartbeatEvent.getMetadata().getPartitionToken(),
+                        heartbeatEvent);
+            }
+        }
+
+        processEvents(partition, events, changeStreamEventConsumer);
+
+        if (!events.isEmpty() && !(events.get(0) instanceof HeartbeatEvent)) {
+            delayChangeStreamEvents.update(delay);
+        }
     }
 
     private long now() {
@@ -115,4 +224,24 @@ public class SpannerChangeStreamService {
         }
     }
 
+    private static final class DecodingRow {
+        private final Future<List<ChangeStreamEvent>> future;
+        private final long delay;
+
+        private DecodingRow(Future<List<ChangeStreamEvent>> future, long delay) {
+            this.future = future;
+            this.delay = delay;
+        }
+    }
+
+    private static final class DecodeThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "SpannerConnector-ChangeStreamDecoder-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
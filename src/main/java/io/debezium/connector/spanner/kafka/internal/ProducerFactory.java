@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -26,12 +27,14 @@ public class ProducerFactory<K, V> {
         this.config = config;
     }
 
-    public KafkaProducer<K, V> createProducer() {
+    public Producer<K, V> createProducer() {
         Properties properties = config.kafkaProps(
                 Map.of(
                         ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName(),
                         ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName(),
                         ProducerConfig.ACKS_CONFIG, "1",
+                        // The sync events are sent asynchronously and must not be reordered by retries
+                        ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "1",
                         ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, String.valueOf(config.syncRequestTimeout()),
                         ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, String.valueOf(config.syncDeliveryTimeout())));
 
@@ -24,7 +24,6 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import io.debezium.DebeziumException;
 import io.debezium.connector.spanner.exception.SpannerConnectorException;
 import io.debezium.connector.spanner.function.BlockingBiConsumer;
-import io.debezium.connector.spanner.kafka.event.proto.SyncEventProtos;
 import io.debezium.connector.spanner.kafka.internal.model.SyncEventMetadata;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
 import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFromProtoMapper;
@@ -241,8 +240,7 @@ public class TaskSyncEventListener {
 
     private TaskSyncEvent parseSyncEvent(ConsumerRecord<String, byte[]> record)
             throws InvalidProtocolBufferException {
-        return SyncEventFromProtoMapper.mapFromProto(
-                SyncEventProtos.SyncEvent.parseFrom(record.value()));
+        return SyncEventFromProtoMapper.fromBytes(record.value());
     }
 
     private void shutdownConsumer(Consumer<String, byte[]> consumer) {
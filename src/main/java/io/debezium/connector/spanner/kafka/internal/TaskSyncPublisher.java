@@ -10,41 +10,86 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 
 import io.debezium.connector.spanner.exception.SpannerConnectorException;
-import io.debezium.connector.spanner.kafka.event.proto.SyncEventProtos;
 import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskStateDelta;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
 import io.debezium.connector.spanner.kafka.internal.proto.SyncEventToProtoMapper;
 import io.debezium.connector.spanner.task.TaskSyncContextHolder;
 
 /**
- * Sends Sync Events with task internal state updates to Kafka Sync topic
+ * Sends Sync Events with task internal state updates to Kafka Sync topic.
+ * <p>
+ * The events are sent asynchronously in the order of the calls. While a send is in flight,
+ * the regular events are coalesced and only the latest one is sent after the previous sends complete.
+ * The rebalance answers and the epoch messages carry the latest state of the task as well, so they
+ * replace the coalesced event, and the caller waits until they are written to the topic,
+ * as the rebalance protocol requires.
+ * <p>
+ * If the delta snapshot interval is set, the task state is numbered by a sequence,
+ * and the regular events carry only the changes since the previously published state.
+ * The full state is published after the given number of deltas or on request.
  */
 public class TaskSyncPublisher {
     private static final Logger LOGGER = getLogger(TaskSyncPublisher.class);
 
     private final String topic;
-    private final KafkaProducer<String, byte[]> producer;
+    private final Producer<String, byte[]> producer;
     private volatile Instant lastTime;
     private final BufferedPublisher<TaskSyncEvent> bufferedPublisher;
     private final Consumer<RuntimeException> errorHandler;
 
     private final String taskUid;
 
-    public TaskSyncPublisher(String taskUid, String topic, int syncEventPublisherWaitingTimeout, ProducerFactory<String, byte[]> producerFactory,
+    private final int deltaSnapshotInterval;
+    private final SyncEventFormat syncEventFormat;
+
+    // Sends the coalesced event, when the sends in flight complete, out of the producer I/O thread
+    private final ExecutorService coalescedEventSender;
+    private final AtomicInteger sendsInFlight = new AtomicInteger();
+    private final AtomicReference<TaskSyncEvent> coalescedEvent = new AtomicReference<>();
+
+    // Guarded by this
+    private TaskState lastPublishedState;
+    private long sequence;
+    private int deltasSinceSnapshot;
+    private boolean snapshotRequested;
+
+    public TaskSyncPublisher(String taskUid, String topic, int syncEventPublisherWaitingTimeout, int deltaSnapshotInterval,
+                             SyncEventFormat syncEventFormat,
+                             ProducerFactory<String, byte[]> producerFactory,
                              TaskSyncContextHolder taskSyncContextHolder,
                              Consumer<RuntimeException> errorHandler) {
         this.topic = topic;
+        this.deltaSnapshotInterval = deltaSnapshotInterval;
+        this.syncEventFormat = syncEventFormat;
         this.producer = producerFactory.createProducer();
         this.errorHandler = errorHandler;
         this.taskUid = taskUid;
+        this.coalescedEventSender = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SpannerConnector-SyncPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         if (syncEventPublisherWaitingTimeout > 0) {
             this.bufferedPublisher = new BufferedPublisher<>(
@@ -71,32 +116,101 @@ public class TaskSyncPublisher {
         }
     }
 
-    private void publishSyncEvent(TaskSyncEvent taskSyncEvent) {
+    /**
+     * The next published state of the task will be the full state
+     */
+    public synchronized void requestSnapshot() {
+        this.snapshotRequested = true;
+    }
+
+    private void publishSyncEvent(TaskSyncEvent syncEvent) {
+        if (isCoalesced(syncEvent)) {
+            coalescedEvent.set(syncEvent);
+            // Otherwise the last completed send schedules the coalesced event
+            if (sendsInFlight.get() == 0) {
+                sendCoalescedEvent();
+            }
+            return;
+        }
+
+        Future<RecordMetadata> future;
+        synchronized (this) {
+            // The event carries the latest state of the task
+            coalescedEvent.set(null);
+            future = sendSyncEvent(syncEvent);
+        }
+        if (future != null && requiresAcknowledgement(syncEvent)) {
+            awaitSent(future);
+        }
+    }
+
+    private void sendCoalescedEvent() {
+        synchronized (this) {
+            TaskSyncEvent syncEvent = coalescedEvent.getAndSet(null);
+            if (syncEvent != null) {
+                sendSyncEvent(syncEvent);
+            }
+        }
+    }
+
+    // Guarded by this, so the events are encoded and sent in the same order
+    private Future<RecordMetadata> sendSyncEvent(TaskSyncEvent syncEvent) {
+        TaskSyncEvent taskSyncEvent = deltaSnapshotInterval > 0 ? encode(syncEvent) : syncEvent;
+
         debug(LOGGER, "Send SyncEvent to Kafka topic, type: {}, timestamp: {}, event: {}", taskSyncEvent.getMessageType(), taskSyncEvent.getMessageTimestamp(),
                 taskSyncEvent);
 
-        SyncEventProtos.SyncEvent protoEvent = SyncEventToProtoMapper.mapToProto(taskSyncEvent);
+        byte[] value = SyncEventToProtoMapper.toBytes(taskSyncEvent, syncEventFormat);
 
-        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, taskSyncEvent.getTaskUid(), protoEvent.toByteArray());
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, taskSyncEvent.getTaskUid(), value);
+        Instant sendTime = Instant.now();
+        sendsInFlight.incrementAndGet();
         try {
-            Instant sendTime = Instant.now();
-            producer.send(record).get();
-            producer.flush();
-            if (Instant.now().isAfter(sendTime.plus(Duration.ofSeconds(60)))) {
-                long seconds = Instant.now().getEpochSecond() - sendTime.getEpochSecond();
+            return producer.send(record, (metadata, exception) -> onSent(record, sendTime, exception));
+        }
+        catch (RuntimeException e) {
+            sendsInFlight.decrementAndGet();
+            errorHandler.accept(new SpannerConnectorException("Error during publishing to the Sync Topic", e));
+            return null;
+        }
+    }
+
+    // Called by the producer in the order of the sends, must not block
+    private void onSent(ProducerRecord<String, byte[]> record, Instant sendTime, Exception exception) {
+        if (exception != null) {
+            errorHandler.accept(new SpannerConnectorException("Error during publishing to the Sync Topic", exception));
+        }
+        else {
+            lastTime = Instant.now();
+            if (lastTime.isAfter(sendTime.plus(Duration.ofSeconds(60)))) {
                 LOGGER.info(
                         "Task Uid {} published record {} with {} seconds latency",
                         this.taskUid,
                         record,
-                        seconds);
+                        lastTime.getEpochSecond() - sendTime.getEpochSecond());
             }
+        }
 
-            lastTime = Instant.now();
+        if (sendsInFlight.decrementAndGet() == 0 && coalescedEvent.get() != null) {
+            try {
+                coalescedEventSender.execute(this::sendCoalescedEvent);
+            }
+            catch (RejectedExecutionException e) {
+                LOGGER.debug("Task Uid {}, publisher is closed, coalesced event is not sent", this.taskUid);
+            }
+        }
+    }
+
+    private void awaitSent(Future<RecordMetadata> future) {
+        try {
+            future.get();
         }
         catch (ExecutionException e) {
-            errorHandler.accept(new SpannerConnectorException("Error during publishing to the Sync Topic", e));
+            // Already passed to the error handler by the callback
+            LOGGER.debug("Task Uid {}, failed to publish the sync event", this.taskUid, e);
         }
         catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -104,6 +218,15 @@ public class TaskSyncPublisher {
         if (bufferedPublisher != null) {
             bufferedPublisher.close();
         }
+        coalescedEventSender.shutdown();
+        try {
+            coalescedEventSender.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The latest state of the task is sent before closing
+        sendCoalescedEvent();
         producer.close();
     }
 
@@ -111,7 +234,54 @@ public class TaskSyncPublisher {
         return lastTime;
     }
 
+    /**
+     * Numbers the state of the task and replaces the regular event with the delta
+     * from the previously published state, unless the full state is due
+     */
+    synchronized TaskSyncEvent encode(TaskSyncEvent syncEvent) {
+        TaskState taskState = syncEvent.getTaskStates() != null ? syncEvent.getTaskStates().get(taskUid) : null;
+        if (taskState == null) {
+            return syncEvent;
+        }
+        TaskState sequencedState = taskState.toBuilder().sequence(++sequence).build();
+
+        boolean regular = syncEvent.getMessageType() == null || syncEvent.getMessageType() == MessageTypeEnum.REGULAR;
+        if (regular && lastPublishedState != null && !snapshotRequested && deltasSinceSnapshot < deltaSnapshotInterval) {
+            TaskStateDelta delta = TaskStateDelta.between(lastPublishedState, sequencedState);
+            lastPublishedState = sequencedState;
+            deltasSinceSnapshot++;
+            return syncEvent.toBuilder()
+                    .messageType(MessageTypeEnum.DELTA)
+                    .taskStates(Map.of())
+                    .taskStateDelta(delta)
+                    .build();
+        }
+
+        // Every full state of the task, also the one in the epoch and rebalance messages, is a new base
+        lastPublishedState = sequencedState;
+        deltasSinceSnapshot = 0;
+        snapshotRequested = false;
+        Map<String, TaskState> taskStates = new HashMap<>(syncEvent.getTaskStates());
+        taskStates.put(taskUid, sequencedState);
+        return syncEvent.toBuilder()
+                .messageType(regular ? MessageTypeEnum.REGULAR : syncEvent.getMessageType())
+                .taskStates(taskStates)
+                .build();
+    }
+
     private boolean publishImmediately(TaskSyncEvent syncEvent) {
-        return !(syncEvent.getMessageType() == null || syncEvent.getMessageType() == MessageTypeEnum.REGULAR);
+        return !isCoalesced(syncEvent);
+    }
+
+    // The regular events replace each other, unless they ask other tasks for their snapshots
+    private static boolean isCoalesced(TaskSyncEvent syncEvent) {
+        return (syncEvent.getMessageType() == null || syncEvent.getMessageType() == MessageTypeEnum.REGULAR)
+                && syncEvent.getSnapshotRequests().isEmpty();
+    }
+
+    private static boolean requiresAcknowledgement(TaskSyncEvent syncEvent) {
+        return syncEvent.getMessageType() == MessageTypeEnum.REBALANCE_ANSWER
+                || syncEvent.getMessageType() == MessageTypeEnum.NEW_EPOCH
+                || syncEvent.getMessageType() == MessageTypeEnum.UPDATE_EPOCH;
     }
 }
@@ -9,5 +9,6 @@ public enum MessageTypeEnum {
     REGULAR, // this message is published, after the task state was changed
     NEW_EPOCH, // leader initiates new epoch, when answers from all members have been received
     UPDATE_EPOCH, // periodical message to update epoch offset
-    REBALANCE_ANSWER // all tasks publish their states on Rebalance Event to show they are alive
+    REBALANCE_ANSWER, // all tasks publish their states on Rebalance Event to show they are alive
+    DELTA // published instead of REGULAR, carries only the changes of the task state since the previous message
 }
\ No newline at end of file
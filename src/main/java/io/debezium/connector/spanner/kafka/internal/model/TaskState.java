@@ -21,6 +21,8 @@ public class TaskState {
     private final long stateTimestamp;
     private final Map<String, PartitionState> partitions;
     private final Map<String, PartitionState> sharedPartitions;
+    // Number of the state published by the task, 0 if unknown
+    private final long sequence;
 
     public static class TaskStateBuilder {
 
@@ -36,6 +38,8 @@ public class TaskState {
 
         private Map<String, PartitionState> sharedPartitions;
 
+        private long sequence;
+
         TaskStateBuilder() {
         }
 
@@ -79,10 +83,15 @@ public class TaskState {
             return this;
         }
 
+        public TaskState.TaskStateBuilder sequence(final long sequence) {
+            this.sequence = sequence;
+            return this;
+        }
+
         public TaskState build() {
             return new TaskState(this.taskUid, this.consumerId,
                     this.rebalanceGenerationId, this.stateTimestamp,
-                    this.partitions, this.sharedPartitions);
+                    this.partitions, this.sharedPartitions, this.sequence);
         }
 
         @Override
@@ -92,7 +101,8 @@ public class TaskState {
                     + ", rebalanceGenerationId=" + this.rebalanceGenerationId
                     + ", stateTimestamp=" + this.stateTimestamp
                     + ", partitions=" + this.partitions
-                    + ", sharedPartitions=" + this.sharedPartitions + ")";
+                    + ", sharedPartitions=" + this.sharedPartitions
+                    + ", sequence=" + this.sequence + ")";
         }
     }
 
@@ -106,7 +116,8 @@ public class TaskState {
                 .rebalanceGenerationId(this.rebalanceGenerationId)
                 .stateTimestamp(this.stateTimestamp)
                 .partitionsMap(this.partitions)
-                .sharedPartitionsMap(this.sharedPartitions);
+                .sharedPartitionsMap(this.sharedPartitions)
+                .sequence(this.sequence);
     }
 
     public TaskState(final String taskUid,
@@ -115,12 +126,23 @@ public class TaskState {
                      final long stateTimestamp,
                      final Map<String, PartitionState> partitions,
                      final Map<String, PartitionState> sharedPartitions) {
+        this(taskUid, consumerId, rebalanceGenerationId, stateTimestamp, partitions, sharedPartitions, 0);
+    }
+
+    public TaskState(final String taskUid,
+                     final String consumerId,
+                     final long rebalanceGenerationId,
+                     final long stateTimestamp,
+                     final Map<String, PartitionState> partitions,
+                     final Map<String, PartitionState> sharedPartitions,
+                     final long sequence) {
         this.taskUid = taskUid;
         this.consumerId = consumerId;
         this.rebalanceGenerationId = rebalanceGenerationId;
         this.stateTimestamp = stateTimestamp;
         this.partitions = partitions;
         this.sharedPartitions = sharedPartitions;
+        this.sequence = sequence;
     }
 
     public String getTaskUid() {
@@ -147,6 +169,10 @@ public class TaskState {
         return this.sharedPartitions;
     }
 
+    public long getSequence() {
+        return this.sequence;
+    }
+
     public Collection<PartitionState> getPartitions() {
         return this.partitions.values();
     }
@@ -162,6 +188,7 @@ public class TaskState {
                 ", rebalanceGenerationId=" + this.getRebalanceGenerationId() +
                 ", stateTimestamp=" + this.getStateTimestamp() +
                 ", partitions=" + this.getPartitions() +
-                ", sharedPartitions=" + this.getSharedPartitions() + ")";
+                ", sharedPartitions=" + this.getSharedPartitions() +
+                ", sequence=" + this.getSequence() + ")";
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.internal.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Changes of a task state since the state with the previous sequence number:
+ * the added and changed partition states and the tokens of the removed ones
+ */
+public class TaskStateDelta {
+    private final String taskUid;
+    private final String consumerId;
+    private final long rebalanceGenerationId;
+    private final long stateTimestamp;
+    private final long sequence;
+    private final List<PartitionState> partitions;
+    private final List<String> removedPartitions;
+    private final List<PartitionState> sharedPartitions;
+    private final List<String> removedSharedPartitions;
+
+    public TaskStateDelta(final String taskUid,
+                          final String consumerId,
+                          final long rebalanceGenerationId,
+                          final long stateTimestamp,
+                          final long sequence,
+                          final List<PartitionState> partitions,
+                          final List<String> removedPartitions,
+                          final List<PartitionState> sharedPartitions,
+                          final List<String> removedSharedPartitions) {
+        this.taskUid = taskUid;
+        this.consumerId = consumerId;
+        this.rebalanceGenerationId = rebalanceGenerationId;
+        this.stateTimestamp = stateTimestamp;
+        this.sequence = sequence;
+        this.partitions = partitions;
+        this.removedPartitions = removedPartitions;
+        this.sharedPartitions = sharedPartitions;
+        this.removedSharedPartitions = removedSharedPartitions;
+    }
+
+    /**
+     * Builds the delta, which turns the base state into the target state
+     */
+    public static TaskStateDelta between(TaskState base, TaskState target) {
+        List<PartitionState> partitions = new ArrayList<>();
+        List<String> removedPartitions = new ArrayList<>();
+        diff(base.getPartitionsMap(), target.getPartitionsMap(), partitions, removedPartitions);
+
+        List<PartitionState> sharedPartitions = new ArrayList<>();
+        List<String> removedSharedPartitions = new ArrayList<>();
+        diff(base.getSharedPartitionsMap(), target.getSharedPartitionsMap(), sharedPartitions, removedSharedPartitions);
+
+        return new TaskStateDelta(target.getTaskUid(), target.getConsumerId(), target.getRebalanceGenerationId(),
+                target.getStateTimestamp(), target.getSequence(),
+                partitions, removedPartitions, sharedPartitions, removedSharedPartitions);
+    }
+
+    /**
+     * Applies the delta to the state with the previous sequence number
+     */
+    public TaskState applyTo(TaskState base) {
+        return base.toBuilder()
+                .consumerId(consumerId)
+                .rebalanceGenerationId(rebalanceGenerationId)
+                .stateTimestamp(stateTimestamp)
+                .sequence(sequence)
+                .partitionsMap(apply(base.getPartitionsMap(), partitions, removedPartitions))
+                .sharedPartitionsMap(apply(base.getSharedPartitionsMap(), sharedPartitions, removedSharedPartitions))
+                .build();
+    }
+
+    private static void diff(Map<String, PartitionState> base, Map<String, PartitionState> target,
+                             List<PartitionState> changed, List<String> removed) {
+        for (PartitionState partitionState : target.values()) {
+            if (!isSame(base.get(partitionState.getToken()), partitionState)) {
+                changed.add(partitionState);
+            }
+        }
+        for (String token : base.keySet()) {
+            if (!target.containsKey(token)) {
+                removed.add(token);
+            }
+        }
+    }
+
+    private static Map<String, PartitionState> apply(Map<String, PartitionState> base, List<PartitionState> changed,
+                                                     List<String> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return base;
+        }
+        Map<String, PartitionState> result = new HashMap<>(base);
+        for (String token : removed) {
+            result.remove(token);
+        }
+        for (PartitionState partitionState : changed) {
+            result.put(partitionState.getToken(), partitionState);
+        }
+        return result;
+    }
+
+    // PartitionState is equal by token only
+    private static boolean isSame(PartitionState partitionState, PartitionState other) {
+        return partitionState == other
+                || (partitionState != null
+                        && Objects.equals(partitionState.getToken(), other.getToken())
+                        && partitionState.getState() == other.getState()
+                        && Objects.equals(partitionState.getStartTimestamp(), other.getStartTimestamp())
+                        && Objects.equals(partitionState.getEndTimestamp(), other.getEndTimestamp())
+                        && Objects.equals(partitionState.getParents(), other.getParents())
+                        && Objects.equals(partitionState.getAssigneeTaskUid(), other.getAssigneeTaskUid())
+                        && Objects.equals(partitionState.getFinishedTimestamp(), other.getFinishedTimestamp())
+                        && Objects.equals(partitionState.getOriginParent(), other.getOriginParent()));
+    }
+
+    public String getTaskUid() {
+        return this.taskUid;
+    }
+
+    public String getConsumerId() {
+        return this.consumerId;
+    }
+
+    public long getRebalanceGenerationId() {
+        return this.rebalanceGenerationId;
+    }
+
+    public long getStateTimestamp() {
+        return this.stateTimestamp;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public List<PartitionState> getPartitions() {
+        return this.partitions;
+    }
+
+    public List<String> getRemovedPartitions() {
+        return this.removedPartitions;
+    }
+
+    public List<PartitionState> getSharedPartitions() {
+        return this.sharedPartitions;
+    }
+
+    public List<String> getRemovedSharedPartitions() {
+        return this.removedSharedPartitions;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskStateDelta(taskUid=" + this.getTaskUid() +
+                ", consumerId=" + this.getConsumerId() +
+                ", rebalanceGenerationId=" + this.getRebalanceGenerationId() +
+                ", stateTimestamp=" + this.getStateTimestamp() +
+                ", sequence=" + this.getSequence() +
+                ", partitions=" + this.getPartitions() +
+                ", removedPartitions=" + this.getRemovedPartitions() +
+                ", sharedPartitions=" + this.getSharedPartitions() +
+                ", removedSharedPartitions=" + this.getRemovedSharedPartitions() + ")";
+    }
+}
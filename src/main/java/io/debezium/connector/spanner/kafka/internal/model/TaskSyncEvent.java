@@ -8,6 +8,7 @@ package io.debezium.connector.spanner.kafka.internal.model;
 import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.cloud.Timestamp;
@@ -25,6 +26,8 @@ public class TaskSyncEvent {
     private final long rebalanceGenerationId;
     private final long epochOffset;
     private final Map<String, TaskState> taskStates;
+    private final TaskStateDelta taskStateDelta;
+    private final Set<String> snapshotRequests;
 
     public static class TaskSyncEventBuilder {
 
@@ -44,6 +47,10 @@ public class TaskSyncEvent {
 
         private Timestamp databaseSchemaTimestamp;
 
+        private TaskStateDelta taskStateDelta;
+
+        private Set<String> snapshotRequests = Set.of();
+
         TaskSyncEventBuilder() {
         }
 
@@ -87,9 +94,19 @@ public class TaskSyncEvent {
             return this;
         }
 
+        public TaskSyncEvent.TaskSyncEventBuilder taskStateDelta(final TaskStateDelta taskStateDelta) {
+            this.taskStateDelta = taskStateDelta;
+            return this;
+        }
+
+        public TaskSyncEvent.TaskSyncEventBuilder snapshotRequests(final Set<String> snapshotRequests) {
+            this.snapshotRequests = snapshotRequests;
+            return this;
+        }
+
         public TaskSyncEvent build() {
             return new TaskSyncEvent(this.taskUid, this.consumerId, this.messageTimestamp, this.messageType, this.rebalanceGenerationId, this.epochOffset,
-                    this.taskStates);
+                    this.taskStates, this.taskStateDelta, this.snapshotRequests);
         }
 
         @Override
@@ -99,7 +116,9 @@ public class TaskSyncEvent {
                     + this.messageTimestamp + ", messageType="
                     + this.messageType + ", rebalanceGenerationId="
                     + this.rebalanceGenerationId + ", epochOffset="
-                    + this.epochOffset + ", taskStates=" + this.taskStates + ")";
+                    + this.epochOffset + ", taskStates=" + this.taskStates
+                    + ", taskStateDelta=" + this.taskStateDelta
+                    + ", snapshotRequests=" + this.snapshotRequests + ")";
         }
     }
 
@@ -112,7 +131,8 @@ public class TaskSyncEvent {
                 .taskUid(this.taskUid).consumerId(this.consumerId)
                 .messageTimestamp(this.messageTimestamp)
                 .messageType(this.messageType).rebalanceGenerationId(this.rebalanceGenerationId)
-                .epochOffset(this.epochOffset).taskStates(this.taskStates);
+                .epochOffset(this.epochOffset).taskStates(this.taskStates)
+                .taskStateDelta(this.taskStateDelta).snapshotRequests(this.snapshotRequests);
     }
 
     public TaskSyncEvent(final String taskUid,
@@ -122,6 +142,18 @@ public class TaskSyncEvent {
                          final long rebalanceGenerationId,
                          final long epochOffset,
                          final Map<String, TaskState> taskStates) {
+        this(taskUid, consumerId, messageTimestamp, messageType, rebalanceGenerationId, epochOffset, taskStates, null, Set.of());
+    }
+
+    public TaskSyncEvent(final String taskUid,
+                         final String consumerId,
+                         final long messageTimestamp,
+                         final MessageTypeEnum messageType,
+                         final long rebalanceGenerationId,
+                         final long epochOffset,
+                         final Map<String, TaskState> taskStates,
+                         final TaskStateDelta taskStateDelta,
+                         final Set<String> snapshotRequests) {
         this.taskUid = taskUid;
         this.consumerId = consumerId;
         this.messageTimestamp = messageTimestamp;
@@ -129,6 +161,8 @@ public class TaskSyncEvent {
         this.rebalanceGenerationId = rebalanceGenerationId;
         this.epochOffset = epochOffset;
         this.taskStates = taskStates;
+        this.taskStateDelta = taskStateDelta;
+        this.snapshotRequests = snapshotRequests;
     }
 
     public String getTaskUid() {
@@ -159,6 +193,20 @@ public class TaskSyncEvent {
         return this.taskStates;
     }
 
+    /**
+     * The changes of the sender's state, set for the DELTA messages only
+     */
+    public TaskStateDelta getTaskStateDelta() {
+        return this.taskStateDelta;
+    }
+
+    /**
+     * The tasks, which are asked to publish their full state
+     */
+    public Set<String> getSnapshotRequests() {
+        return this.snapshotRequests;
+    }
+
     public int getNumPartitions() {
         Map<String, List<PartitionState>> partitionsMap = getTaskStates().values().stream()
                 .flatMap(taskState -> taskState.getPartitions().stream())
@@ -198,6 +246,8 @@ public class TaskSyncEvent {
                 ", messageType=" + this.getMessageType() +
                 ", rebalanceGenerationId=" + this.getRebalanceGenerationId() +
                 ", epochOffset=" + this.getEpochOffset() +
-                ", taskStates=" + this.getTaskStates() + ")";
+                ", taskStates=" + this.getTaskStates() +
+                ", taskStateDelta=" + this.getTaskStateDelta() +
+                ", snapshotRequests=" + this.getSnapshotRequests() + ")";
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.internal.proto;
+
+import com.github.luben.zstd.Zstd;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Compresses the payload of the V2 Sync Events with the codecs,
+ * which are shipped with the Kafka clients
+ */
+final class SyncEventCompression {
+    static final byte NONE = 0;
+    static final byte LZ4 = 1;
+    static final byte ZSTD = 2;
+
+    private static final int ZSTD_LEVEL = 3;
+
+    private SyncEventCompression() {
+    }
+
+    static byte[] compress(byte compression, byte[] payload) {
+        switch (compression) {
+            case LZ4:
+                return Lz4.COMPRESSOR.compress(payload);
+            case ZSTD:
+                return Zstd.compress(payload, ZSTD_LEVEL);
+            default:
+                return payload;
+        }
+    }
+
+    static byte[] decompress(byte compression, byte[] data, int offset, int length, int uncompressedLength)
+            throws InvalidProtocolBufferException {
+        byte[] payload = new byte[uncompressedLength];
+        switch (compression) {
+            case LZ4:
+                try {
+                    if (Lz4.DECOMPRESSOR.decompress(data, offset, length, payload, 0) != uncompressedLength) {
+                        throw new InvalidProtocolBufferException("Truncated LZ4 Sync Event payload");
+                    }
+                }
+                catch (LZ4Exception e) {
+                    throw new InvalidProtocolBufferException("Malformed LZ4 Sync Event payload: " + e.getMessage());
+                }
+                return payload;
+            case ZSTD:
+                long size = Zstd.decompressByteArray(payload, 0, uncompressedLength, data, offset, length);
+                if (Zstd.isError(size) || size != uncompressedLength) {
+                    throw new InvalidProtocolBufferException("Malformed ZSTD Sync Event payload");
+                }
+                return payload;
+            default:
+                throw new InvalidProtocolBufferException("Unknown Sync Event compression: " + compression);
+        }
+    }
+
+    // Loaded only if the LZ4 compression is used
+    private static final class Lz4 {
+        private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+        private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.internal.proto;
+
+/**
+ * Format, in which the Sync Events are written to the Sync topic.
+ * <p>
+ * The V1 records are the plain SyncEventProtos.SyncEvent protocol buffer.
+ * The V2 records start with a header: the 0 byte, which is never the first byte of a V1 record,
+ * the version and the compression. The compressed payload is preceded by its uncompressed length.
+ */
+public enum SyncEventFormat {
+    V1(1, SyncEventCompression.NONE),
+    V2(2, SyncEventCompression.NONE),
+    V2_LZ4(2, SyncEventCompression.LZ4),
+    V2_ZSTD(2, SyncEventCompression.ZSTD);
+
+    static final byte HEADER_MAGIC = 0;
+    static final int HEADER_LENGTH = 3;
+    static final int UNCOMPRESSED_LENGTH_BYTES = 4;
+
+    private final int version;
+    private final byte compression;
+
+    SyncEventFormat(int version, byte compression) {
+        this.version = version;
+        this.compression = compression;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    byte getCompression() {
+        return compression;
+    }
+}
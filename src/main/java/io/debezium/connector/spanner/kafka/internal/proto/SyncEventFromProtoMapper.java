@@ -5,27 +5,70 @@
  */
 package io.debezium.connector.spanner.kafka.internal.proto;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.cloud.Timestamp;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 import io.debezium.connector.spanner.kafka.event.proto.SyncEventProtos;
 import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
 import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
 import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskStateDelta;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
 
 /**
- * Maps the SyncEventProtos.SyncEvent protocol buffer to TaskSyncEvent class
+ * Maps the SyncEventProtos.SyncEvent and SyncEventV2 protocol buffers to TaskSyncEvent class
  */
 public class SyncEventFromProtoMapper {
+    private static final PartitionStateEnum[] STATES = PartitionStateEnum.values();
+
     private SyncEventFromProtoMapper() {
     }
 
+    /**
+     * Deserializes the record value written in any of the Sync Event formats
+     */
+    public static TaskSyncEvent fromBytes(byte[] bytes) throws InvalidProtocolBufferException {
+        if (bytes.length == 0 || bytes[0] != SyncEventFormat.HEADER_MAGIC) {
+            return mapFromProto(SyncEventProtos.SyncEvent.parseFrom(bytes));
+        }
+        if (bytes.length < SyncEventFormat.HEADER_LENGTH || bytes[1] != 2) {
+            throw new InvalidProtocolBufferException("Unsupported Sync Event version");
+        }
+        byte compression = bytes[2];
+        if (compression == SyncEventCompression.NONE) {
+            return parseV2(ByteBuffer.wrap(bytes, SyncEventFormat.HEADER_LENGTH, bytes.length - SyncEventFormat.HEADER_LENGTH));
+        }
+        int offset = SyncEventFormat.HEADER_LENGTH + SyncEventFormat.UNCOMPRESSED_LENGTH_BYTES;
+        if (bytes.length < offset) {
+            throw new InvalidProtocolBufferException("Truncated Sync Event header");
+        }
+        int uncompressedLength = ByteBuffer.wrap(bytes, SyncEventFormat.HEADER_LENGTH, SyncEventFormat.UNCOMPRESSED_LENGTH_BYTES).getInt();
+        if (uncompressedLength < 0) {
+            throw new InvalidProtocolBufferException("Malformed Sync Event header");
+        }
+        byte[] payload = SyncEventCompression.decompress(compression, bytes, offset, bytes.length - offset, uncompressedLength);
+        return parseV2(ByteBuffer.wrap(payload));
+    }
+
+    private static TaskSyncEvent parseV2(ByteBuffer payload) throws InvalidProtocolBufferException {
+        SyncEventProtos.SyncEventV2 protoEvent = SyncEventProtos.SyncEventV2.parseFrom(payload);
+        try {
+            return mapFromProtoV2(protoEvent);
+        }
+        catch (IndexOutOfBoundsException e) {
+            throw new InvalidProtocolBufferException("Sync Event refers to a missing dictionary entry: " + e.getMessage());
+        }
+    }
+
     public static TaskSyncEvent mapFromProto(SyncEventProtos.SyncEvent protoEvent) {
         List<SyncEventProtos.TaskState> protoStates = protoEvent.getTaskStatesList();
 
@@ -38,7 +81,8 @@ public class SyncEventFromProtoMapper {
                     protoState.getRebalanceGenerationId(),
                     protoState.getStateTimestamp(),
                     mapPartitionsArray(protoState),
-                    mapSharedPartitionsArray(protoState));
+                    mapSharedPartitionsArray(protoState),
+                    protoState.getSequence());
             connectorStates.put(taskState.getTaskUid(), taskState);
         }
 
@@ -49,7 +93,30 @@ public class SyncEventFromProtoMapper {
                 MessageTypeEnum.valueOf(protoEvent.getMessageType().name()),
                 protoEvent.getRebalanceGenerationId(),
                 protoEvent.getEpochOffset(),
-                connectorStates);
+                connectorStates,
+                protoEvent.hasTaskStateDelta() ? mapDelta(protoEvent.getTaskStateDelta()) : null,
+                protoEvent.getSnapshotRequestsCount() == 0 ? Set.of() : new HashSet<>(protoEvent.getSnapshotRequestsList()));
+    }
+
+    private static TaskStateDelta mapDelta(SyncEventProtos.TaskStateDelta protoDelta) {
+        List<PartitionState> partitions = new ArrayList<>(protoDelta.getPartitionsCount());
+        for (int i = 0; i < protoDelta.getPartitionsCount(); i++) {
+            partitions.add(mapPartition(protoDelta.getPartitions(i)));
+        }
+        List<PartitionState> sharedPartitions = new ArrayList<>(protoDelta.getSharedPartitionsCount());
+        for (int i = 0; i < protoDelta.getSharedPartitionsCount(); i++) {
+            sharedPartitions.add(mapPartition(protoDelta.getSharedPartitions(i)));
+        }
+        return new TaskStateDelta(
+                protoDelta.getTaskUid(),
+                protoDelta.getConsumerId(),
+                protoDelta.getRebalanceGenerationId(),
+                protoDelta.getStateTimestamp(),
+                protoDelta.getSequence(),
+                partitions,
+                List.copyOf(protoDelta.getRemovedPartitionsList()),
+                sharedPartitions,
+                List.copyOf(protoDelta.getRemovedSharedPartitionsList()));
     }
 
     private static Map<String, PartitionState> mapPartitionsArray(SyncEventProtos.TaskState protoState) {
@@ -92,4 +159,95 @@ public class SyncEventFromProtoMapper {
                         : null,
                 partitionState.getOriginParent());
     }
-}
\ No newline at end of file
+
+    public static TaskSyncEvent mapFromProtoV2(SyncEventProtos.SyncEventV2 protoEvent) {
+        String[] dictionary = protoEvent.getDictionaryList().toArray(new String[0]);
+
+        Map<String, TaskState> connectorStates = new HashMap<>(protoEvent.getTaskStatesCount());
+        for (int i = 0; i < protoEvent.getTaskStatesCount(); i++) {
+            var protoState = protoEvent.getTaskStates(i);
+            var taskState = new TaskState(
+                    protoState.getTaskUid(),
+                    protoState.getConsumerId(),
+                    protoState.getRebalanceGenerationId(),
+                    protoState.getStateTimestamp(),
+                    toMap(mapPartitionsV2(protoState.getPartitions(), dictionary)),
+                    toMap(mapPartitionsV2(protoState.getSharedPartitions(), dictionary)),
+                    protoState.getSequence());
+            connectorStates.put(taskState.getTaskUid(), taskState);
+        }
+
+        return new TaskSyncEvent(
+                protoEvent.getTaskUid(),
+                protoEvent.getConsumerId(),
+                protoEvent.getMessageTimestamp(),
+                MessageTypeEnum.valueOf(protoEvent.getMessageType().name()),
+                protoEvent.getRebalanceGenerationId(),
+                protoEvent.getEpochOffset(),
+                connectorStates,
+                protoEvent.hasTaskStateDelta() ? mapDeltaV2(protoEvent.getTaskStateDelta(), dictionary) : null,
+                protoEvent.getSnapshotRequestsCount() == 0 ? Set.of() : new HashSet<>(protoEvent.getSnapshotRequestsList()));
+    }
+
+    private static TaskStateDelta mapDeltaV2(SyncEventProtos.TaskStateDeltaV2 protoDelta, String[] dictionary) {
+        List<String> removedPartitions = new ArrayList<>(protoDelta.getRemovedPartitionsCount());
+        for (int i = 0; i < protoDelta.getRemovedPartitionsCount(); i++) {
+            removedPartitions.add(dictionary[protoDelta.getRemovedPartitions(i)]);
+        }
+        List<String> removedSharedPartitions = new ArrayList<>(protoDelta.getRemovedSharedPartitionsCount());
+        for (int i = 0; i < protoDelta.getRemovedSharedPartitionsCount(); i++) {
+            removedSharedPartitions.add(dictionary[protoDelta.getRemovedSharedPartitions(i)]);
+        }
+        return new TaskStateDelta(
+                protoDelta.getTaskUid(),
+                protoDelta.getConsumerId(),
+                protoDelta.getRebalanceGenerationId(),
+                protoDelta.getStateTimestamp(),
+                protoDelta.getSequence(),
+                mapPartitionsV2(protoDelta.getPartitions(), dictionary),
+                removedPartitions,
+                mapPartitionsV2(protoDelta.getSharedPartitions(), dictionary),
+                removedSharedPartitions);
+    }
+
+    private static List<PartitionState> mapPartitionsV2(SyncEventProtos.PartitionStatesV2 columns, String[] dictionary) {
+        int count = columns.getTokensCount();
+        Timestamp[] endTimestamps = new Timestamp[count];
+        for (int i = 0; i < columns.getEndTimestampPositionsCount(); i++) {
+            endTimestamps[columns.getEndTimestampPositions(i)] = Timestamp.ofTimeMicroseconds(columns.getEndTimestamps(i));
+        }
+        Timestamp[] finishedTimestamps = new Timestamp[count];
+        for (int i = 0; i < columns.getFinishedTimestampPositionsCount(); i++) {
+            finishedTimestamps[columns.getFinishedTimestampPositions(i)] = Timestamp.ofTimeMicroseconds(columns.getFinishedTimestamps(i));
+        }
+
+        List<PartitionState> partitions = new ArrayList<>(count);
+        int parent = 0;
+        for (int i = 0; i < count; i++) {
+            int parentCount = columns.getParentCounts(i);
+            Set<String> parents = new HashSet<>(Math.max(4, parentCount * 2));
+            for (int j = 0; j < parentCount; j++) {
+                parents.add(dictionary[columns.getParents(parent++)]);
+            }
+            int originParent = columns.getOriginParents(i);
+            partitions.add(new PartitionState(
+                    dictionary[columns.getTokens(i)],
+                    Timestamp.ofTimeMicroseconds(columns.getStartTimestamps(i)),
+                    endTimestamps[i],
+                    STATES[columns.getStatesValue(i)],
+                    parents,
+                    dictionary[columns.getAssignees(i)],
+                    finishedTimestamps[i],
+                    originParent == 0 ? null : dictionary[originParent - 1]));
+        }
+        return partitions;
+    }
+
+    private static Map<String, PartitionState> toMap(List<PartitionState> partitions) {
+        Map<String, PartitionState> map = new HashMap<>(partitions.size() * 2);
+        for (PartitionState partition : partitions) {
+            map.put(partition.getToken(), partition);
+        }
+        return map;
+    }
+}
@@ -7,20 +7,54 @@ package io.debezium.connector.spanner.kafka.internal.proto;
 
 import static java.util.stream.Collectors.toList;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import com.google.cloud.Timestamp;
 
 import io.debezium.connector.spanner.kafka.event.proto.SyncEventProtos;
 import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskStateDelta;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
 
 /**
- * Maps the TaskSyncEvent class to the SyncEventProtos.SyncEvent protocol buffer, which is the
+ * Maps the TaskSyncEvent class to the SyncEventProtos.SyncEvent or SyncEventV2 protocol buffer, which is the
  * storage format used for the internal Sync Topic.
  */
 public class SyncEventToProtoMapper {
     private SyncEventToProtoMapper() {
     }
 
+    /**
+     * Serializes the event into the record value in the given format
+     */
+    public static byte[] toBytes(TaskSyncEvent taskSyncEvent, SyncEventFormat format) {
+        if (format == SyncEventFormat.V1) {
+            return mapToProto(taskSyncEvent).toByteArray();
+        }
+        byte[] payload = mapToProtoV2(taskSyncEvent).toByteArray();
+        byte compression = format.getCompression();
+        byte[] compressed = SyncEventCompression.compress(compression, payload);
+
+        int offset = SyncEventFormat.HEADER_LENGTH + (compression == SyncEventCompression.NONE ? 0 : SyncEventFormat.UNCOMPRESSED_LENGTH_BYTES);
+        byte[] bytes = new byte[offset + compressed.length];
+        bytes[0] = SyncEventFormat.HEADER_MAGIC;
+        bytes[1] = (byte) format.getVersion();
+        bytes[2] = compression;
+        if (compression != SyncEventCompression.NONE) {
+            bytes[3] = (byte) (payload.length >>> 24);
+            bytes[4] = (byte) (payload.length >>> 16);
+            bytes[5] = (byte) (payload.length >>> 8);
+            bytes[6] = (byte) payload.length;
+        }
+        System.arraycopy(compressed, 0, bytes, offset, compressed.length);
+        return bytes;
+    }
+
     public static SyncEventProtos.SyncEvent mapToProto(TaskSyncEvent taskSyncEvent) {
 
         List<SyncEventProtos.TaskState> protoStates = taskSyncEvent.getTaskStates().values().stream()
@@ -40,10 +74,11 @@ public class SyncEventToProtoMapper {
                                                 .distinct()
                                                 .map(SyncEventToProtoMapper::mapPartition)
                                                 .collect(toList()))
+                                .setSequence(state.getSequence())
                                 .build())
                 .collect(toList());
 
-        return SyncEventProtos.SyncEvent.newBuilder()
+        SyncEventProtos.SyncEvent.Builder builder = SyncEventProtos.SyncEvent.newBuilder()
                 .setTaskUid(taskSyncEvent.getTaskUid())
                 .setConsumerId(taskSyncEvent.getConsumerId())
                 .setMessageTimestamp(taskSyncEvent.getMessageTimestamp())
@@ -55,6 +90,28 @@ public class SyncEventToProtoMapper {
                 .setRebalanceGenerationId(taskSyncEvent.getRebalanceGenerationId())
                 .setEpochOffset(taskSyncEvent.getEpochOffset())
                 .addAllTaskStates(protoStates)
+                .addAllSnapshotRequests(taskSyncEvent.getSnapshotRequests());
+        if (taskSyncEvent.getTaskStateDelta() != null) {
+            builder.setTaskStateDelta(mapDelta(taskSyncEvent.getTaskStateDelta()));
+        }
+        return builder.build();
+    }
+
+    private static SyncEventProtos.TaskStateDelta mapDelta(TaskStateDelta delta) {
+        return SyncEventProtos.TaskStateDelta.newBuilder()
+                .setTaskUid(delta.getTaskUid())
+                .setConsumerId(delta.getConsumerId())
+                .setRebalanceGenerationId(delta.getRebalanceGenerationId())
+                .setStateTimestamp(delta.getStateTimestamp())
+                .setSequence(delta.getSequence())
+                .addAllPartitions(delta.getPartitions().stream()
+                        .map(SyncEventToProtoMapper::mapPartition)
+                        .collect(toList()))
+                .addAllRemovedPartitions(delta.getRemovedPartitions())
+                .addAllSharedPartitions(delta.getSharedPartitions().stream()
+                        .map(SyncEventToProtoMapper::mapPartition)
+                        .collect(toList()))
+                .addAllRemovedSharedPartitions(delta.getRemovedSharedPartitions())
                 .build();
     }
 
@@ -80,4 +137,102 @@ public class SyncEventToProtoMapper {
 
         return builder.build();
     }
-}
\ No newline at end of file
+
+    public static SyncEventProtos.SyncEventV2 mapToProtoV2(TaskSyncEvent taskSyncEvent) {
+        Dictionary dictionary = new Dictionary();
+
+        SyncEventProtos.SyncEventV2.Builder builder = SyncEventProtos.SyncEventV2.newBuilder()
+                .setTaskUid(taskSyncEvent.getTaskUid())
+                .setConsumerId(taskSyncEvent.getConsumerId())
+                .setMessageTimestamp(taskSyncEvent.getMessageTimestamp())
+                .setMessageType(
+                        SyncEventProtos.MessageType.forNumber(
+                                taskSyncEvent.getMessageType() == null
+                                        ? 0
+                                        : taskSyncEvent.getMessageType().ordinal()))
+                .setRebalanceGenerationId(taskSyncEvent.getRebalanceGenerationId())
+                .setEpochOffset(taskSyncEvent.getEpochOffset())
+                .addAllSnapshotRequests(taskSyncEvent.getSnapshotRequests());
+
+        for (TaskState state : taskSyncEvent.getTaskStates().values()) {
+            builder.addTaskStates(SyncEventProtos.TaskStateV2.newBuilder()
+                    .setTaskUid(state.getTaskUid())
+                    .setConsumerId(state.getConsumerId())
+                    .setRebalanceGenerationId(state.getRebalanceGenerationId())
+                    .setStateTimestamp(state.getStateTimestamp())
+                    .setPartitions(mapPartitionsV2(state.getPartitions(), dictionary))
+                    .setSharedPartitions(mapPartitionsV2(state.getSharedPartitions(), dictionary))
+                    .setSequence(state.getSequence()));
+        }
+
+        TaskStateDelta delta = taskSyncEvent.getTaskStateDelta();
+        if (delta != null) {
+            SyncEventProtos.TaskStateDeltaV2.Builder deltaBuilder = SyncEventProtos.TaskStateDeltaV2.newBuilder()
+                    .setTaskUid(delta.getTaskUid())
+                    .setConsumerId(delta.getConsumerId())
+                    .setRebalanceGenerationId(delta.getRebalanceGenerationId())
+                    .setStateTimestamp(delta.getStateTimestamp())
+                    .setSequence(delta.getSequence())
+                    .setPartitions(mapPartitionsV2(delta.getPartitions(), dictionary))
+                    .setSharedPartitions(mapPartitionsV2(delta.getSharedPartitions(), dictionary));
+            for (String token : delta.getRemovedPartitions()) {
+                deltaBuilder.addRemovedPartitions(dictionary.indexOf(token));
+            }
+            for (String token : delta.getRemovedSharedPartitions()) {
+                deltaBuilder.addRemovedSharedPartitions(dictionary.indexOf(token));
+            }
+            builder.setTaskStateDelta(deltaBuilder);
+        }
+
+        return builder.addAllDictionary(dictionary.values).build();
+    }
+
+    private static SyncEventProtos.PartitionStatesV2 mapPartitionsV2(Collection<PartitionState> partitions, Dictionary dictionary) {
+        SyncEventProtos.PartitionStatesV2.Builder builder = SyncEventProtos.PartitionStatesV2.newBuilder();
+        int position = 0;
+        for (PartitionState partitionState : partitions) {
+            builder.addTokens(dictionary.indexOf(partitionState.getToken()))
+                    .addStatesValue(partitionState.getState().ordinal())
+                    .addStartTimestamps(toMicros(partitionState.getStartTimestamp()))
+                    .addAssignees(dictionary.indexOf(partitionState.getAssigneeTaskUid()))
+                    .addOriginParents(partitionState.getOriginParent() == null ? 0 : dictionary.indexOf(partitionState.getOriginParent()) + 1)
+                    .addParentCounts(partitionState.getParents().size());
+            for (String parent : partitionState.getParents()) {
+                builder.addParents(dictionary.indexOf(parent));
+            }
+            if (partitionState.getEndTimestamp() != null) {
+                builder.addEndTimestampPositions(position)
+                        .addEndTimestamps(toMicros(partitionState.getEndTimestamp()));
+            }
+            if (partitionState.getFinishedTimestamp() != null) {
+                builder.addFinishedTimestampPositions(position)
+                        .addFinishedTimestamps(toMicros(partitionState.getFinishedTimestamp()));
+            }
+            position++;
+        }
+        return builder.build();
+    }
+
+    // Spanner timestamps have the microsecond precision
+    static long toMicros(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1_000_000L + timestamp.getNanos() / 1_000;
+    }
+
+    /**
+     * Strings of a message, which are referred to by their index
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int indexOf(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import io.debezium.connector.spanner.metrics.latency.Statistics;
+import io.debezium.connector.spanner.task.TaskSyncContext;
+
+/**
+ * Typed key of a metric, which is updated on a hot path.
+ * <p>
+ * The updating components look the metric up by the key once, when they are created,
+ * and then update it with primitive calls instead of publishing metric events.
+ */
+public final class MetricKey<T> {
+
+    public static final MetricKey<Gauge> SPANNER_EVENT_QUEUE_TOTAL_CAPACITY = new MetricKey<>(
+            "spanner-event-queue-total-capacity", Gauge::new);
+
+    public static final MetricKey<Gauge> SPANNER_EVENT_QUEUE_REMAINING_CAPACITY = new MetricKey<>(
+            "spanner-event-queue-remaining-capacity", Gauge::new);
+
+    public static final MetricKey<Statistics> DELAY_CHANGE_STREAM_EVENTS = new MetricKey<>(
+            "delay-change-stream-events", () -> new Statistics(Duration.ZERO));
+
+    public static final MetricKey<ValueGauge<TaskSyncContext>> TASK_SYNC_CONTEXT = new MetricKey<>(
+            "task-sync-context", ValueGauge::new);
+
+    public static final MetricKey<TaskSyncContextSummary> TASK_SYNC_CONTEXT_SUMMARY = new MetricKey<>(
+            "task-sync-context-summary", TaskSyncContextSummary::new);
+
+    public static final MetricKey<ThroughputMetrics> PARTITION_THROUGHPUT = new MetricKey<>(
+            "partition-throughput", ThroughputMetrics::new);
+
+    public static final MetricKey<ThroughputMetrics> TABLE_THROUGHPUT = new MetricKey<>(
+            "table-throughput", ThroughputMetrics::new);
+
+    private final String name;
+    private final Supplier<T> factory;
+
+    private MetricKey(String name, Supplier<T> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Creates the metric, which is used, if no metric has been registered under the key
+     */
+    T newMetric() {
+        return factory.get();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -15,16 +15,38 @@ import org.slf4j.LoggerFactory;
 
 import io.debezium.connector.spanner.metrics.event.LatencyMetricEvent;
 import io.debezium.connector.spanner.metrics.event.MetricEvent;
+import io.debezium.connector.spanner.metrics.latency.HeaderLatencyTimestampsStore;
 import io.debezium.connector.spanner.metrics.latency.LatencyCalculator;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestamps;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestampsStore;
 import io.debezium.connector.spanner.processor.SourceRecordUtils;
 
 /**
  * Publishes {@link MetricEvent}
+ * <p>
+ * The metrics updated on the hot paths are not published as events,
+ * they are held by the typed metrics looked up with {@link #getMetric(MetricKey)}.
  */
 public class MetricsEventPublisher {
     private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEventPublisher.class);
     private final Map<Class<? extends MetricEvent>, Consumer<? extends MetricEvent>> subscribes = new ConcurrentHashMap<>();
 
+    private final Map<MetricKey<?>, Object> metrics = new ConcurrentHashMap<>();
+
+    private final LatencyTimestampsStore latencyTimestampsStore;
+
+    public MetricsEventPublisher() {
+        this(HeaderLatencyTimestampsStore.INSTANCE);
+    }
+
+    public MetricsEventPublisher(LatencyTimestampsStore latencyTimestampsStore) {
+        this.latencyTimestampsStore = latencyTimestampsStore;
+    }
+
+    public LatencyTimestampsStore getLatencyTimestampsStore() {
+        return latencyTimestampsStore;
+    }
+
     public <T extends MetricEvent> void publishMetricEvent(T metricEvent) {
         Consumer<T> consumer = (Consumer<T>) subscribes.get(metricEvent.getClass());
         if (consumer != null) {
@@ -44,17 +66,43 @@ public class MetricsEventPublisher {
         subscribes.put(clazz, consumer);
     }
 
+    /**
+     * Registers the metric, which is read by the meter, under the key.
+     * Must be called before the metric is looked up by the updating components.
+     */
+    public <T> void registerMetric(MetricKey<T> key, T metric) {
+        if (metrics.putIfAbsent(key, metric) != null) {
+            throw new IllegalStateException("Metric is already registered: " + key);
+        }
+    }
+
+    /**
+     * Looks up the metric of the key, so that it can be updated without publishing events.
+     * If no metric has been registered, a new one is registered.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getMetric(MetricKey<T> key) {
+        return (T) metrics.computeIfAbsent(key, MetricKey::newMetric);
+    }
+
     public void logLatency(SourceRecord sourceRecord) {
+        // The timestamps of all committed records are released, not only of the data change records
+        LatencyTimestamps timestamps = latencyTimestampsStore.remove(sourceRecord);
+
         if (!SourceRecordUtils.isDataChangeRecord(sourceRecord)) {
             return;
         }
 
-        Long totalLatency = LatencyCalculator.getTotalLatency(sourceRecord);
+        if (timestamps == null) {
+            timestamps = new LatencyTimestamps();
+        }
+
+        Long totalLatency = LatencyCalculator.getTotalLatency(sourceRecord, timestamps);
         if (totalLatency != null && totalLatency > 300000) {
             LOGGER.debug("Published very high total latency for source record {}:{}", sourceRecord, totalLatency);
         }
 
-        Long readToEmitLatency = LatencyCalculator.getReadToEmitLatency(sourceRecord);
+        Long readToEmitLatency = LatencyCalculator.getReadToEmitLatency(sourceRecord, timestamps);
         if (readToEmitLatency != null && readToEmitLatency > 300000) {
             LOGGER.debug("Published very high readToEmit latency for source record {}:{}", sourceRecord, readToEmitLatency);
         }
@@ -64,22 +112,22 @@ public class MetricsEventPublisher {
             LOGGER.debug("Published very high spannerLatnency latency for source record {}:{}", sourceRecord, spannerLatency);
         }
 
-        Long commitToEmitLatency = LatencyCalculator.getCommitToEmitLatency(sourceRecord);
+        Long commitToEmitLatency = LatencyCalculator.getCommitToEmitLatency(sourceRecord, timestamps);
         if (commitToEmitLatency != null && commitToEmitLatency > 300000) {
             LOGGER.debug("Published very high spannerLatnency latency for source record {}:{}", sourceRecord, commitToEmitLatency);
         }
 
-        Long commitToPublishLatency = LatencyCalculator.getCommitToPublishLatency(sourceRecord);
+        Long commitToPublishLatency = LatencyCalculator.getCommitToPublishLatency(sourceRecord, timestamps);
         if (commitToPublishLatency != null && commitToPublishLatency > 300000) {
             LOGGER.debug("Published very high commitToPublishLatency latency for source record {}:{}", sourceRecord, commitToPublishLatency);
         }
 
-        Long emitToPublishLatency = LatencyCalculator.getEmitToPublishLatency(sourceRecord);
+        Long emitToPublishLatency = LatencyCalculator.getEmitToPublishLatency(sourceRecord, timestamps);
         if (emitToPublishLatency != null && emitToPublishLatency > 300000) {
             LOGGER.debug("Published very high emitToPublishLatency latency for source record {}:{}", sourceRecord, emitToPublishLatency);
         }
 
-        Long ownConnectorLatency = LatencyCalculator.getOwnConnectorLatency(sourceRecord);
+        Long ownConnectorLatency = LatencyCalculator.getOwnConnectorLatency(sourceRecord, timestamps);
         if (ownConnectorLatency != null && ownConnectorLatency > 300000) {
             LOGGER.debug("Published very high ownConnectorLatency latency for source record {}:{}", sourceRecord, ownConnectorLatency);
         }
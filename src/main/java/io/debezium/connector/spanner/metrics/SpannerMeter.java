@@ -16,22 +16,20 @@ import com.google.cloud.Timestamp;
 
 import io.debezium.connector.spanner.SpannerConnectorConfig;
 import io.debezium.connector.spanner.SpannerConnectorTask;
-import io.debezium.connector.spanner.SpannerErrorHandler;
 import io.debezium.connector.spanner.db.model.InitialPartition;
 import io.debezium.connector.spanner.function.BlockingSupplier;
 import io.debezium.connector.spanner.metrics.event.ActiveQueriesUpdateMetricEvent;
 import io.debezium.connector.spanner.metrics.event.ChildPartitionsMetricEvent;
-import io.debezium.connector.spanner.metrics.event.DelayChangeStreamEventsMetricEvent;
 import io.debezium.connector.spanner.metrics.event.LatencyMetricEvent;
 import io.debezium.connector.spanner.metrics.event.NewQueueMetricEvent;
 import io.debezium.connector.spanner.metrics.event.OffsetReceivingTimeMetricEvent;
 import io.debezium.connector.spanner.metrics.event.PartitionOffsetLagMetricEvent;
 import io.debezium.connector.spanner.metrics.event.RebalanceMetricEvent;
 import io.debezium.connector.spanner.metrics.event.RuntimeErrorMetricEvent;
-import io.debezium.connector.spanner.metrics.event.SpannerEventQueueUpdateEvent;
 import io.debezium.connector.spanner.metrics.event.StuckHeartbeatIntervalsMetricEvent;
 import io.debezium.connector.spanner.metrics.event.TaskStateChangeQueueUpdateMetricEvent;
-import io.debezium.connector.spanner.metrics.event.TaskSyncContextMetricEvent;
+import io.debezium.connector.spanner.metrics.latency.HeaderLatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.InMemoryLatencyTimestampsStore;
 import io.debezium.connector.spanner.metrics.latency.LatencyCalculator;
 import io.debezium.connector.spanner.metrics.latency.Statistics;
 import io.debezium.connector.spanner.task.TaskSyncContext;
@@ -43,6 +41,9 @@ import io.debezium.spi.schema.DataCollectionId;
 public class SpannerMeter {
     private static final Logger LOGGER = LoggerFactory.getLogger(SpannerMeter.class);
 
+    // Records in flight, whose latency timestamps are kept when they are not added to the headers
+    private static final int MAX_LATENCY_TRACKED_RECORDS = 1_000_000;
+
     private final Set<DataCollectionId> capturedTables = ConcurrentHashMap.newKeySet();
     private final AtomicInteger detectedPartitionCount = new AtomicInteger(0);
     private final AtomicInteger numberOfQueriesIssuedCount = new AtomicInteger(0);
@@ -51,9 +52,9 @@ public class SpannerMeter {
 
     private final AtomicInteger errorCount = new AtomicInteger(0);
 
-    private final AtomicInteger spannerEventQueueTotalCapacity = new AtomicInteger(0);
+    private final Gauge spannerEventQueueTotalCapacity = new Gauge();
 
-    private final AtomicInteger spannerEventQueueRemainingCapacity = new AtomicInteger(0);
+    private final Gauge spannerEventQueueRemainingCapacity = new Gauge();
 
     private final AtomicInteger taskStateChangeEventQueueRemainingCapacity = new AtomicInteger(0);
 
@@ -61,7 +62,13 @@ public class SpannerMeter {
 
     private final BlockingSupplier<Timestamp> lowWatermarkSupplier;
 
-    private volatile TaskSyncContext taskSyncContext;
+    private final ValueGauge<TaskSyncContext> taskSyncContext = new ValueGauge<>();
+
+    private final TaskSyncContextSummary taskSyncContextSummary = new TaskSyncContextSummary();
+
+    private final ThroughputMetrics partitionThroughput = new ThroughputMetrics();
+
+    private final ThroughputMetrics tableThroughput = new ThroughputMetrics();
 
     private final SpannerConnectorTask spannerConnectorTask;
 
@@ -89,31 +96,36 @@ public class SpannerMeter {
 
     private final SpannerConnectorConfig connectorConfig;
 
-    private final SpannerErrorHandler spannerErrorHandler;
-
     public SpannerMeter(SpannerConnectorTask task, SpannerConnectorConfig connectorConfig,
-                        SpannerErrorHandler errorHandler,
                         BlockingSupplier<Timestamp> lowWatermarkSupplier) {
-        this.metricsEventPublisher = new MetricsEventPublisher();
+        this.metricsEventPublisher = new MetricsEventPublisher(connectorConfig.isLatencyHeadersEnabled()
+                ? HeaderLatencyTimestampsStore.INSTANCE
+                : new InMemoryLatencyTimestampsStore(MAX_LATENCY_TRACKED_RECORDS));
 
         this.spannerConnectorTask = task;
         this.connectorConfig = connectorConfig;
 
-        this.spannerErrorHandler = errorHandler;
-
         this.lowWatermarkSupplier = lowWatermarkSupplier;
 
-        this.totalLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.connectorLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.spannerLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.commitToEmitLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.commitToPublishLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.emitToPublishLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.lowWatermarkLagLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.ownConnectorLatency = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.partitionOffsetLagStatistics = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.receivingTimeOffsetStatistics = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
-        this.delayChangeStreamEvents = new Statistics(connectorConfig.percentageMetricsClearInterval(), this::onError);
+        this.totalLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.connectorLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.spannerLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.commitToEmitLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.commitToPublishLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.emitToPublishLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.lowWatermarkLagLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.ownConnectorLatency = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.partitionOffsetLagStatistics = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.receivingTimeOffsetStatistics = new Statistics(connectorConfig.percentageMetricsClearInterval());
+        this.delayChangeStreamEvents = new Statistics(connectorConfig.percentageMetricsClearInterval());
+
+        metricsEventPublisher.registerMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY, spannerEventQueueTotalCapacity);
+        metricsEventPublisher.registerMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY, spannerEventQueueRemainingCapacity);
+        metricsEventPublisher.registerMetric(MetricKey.DELAY_CHANGE_STREAM_EVENTS, delayChangeStreamEvents);
+        metricsEventPublisher.registerMetric(MetricKey.TASK_SYNC_CONTEXT, taskSyncContext);
+        metricsEventPublisher.registerMetric(MetricKey.TASK_SYNC_CONTEXT_SUMMARY, taskSyncContextSummary);
+        metricsEventPublisher.registerMetric(MetricKey.PARTITION_THROUGHPUT, partitionThroughput);
+        metricsEventPublisher.registerMetric(MetricKey.TABLE_THROUGHPUT, tableThroughput);
 
         metricsEventPublisher.subscribe(ChildPartitionsMetricEvent.class,
                 event -> detectedPartitionCount.addAndGet(event.getNumberPartitions()));
@@ -130,8 +142,6 @@ public class SpannerMeter {
         metricsEventPublisher.subscribe(RuntimeErrorMetricEvent.class,
                 event -> errorCount.incrementAndGet());
 
-        metricsEventPublisher.subscribe(TaskSyncContextMetricEvent.class, event -> taskSyncContext = event.getTaskSyncContext());
-
         metricsEventPublisher.subscribe(LatencyMetricEvent.class, event -> {
 
             if (event.getTotalLatency() != null) {
@@ -160,12 +170,6 @@ public class SpannerMeter {
             }
         });
 
-        metricsEventPublisher.subscribe(SpannerEventQueueUpdateEvent.class, event -> {
-            spannerEventQueueTotalCapacity.set(event.getTotalCapacity());
-
-            spannerEventQueueRemainingCapacity.set(event.getRemainingCapacity());
-        });
-
         metricsEventPublisher.subscribe(PartitionOffsetLagMetricEvent.class, event -> {
             if (InitialPartition.isInitialPartition(event.getToken())) {
                 return;
@@ -182,18 +186,11 @@ public class SpannerMeter {
             receivingTimeOffsetStatistics.update(event.getTime());
         });
 
-        metricsEventPublisher.subscribe(DelayChangeStreamEventsMetricEvent.class,
-                event -> delayChangeStreamEvents.update(event.getDelayChangeStreamEvents()));
-
         metricsEventPublisher.subscribe(TaskStateChangeQueueUpdateMetricEvent.class, event -> {
             taskStateChangeEventQueueRemainingCapacity.set(event.getRemainingCapacity());
         });
     }
 
-    private void onError(Throwable throwable) {
-        this.spannerErrorHandler.setProducerThrowable(throwable);
-    }
-
     public MetricsEventPublisher getMetricsEventPublisher() {
         return metricsEventPublisher;
     }
@@ -226,57 +223,15 @@ public class SpannerMeter {
         receivingTimeOffsetStatistics.reset();
 
         delayChangeStreamEvents.reset();
-    }
-
-    public void start() {
-        totalLatency.start();
-        connectorLatency.start();
-        spannerLatency.start();
-        commitToEmitLatency.start();
-
-        commitToPublishLatency.start();
-        emitToPublishLatency.start();
 
-        ownConnectorLatency.start();
+        partitionThroughput.reset();
 
-        partitionOffsetLagStatistics.start();
-
-        lowWatermarkLagLatency.start();
-
-        receivingTimeOffsetStatistics.start();
-
-        delayChangeStreamEvents.start();
+        tableThroughput.reset();
     }
 
     public void shutdown() {
-        connectorLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown connector latency", getTaskUid());
-        totalLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown total latency", getTaskUid());
-        spannerLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown spanner latency", getTaskUid());
-        commitToEmitLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown committoemit latency", getTaskUid());
-
-        commitToPublishLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown committopublish latency", getTaskUid());
-        emitToPublishLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown emittopublish latency", getTaskUid());
-
-        ownConnectorLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown ownConnectorLatency latency", getTaskUid());
-
-        partitionOffsetLagStatistics.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown partitionOffsetLagStatistics latency", getTaskUid());
-
-        lowWatermarkLagLatency.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown lowWatermarkLagLatency latency", getTaskUid());
-
-        receivingTimeOffsetStatistics.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown receivingTimeOffsetStatistics", getTaskUid());
-
-        delayChangeStreamEvents.shutdown();
-        LOGGER.info("Task UID {}, Spanner meter, shutdown delayChangeStreamEvents", getTaskUid());
+        reset();
+        LOGGER.info("Task UID {}, Spanner meter, shutdown", getTaskUid());
     }
 
     public void finishTask() {
@@ -288,7 +243,11 @@ public class SpannerMeter {
     }
 
     public TaskSyncContext getTaskSyncContext() {
-        return taskSyncContext;
+        return taskSyncContext.get();
+    }
+
+    public TaskSyncContextSummary getTaskSyncContextSummary() {
+        return taskSyncContextSummary;
     }
 
     public String getTaskUid() {
@@ -335,6 +294,14 @@ public class SpannerMeter {
         return receivingTimeOffsetStatistics;
     }
 
+    public ThroughputMetrics getPartitionThroughput() {
+        return partitionThroughput;
+    }
+
+    public ThroughputMetrics getTableThroughput() {
+        return tableThroughput;
+    }
+
     public Long getLowWatermarkLag() throws InterruptedException {
         if (!connectorConfig.isLowWatermarkEnabled()) {
             return null;
@@ -374,11 +341,11 @@ public class SpannerMeter {
     }
 
     public int getSpannerEventQueueTotalCapacity() {
-        return spannerEventQueueTotalCapacity.get();
+        return (int) spannerEventQueueTotalCapacity.get();
     }
 
     public int getSpannerEventQueueRemainingCapacity() {
-        return spannerEventQueueRemainingCapacity.get();
+        return (int) spannerEventQueueRemainingCapacity.get();
     }
 
     public int getTaskStateChangeEventQueueRemainingCapacity() {
@@ -386,7 +353,7 @@ public class SpannerMeter {
     }
 
     public long getRebalanceGenerationId() {
-        return taskSyncContext.getRebalanceGenerationId();
+        return taskSyncContextSummary.getRebalanceGenerationId();
     }
 
     public int getRebalanceAnswersActual() {
@@ -398,6 +365,6 @@ public class SpannerMeter {
     }
 
     public boolean isLeader() {
-        return this.taskSyncContext.isLeader();
+        return this.taskSyncContext.get().isLeader();
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.task.TaskSyncContext;
+
+/**
+ * Summary of the task sync context, which is exposed on JMX
+ * instead of serializing the whole context.
+ * <p>
+ * The summary is updated, when the context is changed, by a single writer.
+ * Task states are immutable, so only the task states, which have been replaced
+ * since the previous context, are counted again.
+ */
+public class TaskSyncContextSummary {
+
+    private static final PartitionStateEnum[] STATES = PartitionStateEnum.values();
+
+    // Fixed size of the timestamps, the state and the collection headers of a partition
+    private static final int PARTITION_FIXED_BYTES = 48;
+    private static final int TASK_FIXED_BYTES = 32;
+
+    // Guarded by the single writer
+    private final Map<String, TaskCounts> taskCounts = new HashMap<>();
+
+    private final AtomicLongArray partitionCounts = new AtomicLongArray(STATES.length);
+    private volatile long sharedPartitions;
+    private volatile long sizeInBytes;
+    private volatile int tasks;
+    private volatile long epochOffset;
+    private volatile long rebalanceGenerationId;
+
+    /**
+     * Applies the difference between the previous and the given context.
+     * Must not be called concurrently.
+     */
+    public void update(TaskSyncContext context) {
+        if (context == null) {
+            return;
+        }
+        long[] counts = new long[STATES.length];
+        long shared = 0;
+        long bytes = 0;
+
+        Map<String, TaskState> taskStates = context.getTaskStates();
+        int seen = 0;
+        for (TaskState taskState : taskStates.values()) {
+            if (taskState.getTaskUid().equals(context.getTaskUid())) {
+                continue;
+            }
+            TaskCounts taskCount = updateTask(taskState);
+            taskCount.addTo(counts);
+            shared += taskCount.sharedPartitions;
+            bytes += taskCount.sizeInBytes;
+            seen++;
+        }
+        TaskState currentTaskState = context.getCurrentTaskState();
+        if (currentTaskState != null) {
+            TaskCounts taskCount = updateTask(currentTaskState);
+            taskCount.addTo(counts);
+            shared += taskCount.sharedPartitions;
+            bytes += taskCount.sizeInBytes;
+            seen++;
+        }
+
+        if (taskCounts.size() > seen) {
+            Iterator<String> taskUids = taskCounts.keySet().iterator();
+            while (taskUids.hasNext()) {
+                String taskUid = taskUids.next();
+                if (!taskStates.containsKey(taskUid)
+                        && (currentTaskState == null || !taskUid.equals(currentTaskState.getTaskUid()))) {
+                    taskUids.remove();
+                }
+            }
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            partitionCounts.set(i, counts[i]);
+        }
+        this.sharedPartitions = shared;
+        this.sizeInBytes = bytes;
+        this.tasks = seen;
+        this.epochOffset = context.getEpochOffsetHolder().getEpochOffset();
+        this.rebalanceGenerationId = context.getRebalanceGenerationId();
+    }
+
+    private TaskCounts updateTask(TaskState taskState) {
+        TaskCounts taskCount = taskCounts.get(taskState.getTaskUid());
+        if (taskCount == null || taskCount.taskState != taskState) {
+            taskCount = new TaskCounts(taskState);
+            taskCounts.put(taskState.getTaskUid(), taskCount);
+        }
+        return taskCount;
+    }
+
+    public long getPartitionCount(PartitionStateEnum state) {
+        return partitionCounts.get(state.ordinal());
+    }
+
+    public long getSharedPartitionCount() {
+        return sharedPartitions;
+    }
+
+    /**
+     * Estimated size of the task states, as they are written to the sync topic
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public int getTaskCount() {
+        return tasks;
+    }
+
+    public long getEpochOffset() {
+        return epochOffset;
+    }
+
+    public long getRebalanceGenerationId() {
+        return rebalanceGenerationId;
+    }
+
+    public void reset() {
+        taskCounts.clear();
+        for (int i = 0; i < STATES.length; i++) {
+            partitionCounts.set(i, 0);
+        }
+        sharedPartitions = 0;
+        sizeInBytes = 0;
+        tasks = 0;
+    }
+
+    static long estimateSize(PartitionState partitionState) {
+        long bytes = PARTITION_FIXED_BYTES + length(partitionState.getToken())
+                + length(partitionState.getAssigneeTaskUid()) + length(partitionState.getOriginParent());
+        if (partitionState.getParents() != null) {
+            for (String parent : partitionState.getParents()) {
+                bytes += length(parent);
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static Collection<PartitionState> values(Map<String, PartitionState> partitions) {
+        return partitions == null ? List.of() : partitions.values();
+    }
+
+    /**
+     * Counts of one task state, which are kept until the task state is replaced
+     */
+    private static final class TaskCounts {
+        private final TaskState taskState;
+        private final int[] partitions = new int[STATES.length];
+        private final int sharedPartitions;
+        private final long sizeInBytes;
+
+        TaskCounts(TaskState taskState) {
+            this.taskState = taskState;
+            long bytes = TASK_FIXED_BYTES + length(taskState.getTaskUid()) + length(taskState.getConsumerId());
+            for (PartitionState partitionState : values(taskState.getPartitionsMap())) {
+                if (partitionState.getState() != null) {
+                    partitions[partitionState.getState().ordinal()]++;
+                }
+                bytes += estimateSize(partitionState);
+            }
+            Collection<PartitionState> shared = values(taskState.getSharedPartitionsMap());
+            for (PartitionState partitionState : shared) {
+                bytes += estimateSize(partitionState);
+            }
+            this.sharedPartitions = shared.size();
+            this.sizeInBytes = bytes;
+        }
+
+        void addTo(long[] counts) {
+            for (int i = 0; i < partitions.length; i++) {
+                counts[i] += partitions[i];
+            }
+        }
+    }
+}
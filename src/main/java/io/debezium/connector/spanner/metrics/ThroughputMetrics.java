@@ -0,0 +1,136 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.debezium.util.Clock;
+
+/**
+ * Tracks records/s, bytes/s and commit timestamp lag of each key, partition token or table.
+ * <p>
+ * The records are counted by striped counters, the rates are calculated only when they are read.
+ * The lag is the greatest difference between the record time and the commit timestamp over the last rate interval.
+ * The metrics are read as top-K views, so the number of exposed values does not depend
+ * on the number of the tracked keys.
+ */
+public class ThroughputMetrics {
+
+    private static final Duration RATE_INTERVAL = Duration.ofSeconds(10);
+
+    private final Map<String, Throughput> throughputs = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long rateIntervalMillis;
+
+    public ThroughputMetrics() {
+        this(Clock.system(), RATE_INTERVAL);
+    }
+
+    public ThroughputMetrics(Clock clock, Duration rateInterval) {
+        this.clock = clock;
+        this.rateIntervalMillis = rateInterval.toMillis();
+    }
+
+    public void record(String key, int records, long bytes, long commitTimestampMillis) {
+        Throughput throughput = throughputs.get(key);
+        if (throughput == null) {
+            throughput = throughputs.computeIfAbsent(key, k -> new Throughput(k, clock.currentTimeInMillis()));
+        }
+        throughput.records.add(records);
+        throughput.bytes.add(bytes);
+        throughput.maxLagMillis.accumulate(clock.currentTimeInMillis() - commitTimestampMillis);
+    }
+
+    /**
+     * Stops tracking the key, e.g. when the partition is finished
+     */
+    public void remove(String key) {
+        throughputs.remove(key);
+    }
+
+    public int size() {
+        return throughputs.size();
+    }
+
+    public void reset() {
+        throughputs.clear();
+    }
+
+    public List<ThroughputSnapshot> getTopByRecordsRate(int limit) {
+        return getTop(limit, Comparator.comparingDouble(ThroughputSnapshot::getRecordsPerSecond));
+    }
+
+    public List<ThroughputSnapshot> getTopByBytesRate(int limit) {
+        return getTop(limit, Comparator.comparingDouble(ThroughputSnapshot::getBytesPerSecond));
+    }
+
+    public List<ThroughputSnapshot> getTopByLag(int limit) {
+        return getTop(limit, Comparator.comparingLong(ThroughputSnapshot::getLagMilliSeconds));
+    }
+
+    private List<ThroughputSnapshot> getTop(int limit, Comparator<ThroughputSnapshot> comparator) {
+        long now = clock.currentTimeInMillis();
+        // The smallest of the top values is at the head, so it is replaced by a greater value
+        PriorityQueue<ThroughputSnapshot> top = new PriorityQueue<>(limit + 1, comparator);
+        for (Throughput throughput : throughputs.values()) {
+            top.add(throughput.snapshot(now, rateIntervalMillis));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<ThroughputSnapshot> result = new ArrayList<>(top);
+        result.sort(comparator.reversed());
+        return result;
+    }
+
+    private static class Throughput {
+        private final String key;
+        private final LongAdder records = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        // Totals at the start of the current rate interval, the rates and the lag of the previous one
+        private long sampleMillis;
+        private long sampleRecords;
+        private long sampleBytes;
+        private double recordsPerSecond;
+        private double bytesPerSecond;
+        private long lagMillis;
+
+        Throughput(String key, long nowMillis) {
+            this.key = key;
+            this.sampleMillis = nowMillis;
+        }
+
+        synchronized ThroughputSnapshot snapshot(long nowMillis, long rateIntervalMillis) {
+            long elapsedMillis = nowMillis - sampleMillis;
+            if (elapsedMillis >= rateIntervalMillis && elapsedMillis > 0) {
+                long totalRecords = records.sum();
+                long totalBytes = bytes.sum();
+                recordsPerSecond = (totalRecords - sampleRecords) * 1000.0 / elapsedMillis;
+                bytesPerSecond = (totalBytes - sampleBytes) * 1000.0 / elapsedMillis;
+                sampleMillis = nowMillis;
+                sampleRecords = totalRecords;
+                sampleBytes = totalBytes;
+
+                long intervalLagMillis = maxLagMillis.getThenReset();
+                if (intervalLagMillis != Long.MIN_VALUE) {
+                    // The lag of an idle key is the one of its last records
+                    lagMillis = intervalLagMillis;
+                }
+            }
+            return new ThroughputSnapshot(key, recordsPerSecond, bytesPerSecond, Math.max(lagMillis, maxLagMillis.get()));
+        }
+    }
+}
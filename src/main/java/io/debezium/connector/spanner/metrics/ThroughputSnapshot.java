@@ -0,0 +1,50 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+/**
+ * Throughput and commit timestamp lag of a partition token or a table
+ */
+public class ThroughputSnapshot {
+
+    private final String key;
+    private final double recordsPerSecond;
+    private final double bytesPerSecond;
+    private final long lagMilliSeconds;
+
+    public ThroughputSnapshot(String key, double recordsPerSecond, double bytesPerSecond, long lagMilliSeconds) {
+        this.key = key;
+        this.recordsPerSecond = recordsPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+        this.lagMilliSeconds = lagMilliSeconds;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public long getLagMilliSeconds() {
+        return lagMilliSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "ThroughputSnapshot{" +
+                "key='" + key + '\'' +
+                ", recordsPerSecond=" + recordsPerSecond +
+                ", bytesPerSecond=" + bytesPerSecond +
+                ", lagMilliSeconds=" + lagMilliSeconds +
+                '}';
+    }
+}
@@ -81,9 +81,45 @@ public interface SpannerMetricsMXBean extends StreamingChangeEventSourceMetricsM
     int getErrorCount();
 
     /**
-     * The internal state of the task
+     * The internal state of the task as JSON, serialized on demand
      */
-    String getTaskSyncContext();
+    String dumpTaskSyncContext();
+
+    /**
+     * The number of partitions of all tasks by partition state,
+     * updated when the internal state of the task is changed
+     */
+    long getNumberOfPartitionsCreated();
+
+    long getNumberOfPartitionsReadyForStreaming();
+
+    long getNumberOfPartitionsScheduled();
+
+    long getNumberOfPartitionsRunning();
+
+    long getNumberOfPartitionsFinished();
+
+    long getNumberOfPartitionsRemoved();
+
+    /**
+     * The number of partitions, which are being handed over between tasks
+     */
+    long getNumberOfSharedPartitions();
+
+    /**
+     * The number of tasks known to the current task
+     */
+    int getNumberOfTasks();
+
+    /**
+     * The offset of the current epoch in the Sync Topic
+     */
+    long getEpochOffset();
+
+    /**
+     * The estimated size of the task states in bytes
+     */
+    long getTaskSyncContextSizeBytes();
 
     /**
      * Unique identifier for the current task
@@ -232,6 +268,26 @@ public interface SpannerMetricsMXBean extends StreamingChangeEventSourceMetricsM
 
     Long getOffsetReceivingTimeLastMilliSeconds();
 
+    /**
+     * The partitions with the most records/s, bytes/s and the greatest commit timestamp lag,
+     * limited to the top partitions, as JSON
+     */
+    String getTopPartitionsByRecordsRate();
+
+    String getTopPartitionsByBytesRate();
+
+    String getTopPartitionsByLag();
+
+    /**
+     * The tables with the most records/s, bytes/s and the greatest commit timestamp lag,
+     * limited to the top tables, as JSON
+     */
+    String getTopTablesByRecordsRate();
+
+    String getTopTablesByBytesRate();
+
+    String getTopTablesByLag();
+
     /**
      * The total capacity of the Spanner Queue
      */
@@ -12,6 +12,7 @@ import com.google.cloud.Timestamp;
 import io.debezium.connector.base.ChangeEventQueueMetrics;
 import io.debezium.connector.spanner.SpannerPartition;
 import io.debezium.connector.spanner.context.source.SpannerSourceTaskContext;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.metrics.SpannerMeter;
 import io.debezium.data.Envelope;
 import io.debezium.pipeline.metrics.DefaultStreamingChangeEventSourceMetrics;
@@ -29,6 +30,8 @@ public class SpannerStreamingChangeEventSourceMetrics
     private static final String TASK_ID_TAG = "Task";
     private static final String CONNECTOR_NAME_TAG = "ConnectorName";
     private static final String NOT_YET_CALCULATED = "not yet calculated";
+    // Number of the partitions and of the tables in the top views
+    private static final int TOP_THROUGHPUT_LIMIT = 10;
 
     private final SpannerMeter spannerMeter;
 
@@ -121,10 +124,60 @@ public class SpannerStreamingChangeEventSourceMetrics
     }
 
     @Override
-    public String getTaskSyncContext() {
+    public String dumpTaskSyncContext() {
         return jsonSerializer.writeValueAsString(spannerMeter.getTaskSyncContext());
     }
 
+    @Override
+    public long getNumberOfPartitionsCreated() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.CREATED);
+    }
+
+    @Override
+    public long getNumberOfPartitionsReadyForStreaming() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.READY_FOR_STREAMING);
+    }
+
+    @Override
+    public long getNumberOfPartitionsScheduled() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.SCHEDULED);
+    }
+
+    @Override
+    public long getNumberOfPartitionsRunning() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.RUNNING);
+    }
+
+    @Override
+    public long getNumberOfPartitionsFinished() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.FINISHED);
+    }
+
+    @Override
+    public long getNumberOfPartitionsRemoved() {
+        return spannerMeter.getTaskSyncContextSummary().getPartitionCount(PartitionStateEnum.REMOVED);
+    }
+
+    @Override
+    public long getNumberOfSharedPartitions() {
+        return spannerMeter.getTaskSyncContextSummary().getSharedPartitionCount();
+    }
+
+    @Override
+    public int getNumberOfTasks() {
+        return spannerMeter.getTaskSyncContextSummary().getTaskCount();
+    }
+
+    @Override
+    public long getEpochOffset() {
+        return spannerMeter.getTaskSyncContextSummary().getEpochOffset();
+    }
+
+    @Override
+    public long getTaskSyncContextSizeBytes() {
+        return spannerMeter.getTaskSyncContextSummary().getSizeInBytes();
+    }
+
     @Override
     public String getTaskUid() {
         return spannerMeter.getTaskUid();
@@ -472,6 +525,36 @@ public class SpannerStreamingChangeEventSourceMetrics
         return spannerMeter.getSpannerEventQueueRemainingCapacity();
     }
 
+    @Override
+    public String getTopPartitionsByRecordsRate() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getPartitionThroughput().getTopByRecordsRate(TOP_THROUGHPUT_LIMIT));
+    }
+
+    @Override
+    public String getTopPartitionsByBytesRate() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getPartitionThroughput().getTopByBytesRate(TOP_THROUGHPUT_LIMIT));
+    }
+
+    @Override
+    public String getTopPartitionsByLag() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getPartitionThroughput().getTopByLag(TOP_THROUGHPUT_LIMIT));
+    }
+
+    @Override
+    public String getTopTablesByRecordsRate() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getTableThroughput().getTopByRecordsRate(TOP_THROUGHPUT_LIMIT));
+    }
+
+    @Override
+    public String getTopTablesByBytesRate() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getTableThroughput().getTopByBytesRate(TOP_THROUGHPUT_LIMIT));
+    }
+
+    @Override
+    public String getTopTablesByLag() {
+        return jsonSerializer.writeValueAsString(spannerMeter.getTableThroughput().getTopByLag(TOP_THROUGHPUT_LIMIT));
+    }
+
     @Override
     public boolean isLeader() {
         return spannerMeter.isLeader();
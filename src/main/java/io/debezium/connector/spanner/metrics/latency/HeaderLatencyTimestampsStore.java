@@ -0,0 +1,41 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import org.apache.kafka.connect.source.SourceRecord;
+
+import io.debezium.connector.spanner.processor.SourceRecordUtils;
+
+/**
+ * Adds the latency timestamps to the record headers, so they are written to Kafka together with the record
+ */
+public class HeaderLatencyTimestampsStore implements LatencyTimestampsStore {
+
+    public static final HeaderLatencyTimestampsStore INSTANCE = new HeaderLatencyTimestampsStore();
+
+    private HeaderLatencyTimestampsStore() {
+    }
+
+    @Override
+    public SourceRecord addEmitTimestamp(SourceRecord sourceRecord, long timestamp) {
+        return SourceRecordUtils.addEmitTimestamp(sourceRecord, timestamp);
+    }
+
+    @Override
+    public SourceRecord addPollTimestamp(SourceRecord sourceRecord, long timestamp) {
+        return SourceRecordUtils.addPollTimestamp(sourceRecord, timestamp);
+    }
+
+    @Override
+    public SourceRecord addPublishTimestamp(SourceRecord sourceRecord, long timestamp) {
+        return SourceRecordUtils.addPublishTimestamp(sourceRecord, timestamp);
+    }
+
+    @Override
+    public LatencyTimestamps remove(SourceRecord sourceRecord) {
+        return LatencyTimestamps.fromHeaders(sourceRecord);
+    }
+}
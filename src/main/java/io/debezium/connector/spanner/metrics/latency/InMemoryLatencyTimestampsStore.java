@@ -0,0 +1,100 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.connect.source.SourceRecord;
+
+/**
+ * Keeps the latency timestamps in the task memory instead of the record headers,
+ * so no extra headers are written to Kafka.
+ * <p>
+ * The records are looked up by identity, as the same record instance is emitted,
+ * polled and committed. The number of records in flight is bounded,
+ * the latencies of the records above the bound are not tracked.
+ */
+public class InMemoryLatencyTimestampsStore implements LatencyTimestampsStore {
+
+    private final int maxRecords;
+
+    private final Map<RecordKey, LatencyTimestamps> timestamps = new ConcurrentHashMap<>();
+
+    public InMemoryLatencyTimestampsStore(int maxRecords) {
+        this.maxRecords = maxRecords;
+    }
+
+    @Override
+    public SourceRecord addEmitTimestamp(SourceRecord sourceRecord, long timestamp) {
+        LatencyTimestamps recordTimestamps = getOrCreate(sourceRecord);
+        if (recordTimestamps != null) {
+            recordTimestamps.setEmitAtTimestamp(timestamp);
+        }
+        return sourceRecord;
+    }
+
+    @Override
+    public SourceRecord addPollTimestamp(SourceRecord sourceRecord, long timestamp) {
+        LatencyTimestamps recordTimestamps = getOrCreate(sourceRecord);
+        if (recordTimestamps != null) {
+            recordTimestamps.setPollAtTimestamp(timestamp);
+        }
+        return sourceRecord;
+    }
+
+    @Override
+    public SourceRecord addPublishTimestamp(SourceRecord sourceRecord, long timestamp) {
+        LatencyTimestamps recordTimestamps = timestamps.get(new RecordKey(sourceRecord));
+        if (recordTimestamps != null) {
+            recordTimestamps.setPublishAtTimestamp(timestamp);
+        }
+        return sourceRecord;
+    }
+
+    @Override
+    public LatencyTimestamps remove(SourceRecord sourceRecord) {
+        return timestamps.remove(new RecordKey(sourceRecord));
+    }
+
+    @Override
+    public void clear() {
+        timestamps.clear();
+    }
+
+    public int size() {
+        return timestamps.size();
+    }
+
+    private LatencyTimestamps getOrCreate(SourceRecord sourceRecord) {
+        RecordKey key = new RecordKey(sourceRecord);
+        LatencyTimestamps recordTimestamps = timestamps.get(key);
+        if (recordTimestamps != null || timestamps.size() >= maxRecords) {
+            return recordTimestamps;
+        }
+        return timestamps.computeIfAbsent(key, k -> new LatencyTimestamps());
+    }
+
+    private static final class RecordKey {
+        private final SourceRecord sourceRecord;
+        private final int hash;
+
+        private RecordKey(SourceRecord sourceRecord) {
+            this.sourceRecord = sourceRecord;
+            this.hash = System.identityHashCode(sourceRecord);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RecordKey && ((RecordKey) o).sourceRecord == sourceRecord;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -13,7 +13,6 @@ import org.apache.kafka.connect.source.SourceRecord;
 import com.google.cloud.Timestamp;
 
 import io.debezium.connector.spanner.context.source.SourceInfo;
-import io.debezium.connector.spanner.processor.SourceRecordUtils;
 
 /**
  * Utility to calculate various of connector latencies
@@ -24,19 +23,30 @@ public class LatencyCalculator {
     }
 
     public static Long getTotalLatency(SourceRecord record) {
+        return getTotalLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getTotalLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
         if (source == null) {
             return null;
         }
 
-        long commitTimestamp = source.getInt64(SourceInfo.TIMESTAMP_KEY);
+        Long pollAtTimestamp = timestamps.getPollAtTimestamp();
+        if (pollAtTimestamp == null) {
+            return null;
+        }
 
-        long pollAtTimestamp = SourceRecordUtils.extractPollTimestamp(record);
+        long commitTimestamp = source.getInt64(SourceInfo.TIMESTAMP_KEY);
 
         return pollAtTimestamp - commitTimestamp;
     }
 
     public static Long getReadToEmitLatency(SourceRecord record) {
+        return getReadToEmitLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getReadToEmitLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
         if (source == null) {
             return null;
@@ -47,7 +57,10 @@ public class LatencyCalculator {
             return null;
         }
 
-        long pollAtTimestamp = SourceRecordUtils.extractPollTimestamp(record);
+        Long pollAtTimestamp = timestamps.getPollAtTimestamp();
+        if (pollAtTimestamp == null) {
+            return null;
+        }
 
         return pollAtTimestamp - readAtTimestamp;
     }
@@ -69,14 +82,21 @@ public class LatencyCalculator {
     }
 
     public static Long getCommitToEmitLatency(SourceRecord record) {
+        return getCommitToEmitLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getCommitToEmitLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
         if (source == null) {
             return null;
         }
 
-        long commitTimestamp = source.getInt64(SourceInfo.TIMESTAMP_KEY);
+        Long pollAtTimestamp = timestamps.getPollAtTimestamp();
+        if (pollAtTimestamp == null) {
+            return null;
+        }
 
-        long pollAtTimestamp = SourceRecordUtils.extractPollTimestamp(record);
+        long commitTimestamp = source.getInt64(SourceInfo.TIMESTAMP_KEY);
 
         return pollAtTimestamp - commitTimestamp;
     }
@@ -86,9 +106,13 @@ public class LatencyCalculator {
     }
 
     public static Long getCommitToPublishLatency(SourceRecord record) {
+        return getCommitToPublishLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getCommitToPublishLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
 
-        Long publishAtTimestamp = SourceRecordUtils.extractPublishTimestamp(record);
+        Long publishAtTimestamp = timestamps.getPublishAtTimestamp();
 
         if (source == null || publishAtTimestamp == null) {
             return null;
@@ -100,19 +124,27 @@ public class LatencyCalculator {
     }
 
     public static Long getEmitToPublishLatency(SourceRecord record) {
+        return getEmitToPublishLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getEmitToPublishLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
 
-        Long publishAtTimestamp = SourceRecordUtils.extractPublishTimestamp(record);
+        Long publishAtTimestamp = timestamps.getPublishAtTimestamp();
+        Long pollAtTimestamp = timestamps.getPollAtTimestamp();
 
-        if (source == null || publishAtTimestamp == null) {
+        if (source == null || publishAtTimestamp == null || pollAtTimestamp == null) {
             return null;
         }
-        long pollAtTimestamp = SourceRecordUtils.extractPollTimestamp(record);
 
         return publishAtTimestamp - pollAtTimestamp;
     }
 
     public static Long getOwnConnectorLatency(SourceRecord record) {
+        return getOwnConnectorLatency(record, LatencyTimestamps.fromHeaders(record));
+    }
+
+    public static Long getOwnConnectorLatency(SourceRecord record, LatencyTimestamps timestamps) {
         Struct source = getSource(record);
         if (source == null) {
             return null;
@@ -123,7 +155,7 @@ public class LatencyCalculator {
             return null;
         }
 
-        Long emitAtTimestamp = SourceRecordUtils.extractEmitTimestamp(record);
+        Long emitAtTimestamp = timestamps.getEmitAtTimestamp();
         if (emitAtTimestamp == null) {
             return null;
         }
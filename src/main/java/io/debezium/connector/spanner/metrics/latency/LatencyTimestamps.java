@@ -0,0 +1,70 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import org.apache.kafka.connect.source.SourceRecord;
+
+import io.debezium.connector.spanner.processor.SourceRecordUtils;
+
+/**
+ * Emit, poll and publish timestamps of a record, which are used to calculate the connector latencies
+ */
+public class LatencyTimestamps {
+
+    private volatile Long emitAtTimestamp;
+
+    private volatile Long pollAtTimestamp;
+
+    private volatile Long publishAtTimestamp;
+
+    public LatencyTimestamps() {
+    }
+
+    public LatencyTimestamps(Long emitAtTimestamp, Long pollAtTimestamp, Long publishAtTimestamp) {
+        this.emitAtTimestamp = emitAtTimestamp;
+        this.pollAtTimestamp = pollAtTimestamp;
+        this.publishAtTimestamp = publishAtTimestamp;
+    }
+
+    public static LatencyTimestamps fromHeaders(SourceRecord sourceRecord) {
+        return new LatencyTimestamps(SourceRecordUtils.extractEmitTimestamp(sourceRecord),
+                SourceRecordUtils.extractPollTimestamp(sourceRecord),
+                SourceRecordUtils.extractPublishTimestamp(sourceRecord));
+    }
+
+    public Long getEmitAtTimestamp() {
+        return emitAtTimestamp;
+    }
+
+    public void setEmitAtTimestamp(long emitAtTimestamp) {
+        this.emitAtTimestamp = emitAtTimestamp;
+    }
+
+    public Long getPollAtTimestamp() {
+        return pollAtTimestamp;
+    }
+
+    public void setPollAtTimestamp(long pollAtTimestamp) {
+        this.pollAtTimestamp = pollAtTimestamp;
+    }
+
+    public Long getPublishAtTimestamp() {
+        return publishAtTimestamp;
+    }
+
+    public void setPublishAtTimestamp(long publishAtTimestamp) {
+        this.publishAtTimestamp = publishAtTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyTimestamps{" +
+                "emitAtTimestamp=" + emitAtTimestamp +
+                ", pollAtTimestamp=" + pollAtTimestamp +
+                ", publishAtTimestamp=" + publishAtTimestamp +
+                '}';
+    }
+}
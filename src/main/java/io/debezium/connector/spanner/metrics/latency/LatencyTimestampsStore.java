@@ -0,0 +1,31 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import org.apache.kafka.connect.source.SourceRecord;
+
+/**
+ * Keeps the {@link LatencyTimestamps} of the records,
+ * from the moment a record is emitted until it is committed to Kafka
+ */
+public interface LatencyTimestampsStore {
+
+    SourceRecord addEmitTimestamp(SourceRecord sourceRecord, long timestamp);
+
+    SourceRecord addPollTimestamp(SourceRecord sourceRecord, long timestamp);
+
+    SourceRecord addPublishTimestamp(SourceRecord sourceRecord, long timestamp);
+
+    /**
+     * Returns the timestamps of the committed record and stops keeping them
+     * @return LatencyTimestamps
+     *         timestamps of the record, or null if they are not known
+     */
+    LatencyTimestamps remove(SourceRecord sourceRecord);
+
+    default void clear() {
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Records values into logarithmic buckets in the manner of DDSketch,
+ * so the quantiles are calculated with the given relative accuracy.
+ * <p>
+ * The buckets are striped by the recording thread. A value is recorded with a single
+ * atomic increment and without locks, the stripes are merged when a quantile is read.
+ * <p>
+ * The buckets of a stripe are allocated in chunks, when the first value of a chunk is recorded,
+ * so the footprint depends on the range of the recorded values. With 1% accuracy the values
+ * from 1 to 3,600,000, e.g. latencies of up to an hour in milliseconds, take about 7 KB per stripe.
+ */
+public class QuantileRecorder {
+
+    private static final int MAX_STRIPES = 8;
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final double gamma;
+    private final double logGamma;
+    private final int bucketCount;
+    private final int chunkCount;
+    private final int stripeMask;
+
+    // Each stripe holds the counts of zero, of the positive and of the negative values, split into chunks
+    private final AtomicReferenceArray<AtomicReferenceArray<AtomicLongArray>> stripes;
+
+    public QuantileRecorder(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.bucketCount = bucketIndex(Long.MAX_VALUE) + 1;
+        this.chunkCount = (1 + 2 * bucketCount + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+    }
+
+    public void record(long value) {
+        int index;
+        if (value == 0) {
+            index = 0;
+        }
+        else if (value > 0) {
+            index = 1 + bucketIndex(value);
+        }
+        else {
+            index = 1 + bucketCount + bucketIndex(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+        }
+        chunk(stripe(), index >>> CHUNK_BITS).incrementAndGet(index & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * @return values at the quantiles, or null values if nothing has been recorded
+     */
+    public Double[] getValuesAtQuantiles(double... quantiles) {
+        long[] counts = merge();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        Double[] values = new Double[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        for (int i = 0; i < quantiles.length; i++) {
+            values[i] = getValueAtQuantile(counts, total, quantiles[i]);
+        }
+        return values;
+    }
+
+    public Double getValueAtQuantile(double quantile) {
+        return getValuesAtQuantiles(quantile)[0];
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (long count : merge()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public void reset() {
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicReferenceArray<AtomicLongArray> stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int c = 0; c < chunkCount; c++) {
+                AtomicLongArray counts = stripe.get(c);
+                if (counts == null) {
+                    continue;
+                }
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    if (counts.get(i) != 0) {
+                        counts.set(i, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of the allocated bucket counters of all stripes
+     */
+    @VisibleForTesting
+    int getAllocatedCounters() {
+        int counters = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicReferenceArray<AtomicLongArray> stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int c = 0; c < chunkCount; c++) {
+                if (stripe.get(c) != null) {
+                    counters += CHUNK_SIZE;
+                }
+            }
+        }
+        return counters;
+    }
+
+    // Same rank as DDSketch: the first bucket, whose cumulative count is greater than the rank
+    private double getValueAtQuantile(long[] counts, long total, double quantile) {
+        double rank = Math.max(0, Math.min(1, quantile)) * (total - 1);
+        long cumulative = 0;
+        for (int index = bucketCount - 1; index >= 0; index--) {
+            cumulative += counts[1 + bucketCount + index];
+            if (cumulative > rank) {
+                return -bucketValue(index);
+            }
+        }
+        cumulative += counts[0];
+        if (cumulative > rank) {
+            return 0;
+        }
+        for (int index = 0; index < bucketCount; index++) {
+            cumulative += counts[1 + index];
+            if (cumulative > rank) {
+                return bucketValue(index);
+            }
+        }
+        return bucketValue(bucketCount - 1);
+    }
+
+    private long[] merge() {
+        long[] counts = new long[chunkCount << CHUNK_BITS];
+        for (int s = 0; s < stripes.length(); s++) {
+            AtomicReferenceArray<AtomicLongArray> stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int c = 0; c < chunkCount; c++) {
+                AtomicLongArray chunk = stripe.get(c);
+                if (chunk == null) {
+                    continue;
+                }
+                int offset = c << CHUNK_BITS;
+                for (int i = 0; i < CHUNK_SIZE; i++) {
+                    counts[offset + i] += chunk.get(i);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private AtomicReferenceArray<AtomicLongArray> stripe() {
+        int index = (int) Thread.currentThread().getId() & stripeMask;
+        AtomicReferenceArray<AtomicLongArray> stripe = stripes.get(index);
+        if (stripe == null) {
+            // Allocated once, when a thread of the stripe records its first value
+            stripes.compareAndSet(index, null, new AtomicReferenceArray<>(chunkCount));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private static AtomicLongArray chunk(AtomicReferenceArray<AtomicLongArray> stripe, int index) {
+        AtomicLongArray chunk = stripe.get(index);
+        if (chunk == null) {
+            // Allocated once, when the first value of the chunk is recorded
+            stripe.compareAndSet(index, null, new AtomicLongArray(CHUNK_SIZE));
+            chunk = stripe.get(index);
+        }
+        return chunk;
+    }
+
+    // Values in (gamma^(index - 1), gamma^index] fall into the bucket of the index
+    private int bucketIndex(long value) {
+        return Math.max(0, (int) Math.ceil(Math.log(value) / logGamma));
+    }
+
+    private double bucketValue(int index) {
+        return 2 * Math.pow(gamma, index) / (1 + gamma);
+    }
+}
@@ -7,87 +7,95 @@ package io.debezium.connector.spanner.metrics.latency;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
-
-import com.google.common.util.concurrent.AtomicDouble;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class provides functionality to calculate statistics:
  * min, max, avg values, percentiles.
+ * <p>
+ * The values are recorded without locks, without allocation and without a background thread.
+ * The percentiles are cleared on the first update or read after the clear interval.
  */
 public class Statistics {
-    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
-    private final AtomicLong maxValue = new AtomicLong(0);
-    private final AtomicDouble averageValue = new AtomicDouble(0);
-    private final AtomicLong lastValue = new AtomicLong(Long.MAX_VALUE);
-    private final AtomicLong count = new AtomicLong(0);
-    private final QuantileMeter quantileMeter;
-
-    public Statistics(Duration percentageMetricsClearInterval, Consumer<Throwable> errorConsumer) {
-        this.quantileMeter = new QuantileMeter(percentageMetricsClearInterval, errorConsumer);
-    }
 
-    public synchronized void reset() {
-        minValue.set(Long.MAX_VALUE);
-        maxValue.set(0);
-        averageValue.set(0);
-        lastValue.set(Long.MAX_VALUE);
-        count.set(0);
-        quantileMeter.reset();
-    }
+    private static final double RELATIVE_ACCURACY = 0.01;
 
-    public void start() {
-        quantileMeter.start();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    private volatile long lastValue;
+
+    private final QuantileRecorder quantileRecorder = new QuantileRecorder(RELATIVE_ACCURACY);
+    private final long clearIntervalNanos;
+    private final AtomicLong nextClearNanos;
+
+    public Statistics(Duration percentageMetricsClearInterval) {
+        this.clearIntervalNanos = percentageMetricsClearInterval.toNanos();
+        this.nextClearNanos = new AtomicLong(System.nanoTime() + clearIntervalNanos);
     }
 
-    public void shutdown() {
-        quantileMeter.shutdown();
+    public void reset() {
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(Long.MIN_VALUE);
+        sum.reset();
+        count.reset();
+        quantileRecorder.reset();
     }
 
-    public synchronized void update(long value) {
-
-        if (minValue.get() > value) {
-            minValue.set(value);
-        }
-
-        if (maxValue.get() < value) {
-            maxValue.set(value);
-        }
-
-        count.incrementAndGet();
-
-        averageValue.set((averageValue.get() * (count.get() - 1) + value) / count.get());
+    public void update(long value) {
+        minValue.accumulateAndGet(value, Math::min);
+        maxValue.accumulateAndGet(value, Math::max);
+        sum.add(value);
+        lastValue = value;
+        count.increment();
 
-        lastValue.set(value);
-
-        quantileMeter.addValue((double) value);
+        clearPercentilesIfExpired();
+        quantileRecorder.record(value);
     }
 
     public Long getMinValue() {
-        return count.get() == 0 ? null : minValue.get();
+        return count.sum() == 0 ? null : minValue.get();
     }
 
     public Long getMaxValue() {
-        return count.get() == 0 ? null : maxValue.get();
+        return count.sum() == 0 ? null : maxValue.get();
     }
 
     public Double getAverageValue() {
-        return count.get() == 0 ? null : averageValue.get();
+        long values = count.sum();
+        return values == 0 ? null : (double) sum.sum() / values;
     }
 
     public Long getLastValue() {
-        return count.get() == 0 ? null : lastValue.get();
+        return count.sum() == 0 ? null : lastValue;
     }
 
     public Double getValueAtP50() {
-        return quantileMeter.getValueAtQuantile(0.5);
+        return getValueAtQuantile(0.5);
     }
 
     public Double getValueAtP95() {
-        return quantileMeter.getValueAtQuantile(0.95);
+        return getValueAtQuantile(0.95);
     }
 
     public Double getValueAtP99() {
-        return quantileMeter.getValueAtQuantile(0.99);
+        return getValueAtQuantile(0.99);
+    }
+
+    private Double getValueAtQuantile(double quantile) {
+        clearPercentilesIfExpired();
+        return quantileRecorder.getValueAtQuantile(quantile);
+    }
+
+    private void clearPercentilesIfExpired() {
+        if (clearIntervalNanos <= 0) {
+            return;
+        }
+        long next = nextClearNanos.get();
+        long now = System.nanoTime();
+        if (now - next >= 0 && nextClearNanos.compareAndSet(next, now + clearIntervalNanos)) {
+            quantileRecorder.reset();
+        }
     }
 }
@@ -15,6 +15,12 @@ public class SourceRecordUtils {
 
     private static final String RECORD_UID = "spannerDataChangeRecordUid";
 
+    // Record uids of the previous versions were strings incremented from "aaaaaaaa"
+    private static final int LEGACY_RECORD_UID_LENGTH = 8;
+    private static final int LEGACY_RECORD_UID_RADIX = 26;
+    // Value of "zzzzzzzz"
+    private static final long LEGACY_RECORD_UID_MAX = 208_827_064_575L;
+
     private static final String EMIT_AT_TIMESTAMP_KEY = "emitAtTimestamp";
 
     private static final String PUBLISH_AT_TIMESTAMP_KEY = "publishAtTimestamp";
@@ -25,7 +31,13 @@ public class SourceRecordUtils {
     }
 
     public static boolean isDataChangeRecord(SourceRecord sourceRecord) {
-        return extractRecordUid(sourceRecord) != null;
+        return extract(RECORD_UID, sourceRecord) != null;
+    }
+
+    public static ConnectHeaders from(long recordUid) {
+        ConnectHeaders connectHeaders = new ConnectHeaders();
+        connectHeaders.addLong(RECORD_UID, recordUid);
+        return connectHeaders;
     }
 
     public static ConnectHeaders from(String recordUid) {
@@ -56,8 +68,47 @@ public class SourceRecordUtils {
         return SpannerPartition.extractToken(sourceRecord.sourcePartition());
     }
 
-    public static String extractRecordUid(SourceRecord sourceRecord) {
-        return (String) extract(RECORD_UID, sourceRecord);
+    /**
+     * @return uid of the data change record, or null if the record has no uid or the uid is not a sequence number
+     */
+    public static Long extractRecordUid(SourceRecord sourceRecord) {
+        Object recordUid = extract(RECORD_UID, sourceRecord);
+        if (recordUid instanceof Number) {
+            return ((Number) recordUid).longValue();
+        }
+        if (recordUid instanceof String) {
+            return decodeLegacyRecordUid((String) recordUid);
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the string record uid of the previous versions to its sequence number:
+     * "aaaaaaaa" is decoded to 1, "aaaaaaab" to 2, "aaaaaaba" to 27 and so on.
+     * After "zzzzzzzz" the previous versions appended a letter, so a longer uid is "zzzzzzzz...z" followed by one letter.
+     */
+    static Long decodeLegacyRecordUid(String recordUid) {
+        int length = recordUid.length();
+        if (length < LEGACY_RECORD_UID_LENGTH) {
+            return null;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = recordUid.charAt(i);
+            if (c < 'a' || c > 'z' || (i >= LEGACY_RECORD_UID_LENGTH && i < length - 1 && c != 'z')) {
+                return null;
+            }
+            if (i < LEGACY_RECORD_UID_LENGTH) {
+                value = value * LEGACY_RECORD_UID_RADIX + (c - 'a');
+            }
+        }
+        if (length > LEGACY_RECORD_UID_LENGTH) {
+            if (value != LEGACY_RECORD_UID_MAX) {
+                return null;
+            }
+            value += (long) LEGACY_RECORD_UID_RADIX * (length - LEGACY_RECORD_UID_LENGTH - 1) + (recordUid.charAt(length - 1) - 'a') + 1;
+        }
+        return value + 1;
     }
 
     public static Long extractEmitTimestamp(SourceRecord sourceRecord) {
@@ -28,9 +28,9 @@ public class SpannerChangeRecordEmitter extends AbstractChangeRecordEmitter<Span
     private final ModType modType;
     private final Mod mod;
 
-    private final String recordUid;
+    private final long recordUid;
 
-    public SpannerChangeRecordEmitter(String recordUid, ModType modType, Mod mod, SpannerPartition partition,
+    public SpannerChangeRecordEmitter(long recordUid, ModType modType, Mod mod, SpannerPartition partition,
                                       SpannerOffsetContext offsetContext, Clock clock, SpannerConnectorConfig connectorConfig) {
         super(partition, offsetContext, clock, connectorConfig);
         this.modType = modType;
@@ -5,23 +5,24 @@
  */
 package io.debezium.connector.spanner.schema;
 
+import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 
+import io.debezium.connector.spanner.BeforeImageMode;
+import io.debezium.connector.spanner.config.SpannerColumnFilter;
 import io.debezium.connector.spanner.db.metadata.SchemaRegistry;
 import io.debezium.connector.spanner.db.metadata.TableId;
 import io.debezium.connector.spanner.db.model.Mod;
 import io.debezium.connector.spanner.db.model.schema.Column;
 import io.debezium.connector.spanner.db.model.schema.TableSchema;
 import io.debezium.connector.spanner.schema.mapper.ColumnTypeSchemaMapper;
-import io.debezium.connector.spanner.schema.mapper.FieldJsonNodeValueMapper;
 import io.debezium.data.Envelope;
 import io.debezium.schema.SchemaNameAdjuster;
 import io.debezium.spi.topic.TopicNamingStrategy;
@@ -38,17 +39,30 @@ public class KafkaSpannerTableSchemaFactory {
 
     private final Schema sourceInfoSchema;
 
+    private final SpannerColumnFilter columnFilter;
+
+    private final BeforeImageMode beforeImageMode;
+
     public KafkaSpannerTableSchemaFactory(TopicNamingStrategy<TableId> topicNamingStrategy, SchemaNameAdjuster schemaNameAdjuster,
                                           SchemaRegistry schemaRegistry, Schema sourceInfoSchema) {
+        this(topicNamingStrategy, schemaNameAdjuster, schemaRegistry, sourceInfoSchema, SpannerColumnFilter.INCLUDE_ALL, BeforeImageMode.FULL);
+    }
+
+    public KafkaSpannerTableSchemaFactory(TopicNamingStrategy<TableId> topicNamingStrategy, SchemaNameAdjuster schemaNameAdjuster,
+                                          SchemaRegistry schemaRegistry, Schema sourceInfoSchema, SpannerColumnFilter columnFilter,
+                                          BeforeImageMode beforeImageMode) {
         this.topicNamingStrategy = topicNamingStrategy;
         this.schemaNameAdjuster = schemaNameAdjuster;
         this.schemaRegistry = schemaRegistry;
         this.sourceInfoSchema = sourceInfoSchema;
+        this.columnFilter = columnFilter;
+        this.beforeImageMode = beforeImageMode;
     }
 
     public KafkaSpannerTableSchema getTableSchema(TableId tableId) {
 
-        TableSchema table = schemaRegistry.getWatchedTable(tableId);
+        // The values of the projected out columns are skipped without decoding
+        TableSchema table = projectColumns(tableId, schemaRegistry.getWatchedTable(tableId));
 
         Schema valueSchema = buildValueSchema(table);
         Schema keySchema = buildKeySchema(table);
@@ -56,14 +70,23 @@ public class KafkaSpannerTableSchemaFactory {
         Envelope envelope = buildEnvelope(tableId, valueSchema);
 
         Function<Mod, Struct> keyGenerator = getKeyStructGenerator(keySchema, table);
-        Function<Mod, Struct> valueOldGenerator = getOldValueStructGenerator(valueSchema, table);
 
-        Function<Mod, Struct> valueNewGenerator = getNewValueStructGenerator(valueSchema, table);
+        StructColumnPlan valuePlan = new StructColumnPlan(valueSchema, table.columns());
+        Function<Mod, Struct> valueOldGenerator = getOldValueStructGenerator(valuePlan);
+
+        Function<Mod, Struct> valueNewGenerator = getNewValueStructGenerator(valuePlan);
 
         return new KafkaSpannerTableSchema(tableId, keySchema, keyGenerator, envelope, valueSchema, valueOldGenerator,
                 valueNewGenerator);
     }
 
+    private TableSchema projectColumns(TableId tableId, TableSchema table) {
+        List<Column> columns = table.columns().stream()
+                .filter(column -> columnFilter.isIncluded(tableId, column))
+                .collect(Collectors.toList());
+        return new TableSchema(table.getName(), columns);
+    }
+
     private Schema buildKeySchema(TableSchema table) {
 
         SchemaBuilder keySchemaBuilder = SchemaBuilder.struct()
@@ -102,41 +125,46 @@ public class KafkaSpannerTableSchemaFactory {
     }
 
     private Function<Mod, Struct> getKeyStructGenerator(Schema keySchema, TableSchema table) {
+        if (keySchema == null) {
+            return mod -> null;
+        }
+        StructColumnPlan keyPlan = new StructColumnPlan(keySchema, table.keyColumns());
         return mod -> {
-            Struct keyStruct = new Struct(keySchema);
-            table.keyColumns().forEach(column -> {
-                Field field = keySchema.field(column.getName());
-                JsonNode node = mod.getKeyJsonNode(column.getName());
-                keyStruct.put(field, FieldJsonNodeValueMapper.getValue(field, node));
-            });
+            Struct keyStruct = keyPlan.newStruct();
+            keyPlan.fill(keyStruct, mod.keys());
             return keyStruct;
         };
     }
 
-    private Function<Mod, Struct> getOldValueStructGenerator(Schema valueSchema, TableSchema table) {
+    private Function<Mod, Struct> getOldValueStructGenerator(StructColumnPlan valuePlan) {
+        // The old values are not accessed, unless the full before image is emitted
+        switch (beforeImageMode) {
+            case NONE:
+                return mod -> null;
+            case KEYS_ONLY:
+                return mod -> {
+                    Struct valueStruct = valuePlan.newStruct();
+                    valuePlan.fill(valueStruct, mod.keys());
+                    return valueStruct;
+                };
+            default:
+                break;
+        }
         return mod -> {
-            Struct valueStruct = new Struct(valueSchema);
-            table.columns().forEach(column -> {
-                Field field = valueSchema.field(column.getName());
-                JsonNode node = mod.getOldValueNode(column.getName());
-                if (node != null) {
-                    valueStruct.put(field, FieldJsonNodeValueMapper.getValue(field, node));
-                }
-            });
+            Struct valueStruct = valuePlan.newStruct();
+            // Key values take precedence over the values with the same name
+            valuePlan.fill(valueStruct, mod.oldValues());
+            valuePlan.fill(valueStruct, mod.keys());
             return valueStruct;
         };
     }
 
-    private Function<Mod, Struct> getNewValueStructGenerator(Schema valueSchema, TableSchema table) {
+    private Function<Mod, Struct> getNewValueStructGenerator(StructColumnPlan valuePlan) {
         return mod -> {
-            Struct valueStruct = new Struct(valueSchema);
-            table.columns().forEach(column -> {
-                Field field = valueSchema.field(column.getName());
-                JsonNode node = mod.getNewValueNode(column.getName());
-                if (node != null) {
-                    valueStruct.put(field, FieldJsonNodeValueMapper.getValue(field, node));
-                }
-            });
+            Struct valueStruct = valuePlan.newStruct();
+            // Key values take precedence over the values with the same name
+            valuePlan.fill(valueStruct, mod.newValues());
+            valuePlan.fill(valueStruct, mod.keys());
             return valueStruct;
         };
     }
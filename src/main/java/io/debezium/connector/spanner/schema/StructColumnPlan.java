@@ -0,0 +1,146 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.schema;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.debezium.connector.spanner.db.mapper.parser.ParseException;
+import io.debezium.connector.spanner.db.model.LazyJsonNode;
+import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.connector.spanner.schema.mapper.FieldJsonNodeValueMapper;
+import io.debezium.connector.spanner.schema.mapper.JsonParserStructValueConvertor;
+import io.debezium.connector.spanner.schema.mapper.JsonParserStructValueConvertor.ValueReader;
+
+/**
+ * Column access plan of a Kafka struct schema, compiled once per table schema version.
+ * <p>
+ * Holds the fields and the value mappers of the columns indexed by column position,
+ * so a struct is filled by walking the fields of a JSON object once,
+ * without looking up the schema fields and the value mappers by name.
+ * <p>
+ * JSON text, which has not been parsed yet, is read as a token stream
+ * and the values are written into the struct without building a tree.
+ */
+final class StructColumnPlan {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Schema schema;
+    private final String[] names;
+    private final Field[] fields;
+    private final Function<JsonNode, Object>[] valueMappers;
+    private final ValueReader[] valueReaders;
+    private final Map<String, Integer> positions;
+
+    @SuppressWarnings("unchecked")
+    StructColumnPlan(Schema schema, List<Column> columns) {
+        this.schema = schema;
+        this.names = new String[columns.size()];
+        this.fields = new Field[columns.size()];
+        this.valueMappers = new Function[columns.size()];
+        this.valueReaders = new ValueReader[columns.size()];
+        this.positions = new HashMap<>();
+
+        for (int i = 0; i < columns.size(); i++) {
+            String name = columns.get(i).getName();
+            Field field = schema.field(name);
+            names[i] = name;
+            fields[i] = field;
+            valueMappers[i] = FieldJsonNodeValueMapper.getValueMapper(field.schema());
+            valueReaders[i] = JsonParserStructValueConvertor.getValueReader(field.schema());
+            positions.put(name, i);
+        }
+    }
+
+    Struct newStruct() {
+        return new Struct(schema);
+    }
+
+    /**
+     * Puts the values of the JSON object fields, which are columns of the plan, into the struct.
+     * The other fields are ignored. The JSON text is not parsed into a tree, if it has not been parsed yet.
+     */
+    void fill(Struct struct, LazyJsonNode object) {
+        if (object == null) {
+            return;
+        }
+        String json = object.getRawJson();
+        if (json == null || object.isParsed()) {
+            fill(struct, object.get());
+            return;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            fill(struct, parser);
+        }
+        catch (IOException e) {
+            throw new ParseException(json, e);
+        }
+    }
+
+    /**
+     * Puts the values of the JSON object fields, which are columns of the plan, into the struct.
+     * The other fields are ignored.
+     */
+    void fill(Struct struct, JsonNode object) {
+        if (object == null) {
+            return;
+        }
+        // The change stream lists the values in the column order, so the next column is checked first
+        int next = 0;
+        Iterator<Map.Entry<String, JsonNode>> values = object.fields();
+        while (values.hasNext()) {
+            Map.Entry<String, JsonNode> value = values.next();
+            int position = position(value.getKey(), next);
+            if (position < 0) {
+                continue;
+            }
+            struct.put(fields[position], valueMappers[position].apply(value.getValue()));
+            next = position + 1;
+        }
+    }
+
+    private void fill(Struct struct, JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            // Absent values are sent as JSON null
+            parser.skipChildren();
+            return;
+        }
+        int next = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int position = position(parser.getCurrentName(), next);
+            JsonToken valueToken = parser.nextToken();
+            if (position < 0) {
+                parser.skipChildren();
+                continue;
+            }
+            struct.put(fields[position], valueReaders[position].read(parser, valueToken));
+            next = position + 1;
+        }
+    }
+
+    private int position(String name, int next) {
+        if (next < names.length && names[next].equals(name)) {
+            return next;
+        }
+        Integer position = positions.get(name);
+        return position != null ? position : -1;
+    }
+}
@@ -5,6 +5,8 @@
  */
 package io.debezium.connector.spanner.schema.mapper;
 
+import java.util.function.Function;
+
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 
@@ -19,20 +21,28 @@ public class FieldJsonNodeValueMapper {
     }
 
     public static Object getValue(Field field, JsonNode node) {
-        Schema.Type type = field.schema().type();
+        return getValueMapper(field.schema()).apply(node);
+    }
+
+    /**
+     * Resolves the conversion of the field type once, so that it can be applied to many values
+     */
+    public static Function<JsonNode, Object> getValueMapper(Schema schema) {
+        Schema.Type type = schema.type();
         switch (type) {
             case FLOAT64:
-                return JsonNodeStructValueConvertor.getDouble(node);
+                return JsonNodeStructValueConvertor::getDouble;
             case STRING:
-                return JsonNodeStructValueConvertor.getString(node);
+                return JsonNodeStructValueConvertor::getString;
             case INT64:
-                return JsonNodeStructValueConvertor.getLong(node);
+                return JsonNodeStructValueConvertor::getLong;
             case BOOLEAN:
-                return JsonNodeStructValueConvertor.getBoolean(node);
+                return JsonNodeStructValueConvertor::getBoolean;
             case BYTES:
-                return JsonNodeStructValueConvertor.getBytes(node);
+                return JsonNodeStructValueConvertor::getBytes;
             case ARRAY:
-                return JsonNodeStructValueConvertor.getList(node, field.schema().valueSchema().type());
+                Schema.Type elementType = schema.valueSchema().type();
+                return node -> JsonNodeStructValueConvertor.getList(node, elementType);
             default:
                 throw new IllegalArgumentException("unsupported field type: " + type);
         }
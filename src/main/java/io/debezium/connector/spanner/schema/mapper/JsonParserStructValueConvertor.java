@@ -0,0 +1,174 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.schema.mapper;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.kafka.connect.data.Schema;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.NumberInput;
+
+/**
+ * Utility to read values of various data types directly from the JSON tokens,
+ * without building a {@link com.fasterxml.jackson.databind.JsonNode} first.
+ * <p>
+ * The values are the same as the ones of {@link JsonNodeStructValueConvertor}
+ * applied to the tree of the same JSON text.
+ */
+public class JsonParserStructValueConvertor {
+
+    // Accepts the values without padding as java.util.Base64 does
+    private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS
+            .withReadPadding(Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+
+    /**
+     * Reads the value starting at the current token and leaves the parser at the last token of the value
+     */
+    @FunctionalInterface
+    public interface ValueReader {
+        Object read(JsonParser parser, JsonToken token) throws IOException;
+    }
+
+    private JsonParserStructValueConvertor() {
+    }
+
+    /**
+     * Resolves the reader of the field type once, so that it can be applied to many values
+     */
+    public static ValueReader getValueReader(Schema schema) {
+        Schema.Type type = schema.type();
+        if (type == Schema.Type.ARRAY) {
+            ValueReader elementReader = getElementReader(schema.valueSchema().type());
+            return (parser, token) -> getList(parser, token, elementReader);
+        }
+        return getElementReader(type);
+    }
+
+    private static ValueReader getElementReader(Schema.Type type) {
+        switch (type) {
+            case FLOAT64:
+                return JsonParserStructValueConvertor::getDouble;
+            case STRING:
+                return JsonParserStructValueConvertor::getString;
+            case INT64:
+                return JsonParserStructValueConvertor::getLong;
+            case BOOLEAN:
+                return JsonParserStructValueConvertor::getBoolean;
+            case BYTES:
+                return JsonParserStructValueConvertor::getBytes;
+            default:
+                throw new IllegalArgumentException("unsupported field type: " + type);
+        }
+    }
+
+    public static Long getLong(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                // INT64 values are sent as strings
+                return NumberInput.parseAsLong(parser.getText(), 0);
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue().longValue();
+            case VALUE_NUMBER_FLOAT:
+                return (long) parser.getDoubleValue();
+            case VALUE_TRUE:
+                return 1L;
+            default:
+                parser.skipChildren();
+                return 0L;
+        }
+    }
+
+    public static Double getDouble(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                // Not finite values are sent as strings
+                return NumberInput.parseAsDouble(parser.getText(), 0.0);
+            case VALUE_TRUE:
+                return 1.0;
+            default:
+                parser.skipChildren();
+                return 0.0;
+        }
+    }
+
+    public static Boolean getBoolean(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return true;
+            case VALUE_STRING:
+                return "true".equals(parser.getText().trim());
+            case VALUE_NUMBER_INT:
+                Number number = parser.getNumberValue();
+                return number instanceof BigInteger ? ((BigInteger) number).signum() != 0 : number.longValue() != 0;
+            default:
+                parser.skipChildren();
+                return false;
+        }
+    }
+
+    public static String getString(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue().toString();
+            case VALUE_NUMBER_FLOAT:
+                return Double.toString(parser.getDoubleValue());
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getText();
+            default:
+                parser.skipChildren();
+                return "";
+        }
+    }
+
+    public static ByteBuffer getBytes(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            // Decoded straight from the parser buffer
+            return ByteBuffer.wrap(parser.getBinaryValue(BASE64));
+        }
+        String text = getString(parser, token);
+        return text == null ? null : ByteBuffer.wrap(Base64.getDecoder().decode(text));
+    }
+
+    public static List<Object> getList(JsonParser parser, JsonToken token, ValueReader elementReader) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException();
+        }
+
+        List<Object> list = new ArrayList<>();
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+            list.add(elementReader.read(parser, elementToken));
+        }
+        return list;
+    }
+}
@@ -5,8 +5,6 @@
  */
 package io.debezium.connector.spanner.task;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 import com.google.cloud.Timestamp;
 
 import io.debezium.connector.spanner.context.offset.LowWatermarkProvider;
@@ -16,18 +14,24 @@ import io.debezium.connector.spanner.context.offset.LowWatermarkProvider;
  */
 public class LowWatermarkHolder implements LowWatermarkProvider {
 
-    private final AtomicReference<Timestamp> lastWatermark = new AtomicReference<>(null);
+    private volatile Timestamp lastWatermark;
 
     @Override
     public Timestamp getLowWatermark() throws InterruptedException {
-        while (lastWatermark.get() == null) {
+        Timestamp lowWatermark;
+        while ((lowWatermark = lastWatermark) == null) {
             Thread.sleep(1);
         }
-        return lastWatermark.get();
+        return lowWatermark;
+    }
+
+    @Override
+    public Timestamp getLastLowWatermark() {
+        return lastWatermark;
     }
 
     public void setLowWatermark(Timestamp lowWatermark) {
-        this.lastWatermark.set(lowWatermark);
+        this.lastWatermark = lowWatermark;
     }
 
 }
@@ -0,0 +1,441 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.task;
+
+import static io.debezium.connector.spanner.task.TaskStateUtil.inProgressPartitionState;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+
+/**
+ * Index of the partitions of all the task states of the {@link TaskSyncContext}:
+ * the owners and the states of every token, the children of every parent
+ * and the tokens owned in every state.
+ * <p>
+ * The registry is immutable. A new context updates the registry of the context
+ * it was built from, so only the task states and the partition states, which have been
+ * replaced, are indexed again, and the unchanged part of the index is shared.
+ */
+public final class PartitionRegistry {
+
+    private static final PartitionStateEnum[] STATES = PartitionStateEnum.values();
+
+    static final PartitionRegistry EMPTY = new PartitionRegistry();
+
+    // Task states indexed by the task uid, the current task state replaces the received one
+    private final Map<String, TaskState> taskStates;
+    private final PersistentHashMap<String, List<Entry>> entries;
+    // Tokens of the partitions per parent, once per partition state
+    private final PersistentHashMap<String, List<String>> children;
+    // Number of the owned partition states per token and state
+    private final List<PersistentHashMap<String, Integer>> ownedTokensByState;
+
+    // Tokens with an owned partition in progress
+    private final int numPartitions;
+    // Tokens with a shared partition and without an owned partition in progress
+    private final int numSharedPartitions;
+    private final int numDuplicatedPartitions;
+    private final int numDuplicatedSharedPartitions;
+    private final int numInProgressTokens;
+    private final int numFinishedTokens;
+
+    private PartitionRegistry() {
+        this.taskStates = Map.of();
+        this.entries = PersistentHashMap.empty();
+        this.children = PersistentHashMap.empty();
+        this.ownedTokensByState = Collections.nCopies(STATES.length, PersistentHashMap.empty());
+        this.numPartitions = 0;
+        this.numSharedPartitions = 0;
+        this.numDuplicatedPartitions = 0;
+        this.numDuplicatedSharedPartitions = 0;
+        this.numInProgressTokens = 0;
+        this.numFinishedTokens = 0;
+    }
+
+    private PartitionRegistry(Map<String, TaskState> taskStates, Updater updater) {
+        this.taskStates = taskStates;
+        this.entries = updater.entries;
+        this.children = updater.children;
+        this.ownedTokensByState = List.copyOf(updater.ownedTokensByState);
+        this.numPartitions = updater.counts[0];
+        this.numSharedPartitions = updater.counts[1];
+        this.numDuplicatedPartitions = updater.counts[2];
+        this.numDuplicatedSharedPartitions = updater.counts[3];
+        this.numInProgressTokens = updater.counts[4];
+        this.numFinishedTokens = updater.counts[5];
+    }
+
+    /**
+     * Returns the registry of the given task states, or this registry, if all the task states are indexed already
+     */
+    PartitionRegistry update(Map<String, TaskState> taskStates, TaskState currentTaskState) {
+        String currentTaskUid = currentTaskState == null ? null : currentTaskState.getTaskUid();
+        if (isIndexed(taskStates, currentTaskUid, currentTaskState)) {
+            return this;
+        }
+
+        Map<String, TaskState> indexed = new HashMap<>(taskStates);
+        if (currentTaskState != null) {
+            indexed.put(currentTaskUid, currentTaskState);
+        }
+
+        Updater updater = new Updater(this);
+        for (Map.Entry<String, TaskState> entry : this.taskStates.entrySet()) {
+            if (!indexed.containsKey(entry.getKey())) {
+                updater.replace(entry.getKey(), entry.getValue(), null);
+            }
+        }
+        for (Map.Entry<String, TaskState> entry : indexed.entrySet()) {
+            TaskState previous = this.taskStates.get(entry.getKey());
+            if (previous != entry.getValue()) {
+                updater.replace(entry.getKey(), previous, entry.getValue());
+            }
+        }
+        return new PartitionRegistry(Collections.unmodifiableMap(indexed), updater);
+    }
+
+    private boolean isIndexed(Map<String, TaskState> taskStates, String currentTaskUid, TaskState currentTaskState) {
+        int count = 0;
+        for (Map.Entry<String, TaskState> entry : taskStates.entrySet()) {
+            if (entry.getKey().equals(currentTaskUid)) {
+                continue;
+            }
+            if (this.taskStates.get(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+            count++;
+        }
+        if (currentTaskState != null) {
+            if (this.taskStates.get(currentTaskUid) != currentTaskState) {
+                return false;
+            }
+            count++;
+        }
+        return count == this.taskStates.size();
+    }
+
+    /**
+     * Tokens of all the owned and shared partitions
+     */
+    public Set<String> getTokens() {
+        return new KeySet(entries);
+    }
+
+    /**
+     * Owned and shared partition states of the token in all the tasks
+     */
+    public List<Entry> getEntries(String token) {
+        List<Entry> tokenEntries = entries.get(token);
+        return tokenEntries == null ? List.of() : tokenEntries;
+    }
+
+    /**
+     * Tokens of the owned and shared partitions, which have the given parent
+     */
+    public Set<String> getChildren(String parent) {
+        List<String> tokens = children.get(parent);
+        return tokens == null ? Set.of() : Set.copyOf(tokens);
+    }
+
+    /**
+     * Tokens of the partitions owned by any task in the given state
+     */
+    public Set<String> getOwnedTokens(PartitionStateEnum state) {
+        return new KeySet(ownedTokensByState.get(state.ordinal()));
+    }
+
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    public int getNumSharedPartitions() {
+        return numSharedPartitions;
+    }
+
+    /**
+     * Number of the tokens with an owned or shared partition in progress
+     */
+    public int getNumInProgressTokens() {
+        return numInProgressTokens;
+    }
+
+    /**
+     * Number of the tokens with an owned or shared partition, which is finished or removed
+     */
+    public int getNumFinishedTokens() {
+        return numFinishedTokens;
+    }
+
+    /**
+     * Tokens owned in progress by more than one task
+     */
+    public Set<String> getDuplicatedPartitions() {
+        if (numDuplicatedPartitions == 0) {
+            return Set.of();
+        }
+        Set<String> tokens = new HashSet<>();
+        entries.forEach((token, tokenEntries) -> {
+            if (countOwnedInProgress(tokenEntries) > 1) {
+                tokens.add(token);
+            }
+        });
+        return Collections.unmodifiableSet(tokens);
+    }
+
+    /**
+     * Tokens shared by more than one task, which are not owned in progress by any task
+     */
+    public Set<String> getDuplicatedSharedPartitions() {
+        if (numDuplicatedSharedPartitions == 0) {
+            return Set.of();
+        }
+        Set<String> tokens = new HashSet<>();
+        entries.forEach((token, tokenEntries) -> {
+            if (countOwnedInProgress(tokenEntries) == 0 && countShared(tokenEntries) > 1) {
+                tokens.add(token);
+            }
+        });
+        return Collections.unmodifiableSet(tokens);
+    }
+
+    private static int countOwnedInProgress(List<Entry> tokenEntries) {
+        int count = 0;
+        for (Entry entry : tokenEntries) {
+            if (!entry.isShared() && inProgressPartitionState(entry.getPartitionState().getState())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countShared(List<Entry> tokenEntries) {
+        int count = 0;
+        for (Entry entry : tokenEntries) {
+            if (entry.isShared()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Partition state owned or shared by a task
+     */
+    public static final class Entry {
+        private final String taskUid;
+        private final PartitionState partitionState;
+        private final boolean shared;
+
+        Entry(String taskUid, PartitionState partitionState, boolean shared) {
+            this.taskUid = taskUid;
+            this.partitionState = partitionState;
+            this.shared = shared;
+        }
+
+        public String getTaskUid() {
+            return taskUid;
+        }
+
+        public PartitionState getPartitionState() {
+            return partitionState;
+        }
+
+        public boolean isShared() {
+            return shared;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(taskUid=" + taskUid + ", shared=" + shared + ", partitionState=" + partitionState + ")";
+        }
+    }
+
+    /**
+     * Applies the replaced task states to the persistent maps and the counters of the previous registry
+     */
+    private static final class Updater {
+        private PersistentHashMap<String, List<Entry>> entries;
+        private PersistentHashMap<String, List<String>> children;
+        private final List<PersistentHashMap<String, Integer>> ownedTokensByState;
+        private final int[] counts;
+
+        Updater(PartitionRegistry registry) {
+            this.entries = registry.entries;
+            this.children = registry.children;
+            this.ownedTokensByState = new ArrayList<>(registry.ownedTokensByState);
+            this.counts = new int[]{ registry.numPartitions, registry.numSharedPartitions,
+                    registry.numDuplicatedPartitions, registry.numDuplicatedSharedPartitions,
+                    registry.numInProgressTokens, registry.numFinishedTokens };
+        }
+
+        void replace(String taskUid, TaskState previous, TaskState taskState) {
+            replace(taskUid, previous == null ? null : previous.getPartitionsMap(),
+                    taskState == null ? null : taskState.getPartitionsMap(), false);
+            replace(taskUid, previous == null ? null : previous.getSharedPartitionsMap(),
+                    taskState == null ? null : taskState.getSharedPartitionsMap(), true);
+        }
+
+        private void replace(String taskUid, Map<String, PartitionState> previous, Map<String, PartitionState> partitions,
+                             boolean shared) {
+            if (previous == partitions) {
+                return;
+            }
+            if (previous != null) {
+                for (Map.Entry<String, PartitionState> entry : previous.entrySet()) {
+                    if (partitions == null || partitions.get(entry.getKey()) != entry.getValue()) {
+                        remove(taskUid, entry.getValue(), shared);
+                    }
+                }
+            }
+            if (partitions != null) {
+                for (Map.Entry<String, PartitionState> entry : partitions.entrySet()) {
+                    if (previous == null || previous.get(entry.getKey()) != entry.getValue()) {
+                        add(taskUid, entry.getValue(), shared);
+                    }
+                }
+            }
+        }
+
+        private void add(String taskUid, PartitionState partitionState, boolean shared) {
+            String token = partitionState.getToken();
+            List<Entry> previous = entries.get(token);
+            List<Entry> tokenEntries = new ArrayList<>(previous == null ? 1 : previous.size() + 1);
+            if (previous != null) {
+                tokenEntries.addAll(previous);
+            }
+            tokenEntries.add(new Entry(taskUid, partitionState, shared));
+            setEntries(token, previous, List.copyOf(tokenEntries));
+
+            if (partitionState.getParents() != null) {
+                for (String parent : partitionState.getParents()) {
+                    List<String> previousChildren = children.get(parent);
+                    List<String> tokens = new ArrayList<>(previousChildren == null ? 1 : previousChildren.size() + 1);
+                    if (previousChildren != null) {
+                        tokens.addAll(previousChildren);
+                    }
+                    tokens.add(token);
+                    children = children.put(parent, List.copyOf(tokens));
+                }
+            }
+            if (!shared) {
+                countOwned(token, partitionState.getState(), 1);
+            }
+        }
+
+        private void remove(String taskUid, PartitionState partitionState, boolean shared) {
+            String token = partitionState.getToken();
+            List<Entry> previous = entries.get(token);
+            if (previous == null) {
+                return;
+            }
+            List<Entry> tokenEntries = new ArrayList<>(previous);
+            for (int i = 0; i < tokenEntries.size(); i++) {
+                Entry entry = tokenEntries.get(i);
+                if (entry.isShared() == shared && entry.getTaskUid().equals(taskUid)) {
+                    tokenEntries.remove(i);
+                    break;
+                }
+            }
+            setEntries(token, previous, tokenEntries.isEmpty() ? null : List.copyOf(tokenEntries));
+
+            if (partitionState.getParents() != null) {
+                for (String parent : partitionState.getParents()) {
+                    List<String> previousChildren = children.get(parent);
+                    if (previousChildren == null) {
+                        continue;
+                    }
+                    List<String> tokens = new ArrayList<>(previousChildren);
+                    tokens.remove(token);
+                    children = tokens.isEmpty() ? children.remove(parent) : children.put(parent, List.copyOf(tokens));
+                }
+            }
+            if (!shared) {
+                countOwned(token, partitionState.getState(), -1);
+            }
+        }
+
+        private void setEntries(String token, List<Entry> previous, List<Entry> tokenEntries) {
+            if (previous != null) {
+                count(previous, -1);
+            }
+            if (tokenEntries == null) {
+                entries = entries.remove(token);
+            }
+            else {
+                count(tokenEntries, 1);
+                entries = entries.put(token, tokenEntries);
+            }
+        }
+
+        private void countOwned(String token, PartitionStateEnum state, int delta) {
+            PersistentHashMap<String, Integer> tokens = ownedTokensByState.get(state.ordinal());
+            Integer previous = tokens.get(token);
+            int count = (previous == null ? 0 : previous) + delta;
+            ownedTokensByState.set(state.ordinal(), count > 0 ? tokens.put(token, count) : tokens.remove(token));
+        }
+
+        // Adds or subtracts the contribution of the token to the counters
+        private void count(List<Entry> tokenEntries, int sign) {
+            int ownedInProgress = countOwnedInProgress(tokenEntries);
+            int shared = countShared(tokenEntries);
+            boolean inProgress = false;
+            boolean finished = false;
+            for (Entry entry : tokenEntries) {
+                if (inProgressPartitionState(entry.getPartitionState().getState())) {
+                    inProgress = true;
+                }
+                else {
+                    finished = true;
+                }
+            }
+            counts[0] += ownedInProgress > 0 ? sign : 0;
+            counts[1] += ownedInProgress == 0 && shared > 0 ? sign : 0;
+            counts[2] += ownedInProgress > 1 ? sign : 0;
+            counts[3] += ownedInProgress == 0 && shared > 1 ? sign : 0;
+            counts[4] += inProgress ? sign : 0;
+            counts[5] += finished ? sign : 0;
+        }
+    }
+
+    /**
+     * Read-only view of the keys of a persistent map
+     */
+    private static final class KeySet extends AbstractSet<String> {
+        private final PersistentHashMap<String, ?> map;
+
+        KeySet(PersistentHashMap<String, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return key != null && map.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            List<String> keys = new ArrayList<>(map.size());
+            map.forEach((key, value) -> keys.add(key));
+            return Collections.unmodifiableList(keys).iterator();
+        }
+    }
+}
@@ -7,6 +7,9 @@ package io.debezium.connector.spanner.task;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.slf4j.Logger;
 
 import io.debezium.connector.spanner.kafka.internal.TaskSyncPublisher;
@@ -20,7 +23,7 @@ import io.debezium.function.BlockingConsumer;
 
 /**
  * Provides a logic for processing Sync Events of different types:
- * New Epoch, Rebalance Answers, Regular events
+ * New Epoch, Rebalance Answers, Regular and Delta events
  */
 public class SyncEventHandler {
     private static final Logger LOGGER = getLogger(SyncEventHandler.class);
@@ -31,6 +34,9 @@ public class SyncEventHandler {
 
     private final BlockingConsumer<TaskStateChangeEvent> eventConsumer;
 
+    // Tasks, whose full state has been requested after missed deltas
+    private final Set<String> pendingSnapshotRequests = new HashSet<>();
+
     public SyncEventHandler(TaskSyncContextHolder taskSyncContextHolder, TaskSyncPublisher taskSyncPublisher,
                             BlockingConsumer<TaskStateChangeEvent> eventConsumer) {
         this.taskSyncContextHolder = taskSyncContextHolder;
@@ -92,6 +98,10 @@ public class SyncEventHandler {
 
                 taskSyncContextHolder.update(context -> SyncEventMerger.mergeEpochUpdate(context, inSync));
             }
+            else if (inSync.getMessageType() == MessageTypeEnum.DELTA) {
+                // Missed deltas are not requested during the initial sync, the rebalance answers carry the full states
+                taskSyncContextHolder.update(context -> SyncEventMerger.mergeDelta(context, inSync));
+            }
             else {
                 taskSyncContextHolder.update(context -> SyncEventMerger.mergeIncrementalTaskSyncEvent(context, inSync));
             }
@@ -158,6 +168,26 @@ public class SyncEventHandler {
         LOGGER.debug("Task {} - Finished processing regular message event", taskSyncContextHolder.get().getTaskUid());
     }
 
+    public void processDeltaMessage(TaskSyncEvent inSync, SyncEventMetadata metadata) throws InterruptedException {
+        LOGGER.debug("Task {} - process delta message event", taskSyncContextHolder.get().getTaskUid());
+
+        TaskSyncContext context = taskSyncContextHolder.get();
+        if (SyncEventMerger.hasDeltaGap(context, inSync)) {
+            if (pendingSnapshotRequests.add(inSync.getTaskUid())) {
+                LOGGER.info("Task {} - missed delta messages of task {}, requesting its full state",
+                        context.getTaskUid(), inSync.getTaskUid());
+                taskSyncPublisher.send(context.buildCurrentTaskSyncEvent().toBuilder()
+                        .snapshotRequests(Set.of(inSync.getTaskUid()))
+                        .build());
+            }
+            return;
+        }
+
+        taskSyncContextHolder.update(oldContext -> SyncEventMerger.mergeDelta(oldContext, inSync));
+
+        LOGGER.debug("Task {} - Finished processing delta message event", taskSyncContextHolder.get().getTaskUid());
+    }
+
     public void processRebalanceAnswer(TaskSyncEvent inSync, SyncEventMetadata metadata) {
 
         LOGGER.info("Task {} - process sync event - rebalance answer from task {} with generation {}",
@@ -203,10 +233,23 @@ public class SyncEventHandler {
             return;
         }
 
+        if (inSync.getMessageType() != MessageTypeEnum.DELTA) {
+            pendingSnapshotRequests.remove(inSync.getTaskUid());
+        }
+        if (inSync.getSnapshotRequests().contains(taskSyncContextHolder.get().getTaskUid())) {
+            LOGGER.info("Task {} - task {} requested the full state", taskSyncContextHolder.get().getTaskUid(), inSync.getTaskUid());
+            taskSyncPublisher.requestSnapshot();
+            taskSyncPublisher.send(taskSyncContextHolder.get().buildCurrentTaskSyncEvent());
+        }
+
         try {
             if (inSync.getMessageType() == MessageTypeEnum.REGULAR) {
                 processRegularMessage(inSync, metadata);
 
+            }
+            else if (inSync.getMessageType() == MessageTypeEnum.DELTA) {
+                processDeltaMessage(inSync, metadata);
+
             }
             else if (inSync.getMessageType() == MessageTypeEnum.REBALANCE_ANSWER) {
                 processRebalanceAnswer(inSync, metadata);
@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 
 import io.debezium.connector.spanner.kafka.internal.model.RebalanceState;
 import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskStateDelta;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
 
 /**
@@ -58,7 +59,7 @@ public class SyncEventMerger {
             return builder.build();
         }
 
-        if (newTask.getStateTimestamp() > currentTask.getStateTimestamp()) {
+        if (isNewer(newTask, currentTask)) {
             Map<String, TaskState> taskStates = new HashMap<>(currentContext.getTaskStates());
             // Remove the task state from the map.
             taskStates.remove(newMessage.getTaskUid());
@@ -84,6 +85,45 @@ public class SyncEventMerger {
         return builder.build();
     }
 
+    // Apply the changes from the DELTA message onto the state of the task with the previous sequence number.
+    public static TaskSyncContext mergeDelta(TaskSyncContext currentContext, TaskSyncEvent newMessage) {
+        TaskStateDelta delta = newMessage.getTaskStateDelta();
+        if (delta == null || delta.getTaskUid().equals(currentContext.getTaskUid())) {
+            return currentContext;
+        }
+
+        // As for REGULAR messages, the states of unknown tasks are taken from the rebalance answers only.
+        TaskState currentTask = currentContext.getTaskStates().get(delta.getTaskUid());
+        if (currentTask == null || currentTask.getSequence() != delta.getSequence() - 1) {
+            LOGGER.debug("Task {}, skipping delta {} of task {}, the current state has sequence {}", currentContext.getTaskUid(),
+                    delta.getSequence(), delta.getTaskUid(), currentTask == null ? null : currentTask.getSequence());
+            return currentContext;
+        }
+
+        Map<String, TaskState> taskStates = new HashMap<>(currentContext.getTaskStates());
+        taskStates.put(delta.getTaskUid(), delta.applyTo(currentTask));
+        return currentContext.toBuilder()
+                .taskStates(taskStates)
+                .createdTimestamp(Long.max(currentContext.getCreatedTimestamp(), newMessage.getMessageTimestamp()))
+                .build();
+    }
+
+    // States published within the same millisecond are ordered by their sequence numbers.
+    private static boolean isNewer(TaskState newTask, TaskState currentTask) {
+        return newTask.getStateTimestamp() > currentTask.getStateTimestamp()
+                || (newTask.getStateTimestamp() == currentTask.getStateTimestamp() && newTask.getSequence() > currentTask.getSequence());
+    }
+
+    // Whether DELTA messages of the task have been missed, so its full state is needed.
+    public static boolean hasDeltaGap(TaskSyncContext currentContext, TaskSyncEvent newMessage) {
+        TaskStateDelta delta = newMessage.getTaskStateDelta();
+        if (delta == null) {
+            return false;
+        }
+        TaskState currentTask = currentContext.getTaskStates().get(delta.getTaskUid());
+        return currentTask != null && currentTask.getSequence() < delta.getSequence() - 1;
+    }
+
     // Take in the new task's snapshot.
     public static TaskSyncContext mergeRebalanceAnswer(TaskSyncContext currentContext, TaskSyncEvent newMessage) {
         Map<String, TaskState> newTaskStatesMap = newMessage.getTaskStates();
@@ -105,7 +145,7 @@ public class SyncEventMerger {
         // We only retrieve the task state belonging to the rebalance answer.
         TaskState currentTask = currentContext.getTaskStates().get(newMessage.getTaskUid());
 
-        if (currentTask == null || newTask.getStateTimestamp() > currentTask.getStateTimestamp()) {
+        if (currentTask == null || isNewer(newTask, currentTask)) {
             Map<String, TaskState> taskStates = new HashMap<>(currentContext.getTaskStates());
             // Remove the task state from the map.
             taskStates.remove(newMessage.getTaskUid());
@@ -196,7 +236,7 @@ public class SyncEventMerger {
             // We only update our internal copy of another task's state, if the state timestamp
             // in the sync event message is greater than the state timestamp of our internal
             // copy of the other task's state.
-            if (currentTaskState == null || newTaskState.getStateTimestamp() > currentTaskState.getStateTimestamp()) {
+            if (currentTaskState == null || isNewer(newTaskState, currentTaskState)) {
                 updatedStatesUids.add(newTaskState.getTaskUid());
             }
         }
@@ -113,7 +113,8 @@ public class SynchronizationTaskContext {
 
         this.taskSyncContextHolder = new TaskSyncContextHolder(metricsEventPublisher);
 
-        this.taskSyncPublisher = new TaskSyncPublisher(task.getTaskUid(), taskSyncTopic, connectorConfig.syncEventPublisherWaitingTimeout(), producerFactory,
+        this.taskSyncPublisher = new TaskSyncPublisher(task.getTaskUid(), taskSyncTopic, connectorConfig.syncEventPublisherWaitingTimeout(),
+                connectorConfig.syncDeltaSnapshotInterval(), connectorConfig.syncEventFormat(), producerFactory,
                 taskSyncContextHolder,
                 this::onError);
 
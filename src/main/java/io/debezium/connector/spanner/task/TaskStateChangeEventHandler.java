@@ -8,6 +8,10 @@ package io.debezium.connector.spanner.task;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -15,9 +19,11 @@ import java.util.function.Consumer;
 import org.slf4j.Logger;
 
 import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.db.model.Partition;
 import io.debezium.connector.spanner.db.stream.ChangeStream;
 import io.debezium.connector.spanner.exception.SpannerConnectorException;
 import io.debezium.connector.spanner.kafka.internal.TaskSyncPublisher;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
 import io.debezium.connector.spanner.task.operation.ChildPartitionOperation;
 import io.debezium.connector.spanner.task.operation.ClearSharedPartitionOperation;
@@ -76,56 +82,81 @@ public class TaskStateChangeEventHandler {
     }
 
     public void processEvent(TaskStateChangeEvent syncEvent) throws InterruptedException {
-        LOGGER.debug("process TaskStateChangeEvent of type: {}", syncEvent.getClass().getSimpleName());
+        processEvents(List.of(syncEvent));
+    }
+
+    /**
+     * Applies the state updates of the events in their order and runs the rest
+     * of the operations once, so a burst of events is published as one sync event
+     */
+    public void processEvents(List<TaskStateChangeEvent> events) throws InterruptedException {
+        LOGGER.debug("process {} TaskStateChangeEvents", events.size());
 
         long nowMillis = Instant.now().toEpochMilli();
-        if (syncEvent instanceof PartitionStatusUpdateEvent) {
-            processEvent((PartitionStatusUpdateEvent) syncEvent);
-        }
-        else if (syncEvent instanceof NewPartitionsEvent) {
-            processEvent((NewPartitionsEvent) syncEvent);
+        List<Operation> operations = new ArrayList<>();
+        Map<String, PartitionStateEnum> partitionStates = new HashMap<>();
+        List<Partition> newPartitions = new ArrayList<>();
+        boolean hasNewPartitions = false;
+        boolean hasSyncEvent = false;
+        for (TaskStateChangeEvent event : events) {
+            if (event instanceof PartitionStatusUpdateEvent) {
+                // The consecutive updates of the same kind are applied together
+                addChildPartitionOperation(operations, newPartitions);
+                PartitionStatusUpdateEvent partitionStatusUpdateEvent = (PartitionStatusUpdateEvent) event;
+                partitionStates.put(partitionStatusUpdateEvent.getToken(), partitionStatusUpdateEvent.getState());
+            }
+            else if (event instanceof NewPartitionsEvent) {
+                addPartitionStatusUpdateOperation(operations, partitionStates);
+                newPartitions.addAll(((NewPartitionsEvent) event).getPartitions());
+                hasNewPartitions = true;
+            }
+            else if (event instanceof SyncEvent) {
+                hasSyncEvent = true;
+            }
+            else {
+                throw new IllegalStateException("Unknown event");
+            }
         }
-        else if (syncEvent instanceof SyncEvent) {
-            processSyncEvent();
+        addChildPartitionOperation(operations, newPartitions);
+        addPartitionStatusUpdateOperation(operations, partitionStates);
 
+        operations.add(new ClearSharedPartitionOperation());
+        if (hasSyncEvent) {
+            operations.add(new TakeSharedPartitionOperation());
         }
-        else {
-            throw new IllegalStateException("Unknown event");
+        operations.add(new FindPartitionForStreamingOperation());
+        operations.add(new TakePartitionForStreamingOperation(changeStream, partitionFactory));
+        if (hasNewPartitions || hasSyncEvent) {
+            operations.add(new RemoveFinishedPartitionOperation(spannerEventDispatcher, connectorConfig));
+        }
+        if (hasSyncEvent) {
+            operations.add(new ConnectorEndDetectionOperation(finishingHandler, connectorConfig.endTime()));
         }
-        long thenMillis = Instant.now().toEpochMilli();
-        LOGGER.debug(
-                "Task {}, TaskStateChangeEventHandler: Processed {} in {} millis",
-                taskSyncContextHolder.get().getTaskUid(), syncEvent.getClass().getSimpleName(), thenMillis - nowMillis);
 
-    }
+        TaskSyncContext taskSyncContext = performOperation(operations.toArray(new Operation[0]));
 
-    private void processEvent(PartitionStatusUpdateEvent event) throws InterruptedException {
-        performOperation(
-                new PartitionStatusUpdateOperation(event.getToken(), event.getState()),
-                new ClearSharedPartitionOperation(),
-                new FindPartitionForStreamingOperation(),
-                new TakePartitionForStreamingOperation(changeStream, partitionFactory));
-    }
+        if (hasSyncEvent) {
+            failOverloadedTaskByTimer(taskSyncContext);
+        }
 
-    private void processEvent(NewPartitionsEvent newPartitionsEvent) throws InterruptedException {
-        performOperation(
-                new ChildPartitionOperation(newPartitionsEvent.getPartitions()),
-                new ClearSharedPartitionOperation(),
-                new FindPartitionForStreamingOperation(),
-                new TakePartitionForStreamingOperation(changeStream, partitionFactory),
-                new RemoveFinishedPartitionOperation(spannerEventDispatcher, connectorConfig));
+        long thenMillis = Instant.now().toEpochMilli();
+        LOGGER.debug(
+                "Task {}, TaskStateChangeEventHandler: Processed {} events in {} millis",
+                taskSyncContextHolder.get().getTaskUid(), events.size(), thenMillis - nowMillis);
     }
 
-    private void processSyncEvent() throws InterruptedException {
-        TaskSyncContext taskSyncContext = performOperation(
-                new ClearSharedPartitionOperation(),
-                new TakeSharedPartitionOperation(),
-                new FindPartitionForStreamingOperation(),
-                new TakePartitionForStreamingOperation(changeStream, partitionFactory),
-                new RemoveFinishedPartitionOperation(spannerEventDispatcher, connectorConfig),
-                new ConnectorEndDetectionOperation(finishingHandler, connectorConfig.endTime()));
+    private static void addChildPartitionOperation(List<Operation> operations, List<Partition> newPartitions) {
+        if (!newPartitions.isEmpty()) {
+            operations.add(new ChildPartitionOperation(List.copyOf(newPartitions)));
+            newPartitions.clear();
+        }
+    }
 
-        failOverloadedTaskByTimer(taskSyncContext);
+    private static void addPartitionStatusUpdateOperation(List<Operation> operations, Map<String, PartitionStateEnum> partitionStates) {
+        if (!partitionStates.isEmpty()) {
+            operations.add(new PartitionStatusUpdateOperation(Map.copyOf(partitionStates)));
+            partitionStates.clear();
+        }
     }
 
     private void failOverloadedTaskByTimer(TaskSyncContext taskSyncContext) {
@@ -9,6 +9,7 @@ import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -29,7 +30,9 @@ import io.debezium.util.Metronome;
 /**
  * Owns queue of {@link TaskStateChangeEvent} elements,
  * polls them in the separate thread and sends them to
- * {@link TaskStateChangeEventHandler} for further processing
+ * {@link TaskStateChangeEventHandler} for further processing.
+ * All the events queued, when the thread is ready, are processed
+ * by the handler in one pass.
  */
 public class TaskStateChangeEventProcessor {
 
@@ -95,13 +98,11 @@ public class TaskStateChangeEventProcessor {
     private Thread createEventHandlerThread() {
         Thread thread = new Thread(() -> {
             while (!Thread.interrupted()) {
-                TaskStateChangeEvent event;
+                List<TaskStateChangeEvent> events = new ArrayList<>();
                 try {
                     LOGGER.debug("createEventHandlerThread: Wait for sync event");
 
-                    event = this.queue.take();
-
-                    metricsEventPublisher.publishMetricEvent(new TaskStateChangeQueueUpdateMetricEvent(queue.remainingCapacity()));
+                    events.add(this.queue.take());
 
                 }
                 catch (InterruptedException e) {
@@ -112,8 +113,13 @@ public class TaskStateChangeEventProcessor {
 
                 taskSyncContextHolder.awaitNewEpoch();
 
+                // The events queued meanwhile, for example a burst of partition splits, are processed together
+                this.queue.drainTo(events);
+
+                metricsEventPublisher.publishMetricEvent(new TaskStateChangeQueueUpdateMetricEvent(queue.remainingCapacity()));
+
                 try {
-                    this.taskStateChangeEventHandler.processEvent(event);
+                    this.taskStateChangeEventHandler.processEvents(events);
                 }
                 catch (InterruptedException e) {
                     LOGGER.info("Task {}, interrupting the event handler thread", this.taskSyncContextHolder.get().getTaskUid());
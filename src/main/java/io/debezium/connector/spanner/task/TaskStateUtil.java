@@ -6,14 +6,11 @@
 package io.debezium.connector.spanner.task;
 
 import static java.util.stream.Collectors.partitioningBy;
-import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Collectors.toUnmodifiableMap;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
@@ -61,38 +58,15 @@ public class TaskStateUtil {
     }
 
     public static int totalInProgressPartitions(TaskSyncContext taskSyncContext) {
-        return allFilteredPartitionTokens(taskSyncContext, partition -> inProgressPartitionState(partition.getState())).size();
+        return taskSyncContext.getPartitionRegistry().getNumInProgressTokens();
     }
 
     public static int totalFinishedPartitions(TaskSyncContext taskSyncContext) {
-        return allFilteredPartitionTokens(taskSyncContext, partition -> !inProgressPartitionState(partition.getState())).size();
+        return taskSyncContext.getPartitionRegistry().getNumFinishedTokens();
     }
 
     public static Set<String> allPartitionTokens(TaskSyncContext taskSyncContext) {
-        return allFilteredPartitionTokens(taskSyncContext, partition -> true);
-    }
-
-    private static Set<String> allFilteredPartitionTokens(TaskSyncContext taskSyncContext, Predicate<PartitionState> partitionFilter) {
-        var allTaskStates = taskSyncContext.getAllTaskStates().values();
-
-        var allOwnedPartitions = allTaskStates.stream()
-                .flatMap(t -> t.getPartitions().stream())
-                .filter(partitionFilter)
-                .map(PartitionState::getToken)
-                .collect(toSet());
-
-        var allSharedPartitions = allTaskStates.stream()
-                .flatMap(t -> t.getSharedPartitions().stream())
-                .filter(p -> !allOwnedPartitions.contains(p))
-                .filter(partitionFilter)
-                .map(PartitionState::getToken)
-                .collect(toSet());
-
-        Set<String> result = new HashSet<>(allOwnedPartitions.size() + allSharedPartitions.size());
-        result.addAll(allOwnedPartitions);
-        result.addAll(allSharedPartitions);
-
-        return result;
+        return taskSyncContext.getPartitionRegistry().getTokens();
     }
 
     public static boolean inProgressPartitionState(PartitionStateEnum state) {
@@ -9,12 +9,9 @@ import static java.util.Collections.emptyList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.time.Instant;
-import java.util.AbstractMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 
@@ -22,8 +19,6 @@ import com.google.cloud.Timestamp;
 
 import io.debezium.connector.spanner.SpannerConnectorConfig;
 import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
-import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
-import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.kafka.internal.model.RebalanceState;
 import io.debezium.connector.spanner.kafka.internal.model.TaskState;
 import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
@@ -54,6 +49,8 @@ public class TaskSyncContext {
 
     private final boolean initialized;
 
+    private final PartitionRegistry partitionRegistry;
+
     public Map<String, TaskState> getAllTaskStates() {
         Map<String, TaskState> taskStateMap = new HashMap<>(this.taskStates);
         taskStateMap.put(currentTaskState.getTaskUid(), currentTaskState.toBuilder()
@@ -177,7 +174,8 @@ public class TaskSyncContext {
                     final TaskState currentTaskState,
                     Timestamp databaseSchemaTimestamp,
                     boolean finished,
-                    boolean initialized) {
+                    boolean initialized,
+                    PartitionRegistry partitionRegistry) {
         this.taskUid = taskUid;
         this.rebalanceState = rebalanceState;
         this.consumerId = consumerId;
@@ -192,6 +190,7 @@ public class TaskSyncContext {
         this.databaseSchemaTimestamp = databaseSchemaTimestamp;
         this.finished = finished;
         this.initialized = initialized;
+        this.partitionRegistry = partitionRegistry;
     }
 
     public static class TaskSyncContextBuilder {
@@ -217,6 +216,9 @@ public class TaskSyncContext {
 
         private boolean initialized;
 
+        // Registry of the context, which the builder was created from
+        private PartitionRegistry partitionRegistry;
+
         TaskSyncContextBuilder() {
         }
 
@@ -294,6 +296,11 @@ public class TaskSyncContext {
             return this;
         }
 
+        TaskSyncContext.TaskSyncContextBuilder partitionRegistry(final PartitionRegistry partitionRegistry) {
+            this.partitionRegistry = partitionRegistry;
+            return this;
+        }
+
         public TaskSyncContext build() {
             EpochOffsetHolder epochOffsetHolderValue = this.epochOffsetHolderValue;
             if (!this.epochOffsetHolderSet) {
@@ -315,10 +322,17 @@ public class TaskSyncContext {
                 taskStatesValue = TaskSyncContext.defaultTaskStates();
             }
 
+            PartitionRegistry partitionRegistryValue = this.partitionRegistry;
+            if (partitionRegistryValue == null) {
+                partitionRegistryValue = PartitionRegistry.EMPTY;
+            }
+            partitionRegistryValue = partitionRegistryValue.update(taskStatesValue, this.currentTaskState);
+
             return new TaskSyncContext(this.taskUid, this.rebalanceState, this.consumerId,
                     this.rebalanceGenerationId, this.receivedRebalanceGenerationId, epochOffsetHolderValue,
                     this.currentKafkaRecordOffset, isLeaderValue, createdTimestampValue,
-                    taskStatesValue, this.currentTaskState, databaseSchemaTimestamp, finished, initialized);
+                    taskStatesValue, this.currentTaskState, databaseSchemaTimestamp, finished, initialized,
+                    partitionRegistryValue);
         }
 
         @Override
@@ -355,7 +369,8 @@ public class TaskSyncContext {
                 .currentTaskState(this.currentTaskState)
                 .databaseSchemaTimestamp(this.databaseSchemaTimestamp)
                 .finished(this.finished)
-                .initialized(this.initialized);
+                .initialized(this.initialized)
+                .partitionRegistry(this.partitionRegistry);
     }
 
     public String getTaskUid() {
@@ -414,51 +429,29 @@ public class TaskSyncContext {
         return this.initialized;
     }
 
-    public int getNumPartitions() {
-        Map<String, List<PartitionState>> partitionsMap = getAllTaskStates().values().stream()
-                .flatMap(taskState -> taskState.getPartitions().stream())
-                .filter(
-                        partitionState -> !partitionState.getState().equals(PartitionStateEnum.FINISHED)
-                                && !partitionState.getState().equals(PartitionStateEnum.REMOVED))
-                .collect(Collectors.groupingBy(PartitionState::getToken));
+    /**
+     * Index of the partitions of all the task states, where the current task state
+     * replaces the state of the current task received from the sync topic
+     */
+    public PartitionRegistry getPartitionRegistry() {
+        return this.partitionRegistry;
+    }
 
-        return partitionsMap.size();
+    public int getNumPartitions() {
+        return partitionRegistry.getNumPartitions();
     }
 
     public int getNumSharedPartitions() {
-        Map<String, List<PartitionState>> partitionsMap = getAllTaskStates().values().stream()
-                .flatMap(taskState -> taskState.getPartitions().stream())
-                .filter(
-                        partitionState -> !partitionState.getState().equals(PartitionStateEnum.FINISHED)
-                                && !partitionState.getState().equals(PartitionStateEnum.REMOVED))
-                .collect(Collectors.groupingBy(PartitionState::getToken));
-
-        Map<String, PartitionState> partitions = partitionsMap.entrySet().stream()
-                .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue().get(0)))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-        Map<String, List<PartitionState>> sharedPartitionsMap = getAllTaskStates().values().stream()
-                .flatMap(taskState -> taskState.getSharedPartitions().stream())
-                .filter(partitionState -> !partitions.containsKey(partitionState.getToken()))
-                .collect(Collectors.groupingBy(PartitionState::getToken));
-
-        return sharedPartitionsMap.size();
+        return partitionRegistry.getNumSharedPartitions();
     }
 
     // Debug function used to check if there is any partiton or shared partition duplication
     // inside the TaskSyncContext.
     public boolean checkDuplication(boolean printOffsets, String loggingString) {
-        Map<String, List<PartitionState>> partitionsMap = getAllTaskStates().values().stream()
-                .flatMap(taskState -> taskState.getPartitions().stream())
-                .filter(
-                        partitionState -> !partitionState.getState().equals(PartitionStateEnum.FINISHED)
-                                && !partitionState.getState().equals(PartitionStateEnum.REMOVED))
-                .collect(Collectors.groupingBy(PartitionState::getToken));
-
-        int numPartitions = partitionsMap.size();
+        int numPartitions = partitionRegistry.getNumPartitions();
 
         // Check that there are no duplicate partitions in the partitions map.
-        Set<String> duplicatesInPartitions = checkDuplicationInMap(partitionsMap);
+        Set<String> duplicatesInPartitions = partitionRegistry.getDuplicatedPartitions();
         if (!duplicatesInPartitions.isEmpty()) {
             if (printOffsets) {
                 LOGGER.warn(
@@ -468,19 +461,10 @@ public class TaskSyncContext {
             return true;
         }
 
-        Map<String, PartitionState> partitions = partitionsMap.entrySet().stream()
-                .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue().get(0)))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-        Map<String, List<PartitionState>> sharedPartitionsMap = getAllTaskStates().values().stream()
-                .flatMap(taskState -> taskState.getSharedPartitions().stream())
-                .filter(partitionState -> !partitions.containsKey(partitionState.getToken()))
-                .collect(Collectors.groupingBy(PartitionState::getToken));
-
-        int numSharedPartitions = sharedPartitionsMap.size();
+        int numSharedPartitions = partitionRegistry.getNumSharedPartitions();
 
         // Check that there are no duplicate partitions in the shared partitions map.
-        Set<String> duplicatesInSharedPartitions = checkDuplicationInMap(sharedPartitionsMap);
+        Set<String> duplicatesInSharedPartitions = partitionRegistry.getDuplicatedSharedPartitions();
         if (!duplicatesInSharedPartitions.isEmpty()) {
             if (printOffsets) {
                 LOGGER.warn(
@@ -511,11 +495,4 @@ public class TaskSyncContext {
                 ", taskStates=" + this.getTaskStates() +
                 ", currentTaskState=" + this.getCurrentTaskState() + ")";
     }
-
-    private Set<String> checkDuplicationInMap(Map<String, List<PartitionState>> map) {
-        return map.entrySet().stream()
-                .filter(entry -> entry.getValue().size() > 1)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toUnmodifiableSet());
-    }
 }
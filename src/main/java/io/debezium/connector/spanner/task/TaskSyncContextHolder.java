@@ -16,20 +16,23 @@ import org.slf4j.Logger;
 
 import io.debezium.connector.spanner.exception.SpannerConnectorException;
 import io.debezium.connector.spanner.kafka.internal.model.RebalanceState;
+import io.debezium.connector.spanner.metrics.MetricKey;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
-import io.debezium.connector.spanner.metrics.event.TaskSyncContextMetricEvent;
+import io.debezium.connector.spanner.metrics.TaskSyncContextSummary;
+import io.debezium.connector.spanner.metrics.ValueGauge;
 import io.debezium.connector.spanner.task.utils.TimeoutMeter;
 import io.debezium.util.Clock;
 import io.debezium.util.Metronome;
 
 /**
  * Holds the current state of the connector's task.
- * Publishes metric events, when state is changed.
+ * Updates the task sync context metric and its summary, when state is changed.
  */
 public class TaskSyncContextHolder {
     private static final Logger LOGGER = getLogger(TaskSyncContextHolder.class);
 
-    private final MetricsEventPublisher metricsEventPublisher;
+    private final ValueGauge<TaskSyncContext> taskSyncContextMetric;
+    private final TaskSyncContextSummary taskSyncContextSummary;
     private final ReentrantLock lock = new ReentrantLock();
 
     private final AtomicReference<TaskSyncContext> taskSyncContextRef = new AtomicReference<>();
@@ -38,13 +41,21 @@ public class TaskSyncContextHolder {
     private final Clock clock;
 
     public TaskSyncContextHolder(MetricsEventPublisher metricsEventPublisher) {
-        this.metricsEventPublisher = metricsEventPublisher;
+        this.taskSyncContextMetric = metricsEventPublisher.getMetric(MetricKey.TASK_SYNC_CONTEXT);
+        this.taskSyncContextSummary = metricsEventPublisher.getMetric(MetricKey.TASK_SYNC_CONTEXT_SUMMARY);
         this.clock = Clock.system();
     }
 
     public final void init(TaskSyncContext taskSyncContext) {
-        taskSyncContextRef.set(taskSyncContext);
-        metricsEventPublisher.publishMetricEvent(new TaskSyncContextMetricEvent(taskSyncContext));
+        lock.lock();
+        try {
+            taskSyncContextRef.set(taskSyncContext);
+            taskSyncContextSummary.update(taskSyncContext);
+        }
+        finally {
+            lock.unlock();
+        }
+        taskSyncContextMetric.set(taskSyncContext);
     }
 
     public TaskSyncContext get() {
@@ -65,12 +76,14 @@ public class TaskSyncContextHolder {
         lock.lock();
         try {
             taskSyncContext = taskSyncContextRef.updateAndGet(updateFunction);
+            // Summarized under the lock, so the contexts are applied in order
+            taskSyncContextSummary.update(taskSyncContext);
         }
         finally {
             lock.unlock();
         }
 
-        metricsEventPublisher.publishMetricEvent(new TaskSyncContextMetricEvent(taskSyncContext));
+        taskSyncContextMetric.set(taskSyncContext);
 
         return taskSyncContext;
     }
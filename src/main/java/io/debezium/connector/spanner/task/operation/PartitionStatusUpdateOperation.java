@@ -6,6 +6,7 @@
 package io.debezium.connector.spanner.task.operation;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -19,16 +20,23 @@ import io.debezium.connector.spanner.kafka.internal.model.TaskState;
 import io.debezium.connector.spanner.task.TaskSyncContext;
 
 /**
- * Change the status of partition: {@link PartitionStateEnum}
+ * Change the status of partitions: {@link PartitionStateEnum}
  */
 public class PartitionStatusUpdateOperation implements Operation {
     private static final Logger LOGGER = LoggerFactory.getLogger(PartitionStatusUpdateOperation.class);
-    private final String token;
-    private final PartitionStateEnum partitionStateEnum;
+    private final Map<String, PartitionStateEnum> partitionStates;
 
     public PartitionStatusUpdateOperation(String token, PartitionStateEnum partitionStateEnum) {
-        this.token = token;
-        this.partitionStateEnum = partitionStateEnum;
+        this(Map.of(token, partitionStateEnum));
+    }
+
+    /**
+     * Updates the statuses of several partitions in one pass
+     *
+     * @param partitionStates the latest status per token
+     */
+    public PartitionStatusUpdateOperation(Map<String, PartitionStateEnum> partitionStates) {
+        this.partitionStates = partitionStates;
     }
 
     @Override
@@ -46,7 +54,8 @@ public class PartitionStatusUpdateOperation implements Operation {
 
         List<PartitionState> partitionsList = currentTaskState.getPartitions().stream()
                 .map(partitionState -> {
-                    if (partitionState.getToken().equals(token)) {
+                    PartitionStateEnum partitionStateEnum = partitionStates.get(partitionState.getToken());
+                    if (partitionStateEnum != null) {
                         if (PartitionStateEnum.FINISHED.equals(partitionStateEnum)) {
                             return partitionState.toBuilder().state(partitionStateEnum)
                                     .finishedTimestamp(Timestamp.now())
@@ -58,8 +67,8 @@ public class PartitionStatusUpdateOperation implements Operation {
                 })
                 .collect(Collectors.toList());
 
-        LOGGER.info("Task updated status for partition, taskUid: {}, partition: {}, status: {}",
-                taskSyncContext.getTaskUid(), token, partitionStateEnum);
+        LOGGER.info("Task updated status for partitions, taskUid: {}, statuses: {}",
+                taskSyncContext.getTaskUid(), partitionStates);
 
         return taskSyncContext.toBuilder()
                 .currentTaskState(currentTaskState.toBuilder().partitions(partitionsList).build())
@@ -9,9 +9,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 
@@ -26,6 +24,7 @@ import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
 import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.kafka.internal.model.TaskState;
 import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
+import io.debezium.connector.spanner.task.PartitionRegistry;
 import io.debezium.connector.spanner.task.TaskSyncContext;
 import io.debezium.pipeline.txmetadata.TransactionContext;
 
@@ -106,32 +105,15 @@ public class RemoveFinishedPartitionOperation implements Operation {
     }
 
     private static boolean allChildrenFinished(TaskSyncContext taskSyncContext, String token) {
-        List<PartitionState> allPartitionStates = Stream.concat(
-                Stream.concat(
-                        taskSyncContext.getTaskStates().values().stream()
-                                .flatMap(taskState -> taskState.getPartitions().stream()),
-                        taskSyncContext.getCurrentTaskState().getPartitions().stream()),
-                Stream.concat(
-                        taskSyncContext.getTaskStates().values().stream()
-                                .flatMap(taskState -> taskState.getSharedPartitions().stream()),
-                        taskSyncContext.getCurrentTaskState().getSharedPartitions().stream()))
-                .collect(Collectors.toList());
-
-        Set<String> children = allPartitionStates.stream()
-                .filter(partitionState -> partitionState.getParents().contains(token))
-                .map(PartitionState::getToken)
-                .collect(Collectors.toSet());
-
-        return children.isEmpty()
-                || children.stream()
-                        .allMatch(
-                                childToken -> {
-                                    return allPartitionStates.stream()
-                                            .filter(partitionState -> childToken.equals(partitionState.getToken()))
-                                            .allMatch(
-                                                    partitionState -> PartitionStateEnum.FINISHED.equals(partitionState.getState())
-                                                            || PartitionStateEnum.REMOVED.equals(partitionState.getState()));
-                                });
+        PartitionRegistry partitionRegistry = taskSyncContext.getPartitionRegistry();
+
+        return partitionRegistry.getChildren(token).stream()
+                .allMatch(
+                        childToken -> partitionRegistry.getEntries(childToken).stream()
+                                .map(PartitionRegistry.Entry::getPartitionState)
+                                .allMatch(
+                                        partitionState -> PartitionStateEnum.FINISHED.equals(partitionState.getState())
+                                                || PartitionStateEnum.REMOVED.equals(partitionState.getState())));
     }
 
     @Override
@@ -5,7 +5,6 @@
  */
 package io.debezium.connector.spanner.task.operation;
 
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -21,6 +20,7 @@ import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
 import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
 import io.debezium.connector.spanner.kafka.internal.model.TaskState;
 import io.debezium.connector.spanner.task.PartitionFactory;
+import io.debezium.connector.spanner.task.PartitionRegistry;
 import io.debezium.connector.spanner.task.TaskSyncContext;
 
 /**
@@ -100,11 +100,12 @@ public class TakePartitionForStreamingOperation implements Operation {
 
     private TaskSyncContext removeAlreadyStreamingPartitions(TaskSyncContext taskSyncContext) {
         TaskState taskState = taskSyncContext.getCurrentTaskState();
+        PartitionRegistry partitionRegistry = taskSyncContext.getPartitionRegistry();
 
         List<PartitionState> partitions = taskSyncContext.getCurrentTaskState().getPartitions().stream()
                 .map(partitionState -> {
                     if (partitionState.getState().equals(PartitionStateEnum.READY_FOR_STREAMING) &&
-                            isPartitionStreamingAlready(taskSyncContext.getTaskStates().values(), partitionState.getToken(), taskState.getTaskUid())) {
+                            isPartitionStreamingAlready(partitionRegistry, partitionState.getToken())) {
                         LOGGER.info("Removing streaming partition {} with state {} since partition is already streaming", partitionState.getToken(),
                                 partitionState.getState());
                         return null;
@@ -119,23 +120,12 @@ public class TakePartitionForStreamingOperation implements Operation {
                 .build();
     }
 
-    private boolean isPartitionStreamingAlready(Collection<TaskState> taskStates, String token, String taskUid) {
-        boolean isPartitionStreamingAlready = taskStates.stream().flatMap(taskState -> taskState.getPartitions().stream())
-                .filter(partitionState -> partitionState.getToken().equals(token))
-                .anyMatch(partitionState -> partitionState.getState().equals(PartitionStateEnum.SCHEDULED)
-                        || partitionState.getState().equals(PartitionStateEnum.RUNNING)
-                        || partitionState.getState().equals(PartitionStateEnum.FINISHED)
-                        || partitionState.getState().equals(PartitionStateEnum.REMOVED));
-        return isPartitionStreamingAlready;
-    }
-
-    private boolean isPartition(Collection<TaskState> taskStates, String token) {
-        return taskStates.stream().flatMap(taskState -> taskState.getPartitions().stream())
-                .filter(partitionState -> partitionState.getToken().equals(token))
-                .anyMatch(partitionState -> partitionState.getState().equals(PartitionStateEnum.SCHEDULED)
-                        || partitionState.getState().equals(PartitionStateEnum.RUNNING)
-                        || partitionState.getState().equals(PartitionStateEnum.FINISHED)
-                        || partitionState.getState().equals(PartitionStateEnum.REMOVED));
+    // The current task owns the token as ready for streaming, so only other tasks can own it in these states
+    private boolean isPartitionStreamingAlready(PartitionRegistry partitionRegistry, String token) {
+        return partitionRegistry.getOwnedTokens(PartitionStateEnum.SCHEDULED).contains(token)
+                || partitionRegistry.getOwnedTokens(PartitionStateEnum.RUNNING).contains(token)
+                || partitionRegistry.getOwnedTokens(PartitionStateEnum.FINISHED).contains(token)
+                || partitionRegistry.getOwnedTokens(PartitionStateEnum.REMOVED).contains(token);
     }
 
     @Override
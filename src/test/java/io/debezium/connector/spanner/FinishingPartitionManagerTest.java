@@ -25,7 +25,7 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.onPartitionFinishEvent("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
         Mockito.verify(consumer, Mockito.times(1)).accept("testToken");
     }
@@ -41,7 +41,7 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
         finishingPartitionManager.onPartitionFinishEvent("testToken");
 
@@ -73,7 +73,7 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
 
@@ -97,16 +97,16 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaab");
+        finishingPartitionManager.commitRecord("testToken", 2L);
 
         finishingPartitionManager.onPartitionFinishEvent("testToken");
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaac");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
         // except call consumer.accept
         Mockito.verify(consumer, Mockito.times(1)).accept("testToken");
@@ -127,11 +127,11 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaab");
+        finishingPartitionManager.commitRecord("testToken", 2L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaac");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
@@ -155,13 +155,13 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaab");
+        finishingPartitionManager.commitRecord("testToken", 2L);
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaac");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
@@ -187,11 +187,11 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.newRecord("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaaa");
+        finishingPartitionManager.commitRecord("testToken", 1L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaac");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
-        finishingPartitionManager.commitRecord("testToken", "aaaaaaab");
+        finishingPartitionManager.commitRecord("testToken", 2L);
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
@@ -227,7 +227,7 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.registerPartition("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "recordUid3");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
@@ -247,7 +247,7 @@ class FinishingPartitionManagerTest {
 
         finishingPartitionManager.registerPartition("testToken");
 
-        finishingPartitionManager.commitRecord("testToken", "recordUid3");
+        finishingPartitionManager.commitRecord("testToken", 3L);
 
         // don't except call consumer.accept
         Mockito.verify(consumer, Mockito.times(0)).accept("testToken");
@@ -7,12 +7,25 @@ package io.debezium.connector.spanner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
 import org.apache.kafka.connect.source.SourceTaskContext;
 import org.junit.jupiter.api.Test;
 
+import io.debezium.config.Configuration;
 import io.debezium.connector.spanner.context.offset.SpannerOffsetContext;
+import io.debezium.connector.spanner.processor.SourceRecordUtils;
 import io.debezium.pipeline.spi.Offsets;
 
 class SpannerBaseSourceTaskTest {
@@ -42,4 +55,90 @@ class SpannerBaseSourceTaskTest {
     void testVersion() {
         assertNotNull(new SpannerConnectorTask().version());
     }
+
+    @Test
+    void testCommitRecordsOfManyPartitions() throws Exception {
+        int partitions = 100;
+        int recordsPerPartition = 5_000;
+
+        Set<String> finished = ConcurrentHashMap.newKeySet();
+        FinishingPartitionManager finishingPartitionManager = new FinishingPartitionManager(null, finished::add);
+
+        List<SourceRecord> records = new ArrayList<>(partitions * recordsPerPartition);
+        for (int i = 0; i < partitions; i++) {
+            finishingPartitionManager.registerPartition("token" + i);
+        }
+        for (int j = 0; j < recordsPerPartition; j++) {
+            for (int i = 0; i < partitions; i++) {
+                String token = "token" + i;
+                long recordUid = finishingPartitionManager.newRecord(token);
+                records.add(new SourceRecord(Map.of("partitionToken", token), Map.of(), "topic", null, null, null,
+                        Schema.STRING_SCHEMA, "value", null, SourceRecordUtils.from(recordUid)));
+            }
+        }
+        for (int i = 0; i < partitions; i++) {
+            finishingPartitionManager.onPartitionFinishEvent("token" + i);
+        }
+
+        // Committing the records the same way as SpannerStreamingChangeEventSource
+        SpannerChangeEventSourceCoordinator coordinator = mock(SpannerChangeEventSourceCoordinator.class);
+        doAnswer(invocation -> {
+            List<SourceRecord> committed = invocation.getArgument(0);
+            for (SourceRecord record : committed) {
+                finishingPartitionManager.commitRecord(SourceRecordUtils.extractToken(record), SourceRecordUtils.extractRecordUid(record));
+            }
+            return null;
+        }).when(coordinator).commitRecords(anyList());
+
+        CommittingTask task = new CommittingTask();
+        task.coordinator = coordinator;
+
+        Thread committer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    task.commit();
+                    Thread.sleep(1);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        committer.start();
+
+        RecordMetadata metadata = mock(RecordMetadata.class);
+        try {
+            for (SourceRecord record : records) {
+                task.commitRecord(record, metadata);
+            }
+        }
+        finally {
+            committer.interrupt();
+            committer.join();
+        }
+        task.commit();
+
+        assertEquals(partitions, finished.size());
+    }
+
+    private static class CommittingTask extends SpannerBaseSourceTask {
+
+        @Override
+        protected SpannerChangeEventSourceCoordinator start(Configuration config) {
+            return null;
+        }
+
+        @Override
+        protected List<SourceRecord> doPoll() {
+            return List.of();
+        }
+
+        @Override
+        protected void doStop() {
+        }
+
+        @Override
+        protected void onRecordSent(SourceRecord sourceRecord) {
+        }
+    }
 }
@@ -37,7 +37,7 @@ class SpannerChangeEventSourceFactoryTest {
         when(configuration.getString(anyString())).thenReturn("String");
         when(configuration.asProperties()).thenReturn(new Properties());
         SpannerConnectorConfig connectorConfig = new SpannerConnectorConfig(configuration);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null);
 
         SpannerChangeEventSourceFactory spannerChangeEventSourceFactory = new SpannerChangeEventSourceFactory(
                 connectorConfig, null, null, null, spannerMeter, null, null, new SynchronizedPartitionManager(null));
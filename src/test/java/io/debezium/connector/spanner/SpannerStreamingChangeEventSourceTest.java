@@ -5,9 +5,14 @@
  */
 package io.debezium.connector.spanner;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -19,6 +24,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.kafka.connect.data.ConnectSchema;
 import org.apache.kafka.connect.data.Schema;
@@ -27,25 +41,37 @@ import org.apache.kafka.connect.header.Headers;
 import org.apache.kafka.connect.source.SourceConnector;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Dialect;
 
 import io.debezium.config.Configuration;
 import io.debezium.config.Field;
 import io.debezium.connector.base.ChangeEventQueue;
 import io.debezium.connector.spanner.config.SpannerTableFilter;
 import io.debezium.connector.spanner.context.offset.LowWatermarkProvider;
+import io.debezium.connector.spanner.context.offset.SpannerOffsetContext;
 import io.debezium.connector.spanner.context.offset.SpannerOffsetContextFactory;
 import io.debezium.connector.spanner.context.source.SourceInfoFactory;
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
 import io.debezium.connector.spanner.db.dao.SchemaDao;
+import io.debezium.connector.spanner.db.mapper.ChangeStreamRecordMapper;
 import io.debezium.connector.spanner.db.metadata.SchemaRegistry;
 import io.debezium.connector.spanner.db.metadata.TableId;
+import io.debezium.connector.spanner.db.model.Mod;
 import io.debezium.connector.spanner.db.model.ModType;
 import io.debezium.connector.spanner.db.model.StreamEventMetadata;
 import io.debezium.connector.spanner.db.model.ValueCaptureType;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.FinishPartitionEvent;
 import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.connector.spanner.db.stream.ChangeStream;
+import io.debezium.connector.spanner.db.stream.ChangeStreamEventConsumer;
 import io.debezium.connector.spanner.kafka.KafkaPartitionInfoProvider;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
 import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
@@ -62,6 +88,7 @@ import io.debezium.pipeline.ErrorHandler;
 import io.debezium.pipeline.EventDispatcher;
 import io.debezium.pipeline.metrics.DefaultChangeEventSourceMetricsFactory;
 import io.debezium.pipeline.notification.NotificationService;
+import io.debezium.pipeline.source.spi.ChangeEventSource.ChangeEventSourceContext;
 import io.debezium.pipeline.source.spi.ChangeEventSourceFactory;
 import io.debezium.pipeline.spi.ChangeEventCreator;
 import io.debezium.pipeline.spi.OffsetContext;
@@ -72,6 +99,11 @@ import io.debezium.spi.topic.TopicNamingStrategy;
 
 class SpannerStreamingChangeEventSourceTest {
 
+    private static final int PARTITIONS = 32;
+    private static final int EVENTS_PER_PARTITION = 50;
+    private static final int EXCLUDED_ROWS = 100;
+    private static final long DISPATCH_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
     @Disabled
     @Test
     void testExecute() throws InterruptedException {
@@ -266,12 +298,73 @@ class SpannerStreamingChangeEventSourceTest {
         verify(dataChangeEvent).getMods();
     }
 
+    @Test
+    void testExcludedTablesAreNotParsed() throws InterruptedException {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getString((String) any())).thenReturn("String");
+        when(configuration.asProperties()).thenReturn(new Properties());
+        SpannerConnectorConfig connectorConfig = new SpannerConnectorConfig(configuration);
+
+        SpannerConnectorConfig filterConfig = mock(SpannerConnectorConfig.class);
+        when(filterConfig.tableIncludeList()).thenReturn("Table0");
+        SpannerTableFilter filter = new SpannerTableFilter(filterConfig);
+
+        TopicNamingStrategy<TableId> topicNamingStrategy = (TopicNamingStrategy<TableId>) mock(TopicNamingStrategy.class);
+        when(topicNamingStrategy.heartbeatTopic()).thenReturn("Heartbeat Topic");
+        SchemaNameAdjuster schemaNameAdjuster = mock(SchemaNameAdjuster.class);
+        when(schemaNameAdjuster.adjust((String) any())).thenReturn("Adjust");
+        SchemaRegistry schemaRegistry = mock(SchemaRegistry.class);
+        SpannerEventDispatcher spannerEventDispatcher = new SpannerEventDispatcher(connectorConfig, topicNamingStrategy,
+                (DatabaseSchema<TableId>) mock(DatabaseSchema.class),
+                (ChangeEventQueue<DataChangeEvent>) mock(ChangeEventQueue.class), filter, mock(ChangeEventCreator.class),
+                new SpannerEventMetadataProvider(), new HeartbeatFactory<>(connectorConfig, topicNamingStrategy, schemaNameAdjuster),
+                schemaNameAdjuster, schemaRegistry, mock(SourceInfoFactory.class), new KafkaPartitionInfoProvider(null));
+
+        SpannerOffsetContextFactory offsetContextFactory = mock(SpannerOffsetContextFactory.class);
+        when(offsetContextFactory.getOffsetContextFromDataChangeEvent(anyInt(), any())).thenReturn(mock(SpannerOffsetContext.class));
+
+        SpannerStreamingChangeEventSource source = new SpannerStreamingChangeEventSource(connectorConfig,
+                mock(ErrorHandler.class), null, new StreamEventQueue(3, new MetricsEventPublisher()), new MetricsEventPublisher(),
+                mock(PartitionManager.class), schemaRegistry, spannerEventDispatcher, true, offsetContextFactory);
+
+        // The records are decoded lazily, as they are read from a PostgreSQL change stream
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        when(databaseClient.getDialect()).thenReturn(Dialect.POSTGRESQL);
+        ChangeStreamRecordMapper mapper = new ChangeStreamRecordMapper(databaseClient);
+        ChangeStreamResultSetMetadata resultSetMetadata = mock(ChangeStreamResultSetMetadata.class);
+        when(resultSetMetadata.getQueryStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(1L));
+        when(resultSetMetadata.getRecordStreamStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(2L));
+        when(resultSetMetadata.getRecordStreamEndedAt()).thenReturn(Timestamp.ofTimeMicroseconds(3L));
+        when(resultSetMetadata.getRecordReadAt()).thenReturn(Timestamp.ofTimeMicroseconds(4L));
+        when(resultSetMetadata.getTotalStreamDuration()).thenReturn(org.joda.time.Duration.millis(100));
+        when(resultSetMetadata.getNumberOfRecordsRead()).thenReturn(10_000L);
+        io.debezium.connector.spanner.db.model.Partition partition = io.debezium.connector.spanner.db.model.Partition.builder()
+                .token("partitionToken")
+                .parentTokens(Set.of())
+                .startTimestamp(Timestamp.ofTimeMicroseconds(1))
+                .build();
+
+        List<Mod> mods = new ArrayList<>();
+        for (int i = 0; i < EXCLUDED_ROWS; i++) {
+            for (ChangeStreamEvent event : mapper.toChangeStreamEventsFromJson(partition,
+                    dataChangeRecord("Table" + (1 + i % 9), i), resultSetMetadata)) {
+                source.processDataChangeEvent((io.debezium.connector.spanner.db.model.event.DataChangeEvent) event);
+                mods.addAll(((io.debezium.connector.spanner.db.model.event.DataChangeEvent) event).getMods());
+            }
+        }
+
+        assertEquals(EXCLUDED_ROWS, mods.size());
+        for (Mod mod : mods) {
+            assertFalse(mod.isParsed());
+        }
+    }
+
     @Test
     void testCommitOffset() {
         SynchronizedPartitionManager partitionManager = spy(new SynchronizedPartitionManager((BlockingConsumer<TaskStateChangeEvent>) mock(BlockingConsumer.class)));
 
         SpannerStreamingChangeEventSource spannerStreamingChangeEventSource = new SpannerStreamingChangeEventSource(
-                null, null, null, null, null, partitionManager, new SchemaRegistry(
+                null, null, null, null, new MetricsEventPublisher(), partitionManager, new SchemaRegistry(
                         "Stream Name", new SchemaDao(mock(DatabaseClient.class)), mock(Runnable.class)),
                 null, true, mock(SpannerOffsetContextFactory.class));
 
@@ -285,7 +378,7 @@ class SpannerStreamingChangeEventSourceTest {
         SynchronizedPartitionManager partitionManager = new SynchronizedPartitionManager((BlockingConsumer<TaskStateChangeEvent>) mock(BlockingConsumer.class));
 
         SpannerStreamingChangeEventSource spannerStreamingChangeEventSource = new SpannerStreamingChangeEventSource(
-                null, null, null, null, null, partitionManager, new SchemaRegistry(
+                null, null, null, null, new MetricsEventPublisher(), partitionManager, new SchemaRegistry(
                         "Stream Name", new SchemaDao(mock(DatabaseClient.class)), mock(Runnable.class)),
                 null, true, mock(SpannerOffsetContextFactory.class));
 
@@ -306,4 +399,164 @@ class SpannerStreamingChangeEventSourceTest {
         verify(sourceRecord2, times(2)).sourcePartition();
         verify(sourceRecord2, times(2)).headers();
     }
+
+    @Test
+    void testProcessingWorkersKeepPartitionOrder() throws Exception {
+        processPartitions(1, 0);
+        processPartitions(4, 0);
+    }
+
+    @Test
+    void testProcessingWorkersDispatchConcurrently() throws Exception {
+        // The first dispatch waits for the dispatch of another worker, so it returns in time only if the workers overlap
+        CountDownLatch overlapping = new CountDownLatch(2);
+        AtomicBoolean timedOut = new AtomicBoolean();
+        SpannerEventDispatcher spannerEventDispatcher = mock(SpannerEventDispatcher.class);
+        when(spannerEventDispatcher.dispatchDataChangeEvent(any(), any(), any())).thenAnswer(invocation -> {
+            overlapping.countDown();
+            if (!overlapping.await(10, TimeUnit.SECONDS)) {
+                timedOut.set(true);
+            }
+            return true;
+        });
+
+        processPartitions(4, spannerEventDispatcher);
+
+        assertFalse(timedOut.get());
+    }
+
+    @Test
+    @Tag("performance")
+    void testProcessingWorkersBenchmark(TestReporter testReporter) throws Exception {
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            processPartitions(1, DISPATCH_NANOS);
+            long singleWorkerNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            processPartitions(4, DISPATCH_NANOS);
+            long workersNanos = System.nanoTime() - start;
+
+            testReporter.publishEntry(round == 0 ? "warmup" : "round " + round,
+                    String.format("1 worker: %d ms, 4 workers: %d ms, events: %d",
+                            TimeUnit.NANOSECONDS.toMillis(singleWorkerNanos), TimeUnit.NANOSECONDS.toMillis(workersNanos),
+                            PARTITIONS * EVENTS_PER_PARTITION));
+        }
+    }
+
+    /**
+     * Processes the events of all partitions, every dispatch takes the given time
+     */
+    private void processPartitions(int workers, long dispatchNanos) throws Exception {
+        SpannerEventDispatcher spannerEventDispatcher = mock(SpannerEventDispatcher.class);
+        when(spannerEventDispatcher.dispatchDataChangeEvent(any(), any(), any())).thenAnswer(invocation -> {
+            if (dispatchNanos > 0) {
+                LockSupport.parkNanos(dispatchNanos);
+            }
+            return true;
+        });
+        processPartitions(workers, spannerEventDispatcher);
+    }
+
+    private void processPartitions(int workers, SpannerEventDispatcher spannerEventDispatcher) throws Exception {
+        SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
+        when(connectorConfig.getProcessingWorkers()).thenReturn(workers);
+        when(connectorConfig.queueCapacity()).thenReturn(1000);
+
+        Map<String, List<String>> processed = new ConcurrentHashMap<>();
+        Set<String> finishedEarly = ConcurrentHashMap.newKeySet();
+        CountDownLatch finished = new CountDownLatch(PARTITIONS);
+
+        SpannerOffsetContextFactory offsetContextFactory = mock(SpannerOffsetContextFactory.class);
+        when(offsetContextFactory.getOffsetContextFromDataChangeEvent(anyInt(), any())).thenAnswer(invocation -> {
+            io.debezium.connector.spanner.db.model.event.DataChangeEvent event = invocation.getArgument(1);
+            processed.computeIfAbsent(event.getPartitionToken(), token -> new ArrayList<>()).add(event.getRecordSequence());
+            return mock(SpannerOffsetContext.class);
+        });
+
+        PartitionManager partitionManager = mock(PartitionManager.class);
+        doAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            if (processed.getOrDefault(token, List.of()).size() != EVENTS_PER_PARTITION) {
+                finishedEarly.add(token);
+            }
+            finished.countDown();
+            return null;
+        }).when(partitionManager).updateToFinished(anyString());
+
+        List<ChangeStreamEvent> events = streamEvents();
+        ChangeStream stream = mock(ChangeStream.class);
+        AtomicInteger started = new AtomicInteger();
+        doAnswer(invocation -> {
+            ChangeStreamEventConsumer consumer = invocation.getArgument(1);
+            started.incrementAndGet();
+            for (ChangeStreamEvent event : events) {
+                consumer.acceptChangeStreamEvent(event);
+            }
+            assertTrue(finished.await(60, TimeUnit.SECONDS));
+            return null;
+        }).when(stream).run(any(), any(), any());
+
+        ChangeEventSourceContext context = mock(ChangeEventSourceContext.class);
+        when(context.isRunning()).thenReturn(true);
+
+        SpannerStreamingChangeEventSource source = new SpannerStreamingChangeEventSource(connectorConfig,
+                mock(ErrorHandler.class), stream, new StreamEventQueue(1000, new MetricsEventPublisher()),
+                new MetricsEventPublisher(), partitionManager, mock(SchemaRegistry.class), spannerEventDispatcher,
+                false, offsetContextFactory);
+
+        source.execute(context, SpannerPartition.getInitialSpannerPartition(), null);
+
+        assertEquals(1, started.get());
+        assertEquals(Set.of(), finishedEarly);
+        assertEquals(PARTITIONS, processed.size());
+        List<String> expectedSequences = IntStream.range(0, EVENTS_PER_PARTITION)
+                .mapToObj(SpannerStreamingChangeEventSourceTest::recordSequence)
+                .collect(Collectors.toList());
+        processed.forEach((token, sequences) -> assertEquals(expectedSequences, sequences, token));
+    }
+
+    private static List<ChangeStreamEvent> streamEvents() {
+        // Partitions are streamed concurrently, so their events are interleaved in the queue
+        StreamEventMetadata metadata = mock(StreamEventMetadata.class);
+        List<ChangeStreamEvent> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_PARTITION; i++) {
+            for (int p = 0; p < PARTITIONS; p++) {
+                events.add(new io.debezium.connector.spanner.db.model.event.DataChangeEvent("token" + p,
+                        Timestamp.ofTimeMicroseconds(i + 1), "tx" + i, true, recordSequence(i), "Table", List.of(),
+                        List.of(new Mod(0, JsonNodeFactory.instance.objectNode(), null, JsonNodeFactory.instance.objectNode())),
+                        ModType.INSERT, ValueCaptureType.NEW_ROW, 1L, 1L, "", false, metadata));
+            }
+        }
+        for (int p = 0; p < PARTITIONS; p++) {
+            events.add(new FinishPartitionEvent(io.debezium.connector.spanner.db.model.Partition.builder()
+                    .token("token" + p)
+                    .parentTokens(Set.of())
+                    .startTimestamp(Timestamp.ofTimeMicroseconds(1))
+                    .build()));
+        }
+        return events;
+    }
+
+    private static String dataChangeRecord(String tableName, int id) {
+        return "{\"data_change_record\":{"
+                + "\"commit_timestamp\":\"2023-05-10T10:15:30.123456Z\","
+                + "\"record_sequence\":\"00000001\","
+                + "\"server_transaction_id\":\"tx-" + id + "\","
+                + "\"is_last_record_in_transaction_in_partition\":true,"
+                + "\"table_name\":\"" + tableName + "\","
+                + "\"column_types\":[{\"name\":\"id\",\"type\":{\"code\":\"INT64\"},\"is_primary_key\":true,\"ordinal_position\":1}],"
+                + "\"mods\":[{\"keys\":{\"id\":" + id + "},\"old_values\":{\"name\":\"old-" + id + "\"},"
+                + "\"new_values\":{\"name\":\"new-" + id + "\"}}],"
+                + "\"mod_type\":\"UPDATE\","
+                + "\"value_capture_type\":\"OLD_AND_NEW_VALUES\","
+                + "\"number_of_records_in_transaction\":1,"
+                + "\"number_of_partitions_in_transaction\":1,"
+                + "\"transaction_tag\":\"\","
+                + "\"is_system_transaction\":false}}";
+    }
+
+    private static String recordSequence(int index) {
+        return String.format("%08d", index);
+    }
 }
@@ -5,32 +5,71 @@
  */
 package io.debezium.connector.spanner;
 
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 
 import com.google.cloud.Timestamp;
 
+import io.debezium.connector.spanner.db.mapper.MapperUtils;
+import io.debezium.connector.spanner.db.model.LazyJsonNode;
+import io.debezium.connector.spanner.db.model.Mod;
+import io.debezium.connector.spanner.db.model.ModType;
 import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.StreamEventMetadata;
+import io.debezium.connector.spanner.db.model.ValueCaptureType;
 import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
 import io.debezium.connector.spanner.db.model.event.FinishPartitionEvent;
+import io.debezium.connector.spanner.db.model.event.HeartbeatEvent;
+import io.debezium.connector.spanner.metrics.Gauge;
+import io.debezium.connector.spanner.metrics.MetricKey;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
+import io.debezium.connector.spanner.metrics.event.MetricEvent;
 
 class StreamEventQueueTest {
 
+    private static final int PRODUCERS = 64;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+    private static final int CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 128;
+
+    private static final long MAX_BYTES = 4L << 20;
+    private static final int HOT_ROW_SIZE = 64 << 10;
+    private static final int COLD_ROW_SIZE = 1 << 10;
+    private static final int COLD_PARTITIONS = 8;
+    private static final int EVENTS_PER_COLD_PARTITION = 100;
+
+    // Events of the same size share the row text, the queue takes into account only the estimated size
+    private static final Map<Integer, String> ROWS = new ConcurrentHashMap<>();
+
     @Test
     void testStreamEventQueue() throws InterruptedException {
-        MetricsEventPublisher metricsEventPublisher = mock(MetricsEventPublisher.class);
-        doNothing().when(metricsEventPublisher).publishMetricEvent(any());
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
+        Gauge remainingCapacity = metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY);
 
-        StreamEventQueue streamEventQueue = new StreamEventQueue(3, metricsEventPublisher);
+        StreamEventQueue streamEventQueue = new StreamEventQueue(3, metricsEventPublisher, Duration.ofHours(1));
         HashSet<String> parentTokens = new HashSet<>();
         Timestamp startTimestamp = Timestamp.ofTimeMicroseconds(1L);
 
@@ -40,6 +79,436 @@ class StreamEventQueueTest {
         ChangeStreamEvent takeEvent = streamEventQueue.take();
         assertSame(partitionEvent, takeEvent);
 
-        verify(metricsEventPublisher, times(3)).publishMetricEvent(any());
+        // Only the initial occupancy is published, puts and takes are sampled
+        assertEquals(3, metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY).get());
+        assertEquals(3, remainingCapacity.get());
+    }
+
+    @Test
+    void testOccupancyIsSampledByConsumer() throws InterruptedException {
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
+        Gauge remainingCapacity = metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY);
+
+        StreamEventQueue queue = new StreamEventQueue(5, metricsEventPublisher, Duration.ZERO);
+        queue.put(event(0, 0));
+        queue.put(event(0, 1));
+        assertEquals(5, remainingCapacity.get());
+
+        queue.take();
+        assertEquals(5, metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY).get());
+        assertEquals(4, remainingCapacity.get());
+    }
+
+    @Test
+    void testDrainInBatches() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(5, new MetricsEventPublisher());
+        for (int i = 0; i < 5; i++) {
+            queue.put(event(0, i));
+        }
+        assertEquals(0, queue.remainingCapacity());
+
+        List<ChangeStreamEvent> batch = new ArrayList<>();
+        assertEquals(3, queue.drainTo(batch, 3));
+        assertEquals(2, queue.size());
+
+        assertEquals(2, queue.drainTo(batch, 3));
+        assertEquals(0, queue.size());
+        assertEquals(5, batch.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, sequence(batch.get(i)));
+        }
+    }
+
+    @Test
+    void testProducerWaitsForFreeSlot() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(2, new MetricsEventPublisher());
+        queue.put(event(0, 0));
+        queue.put(event(0, 1));
+
+        CountDownLatch put = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(event(0, 2));
+                put.countDown();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        assertFalse(put.await(100, TimeUnit.MILLISECONDS));
+
+        assertEquals(0, sequence(queue.take()));
+        assertTrue(put.await(10, TimeUnit.SECONDS));
+        assertEquals(1, sequence(queue.take()));
+        assertEquals(2, sequence(queue.take()));
+    }
+
+    @Test
+    void testConsumerWaitsForEvent() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(2, new MetricsEventPublisher());
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                queue.put(event(0, 0));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        assertEquals(0, sequence(queue.take()));
+    }
+
+    @Test
+    void testConsumerIsInterrupted() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(2, new MetricsEventPublisher());
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                queue.take();
+            }
+            catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        consumer.start();
+        consumer.interrupt();
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPartitionBorrowsUnusedShares() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(100, 10_000, new MetricsEventPublisher());
+
+        // A single partition can use the whole limit
+        for (int i = 0; i < 9; i++) {
+            queue.put(dataChangeEvent("hot", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, i));
+        }
+        assertEquals(9_000, queue.sizeInBytes());
+
+        // The other partition is within its share and gets the rest
+        queue.put(dataChangeEvent("cold", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, 0));
+        assertEquals(10_000, queue.sizeInBytes());
+
+        List<ChangeStreamEvent> events = new ArrayList<>();
+        queue.drainTo(events, 100);
+        assertEquals(10, events.size());
+        assertEquals(0, queue.sizeInBytes());
+    }
+
+    @Test
+    void testPartitionWithinShareIsAdmittedBeforeBorrower() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(100, 10_000, new MetricsEventPublisher());
+        for (int i = 0; i < 10; i++) {
+            queue.put(dataChangeEvent("hot", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, i));
+        }
+
+        CountDownLatch coldPut = new CountDownLatch(1);
+        Thread cold = new Thread(() -> {
+            try {
+                queue.put(dataChangeEvent("cold", 3_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, 0));
+                coldPut.countDown();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        cold.start();
+
+        CountDownLatch hotPut = new CountDownLatch(1);
+        Thread hot = new Thread(() -> {
+            try {
+                queue.put(dataChangeEvent("hot", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, 10));
+                hotPut.countDown();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        hot.start();
+        assertFalse(coldPut.await(100, TimeUnit.MILLISECONDS));
+
+        // Freeing the space for a single hot event does not let the hot partition borrow it
+        queue.take();
+        assertFalse(hotPut.await(100, TimeUnit.MILLISECONDS));
+
+        queue.take();
+        queue.take();
+        assertTrue(coldPut.await(10, TimeUnit.SECONDS));
+        assertFalse(hotPut.await(100, TimeUnit.MILLISECONDS));
+
+        queue.take();
+        assertTrue(hotPut.await(10, TimeUnit.SECONDS));
+        assertEquals(10_000, queue.sizeInBytes());
+    }
+
+    @Test
+    void testInterruptedProducerReleasesReservedBytes() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(1, 10_000, new MetricsEventPublisher());
+        queue.put(dataChangeEvent("token", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, 0));
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(dataChangeEvent("token", 1_000 - ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, 1));
+            }
+            catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        producer.start();
+
+        // The bytes are reserved, but the producer waits for a free slot
+        await().atMost(Duration.ofSeconds(10)).until(() -> producer.getState() == Thread.State.WAITING);
+        assertEquals(2_000, queue.sizeInBytes());
+
+        producer.interrupt();
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertEquals(1_000, queue.sizeInBytes());
+        assertEquals(1, queue.size());
+
+        queue.take();
+        assertEquals(0, queue.sizeInBytes());
+    }
+
+    @Test
+    void testEventLargerThanLimitIsAdmittedToEmptyQueue() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(100, 1_000, new MetricsEventPublisher());
+
+        queue.put(dataChangeEvent("token", 5_000, 0));
+        assertEquals(5_000 + ChangeStreamEvent.DEFAULT_ESTIMATED_SIZE, queue.sizeInBytes());
+
+        queue.take();
+        assertEquals(0, queue.sizeInBytes());
+    }
+
+    /**
+     * One hot partition streams wide rows, while several cold partitions stream small rows.
+     * Bounded by bytes, the queue keeps the estimated heap usage within the limit
+     * and the events of the cold partitions keep flowing in order.
+     */
+    @Test
+    void testSkewedPartitionsWithBytesLimit() throws InterruptedException {
+        StreamEventQueue queue = new StreamEventQueue(1_000, MAX_BYTES, new MetricsEventPublisher());
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        Thread hot = new Thread(() -> {
+            try {
+                for (int i = 0; running.get(); i++) {
+                    queue.put(dataChangeEvent("hot", HOT_ROW_SIZE, i));
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Thread> cold = new ArrayList<>();
+        for (int p = 0; p < COLD_PARTITIONS; p++) {
+            String token = "cold" + p;
+            cold.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < EVENTS_PER_COLD_PARTITION; i++) {
+                        queue.put(dataChangeEvent(token, COLD_ROW_SIZE, i));
+                        Thread.sleep(1);
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        hot.start();
+        cold.forEach(Thread::start);
+
+        long peakBytes = 0;
+        Map<String, Integer> lastSequences = new HashMap<>();
+        int coldEvents = 0;
+        List<ChangeStreamEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (coldEvents < COLD_PARTITIONS * EVENTS_PER_COLD_PARTITION) {
+            peakBytes = Math.max(peakBytes, queue.sizeInBytes());
+            queue.drainTo(batch, BATCH_SIZE);
+            for (ChangeStreamEvent event : batch) {
+                // Simulated processing of the event
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                if (!event.getPartitionToken().equals("hot")) {
+                    int sequence = Integer.parseInt(((DataChangeEvent) event).getRecordSequence());
+                    assertEquals(lastSequences.getOrDefault(event.getPartitionToken(), -1) + 1, sequence);
+                    lastSequences.put(event.getPartitionToken(), sequence);
+                    coldEvents++;
+                }
+            }
+            batch.clear();
+        }
+
+        running.set(false);
+        while (hot.isAlive()) {
+            queue.drainTo(batch, BATCH_SIZE);
+            batch.clear();
+        }
+        for (Thread thread : cold) {
+            thread.join();
+        }
+
+        assertTrue(peakBytes <= MAX_BYTES, "peak " + peakBytes);
+        assertEquals(COLD_PARTITIONS, lastSequences.size());
+    }
+
+    private static DataChangeEvent dataChangeEvent(String token, long rowSize, int sequence) {
+        Mod mod = new Mod(0, LazyJsonNode.of(null, MapperUtils::getJsonNode), LazyJsonNode.of(null, MapperUtils::getJsonNode),
+                LazyJsonNode.of(ROWS.computeIfAbsent((int) rowSize, "x"::repeat), MapperUtils::getJsonNode));
+        return new DataChangeEvent(token, Timestamp.ofTimeMicroseconds(sequence), "tx", true, String.valueOf(sequence), "Table", List.of(), List.of(mod),
+                ModType.INSERT, ValueCaptureType.NEW_ROW, 1L, 1L, "", false, null);
+    }
+
+    private static long micros(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1_000_000 + timestamp.getNanos() / 1_000;
+    }
+
+    /**
+     * Compares the ring buffer with the previous {@link LinkedBlockingDeque} based queue,
+     * which published the occupancy on every put and take, under 64 producer threads.
+     */
+    @Test
+    @Tag("performance")
+    void testThroughputWith64Producers(TestReporter testReporter) throws InterruptedException {
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
+        metricsEventPublisher.subscribe(QueueUpdateEvent.class, event -> {
+        });
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            long dequeNanos = measure(new LinkedBlockingDequeEventQueue(CAPACITY, metricsEventPublisher));
+            long ringBufferNanos = measure(new RingBufferEventQueue(new StreamEventQueue(CAPACITY, metricsEventPublisher)));
+
+            testReporter.publishEntry(iteration == 0 ? "warmup" : "iteration " + iteration,
+                    String.format("LinkedBlockingDeque %.0f events/s, ring buffer %.0f events/s", throughput(dequeNanos), throughput(ringBufferNanos)));
+        }
+    }
+
+    private static long measure(EventQueue queue) throws InterruptedException {
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            producers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        queue.put(event(producer, i));
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        producers.forEach(Thread::start);
+
+        // Events of every producer must be received in the order they were put
+        int[] lastSequences = new int[PRODUCERS];
+        Arrays.fill(lastSequences, -1);
+        List<ChangeStreamEvent> batch = new ArrayList<>(BATCH_SIZE);
+        int received = 0;
+        while (received < PRODUCERS * EVENTS_PER_PRODUCER) {
+            queue.drainTo(batch, BATCH_SIZE);
+            for (ChangeStreamEvent event : batch) {
+                int producer = Integer.parseInt(event.getMetadata().getPartitionToken());
+                assertEquals(lastSequences[producer] + 1, sequence(event));
+                lastSequences[producer]++;
+            }
+            received += batch.size();
+            batch.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        return elapsed;
+    }
+
+    private static double throughput(long nanos) {
+        return PRODUCERS * EVENTS_PER_PRODUCER / (nanos / 1e9);
+    }
+
+    private static ChangeStreamEvent event(int producer, int sequence) {
+        StreamEventMetadata metadata = StreamEventMetadata.newBuilder()
+                .withPartitionToken(String.valueOf(producer))
+                .build();
+        return new HeartbeatEvent(Timestamp.ofTimeMicroseconds(sequence), metadata);
+    }
+
+    private static int sequence(ChangeStreamEvent event) {
+        return (int) micros(event.getRecordTimestamp());
+    }
+
+    private interface EventQueue {
+        void put(ChangeStreamEvent event) throws InterruptedException;
+
+        void drainTo(List<ChangeStreamEvent> events, int maxEvents) throws InterruptedException;
+    }
+
+    private static class RingBufferEventQueue implements EventQueue {
+        private final StreamEventQueue queue;
+
+        RingBufferEventQueue(StreamEventQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void put(ChangeStreamEvent event) throws InterruptedException {
+            queue.put(event);
+        }
+
+        @Override
+        public void drainTo(List<ChangeStreamEvent> events, int maxEvents) throws InterruptedException {
+            queue.drainTo(events, maxEvents);
+        }
+    }
+
+    /**
+     * The previous implementation of {@link StreamEventQueue}
+     */
+    private static class LinkedBlockingDequeEventQueue implements EventQueue {
+        private final BlockingDeque<ChangeStreamEvent> queue;
+        private final MetricsEventPublisher metricsEventPublisher;
+
+        LinkedBlockingDequeEventQueue(int capacity, MetricsEventPublisher metricsEventPublisher) {
+            this.queue = new LinkedBlockingDeque<>(capacity);
+            this.metricsEventPublisher = metricsEventPublisher;
+        }
+
+        @Override
+        public void put(ChangeStreamEvent event) throws InterruptedException {
+            queue.put(event);
+            metricsEventPublisher.publishMetricEvent(
+                    new QueueUpdateEvent(queue.remainingCapacity() + queue.size(), queue.remainingCapacity()));
+        }
+
+        @Override
+        public void drainTo(List<ChangeStreamEvent> events, int maxEvents) throws InterruptedException {
+            events.add(queue.take());
+            metricsEventPublisher.publishMetricEvent(
+                    new QueueUpdateEvent(queue.remainingCapacity() + queue.size(), queue.remainingCapacity()));
+        }
+    }
+
+    /**
+     * The occupancy event, which the previous implementation published on every put and take
+     */
+    private static class QueueUpdateEvent implements MetricEvent {
+        private final int totalCapacity;
+        private final int remainingCapacity;
+
+        QueueUpdateEvent(int totalCapacity, int remainingCapacity) {
+            this.totalCapacity = totalCapacity;
+            this.remainingCapacity = remainingCapacity;
+        }
     }
 }
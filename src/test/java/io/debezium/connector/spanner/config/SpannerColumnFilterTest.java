@@ -0,0 +1,64 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.cloud.spanner.Dialect;
+
+import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.db.metadata.TableId;
+import io.debezium.connector.spanner.db.model.schema.Column;
+
+class SpannerColumnFilterTest {
+
+    private static final TableId TABLE = TableId.getTableId("Users");
+
+    private static final Column ID = Column.create("id", "INT64", true, 1, false, Dialect.GOOGLE_STANDARD_SQL);
+    private static final Column NAME = Column.create("name", "STRING", false, 2, true, Dialect.GOOGLE_STANDARD_SQL);
+    private static final Column PHOTO = Column.create("photo", "BYTES", false, 3, true, Dialect.GOOGLE_STANDARD_SQL);
+
+    @Test
+    void isIncludedWithIncludeList() {
+        SpannerColumnFilter columnFilter = columnFilter("Users\\.name", null);
+
+        assertTrue(columnFilter.isIncluded(TABLE, ID));
+        assertTrue(columnFilter.isIncluded(TABLE, NAME));
+        assertFalse(columnFilter.isIncluded(TABLE, PHOTO));
+        assertFalse(columnFilter.isIncluded(TableId.getTableId("Accounts"), NAME));
+    }
+
+    @Test
+    void isIncludedWithExcludeList() {
+        SpannerColumnFilter columnFilter = columnFilter(null, ".*\\.photo,Users\\.id");
+
+        assertTrue(columnFilter.isIncluded(TABLE, ID));
+        assertTrue(columnFilter.isIncluded(TABLE, NAME));
+        assertFalse(columnFilter.isIncluded(TABLE, PHOTO));
+        assertFalse(columnFilter.isIncluded(TableId.getTableId("Accounts"), PHOTO));
+    }
+
+    @Test
+    void isIncludedNoLists() {
+        SpannerColumnFilter columnFilter = columnFilter(null, null);
+
+        assertTrue(columnFilter.isIncluded(TABLE, ID));
+        assertTrue(columnFilter.isIncluded(TABLE, NAME));
+        assertTrue(columnFilter.isIncluded(TABLE, PHOTO));
+        assertTrue(SpannerColumnFilter.INCLUDE_ALL.isIncluded(TABLE, PHOTO));
+    }
+
+    private static SpannerColumnFilter columnFilter(String includeList, String excludeList) {
+        SpannerConnectorConfig connectorConfig = Mockito.mock(SpannerConnectorConfig.class);
+        Mockito.when(connectorConfig.columnIncludeList()).thenReturn(includeList);
+        Mockito.when(connectorConfig.columnExcludeList()).thenReturn(excludeList);
+        return new SpannerColumnFilter(connectorConfig);
+    }
+}
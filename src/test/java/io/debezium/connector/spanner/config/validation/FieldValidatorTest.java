@@ -125,6 +125,45 @@ class FieldValidatorTest {
         assertEquals(expected, FieldValidator.isCorrectCaptureMode(configuration, Field.create("Name"), problems));
     }
 
+    private static Stream<Arguments> beforeImageModeProvider() {
+        return Stream.of(
+                Arguments.of(null, 0),
+                Arguments.of("FULL", 0),
+                Arguments.of("keys_only", 0),
+                Arguments.of("NONE", 0),
+                Arguments.of("OLD_VALUES", 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("beforeImageModeProvider")
+    void testIsCorrectBeforeImageMode(String value, int expected) {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getString((Field) any())).thenReturn(value);
+
+        Field.ValidationOutput problems = mock(Field.ValidationOutput.class);
+
+        assertEquals(expected, FieldValidator.isCorrectBeforeImageMode(configuration, Field.create("Name"), problems));
+    }
+
+    private static Stream<Arguments> syncEventFormatProvider() {
+        return Stream.of(
+                Arguments.of(null, 0),
+                Arguments.of("V1", 0),
+                Arguments.of("v2_zstd", 0),
+                Arguments.of("V3", 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("syncEventFormatProvider")
+    void testIsCorrectSyncEventFormat(String value, int expected) {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getString((Field) any())).thenReturn(value);
+
+        Field.ValidationOutput problems = mock(Field.ValidationOutput.class);
+
+        assertEquals(expected, FieldValidator.isCorrectSyncEventFormat(configuration, Field.create("Name"), problems));
+    }
+
     private static Stream<Arguments> dateTimeProvider() {
         return Stream.of(
                 Arguments.of(null, 0),
@@ -6,10 +6,14 @@
 package io.debezium.connector.spanner.context.source;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
@@ -24,6 +28,8 @@ import io.debezium.config.Configuration;
 import io.debezium.config.Field;
 import io.debezium.connector.spanner.SpannerConnectorConfig;
 import io.debezium.connector.spanner.context.offset.LowWatermarkProvider;
+import io.debezium.connector.spanner.context.offset.PartitionOffset;
+import io.debezium.connector.spanner.context.offset.SpannerOffsetContextFactory;
 import io.debezium.connector.spanner.db.metadata.TableId;
 import io.debezium.connector.spanner.db.model.ModType;
 import io.debezium.connector.spanner.db.model.StreamEventMetadata;
@@ -162,4 +168,93 @@ class SourceInfoFactoryTest {
         assertNull(actualSourceInfoForLowWatermarkStamp.getServerTransactionId());
         assertNull(actualSourceInfoForLowWatermarkStamp.getNumberRecordsInTransaction());
     }
+
+    @Test
+    void testSourceInfoSharedByModsOfEvent() throws InterruptedException {
+        SpannerConnectorConfig connectorConfig = connectorConfig(false);
+        SourceInfoFactory sourceInfoFactory = new SourceInfoFactory(connectorConfig, mock(LowWatermarkProvider.class));
+
+        DataChangeEvent event = dataChangeEvent("1");
+        SourceInfo first = sourceInfoFactory.getSourceInfo(0, event);
+        SourceInfo second = sourceInfoFactory.getSourceInfo(1, event);
+
+        assertEquals(0, first.getModNumber());
+        assertEquals(1, second.getModNumber());
+        assertSame(first.getCommitTimestamp(), second.getCommitTimestamp());
+        assertSame(first.getRecordSequence(), second.getRecordSequence());
+        assertEquals("String", second.getProjectId());
+        assertEquals("token", second.getPartitionToken());
+
+        SourceInfo next = sourceInfoFactory.getSourceInfo(0, dataChangeEvent("2"));
+        assertEquals(2L, next.getRecordSequence());
+        assertNotSame(first.getCommitTimestamp(), next.getCommitTimestamp());
+    }
+
+    @Test
+    void testLastLowWatermarkIsReadWithoutBlocking() throws InterruptedException {
+        LowWatermarkProvider lowWatermarkProvider = mock(LowWatermarkProvider.class);
+        when(lowWatermarkProvider.getLastLowWatermark()).thenReturn(Timestamp.ofTimeMicroseconds(5_000L));
+        SourceInfoFactory sourceInfoFactory = new SourceInfoFactory(connectorConfig(true), lowWatermarkProvider);
+
+        assertEquals(Instant.ofEpochMilli(5), sourceInfoFactory.getSourceInfo(0, dataChangeEvent("1")).getLowWatermark());
+        assertEquals(Instant.ofEpochMilli(5),
+                sourceInfoFactory.getSourceInfoForLowWatermarkStamp(TableId.getTableId("Table Name")).getLowWatermark());
+        verify(lowWatermarkProvider, never()).getLowWatermark();
+    }
+
+    @Test
+    void testTransactionOfThousandModsMatchesSourceInfoPerMod() throws InterruptedException {
+        int mods = 1_000;
+        SpannerConnectorConfig connectorConfig = connectorConfig(false);
+        LowWatermarkProvider lowWatermarkProvider = mock(LowWatermarkProvider.class);
+        SourceInfoFactory sourceInfoFactory = new SourceInfoFactory(connectorConfig, lowWatermarkProvider);
+        SpannerOffsetContextFactory offsetContextFactory = new SpannerOffsetContextFactory(sourceInfoFactory);
+
+        DataChangeEvent event = dataChangeEvent("1");
+        for (int mod = 0; mod < mods; mod++) {
+            SourceInfo legacy = legacySourceInfo(connectorConfig, mod, event);
+            SourceInfo shared = sourceInfoFactory.getSourceInfo(mod, event);
+
+            assertEquals(legacy.getModNumber(), shared.getModNumber());
+            assertEquals(legacy.getCommitTimestamp(), shared.getCommitTimestamp());
+            assertEquals(legacy.getRecordSequence(), shared.getRecordSequence());
+            assertEquals(legacy.getPartitionToken(), shared.getPartitionToken());
+            assertEquals(new PartitionOffset(event.getCommitTimestamp(), event.getMetadata()).getOffset(),
+                    offsetContextFactory.getOffsetContextFromDataChangeEvent(mod, event).getOffset());
+        }
+    }
+
+    // The source info, which was built from the event and the configuration for every mod
+    private static SourceInfo legacySourceInfo(SpannerConnectorConfig connectorConfig, int modNumber, DataChangeEvent event) {
+        return new SourceInfo(connectorConfig, event.getTableName(), event.getRecordTimestamp().toSqlTimestamp().toInstant(),
+                event.getCommitTimestamp().toSqlTimestamp().toInstant(), event.getMetadata().getRecordReadAt().toSqlTimestamp().toInstant(),
+                event.getServerTransactionId(), Long.parseLong(event.getRecordSequence()), null, event.getNumberOfRecordsInTransaction(),
+                event.getTransactionTag(), event.isSystemTransaction(), event.getValueCaptureType().toString(), event.getPartitionToken(),
+                modNumber, event.isLastRecordInTransactionInPartition(), event.getNumberOfPartitionsInTransaction());
+    }
+
+    private static SpannerConnectorConfig connectorConfig(boolean lowWatermarkEnabled) {
+        // The connector config is built from the properties of the configuration
+        Properties properties = new Properties();
+        properties.setProperty("gcp.spanner.project.id", "String");
+        properties.setProperty("gcp.spanner.low-watermark.enabled", String.valueOf(lowWatermarkEnabled));
+
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getString((Field) any())).thenReturn("String");
+        when(configuration.getString(anyString())).thenReturn("String");
+        when(configuration.asProperties()).thenReturn(properties);
+        return new SpannerConnectorConfig(configuration);
+    }
+
+    private static DataChangeEvent dataChangeEvent(String recordSequence) {
+        StreamEventMetadata streamEventMetadata = StreamEventMetadata.newBuilder()
+                .withPartitionToken("token")
+                .withRecordReadAt(Timestamp.ofTimeMicroseconds(1L))
+                .withPartitionStartTimestamp(Timestamp.ofTimeMicroseconds(1L))
+                .withQueryStartedAt(Timestamp.ofTimeMicroseconds(1L))
+                .build();
+        return new DataChangeEvent("token", Timestamp.ofTimeMicroseconds(Long.parseLong(recordSequence) + 1), "testId", true,
+                recordSequence, "Table Name", new ArrayList<>(), new ArrayList<>(), ModType.UPDATE,
+                ValueCaptureType.OLD_AND_NEW_VALUES, 1000L, 1L, "testTag=test", false, streamEventMetadata);
+    }
 }
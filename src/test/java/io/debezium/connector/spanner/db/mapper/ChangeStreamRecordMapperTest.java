@@ -1132,6 +1132,22 @@ class ChangeStreamRecordMapperTest {
         verify(struct, atLeast(1)).getColumnType(any());
     }
 
+    @Test
+    void testModFromParsesValuesOnAccess() {
+        when(gsqlDatabaseClient.getDialect()).thenReturn(Dialect.GOOGLE_STANDARD_SQL);
+        ChangeStreamRecordMapper changeStreamRecordMapper = new ChangeStreamRecordMapper(gsqlDatabaseClient);
+        Struct struct = mock(Struct.class);
+        when(struct.getColumnType(any())).thenReturn(Type.json());
+        when(struct.getJson(any())).thenReturn("{\"id\":1}");
+
+        Mod mod = changeStreamRecordMapper.modFrom(0, struct);
+        assertFalse(mod.isParsed());
+
+        assertEquals(MapperUtils.getJsonNode("{\"id\":1}"), mod.keysJsonNode());
+        assertTrue(mod.isParsed());
+        assertSame(mod.keysJsonNode(), mod.keysJsonNode());
+    }
+
     @Test
     void testEmptyChildPartitionFrom() {
         when(gsqlDatabaseClient.getDialect()).thenReturn(Dialect.GOOGLE_STANDARD_SQL);
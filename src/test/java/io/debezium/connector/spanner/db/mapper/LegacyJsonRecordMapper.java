@@ -0,0 +1,161 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.mapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.cloud.Timestamp;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Value;
+import com.google.protobuf.util.JsonFormat;
+
+import io.debezium.connector.spanner.db.mapper.parser.ColumnTypeParser;
+import io.debezium.connector.spanner.db.model.ChildPartition;
+import io.debezium.connector.spanner.db.model.InitialPartition;
+import io.debezium.connector.spanner.db.model.Mod;
+import io.debezium.connector.spanner.db.model.ModType;
+import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.StreamEventMetadata;
+import io.debezium.connector.spanner.db.model.ValueCaptureType;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.ChildPartitionsEvent;
+import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
+import io.debezium.connector.spanner.db.model.event.HeartbeatEvent;
+import io.debezium.connector.spanner.db.model.schema.Column;
+
+/**
+ * The former protobuf based mapping of PostgreSQL change stream records,
+ * kept as the reference implementation for the streaming decoder
+ */
+class LegacyJsonRecordMapper {
+
+    private final JsonFormat.Printer printer = JsonFormat.printer().preservingProtoFieldNames()
+            .omittingInsignificantWhitespace();
+    private final JsonFormat.Parser parser = JsonFormat.parser().ignoringUnknownFields();
+
+    ChangeStreamEvent toStreamEvent(Partition partition, String row, StreamEventMetadata metadata) {
+        Value.Builder valueBuilder = Value.newBuilder();
+        try {
+            this.parser.merge(row, valueBuilder);
+        }
+        catch (InvalidProtocolBufferException exc) {
+            throw new IllegalArgumentException("Failed to parse record into proto: " + row);
+        }
+        Map<String, Value> fields = valueBuilder.build().getStructValue().getFieldsMap();
+        if (fields.containsKey("data_change_record")) {
+            return toDataChangeEvent(partition, fields.get("data_change_record"), metadata);
+        }
+        else if (fields.containsKey("heartbeat_record")) {
+            Map<String, Value> valueMap = fields.get("heartbeat_record").getStructValue().getFieldsMap();
+            return new HeartbeatEvent(Timestamp.parseTimestamp(required(valueMap, "timestamp").getStringValue()), metadata);
+        }
+        else if (fields.containsKey("child_partitions_record")) {
+            Map<String, Value> valueMap = fields.get("child_partitions_record").getStructValue().getFieldsMap();
+            return new ChildPartitionsEvent(
+                    Timestamp.parseTimestamp(required(valueMap, "start_timestamp").getStringValue()),
+                    required(valueMap, "record_sequence").getStringValue(),
+                    required(valueMap, "child_partitions").getListValue().getValuesList().stream()
+                            .map(value -> childPartitionFrom(partition.getToken(), value))
+                            .collect(Collectors.toList()),
+                    metadata);
+        }
+        throw new IllegalArgumentException("Unknown change stream record type " + row);
+    }
+
+    private DataChangeEvent toDataChangeEvent(Partition partition, Value record, StreamEventMetadata metadata) {
+        Map<String, Value> valueMap = record.getStructValue().getFieldsMap();
+        List<Mod> mods = new ArrayList<>();
+        for (Value mod : required(valueMap, "mods").getListValue().getValuesList()) {
+            mods.add(modFrom(mod, mods.size() + 1));
+        }
+        return new DataChangeEvent(
+                partition.getToken(),
+                Timestamp.parseTimestamp(required(valueMap, "commit_timestamp").getStringValue()),
+                required(valueMap, "server_transaction_id").getStringValue(),
+                required(valueMap, "is_last_record_in_transaction_in_partition").getBoolValue(),
+                required(valueMap, "record_sequence").getStringValue(),
+                required(valueMap, "table_name").getStringValue(),
+                required(valueMap, "column_types").getListValue().getValuesList().stream()
+                        .map(this::columnFrom)
+                        .collect(Collectors.toList()),
+                mods,
+                modTypeFrom(required(valueMap, "mod_type").getStringValue()),
+                valueCaptureTypeFrom(required(valueMap, "value_capture_type").getStringValue()),
+                (long) required(valueMap, "number_of_records_in_transaction").getNumberValue(),
+                (long) required(valueMap, "number_of_partitions_in_transaction").getNumberValue(),
+                required(valueMap, "transaction_tag").getStringValue(),
+                required(valueMap, "is_system_transaction").getBoolValue(),
+                metadata);
+    }
+
+    private Column columnFrom(Value row) {
+        Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
+        return new Column(
+                required(valueMap, "name").getStringValue(),
+                ColumnTypeParser.parse(print(required(valueMap, "type"))),
+                required(valueMap, "is_primary_key").getBoolValue(),
+                (long) required(valueMap, "ordinal_position").getNumberValue(),
+                null);
+    }
+
+    private Mod modFrom(Value row, int modNumber) {
+        Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
+        String keys = print(required(valueMap, "keys"));
+        String oldValues = valueMap.containsKey("old_values") ? print(valueMap.get("old_values")) : null;
+        String newValues = valueMap.containsKey("new_values") ? print(valueMap.get("new_values")) : null;
+        return new Mod(modNumber, MapperUtils.getJsonNode(keys),
+                MapperUtils.getJsonNode(oldValues), MapperUtils.getJsonNode(newValues));
+    }
+
+    private ChildPartition childPartitionFrom(String partitionToken, Value row) {
+        Map<String, Value> valueMap = row.getStructValue().getFieldsMap();
+        Set<String> parentTokens = new HashSet<>();
+        for (Value parentToken : required(valueMap, "parent_partition_tokens").getListValue().getValuesList()) {
+            parentTokens.add(parentToken.getStringValue());
+        }
+        if (InitialPartition.isInitialPartition(partitionToken)) {
+            parentTokens.add(partitionToken);
+        }
+        return new ChildPartition(required(valueMap, "token").getStringValue(), parentTokens);
+    }
+
+    private String print(Value value) {
+        try {
+            return printer.print(value);
+        }
+        catch (InvalidProtocolBufferException exc) {
+            throw new IllegalArgumentException("Failed to print value: " + value);
+        }
+    }
+
+    private static Value required(Map<String, Value> valueMap, String field) {
+        return Optional.ofNullable(valueMap.get(field)).orElseThrow(IllegalArgumentException::new);
+    }
+
+    private static ModType modTypeFrom(String name) {
+        try {
+            return ModType.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            return ModType.UNKNOWN;
+        }
+    }
+
+    private static ValueCaptureType valueCaptureTypeFrom(String name) {
+        try {
+            return ValueCaptureType.valueOf(name);
+        }
+        catch (IllegalArgumentException e) {
+            return ValueCaptureType.UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.joda.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Dialect;
+
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
+import io.debezium.connector.spanner.db.model.InitialPartition;
+import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.StreamEventMetadata;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
+
+class PostgresChangeStreamRecordDecoderTest {
+
+    private static final String GOLDEN_RECORDS = "/change-stream/postgres-records.jsonl";
+
+    private static final int COLUMNS = 20;
+
+    private ChangeStreamResultSetMetadata resultSetMetadata;
+    private DatabaseClient databaseClient;
+    private ChangeStreamRecordMapper changeStreamRecordMapper;
+    private PostgresChangeStreamRecordDecoder decoder;
+    private LegacyJsonRecordMapper legacyMapper;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = mock(DatabaseClient.class);
+        when(databaseClient.getDialect()).thenReturn(Dialect.POSTGRESQL);
+        resultSetMetadata = mock(ChangeStreamResultSetMetadata.class);
+        when(resultSetMetadata.getQueryStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(1L));
+        when(resultSetMetadata.getRecordStreamStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(2L));
+        when(resultSetMetadata.getRecordStreamEndedAt()).thenReturn(Timestamp.ofTimeMicroseconds(3L));
+        when(resultSetMetadata.getRecordReadAt()).thenReturn(Timestamp.ofTimeMicroseconds(4L));
+        when(resultSetMetadata.getTotalStreamDuration()).thenReturn(Duration.millis(100));
+        when(resultSetMetadata.getNumberOfRecordsRead()).thenReturn(10_000L);
+        changeStreamRecordMapper = new ChangeStreamRecordMapper(databaseClient);
+        decoder = new PostgresChangeStreamRecordDecoder(changeStreamRecordMapper, new RowTypeCache());
+        legacyMapper = new LegacyJsonRecordMapper();
+    }
+
+    @Test
+    void testDecodedRecordsMatchLegacyMapping() throws IOException {
+        List<String> records = goldenRecords();
+        assertFalse(records.isEmpty());
+
+        for (Partition partition : List.of(partition("partitionToken"), partition(InitialPartition.PARTITION_TOKEN))) {
+            for (String record : records) {
+                ChangeStreamEvent decoded = decoder.decode(partition, record, resultSetMetadata);
+                StreamEventMetadata metadata = changeStreamRecordMapper.streamEventMetadataFrom(
+                        partition, decoded.getRecordTimestamp(), resultSetMetadata);
+                ChangeStreamEvent expected = legacyMapper.toStreamEvent(partition, record, metadata);
+
+                assertEquals(expected, decoded, record);
+                assertEquals(expected.getMetadata(), decoded.getMetadata(), record);
+            }
+        }
+    }
+
+    @Test
+    void testRowTypeIsInterned() {
+        Partition partition = partition("partitionToken");
+
+        DataChangeEvent first = (DataChangeEvent) decoder.decode(partition, dataChangeRecord("Users", 1), resultSetMetadata);
+        DataChangeEvent second = (DataChangeEvent) decoder.decode(partition, dataChangeRecord("Users", 2), resultSetMetadata);
+        DataChangeEvent other = (DataChangeEvent) decoder.decode(partition, dataChangeRecord("Orders", 3), resultSetMetadata);
+
+        assertSame(first.getRowType(), second.getRowType());
+        assertNotSame(first.getRowType(), other.getRowType());
+        assertEquals(first.getRowType(), other.getRowType());
+    }
+
+    @Test
+    void testUnknownRecordType() {
+        Partition partition = partition("partitionToken");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(partition, "{\"unknown_record\":{\"timestamp\":\"2023-05-10T10:15:31Z\"}}", resultSetMetadata));
+    }
+
+    @Test
+    void testMalformedRecord() {
+        Partition partition = partition("partitionToken");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(partition, "{\"heartbeat_record\":{\"timestamp\":", resultSetMetadata));
+        assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(partition, "{\"heartbeat_record\":{}}", resultSetMetadata));
+    }
+
+    @Test
+    void testDialectIsResolvedOnce() {
+        for (int i = 0; i < 10; i++) {
+            changeStreamRecordMapper.isPostgres();
+        }
+
+        verify(databaseClient, times(1)).getDialect();
+    }
+
+    private static String dataChangeRecord(String tableName, int id) {
+        StringBuilder values = new StringBuilder();
+        for (int column = 0; column < COLUMNS; column++) {
+            values.append(column == 0 ? "" : ",")
+                    .append("\"column").append(column).append("\":\"value-").append(id).append('-').append(column).append('"');
+        }
+        return "{\"data_change_record\":{"
+                + "\"commit_timestamp\":\"2023-05-10T10:15:30.123456Z\","
+                + "\"record_sequence\":\"00000001\","
+                + "\"server_transaction_id\":\"tx-" + id + "\","
+                + "\"is_last_record_in_transaction_in_partition\":true,"
+                + "\"table_name\":\"" + tableName + "\","
+                + "\"column_types\":[{\"name\":\"id\",\"type\":{\"code\":\"INT64\"},\"is_primary_key\":true,\"ordinal_position\":1}],"
+                + "\"mods\":[{\"keys\":{\"id\":" + id + "},"
+                + "\"old_values\":{" + values + "},"
+                + "\"new_values\":{" + values + "}}],"
+                + "\"mod_type\":\"UPDATE\","
+                + "\"value_capture_type\":\"OLD_AND_NEW_VALUES\","
+                + "\"number_of_records_in_transaction\":1,"
+                + "\"number_of_partitions_in_transaction\":1,"
+                + "\"transaction_tag\":\"\","
+                + "\"is_system_transaction\":false}}";
+    }
+
+    private Partition partition(String token) {
+        return new Partition(token, Set.of("parentToken"), Timestamp.ofTimeMicroseconds(11L),
+                Timestamp.ofTimeMicroseconds(12L), "parentToken");
+    }
+
+    private List<String> goldenRecords() throws IOException {
+        try (InputStream stream = getClass().getResourceAsStream(GOLDEN_RECORDS);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.db.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.spanner.Dialect;
+
+import io.debezium.connector.spanner.db.model.schema.Column;
+
+class RowTypeCacheTest {
+
+    @Test
+    void testInternSameFingerprint() {
+        RowTypeCache rowTypeCache = new RowTypeCache();
+        AtomicInteger parsed = new AtomicInteger();
+
+        List<Column> first = rowTypeCache.intern("Users", new String("[{\"name\":\"id\"}]"), () -> rowType(parsed, "id"));
+        List<Column> second = rowTypeCache.intern("Users", new String("[{\"name\":\"id\"}]"), () -> rowType(parsed, "id"));
+
+        assertSame(first, second);
+        assertEquals(1, parsed.get());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(column("name")));
+    }
+
+    @Test
+    void testInternDifferentFingerprints() {
+        RowTypeCache rowTypeCache = new RowTypeCache();
+        AtomicInteger parsed = new AtomicInteger();
+
+        List<Column> users = rowTypeCache.intern("Users", "[{\"name\":\"id\"}]", () -> rowType(parsed, "id"));
+        List<Column> usersAltered = rowTypeCache.intern("Users", "[{\"name\":\"id\"},{\"name\":\"name\"}]", () -> rowType(parsed, "id", "name"));
+        List<Column> orders = rowTypeCache.intern("Orders", "[{\"name\":\"id\"}]", () -> rowType(parsed, "id"));
+
+        assertNotSame(users, usersAltered);
+        assertNotSame(users, orders);
+        assertEquals(3, parsed.get());
+        assertEquals(2, rowTypeCache.size("Users"));
+        assertEquals(1, rowTypeCache.size("Orders"));
+    }
+
+    @Test
+    void testInternIsBoundedPerTable() {
+        RowTypeCache rowTypeCache = new RowTypeCache(4);
+        AtomicInteger parsed = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            rowTypeCache.intern("Users", "fingerprint" + i, () -> rowType(parsed, "id"));
+        }
+
+        assertEquals(10, parsed.get());
+        assertEquals(2, rowTypeCache.size("Users"));
+    }
+
+    private static List<Column> rowType(AtomicInteger parsed, String... names) {
+        parsed.incrementAndGet();
+        List<Column> columns = new ArrayList<>();
+        for (String name : names) {
+            columns.add(column(name));
+        }
+        return columns;
+    }
+
+    private static Column column(String name) {
+        return Column.create(name, "INT64", "id".equals(name), 1L, false, Dialect.GOOGLE_STANDARD_SQL);
+    }
+}
@@ -12,13 +12,24 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Test;
 
@@ -31,7 +42,10 @@ import com.google.cloud.spanner.ReadOnlyTransaction;
 import com.google.cloud.spanner.SpannerException;
 
 import io.debezium.connector.spanner.db.dao.SchemaDao;
+import io.debezium.connector.spanner.db.model.schema.ChangeStreamSchema;
 import io.debezium.connector.spanner.db.model.schema.Column;
+import io.debezium.connector.spanner.db.model.schema.SpannerSchema;
+import io.debezium.connector.spanner.db.model.schema.TableSchema;
 
 class SchemaRegistryTest {
 
@@ -154,4 +168,151 @@ class SchemaRegistryTest {
         assertEquals(1, schemaRegistry.getAllTables().size());
         assertEquals("Name", schemaRegistry.getAllTables().iterator().next().getTableName());
     }
+
+    @Test
+    void testCheckSchemaValidatesRowTypeOnce() {
+        SchemaDao schemaDao = mock(SchemaDao.class);
+        when(schemaDao.getStream(any(), any())).thenReturn(watchAllTables());
+        when(schemaDao.getSchema(any())).thenReturn(usersSchema("STRING"));
+        SchemaRegistry schemaRegistry = spy(new SchemaRegistry("Stream Name", schemaDao, mock(Runnable.class)));
+        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(1L), null);
+        TableId tableId = TableId.getTableId("Users");
+        List<Column> rowType = usersRowType("STRING");
+
+        for (int i = 0; i < 3; i++) {
+            schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(2L + i), rowType);
+        }
+        verify(schemaRegistry, times(1)).validate(any(), eq(tableId), any());
+
+        // an equal, but not interned row type is validated again
+        schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(5L), usersRowType("STRING"));
+        verify(schemaRegistry, times(2)).validate(any(), eq(tableId), any());
+    }
+
+    @Test
+    void testCheckSchemaRevalidatesRowTypeAfterDdl() {
+        SchemaDao schemaDao = mock(SchemaDao.class);
+        when(schemaDao.getStream(any(), any())).thenReturn(watchAllTables());
+        when(schemaDao.getSchema(any())).thenReturn(usersSchema("STRING"));
+        Runnable schemaResetTrigger = mock(Runnable.class);
+        SchemaRegistry schemaRegistry = new SchemaRegistry("Stream Name", schemaDao, schemaResetTrigger);
+        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(1L), null);
+        TableId tableId = TableId.getTableId("Users");
+        List<Column> rowType = usersRowType("STRING");
+
+        schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(2L), rowType);
+        verify(schemaResetTrigger, never()).run();
+
+        // the type of the column has been altered, so the previously validated row type is outdated
+        when(schemaDao.getSchema(any())).thenReturn(usersSchema("BYTES"));
+        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(3L), null);
+
+        schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(4L), rowType);
+        verify(schemaResetTrigger, times(1)).run();
+    }
+
+    @Test
+    void testCheckSchemaRevalidatesRowTypeAfterStaleUpdate() {
+        SchemaDao schemaDao = mock(SchemaDao.class);
+        when(schemaDao.getStream(any(), any())).thenReturn(watchAllTables());
+        when(schemaDao.getSchema(any())).thenReturn(usersSchema("STRING"));
+        SchemaRegistry schemaRegistry = spy(new SchemaRegistry("Stream Name", schemaDao, mock(Runnable.class)));
+        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(1L), null);
+        TableId tableId = TableId.getTableId("Users");
+        List<Column> rowType = usersRowType("STRING");
+
+        schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(2L), rowType);
+        schemaRegistry.updateSchemaFromStaleTimestamp(tableId, Timestamp.ofTimeMicroseconds(3L), rowType);
+        schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(4L), rowType);
+
+        verify(schemaRegistry, times(2)).validate(any(), eq(tableId), any());
+    }
+
+    @Test
+    void testConcurrentReadersAndRefresher() throws Exception {
+        SchemaDao schemaDao = mock(SchemaDao.class);
+        when(schemaDao.getStream(any(), any())).thenReturn(watchAllTables());
+        when(schemaDao.getSchema(any())).thenAnswer(invocation -> {
+            // a slow query must not block the readers
+            Thread.sleep(5);
+            return usersSchema("STRING");
+        });
+        Runnable schemaResetTrigger = mock(Runnable.class);
+        SchemaRegistry schemaRegistry = new SchemaRegistry("Stream Name", schemaDao, schemaResetTrigger);
+        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(1L), null);
+        TableId tableId = TableId.getTableId("Users");
+        List<Column> rowType = usersRowType("STRING");
+
+        int readers = 8;
+        int refreshes = 50;
+        AtomicBoolean refreshing = new AtomicBoolean(true);
+        AtomicLong readsDuringRefreshes = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch started = new CountDownLatch(readers);
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    while (refreshing.get()) {
+                        try {
+                            schemaRegistry.checkSchema(tableId, Timestamp.ofTimeMicroseconds(1L), rowType);
+                            TableSchema watchedTable = schemaRegistry.getWatchedTable(tableId);
+                            assertEquals(2, watchedTable.columns().size());
+                            readsDuringRefreshes.incrementAndGet();
+                        }
+                        catch (Throwable ex) {
+                            failures.add(ex);
+                            return;
+                        }
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                try {
+                    started.await();
+                    for (int i = 0; i < refreshes; i++) {
+                        schemaRegistry.forceUpdateSchema("taskUid", null, Timestamp.ofTimeMicroseconds(2L + i), null);
+                    }
+                }
+                catch (Throwable ex) {
+                    failures.add(ex);
+                }
+                finally {
+                    refreshing.set(false);
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        // readers keep going while every refresh waits for the schema query
+        assertTrue(readsDuringRefreshes.get() > refreshes);
+        verify(schemaResetTrigger, never()).run();
+        verify(schemaDao, times(refreshes + 1)).getSchema(any());
+    }
+
+    private static ChangeStreamSchema watchAllTables() {
+        return ChangeStreamSchema.builder().name("Stream Name").allTables(true).build();
+    }
+
+    private static SpannerSchema usersSchema(String nameType) {
+        SpannerSchema.SpannerSchemaBuilder builder = SpannerSchema.builder();
+        builder.addPrimaryColumn("Users", "id");
+        builder.addColumn("Users", "id", "INT64", 1L, false, Dialect.GOOGLE_STANDARD_SQL);
+        builder.addColumn("Users", "name", nameType, 2L, true, Dialect.GOOGLE_STANDARD_SQL);
+        return builder.build();
+    }
+
+    private static List<Column> usersRowType(String nameType) {
+        return List.of(
+                Column.create("id", "INT64", true, 1L, false, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("name", nameType, false, 2L, true, Dialect.GOOGLE_STANDARD_SQL));
+    }
 }
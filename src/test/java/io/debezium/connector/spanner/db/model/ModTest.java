@@ -6,6 +6,7 @@
 package io.debezium.connector.spanner.db.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
@@ -13,6 +14,8 @@ import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.databind.node.MissingNode;
 
+import io.debezium.connector.spanner.db.mapper.MapperUtils;
+
 class ModTest {
 
     @Test
@@ -69,4 +72,15 @@ class ModTest {
         MissingNode oldValuesJsonNode = MissingNode.getInstance();
         assertNull(new Mod(10, keysJsonNode, oldValuesJsonNode, MissingNode.getInstance()).getOldValueNode("Name"));
     }
+
+    @Test
+    void testEstimatedSizeDoesNotParseValues() {
+        Mod mod = new Mod(1,
+                LazyJsonNode.of("{\"id\":1}", MapperUtils::getJsonNode),
+                LazyJsonNode.of(null, MapperUtils::getJsonNode),
+                LazyJsonNode.of("{\"name\":\"value\"}", MapperUtils::getJsonNode));
+
+        assertEquals(8 + 16, mod.getEstimatedSize());
+        assertFalse(mod.isParsed());
+    }
 }
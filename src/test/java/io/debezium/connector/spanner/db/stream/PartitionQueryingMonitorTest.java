@@ -7,12 +7,14 @@ package io.debezium.connector.spanner.db.stream;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Assertions;
@@ -44,6 +46,41 @@ class PartitionQueryingMonitorTest {
         Assertions.assertTrue(stuckHeartbeatIntervals > 0);
     }
 
+    @Test
+    void testPendingPartitionsAreNotStuck() throws InterruptedException {
+        PartitionThreadPool partitionThreadPool = new PartitionThreadPool(1);
+        BlockingConsumer<String> onStuckPartitionConsumer = (BlockingConsumer<String>) mock(BlockingConsumer.class);
+        Consumer<ChangeStreamException> errorConsumer = (Consumer<ChangeStreamException>) mock(Consumer.class);
+        PartitionQueryingMonitor partitionQueryingMonitor = new PartitionQueryingMonitor(
+                partitionThreadPool, Duration.ofMillis(1), onStuckPartitionConsumer, errorConsumer,
+                new MetricsEventPublisher(), 1);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable runnable = () -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        // More partitions than slots, the last two wait for a free slot
+        partitionThreadPool.submit("token1", runnable);
+        partitionThreadPool.submit("token2", runnable);
+        partitionThreadPool.submit("token3", runnable);
+
+        partitionQueryingMonitor.checkPartitions();
+        Thread.sleep(10);
+        partitionQueryingMonitor.checkPartitions();
+
+        verify(onStuckPartitionConsumer).accept("token1");
+        verify(onStuckPartitionConsumer, never()).accept("token2");
+        verify(onStuckPartitionConsumer, never()).accept("token3");
+
+        release.countDown();
+        partitionThreadPool.shutdown("taskuid");
+    }
+
     @Test
     void testAcceptStreamEvent() {
         PartitionThreadPool partitionThreadPool = new PartitionThreadPool();
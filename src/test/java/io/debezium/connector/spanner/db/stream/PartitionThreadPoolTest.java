@@ -5,9 +5,18 @@
  */
 package io.debezium.connector.spanner.db.stream;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 class PartitionThreadPoolTest {
@@ -36,4 +45,120 @@ class PartitionThreadPoolTest {
         partitionThreadPool.shutdown("taskuid");
         assertEquals(0, partitionThreadPool.getActiveThreads().size());
     }
+
+    @Test
+    void testBoundedConcurrency() {
+        PartitionThreadPool partitionThreadPool = new PartitionThreadPool(2);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable runnable = () -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        assertTrue(partitionThreadPool.submit("token1", runnable));
+        assertTrue(partitionThreadPool.submit("token2", runnable));
+        assertTrue(partitionThreadPool.submit("token3", runnable));
+        assertFalse(partitionThreadPool.submit("token3", runnable));
+
+        assertEquals(2, partitionThreadPool.getActiveCount());
+        assertEquals(1, partitionThreadPool.getPendingCount());
+        assertEquals(Set.of("token1", "token2"), partitionThreadPool.getActiveThreads());
+
+        partitionThreadPool.stop("token1");
+        await().atMost(Duration.ofSeconds(10)).until(() -> partitionThreadPool.getActiveThreads().contains("token3"));
+        assertEquals(2, partitionThreadPool.getActiveCount());
+        assertEquals(0, partitionThreadPool.getPendingCount());
+        assertEquals(Set.of("token2", "token3"), partitionThreadPool.getActiveThreads());
+
+        release.countDown();
+        partitionThreadPool.shutdown("taskuid");
+        assertEquals(0, partitionThreadPool.getActiveCount());
+        assertFalse(partitionThreadPool.submit("token4", runnable));
+    }
+
+    @Test
+    void testStoppedQueryKeepsSlotUntilExit() throws InterruptedException {
+        PartitionThreadPool partitionThreadPool = new PartitionThreadPool(1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean secondStarted = new AtomicBoolean();
+        // The query ignores the interruption until it is released
+        assertTrue(partitionThreadPool.submit("token1", () -> {
+            started.countDown();
+            while (true) {
+                try {
+                    release.await();
+                    return;
+                }
+                catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        }));
+        assertTrue(partitionThreadPool.submit("token2", () -> secondStarted.set(true)));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        partitionThreadPool.stop("token1");
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertEquals(1, partitionThreadPool.getActiveCount());
+        assertEquals(1, partitionThreadPool.getPendingCount());
+        assertFalse(secondStarted.get());
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(10)).until(secondStarted::get);
+        await().atMost(Duration.ofSeconds(10)).until(() -> partitionThreadPool.getActiveCount() == 0);
+        assertEquals(0, partitionThreadPool.getPendingCount());
+
+        partitionThreadPool.shutdown("taskuid");
+    }
+
+    @Test
+    void testScheduleManyPartitions() throws InterruptedException {
+        int partitions = 10_000;
+        int maxConcurrentQueries = 64;
+
+        PartitionThreadPool partitionThreadPool = new PartitionThreadPool(maxConcurrentQueries);
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(partitions);
+        AtomicInteger maxActiveCount = new AtomicInteger();
+        // The queries are held until all partitions are submitted, so the pool is saturated
+        Runnable runnable = () -> {
+            maxActiveCount.accumulateAndGet(partitionThreadPool.getActiveCount(), Math::max);
+            try {
+                submitted.await();
+                Thread.sleep(1);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                finished.countDown();
+            }
+        };
+
+        for (int i = 0; i < partitions; i++) {
+            assertTrue(partitionThreadPool.submit("token" + i, runnable));
+            assertTrue(partitionThreadPool.getActiveCount() <= maxConcurrentQueries);
+        }
+        assertTrue(partitionThreadPool.getPendingCount() > 0);
+        submitted.countDown();
+
+        assertTrue(finished.await(2, TimeUnit.MINUTES));
+        assertTrue(maxActiveCount.get() <= maxConcurrentQueries, "Too many queries: " + maxActiveCount.get());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> partitionThreadPool.getActiveCount() == 0);
+        assertEquals(0, partitionThreadPool.getPendingCount());
+        assertTrue(partitionThreadPool.getActiveThreads().isEmpty());
+
+        partitionThreadPool.shutdown("taskuid");
+        assertEquals(0, partitionThreadPool.getActiveCount());
+        assertEquals(0, partitionThreadPool.getPendingCount());
+    }
 }
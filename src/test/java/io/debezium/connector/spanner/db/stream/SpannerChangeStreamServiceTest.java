@@ -5,35 +5,51 @@
  */
 package io.debezium.connector.spanner.db.stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.Struct;
 
 import io.debezium.connector.spanner.db.dao.ChangeStreamDao;
 import io.debezium.connector.spanner.db.dao.ChangeStreamResultSet;
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSetMetadata;
 import io.debezium.connector.spanner.db.mapper.ChangeStreamRecordMapper;
 import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.model.event.DataChangeEvent;
+import io.debezium.connector.spanner.db.model.event.FinishPartitionEvent;
 import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
 
 class SpannerChangeStreamServiceTest {
 
+    private static final int ROWS = 20_000;
+
     @Test
     void testGetEvents() throws InterruptedException, Exception {
         ChangeStreamDao changeStreamDao = mock(ChangeStreamDao.class);
         ChangeStreamResultSet changeStreamResultSet = mock(ChangeStreamResultSet.class);
-        MetricsEventPublisher metricsEventPublisher = mock(MetricsEventPublisher.class);
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
         when(changeStreamResultSet.next()).thenReturn(false);
         when(changeStreamDao.streamQuery(any(), any(), any(), anyLong())).thenReturn(changeStreamResultSet);
 
@@ -53,4 +69,163 @@ class SpannerChangeStreamServiceTest {
 
         verify(changeStreamEventConsumer).acceptChangeStreamEvent(any());
     }
+
+    @Test
+    void testGetEventsPipelinedPreservesOrder() throws Exception {
+        Partition partition = new Partition("token", new HashSet<>(), Timestamp.ofTimeMicroseconds(1L),
+                Timestamp.ofTimeMicroseconds(2L), "originParent");
+        List<ChangeStreamEvent> events = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            events.add(new FinishPartitionEvent(partition));
+        }
+
+        List<ChangeStreamEvent> sequential = new ArrayList<>(ROWS + 1);
+        stream(partition, events, 0, sequential);
+
+        List<ChangeStreamEvent> pipelined = new ArrayList<>(ROWS + 1);
+        stream(partition, events, 4, pipelined);
+
+        assertEquals(ROWS + 1, sequential.size());
+        assertEquals(ROWS + 1, pipelined.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertSame(events.get(i), sequential.get(i));
+            assertSame(events.get(i), pipelined.get(i));
+        }
+    }
+
+    @Test
+    void testGetEventsPipelinedPostgresPreservesOrder() throws Exception {
+        Partition partition = new Partition("token", new HashSet<>(), Timestamp.ofTimeMicroseconds(1L),
+                Timestamp.ofTimeMicroseconds(2L), "originParent");
+        List<String> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(dataChangeRecord(i));
+        }
+
+        List<ChangeStreamEvent> received = new ArrayList<>(ROWS + 1);
+        PartitionEventListener partitionEventListener = mock(PartitionEventListener.class);
+        streamPostgres(partition, rows, received, partitionEventListener);
+
+        assertEquals(ROWS + 1, received.size());
+        for (int i = 0; i < ROWS; i++) {
+            DataChangeEvent event = assertInstanceOf(DataChangeEvent.class, received.get(i));
+            assertEquals("tx-" + i, event.getServerTransactionId());
+        }
+        assertInstanceOf(FinishPartitionEvent.class, received.get(ROWS));
+        verify(partitionEventListener).onFinish(partition);
+    }
+
+    @Test
+    void testGetEventsPipelinedPostgresPropagatesDecodeError() throws Exception {
+        Partition partition = new Partition("token", new HashSet<>(), Timestamp.ofTimeMicroseconds(1L),
+                Timestamp.ofTimeMicroseconds(2L), "originParent");
+        int malformedRow = ROWS / 2;
+        List<String> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(i == malformedRow ? "{\"heartbeat_record\":{\"timestamp\":" : dataChangeRecord(i));
+        }
+
+        List<ChangeStreamEvent> received = new ArrayList<>(ROWS + 1);
+        PartitionEventListener partitionEventListener = mock(PartitionEventListener.class);
+
+        // The failure of the decode pool is unwrapped from the ExecutionException
+        assertThrows(IllegalArgumentException.class, () -> streamPostgres(partition, rows, received, partitionEventListener));
+
+        assertEquals(malformedRow, received.size());
+        for (int i = 0; i < malformedRow; i++) {
+            assertEquals("tx-" + i, ((DataChangeEvent) received.get(i)).getServerTransactionId());
+        }
+        assertFalse(received.stream().anyMatch(FinishPartitionEvent.class::isInstance));
+        verify(partitionEventListener, never()).onFinish(any());
+    }
+
+    /**
+     * Streams PostgreSQL rows through the decode pool, the rows are decoded by the real record mapper
+     */
+    private void streamPostgres(Partition partition, List<String> rows, List<ChangeStreamEvent> received,
+                                PartitionEventListener partitionEventListener)
+            throws Exception {
+        AtomicInteger position = new AtomicInteger();
+        ChangeStreamResultSet resultSet = mock(ChangeStreamResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> position.incrementAndGet() <= rows.size());
+        when(resultSet.getPgJsonb(0)).thenAnswer(invocation -> rows.get(position.get() - 1));
+        ChangeStreamResultSetMetadata metadata = mock(ChangeStreamResultSetMetadata.class);
+        when(metadata.getQueryStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(1L));
+        when(metadata.getRecordStreamStartedAt()).thenReturn(Timestamp.ofTimeMicroseconds(2L));
+        when(metadata.getRecordStreamEndedAt()).thenReturn(Timestamp.ofTimeMicroseconds(3L));
+        when(metadata.getRecordReadAt()).thenReturn(Timestamp.ofTimeMicroseconds(4L));
+        when(metadata.getTotalStreamDuration()).thenReturn(org.joda.time.Duration.millis(100));
+        when(metadata.getNumberOfRecordsRead()).thenReturn(10_000L);
+        when(resultSet.getMetadata()).thenReturn(metadata);
+
+        ChangeStreamDao changeStreamDao = mock(ChangeStreamDao.class);
+        when(changeStreamDao.streamQuery(any(), any(), any(), anyLong())).thenReturn(resultSet);
+
+        DatabaseClient pgDatabaseClient = mock(DatabaseClient.class);
+        when(pgDatabaseClient.getDialect()).thenReturn(Dialect.POSTGRESQL);
+
+        SpannerChangeStreamService service = new SpannerChangeStreamService("TaskUid", changeStreamDao,
+                new ChangeStreamRecordMapper(pgDatabaseClient), Duration.ofMillis(1000), new MetricsEventPublisher(), 4, 64);
+        try {
+            service.getEvents(partition, received::add, partitionEventListener);
+        }
+        finally {
+            service.shutdown();
+        }
+    }
+
+    private static String dataChangeRecord(int id) {
+        return "{\"data_change_record\":{"
+                + "\"commit_timestamp\":\"2023-05-10T10:15:30.123456Z\","
+                + "\"record_sequence\":\"00000001\","
+                + "\"server_transaction_id\":\"tx-" + id + "\","
+                + "\"is_last_record_in_transaction_in_partition\":true,"
+                + "\"table_name\":\"Users\","
+                + "\"column_types\":[{\"name\":\"id\",\"type\":{\"code\":\"INT64\"},\"is_primary_key\":true,\"ordinal_position\":1}],"
+                + "\"mods\":[{\"keys\":{\"id\":" + id + "},\"old_values\":{},\"new_values\":{\"name\":\"user-" + id + "\"}}],"
+                + "\"mod_type\":\"UPDATE\","
+                + "\"value_capture_type\":\"OLD_AND_NEW_VALUES\","
+                + "\"number_of_records_in_transaction\":1,"
+                + "\"number_of_partitions_in_transaction\":1,"
+                + "\"transaction_tag\":\"\","
+                + "\"is_system_transaction\":false}}";
+    }
+
+    /**
+     * Streams synthetic rows, every row is mapped to the event at the position of the row
+     */
+    private void stream(Partition partition, List<ChangeStreamEvent> events, int decodeThreads,
+                        List<ChangeStreamEvent> received)
+            throws Exception {
+        AtomicInteger position = new AtomicInteger();
+        ChangeStreamResultSet resultSet = mock(ChangeStreamResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> position.incrementAndGet() <= events.size());
+        when(resultSet.getCurrentRowAsStruct()).thenAnswer(invocation -> Struct.newBuilder().set("row").to(position.get() - 1).build());
+        when(resultSet.getMetadata()).thenReturn(mock(ChangeStreamResultSetMetadata.class));
+
+        ChangeStreamDao changeStreamDao = mock(ChangeStreamDao.class);
+        when(changeStreamDao.streamQuery(any(), any(), any(), anyLong())).thenReturn(resultSet);
+
+        // The sequential mode maps the current row of the result set, the pipelined mode maps the fetched row
+        ChangeStreamRecordMapper mapper = mock(ChangeStreamRecordMapper.class);
+        when(mapper.toChangeStreamEvents(any(Partition.class), any(ChangeStreamResultSet.class), any(ChangeStreamResultSetMetadata.class)))
+                .thenAnswer(invocation -> {
+                    ChangeStreamResultSet rows = invocation.getArgument(1);
+                    return List.of(events.get((int) rows.getCurrentRowAsStruct().getLong("row")));
+                });
+        when(mapper.toChangeStreamEvents(any(Partition.class), any(Struct.class), any(ChangeStreamResultSetMetadata.class)))
+                .thenAnswer(invocation -> {
+                    Struct row = invocation.getArgument(1);
+                    return List.of(events.get((int) row.getLong("row")));
+                });
+
+        SpannerChangeStreamService service = new SpannerChangeStreamService("TaskUid", changeStreamDao, mapper,
+                Duration.ofMillis(1000), new MetricsEventPublisher(), decodeThreads, 64);
+        try {
+            service.getEvents(partition, received::add, mock(PartitionEventListener.class));
+        }
+        finally {
+            service.shutdown();
+        }
+    }
 }
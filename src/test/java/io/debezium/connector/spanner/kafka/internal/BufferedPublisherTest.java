@@ -6,7 +6,6 @@
 package io.debezium.connector.spanner.kafka.internal;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -65,7 +64,7 @@ class BufferedPublisherTest {
     private void runAndCheck(Predicate<Integer> publishImmediately, Consumer<Integer> onPublish) throws InterruptedException {
         List<Integer> result = new CopyOnWriteArrayList<>();
 
-        MetricsEventPublisher metricsEventPublisher = mock(MetricsEventPublisher.class);
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
         TaskSyncContextHolder taskSyncContextHolder = new TaskSyncContextHolder(metricsEventPublisher);
         taskSyncContextHolder.init(TaskSyncContext.builder().taskUid("test-task-1")
                 .rebalanceState(RebalanceState.NEW_EPOCH_STARTED)
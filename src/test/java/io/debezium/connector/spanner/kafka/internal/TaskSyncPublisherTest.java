@@ -0,0 +1,168 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.internal;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFromProtoMapper;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventToProtoMapper;
+
+class TaskSyncPublisherTest {
+
+    private static final String TASK_UID = "task-0";
+    private static final String TOPIC = "sync-topic";
+    private static final int EVENTS = 200;
+    private static final int EPOCH_INTERVAL = 50;
+    private static final int COMPLETION_INTERVAL = 10;
+
+    @Test
+    void testPipelinedPublishingKeepsOrder() throws Exception {
+        MockProducer<String, byte[]> producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        TaskSyncPublisher publisher = newPublisher(producer);
+
+        List<Long> expected = new ArrayList<>();
+        boolean inFlight = false;
+        for (int i = 1; i <= EVENTS; i++) {
+            if (messageType(i) == MessageTypeEnum.UPDATE_EPOCH) {
+                int epoch = i;
+                Thread sender = new Thread(() -> publisher.send(event(epoch, MessageTypeEnum.UPDATE_EPOCH)));
+                sender.start();
+
+                // The epoch message replaces the coalesced event, and the sender waits until it is written
+                await().atMost(Duration.ofSeconds(10)).until(() -> producer.history().size() == expected.size() + 1);
+                assertTrue(sender.isAlive());
+                expected.add((long) epoch);
+
+                // The previous send and the epoch message are in flight
+                assertTrue(producer.completeNext());
+                assertTrue(producer.completeNext());
+                sender.join(10_000);
+                assertFalse(sender.isAlive());
+                inFlight = false;
+            }
+            else {
+                publisher.send(event(i, MessageTypeEnum.REGULAR));
+                if (!inFlight) {
+                    // Nothing is in flight, so the event is sent at once
+                    expected.add((long) i);
+                    inFlight = true;
+                }
+                if (i % COMPLETION_INTERVAL == 0) {
+                    // The latest coalesced event is sent, when the send in flight completes
+                    assertTrue(producer.completeNext());
+                    await().atMost(Duration.ofSeconds(10)).until(() -> producer.history().size() == expected.size() + 1);
+                    expected.add((long) i);
+                }
+            }
+            assertEquals(expected, timestamps(published(producer)));
+        }
+        publisher.close();
+
+        // Each epoch interval sends its first event, the coalesced event of every completion and the epoch message
+        assertEquals(EVENTS / EPOCH_INTERVAL * (EPOCH_INTERVAL / COMPLETION_INTERVAL + 1), producer.history().size());
+    }
+
+    @Test
+    void testRegularEventsAreCoalescedWhileSendIsInFlight() throws InvalidProtocolBufferException {
+        MockProducer<String, byte[]> producer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+        TaskSyncPublisher publisher = newPublisher(producer);
+
+        publisher.send(event(1, MessageTypeEnum.REGULAR));
+        publisher.send(event(2, MessageTypeEnum.REGULAR));
+        publisher.send(event(3, MessageTypeEnum.REGULAR));
+        assertEquals(1, producer.history().size());
+
+        // The latest coalesced event is sent, when the send in flight completes
+        producer.completeNext();
+        await().atMost(Duration.ofSeconds(10)).until(() -> producer.history().size() == 2);
+        assertEquals(List.of(1L, 3L), timestamps(published(producer)));
+
+        // The snapshot requests are not coalesced
+        publisher.send(event(4, MessageTypeEnum.REGULAR).toBuilder().snapshotRequests(Set.of("task-1")).build());
+        publisher.send(event(5, MessageTypeEnum.REGULAR));
+        assertEquals(List.of(1L, 3L, 4L), timestamps(published(producer)));
+
+        // The coalesced event is replaced by the newer state in the rebalance answer
+        Thread answer = new Thread(() -> publisher.send(event(6, MessageTypeEnum.REBALANCE_ANSWER)));
+        answer.start();
+        await().atMost(Duration.ofSeconds(10)).until(() -> producer.history().size() == 4);
+        assertTrue(answer.isAlive());
+        producer.flush();
+        await().atMost(Duration.ofSeconds(10)).until(() -> !answer.isAlive());
+        assertEquals(List.of(1L, 3L, 4L, 6L), timestamps(published(producer)));
+    }
+
+    private static MessageTypeEnum messageType(int i) {
+        return i % EPOCH_INTERVAL == 0 ? MessageTypeEnum.UPDATE_EPOCH : MessageTypeEnum.REGULAR;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TaskSyncPublisher newPublisher(MockProducer<String, byte[]> producer) {
+        ProducerFactory<String, byte[]> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.createProducer()).thenReturn(producer);
+        return new TaskSyncPublisher(TASK_UID, TOPIC, 0, 0, SyncEventFormat.V1, producerFactory, null, e -> {
+            throw e;
+        });
+    }
+
+    private static TaskSyncEvent event(long timestamp, MessageTypeEnum messageType) {
+        TaskState taskState = TaskState.builder()
+                .taskUid(TASK_UID)
+                .consumerId("consumer-0")
+                .rebalanceGenerationId(1)
+                .stateTimestamp(timestamp)
+                .partitions(List.of())
+                .sharedPartitions(List.of())
+                .build();
+        return TaskSyncEvent.builder()
+                .taskUid(TASK_UID)
+                .consumerId("consumer-0")
+                .rebalanceGenerationId(1)
+                .messageTimestamp(timestamp)
+                .messageType(messageType)
+                .taskStates(Map.of(TASK_UID, taskState))
+                .build();
+    }
+
+    private static List<TaskSyncEvent> published(MockProducer<String, byte[]> producer) throws InvalidProtocolBufferException {
+        List<TaskSyncEvent> events = new ArrayList<>();
+        for (ProducerRecord<String, byte[]> record : producer.history()) {
+            events.add(SyncEventFromProtoMapper.fromBytes(record.value()));
+        }
+        return events;
+    }
+
+    private static List<Long> timestamps(List<TaskSyncEvent> events) {
+        List<Long> timestamps = new ArrayList<>();
+        for (TaskSyncEvent event : events) {
+            timestamps.add(event.getMessageTimestamp());
+        }
+        return timestamps;
+    }
+}
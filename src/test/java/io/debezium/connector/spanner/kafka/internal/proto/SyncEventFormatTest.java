@@ -0,0 +1,202 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.internal.proto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskStateDelta;
+import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
+
+class SyncEventFormatTest {
+
+    private static final int TASKS = 10;
+    private static final int PARTITIONS = 5_000;
+
+    @Test
+    void testSizeOfRealisticContext() throws InvalidProtocolBufferException {
+        TaskSyncEvent event = newEpochEvent(new Random(17));
+
+        Map<SyncEventFormat, Integer> sizes = new EnumMap<>(SyncEventFormat.class);
+        for (SyncEventFormat format : SyncEventFormat.values()) {
+            byte[] bytes = SyncEventToProtoMapper.toBytes(event, format);
+            sizes.put(format, bytes.length);
+
+            assertSameEvent(event, SyncEventFromProtoMapper.fromBytes(bytes));
+        }
+
+        assertTrue(sizes.get(SyncEventFormat.V2) * 2 < sizes.get(SyncEventFormat.V1));
+        // LZ4 has no entropy coding, so only ZSTD shrinks the random base64 tokens of the dictionary
+        assertTrue(sizes.get(SyncEventFormat.V2_ZSTD) < sizes.get(SyncEventFormat.V2));
+    }
+
+    @Test
+    void testV1RecordIsReadAsBefore() throws InvalidProtocolBufferException {
+        TaskSyncEvent event = newEpochEvent(new Random(3));
+        byte[] bytes = SyncEventToProtoMapper.mapToProto(event).toByteArray();
+
+        assertTrue(bytes[0] != SyncEventFormat.HEADER_MAGIC);
+        assertEquals(bytes.length, SyncEventToProtoMapper.toBytes(event, SyncEventFormat.V1).length);
+        assertSameEvent(event, SyncEventFromProtoMapper.fromBytes(bytes));
+    }
+
+    @Test
+    void testV2DeltaAndUnsetFieldsRoundTrip() throws InvalidProtocolBufferException {
+        PartitionState partition = PartitionState.builder()
+                .token("token-1")
+                .state(PartitionStateEnum.FINISHED)
+                .startTimestamp(Timestamp.ofTimeSecondsAndNanos(-10, 1_000))
+                .endTimestamp(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 123_456_000))
+                .finishedTimestamp(Timestamp.ofTimeSecondsAndNanos(1_700_000_001L, 0))
+                .parents(Set.of())
+                .assigneeTaskUid("task-1")
+                .build();
+        TaskStateDelta delta = new TaskStateDelta("task-1", "consumer-1", 3, 1_000, 8,
+                List.of(partition), List.of("token-0"), List.of(), List.of("token-0", "token-2"));
+        TaskSyncEvent event = TaskSyncEvent.builder()
+                .taskUid("task-1")
+                .consumerId("consumer-1")
+                .messageTimestamp(1_000)
+                .messageType(MessageTypeEnum.DELTA)
+                .rebalanceGenerationId(3)
+                .taskStates(Map.of())
+                .taskStateDelta(delta)
+                .snapshotRequests(Set.of("task-2"))
+                .build();
+
+        TaskSyncEvent decoded = SyncEventFromProtoMapper.fromBytes(SyncEventToProtoMapper.toBytes(event, SyncEventFormat.V2_ZSTD));
+
+        assertEquals(MessageTypeEnum.DELTA, decoded.getMessageType());
+        assertEquals(Set.of("task-2"), decoded.getSnapshotRequests());
+        TaskStateDelta decodedDelta = decoded.getTaskStateDelta();
+        assertEquals(8, decodedDelta.getSequence());
+        assertEquals(List.of("token-0"), decodedDelta.getRemovedPartitions());
+        assertEquals(List.of("token-0", "token-2"), decodedDelta.getRemovedSharedPartitions());
+        assertSamePartition(partition, decodedDelta.getPartitions().get(0));
+        assertNull(decodedDelta.getPartitions().get(0).getOriginParent());
+        assertTrue(decodedDelta.getSharedPartitions().isEmpty());
+    }
+
+    @Test
+    void testUnknownVersionIsRejected() {
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> SyncEventFromProtoMapper.fromBytes(new byte[]{ SyncEventFormat.HEADER_MAGIC, 3, 0 }));
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> SyncEventFromProtoMapper.fromBytes(new byte[]{ SyncEventFormat.HEADER_MAGIC, 2, 7, 0, 0, 0, 1, 0 }));
+    }
+
+    /**
+     * The new epoch event of a connector with 10 tasks and 5,000 partitions: every partition has
+     * a change stream token, the tokens of its parents, which are mostly finished partitions, and timestamps
+     */
+    private static TaskSyncEvent newEpochEvent(Random random) {
+        List<String> tokens = new ArrayList<>(PARTITIONS);
+        for (int i = 0; i < PARTITIONS; i++) {
+            tokens.add(token(random));
+        }
+
+        Map<String, TaskState> taskStates = new HashMap<>();
+        for (int task = 0; task < TASKS; task++) {
+            String taskUid = "task-" + task + "-" + token(random).substring(0, 20);
+            Map<String, PartitionState> partitions = new HashMap<>();
+            Map<String, PartitionState> sharedPartitions = new HashMap<>();
+            for (int i = task; i < PARTITIONS; i += TASKS) {
+                String parent = i < 2 ? "Parent0" : tokens.get(random.nextInt(i / 2 + 1));
+                Set<String> parents = i % 7 == 0 && i > 2 ? Set.of(parent, tokens.get(i - 1)) : Set.of(parent);
+                PartitionStateEnum state = i < PARTITIONS / 2 ? PartitionStateEnum.FINISHED : PartitionStateEnum.values()[random.nextInt(4)];
+                PartitionState partition = PartitionState.builder()
+                        .token(tokens.get(i))
+                        .state(state)
+                        .startTimestamp(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L + i, random.nextInt(1_000_000) * 1_000))
+                        .finishedTimestamp(state == PartitionStateEnum.FINISHED ? Timestamp.ofTimeSecondsAndNanos(1_700_010_000L + i, 0) : null)
+                        .parents(parents)
+                        .assigneeTaskUid(taskUid)
+                        .originParent(parent)
+                        .build();
+                if (i % 50 == 0) {
+                    sharedPartitions.put(partition.getToken(), partition);
+                }
+                else {
+                    partitions.put(partition.getToken(), partition);
+                }
+            }
+            taskStates.put(taskUid, TaskState.builder()
+                    .taskUid(taskUid)
+                    .consumerId("consumer-" + taskUid)
+                    .rebalanceGenerationId(4)
+                    .stateTimestamp(1_700_000_000_000L + task)
+                    .partitionsMap(partitions)
+                    .sharedPartitionsMap(sharedPartitions)
+                    .build());
+        }
+
+        return TaskSyncEvent.builder()
+                .taskUid("task-0")
+                .consumerId("consumer-0")
+                .messageTimestamp(1_700_000_000_000L)
+                .messageType(MessageTypeEnum.NEW_EPOCH)
+                .rebalanceGenerationId(4)
+                .epochOffset(12_345)
+                .taskStates(taskStates)
+                .build();
+    }
+
+    // Change stream partition tokens are long base64 strings
+    private static String token(Random random) {
+        byte[] bytes = new byte[120];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static void assertSameEvent(TaskSyncEvent expected, TaskSyncEvent actual) {
+        assertEquals(expected.getMessageType(), actual.getMessageType());
+        assertEquals(expected.getEpochOffset(), actual.getEpochOffset());
+        assertEquals(expected.getTaskStates().keySet(), actual.getTaskStates().keySet());
+        for (TaskState expectedState : expected.getTaskStates().values()) {
+            TaskState actualState = actual.getTaskStates().get(expectedState.getTaskUid());
+            assertEquals(expectedState.getStateTimestamp(), actualState.getStateTimestamp());
+            assertSamePartitions(expectedState.getPartitionsMap(), actualState.getPartitionsMap());
+            assertSamePartitions(expectedState.getSharedPartitionsMap(), actualState.getSharedPartitionsMap());
+        }
+    }
+
+    private static void assertSamePartitions(Map<String, PartitionState> expected, Map<String, PartitionState> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((token, partition) -> assertSamePartition(partition, actual.get(token)));
+    }
+
+    // PartitionState is equal by token only, so all the fields are compared
+    private static void assertSamePartition(PartitionState expected, PartitionState actual) {
+        assertEquals(expected.getToken(), actual.getToken());
+        assertEquals(expected.getState(), actual.getState(), expected.getToken());
+        assertEquals(expected.getStartTimestamp(), actual.getStartTimestamp(), expected.getToken());
+        assertEquals(expected.getEndTimestamp(), actual.getEndTimestamp(), expected.getToken());
+        assertEquals(expected.getFinishedTimestamp(), actual.getFinishedTimestamp(), expected.getToken());
+        assertEquals(Set.copyOf(expected.getParents()), Set.copyOf(actual.getParents()), expected.getToken());
+        assertEquals(expected.getAssigneeTaskUid(), actual.getAssigneeTaskUid(), expected.getToken());
+        assertEquals(expected.getOriginParent(), actual.getOriginParent(), expected.getToken());
+    }
+}
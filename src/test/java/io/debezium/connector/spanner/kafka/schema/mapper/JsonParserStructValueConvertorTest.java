@@ -0,0 +1,206 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.kafka.schema.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.kafka.connect.data.Schema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.debezium.connector.spanner.db.model.schema.ColumnType;
+import io.debezium.connector.spanner.db.model.schema.DataType;
+import io.debezium.connector.spanner.schema.mapper.ColumnTypeSchemaMapper;
+import io.debezium.connector.spanner.schema.mapper.FieldJsonNodeValueMapper;
+import io.debezium.connector.spanner.schema.mapper.JsonParserStructValueConvertor;
+
+/**
+ * Property based tests, which compare the values read from the JSON tokens
+ * with the values converted from the JSON tree by the existing convertor
+ */
+class JsonParserStructValueConvertorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final int SAMPLES = 500;
+
+    private static Stream<Arguments> columnTypes() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (DataType type : DataType.values()) {
+            if (type == DataType.ARRAY || type == DataType.STRUCT) {
+                continue;
+            }
+            arguments.add(Arguments.of(new ColumnType(type)));
+            arguments.add(Arguments.of(new ColumnType(DataType.ARRAY, new ColumnType(type))));
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("columnTypes")
+    void testSameValuesAsTreeConvertor(ColumnType columnType) throws IOException {
+        Schema schema = ColumnTypeSchemaMapper.getSchema(columnType, true);
+        Random random = new Random(columnType.toString().hashCode());
+
+        for (int i = 0; i < SAMPLES; i++) {
+            String json = columnType.getType() == DataType.ARRAY
+                    ? randomArray(random, columnType.getArrayElementType().getType())
+                    : randomValue(random, columnType.getType());
+            assertSameValue(schema, json);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("columnTypes")
+    void testSameValuesOfUnexpectedJson(ColumnType columnType) throws IOException {
+        Schema schema = ColumnTypeSchemaMapper.getSchema(columnType, true);
+        String[] values = { "null", "true", "false", "0", "-0", "42", "12345678901234567890", "1.5", "1e300",
+                "\"\"", "\"1\"", "\" true \"", "\"NaN\"", "{\"a\":[1,{}]}", "[]" };
+        for (String value : values) {
+            if (columnType.getType() == DataType.ARRAY && !value.equals("null") && !value.startsWith("[")) {
+                assertThrows(IllegalArgumentException.class, () -> read(schema, value));
+                continue;
+            }
+            // Only the values, which are valid Base64, are compared for BYTES
+            if (schema.type() == Schema.Type.BYTES && !value.equals("null") && !value.equals("\"\"")) {
+                continue;
+            }
+            assertSameValue(schema, value);
+        }
+    }
+
+    @Test
+    void testReaderLeavesParserAfterValue() throws IOException {
+        Schema schema = ColumnTypeSchemaMapper.getSchema(new ColumnType(DataType.ARRAY, new ColumnType(DataType.INT64)), true);
+        try (JsonParser parser = JSON_FACTORY.createParser("{\"a\":[\"1\",\"2\"],\"b\":{\"c\":[1]},\"d\":1}")) {
+            parser.nextToken();
+            parser.nextToken();
+            assertEquals(List.of(1L, 2L), JsonParserStructValueConvertor.getValueReader(schema).read(parser, parser.nextToken()));
+            parser.nextToken();
+            assertEquals("", JsonParserStructValueConvertor.getValueReader(Schema.OPTIONAL_STRING_SCHEMA).read(parser, parser.nextToken()));
+            assertEquals(JsonToken.FIELD_NAME, parser.nextToken());
+            assertEquals("d", parser.getCurrentName());
+        }
+    }
+
+    private static void assertSameValue(Schema schema, String json) throws IOException {
+        Object expected = FieldJsonNodeValueMapper.getValueMapper(schema).apply(OBJECT_MAPPER.readTree(json));
+        assertEquals(normalize(expected), normalize(read(schema, json)), json);
+    }
+
+    private static Object read(Schema schema, String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return JsonParserStructValueConvertor.getValueReader(schema).read(parser, parser.nextToken());
+        }
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = (ByteBuffer) value;
+            return Arrays.toString(Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit()));
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            ((List<?>) value).forEach(element -> list.add(normalize(element)));
+            return list;
+        }
+        return value;
+    }
+
+    private static String randomArray(Random random, DataType elementType) {
+        if (random.nextInt(10) == 0) {
+            return "null";
+        }
+        int size = random.nextInt(6);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(randomValue(random, elementType));
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Generates a value in the encoding of the change stream
+     */
+    private static String randomValue(Random random, DataType type) {
+        if (random.nextInt(10) == 0) {
+            return "null";
+        }
+        switch (type) {
+            case BOOL:
+                return random.nextBoolean() ? "true" : "false";
+            case INT64:
+                // INT64 values are sent as strings
+                return quote(Long.toString(random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(1000) - 500));
+            case FLOAT64:
+                switch (random.nextInt(6)) {
+                    case 0:
+                        return quote("NaN");
+                    case 1:
+                        return quote(random.nextBoolean() ? "Infinity" : "-Infinity");
+                    case 2:
+                        return Integer.toString(random.nextInt());
+                    default:
+                        return Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+                }
+            case BYTES:
+                byte[] bytes = new byte[random.nextInt(64)];
+                random.nextBytes(bytes);
+                return quote(Base64.getEncoder().encodeToString(bytes));
+            case NUMERIC:
+                return quote(random.nextInt(100000) + "." + random.nextInt(1000000000));
+            case DATE:
+                return quote(String.format("%04d-%02d-%02d", 1 + random.nextInt(9999), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            case TIMESTAMP:
+                return quote(String.format("%04d-%02d-%02dT%02d:%02d:%02d.%06dZ", 1 + random.nextInt(9999), 1 + random.nextInt(12),
+                        1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000000)));
+            case JSON:
+                return quote("{\\\"key\\\":" + random.nextInt() + "}");
+            case STRING:
+            default:
+                return randomString(random);
+        }
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(20);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) (random.nextBoolean() ? 'a' + random.nextInt(26) : 1 + random.nextInt(0x2fff)));
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(text.toString());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -5,8 +5,14 @@
  */
 package io.debezium.connector.spanner.metrics;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -15,19 +21,49 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import org.apache.kafka.connect.data.ConnectSchema;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.header.Headers;
 import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 
+import com.google.cloud.Timestamp;
+import com.sun.management.ThreadMXBean;
+
+import io.debezium.connector.spanner.StreamEventQueue;
+import io.debezium.connector.spanner.context.source.SourceInfo;
+import io.debezium.connector.spanner.db.dao.ChangeStreamDao;
+import io.debezium.connector.spanner.db.dao.ChangeStreamResultSet;
+import io.debezium.connector.spanner.db.mapper.ChangeStreamRecordMapper;
+import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.model.event.ChangeStreamEvent;
+import io.debezium.connector.spanner.db.stream.PartitionEventListener;
+import io.debezium.connector.spanner.db.stream.SpannerChangeStreamService;
+import io.debezium.connector.spanner.metrics.event.LatencyMetricEvent;
 import io.debezium.connector.spanner.metrics.event.NewQueueMetricEvent;
+import io.debezium.connector.spanner.metrics.latency.HeaderLatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.InMemoryLatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.LatencyTimestampsStore;
+import io.debezium.connector.spanner.metrics.latency.Statistics;
+import io.debezium.connector.spanner.processor.SourceRecordUtils;
+import io.debezium.connector.spanner.task.TaskSyncContext;
+import io.debezium.connector.spanner.task.TaskSyncContextHolder;
 
 class MetricsEventPublisherTest {
 
@@ -121,4 +157,160 @@ class MetricsEventPublisherTest {
 
         verify(metricsEventPublisher, times(0)).publishMetricEvent(any());
     }
+
+    @Test
+    void testLatencyTimestampsOutOfHeaders() {
+        InMemoryLatencyTimestampsStore inMemoryStore = new InMemoryLatencyTimestampsStore(100);
+        SourceRecord headerRecord = dataChangeRecord();
+        SourceRecord inMemoryRecord = dataChangeRecord();
+
+        LatencyMetricEvent headerEvent = logLatency(HeaderLatencyTimestampsStore.INSTANCE, headerRecord);
+        LatencyMetricEvent inMemoryEvent = logLatency(inMemoryStore, inMemoryRecord);
+
+        assertEquals(900L, inMemoryEvent.getTotalLatency());
+        assertEquals(400L, inMemoryEvent.getReadToEmitLatency());
+        assertEquals(500L, inMemoryEvent.getSpannerLatency());
+        assertEquals(900L, inMemoryEvent.getCommitToEmitLatency());
+        assertEquals(1000L, inMemoryEvent.getCommitToPublishLatency());
+        assertEquals(100L, inMemoryEvent.getEmitToPublishLatency());
+        assertEquals(200L, inMemoryEvent.getOwnConnectorLatency());
+        assertEquals(headerEvent.getTotalLatency(), inMemoryEvent.getTotalLatency());
+        assertEquals(headerEvent.getReadToEmitLatency(), inMemoryEvent.getReadToEmitLatency());
+        assertEquals(headerEvent.getSpannerLatency(), inMemoryEvent.getSpannerLatency());
+        assertEquals(headerEvent.getCommitToEmitLatency(), inMemoryEvent.getCommitToEmitLatency());
+        assertEquals(headerEvent.getCommitToPublishLatency(), inMemoryEvent.getCommitToPublishLatency());
+        assertEquals(headerEvent.getEmitToPublishLatency(), inMemoryEvent.getEmitToPublishLatency());
+        assertEquals(headerEvent.getOwnConnectorLatency(), inMemoryEvent.getOwnConnectorLatency());
+        assertEquals(0, inMemoryStore.size());
+
+        // Only the record uid header is written to Kafka
+        assertEquals(1, inMemoryRecord.headers().size());
+        assertEquals(4, headerRecord.headers().size());
+        assertTrue(headersSize(inMemoryRecord) < headersSize(headerRecord));
+    }
+
+    @Test
+    void testRegisteredMetricIsLookedUp() {
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
+        Gauge gauge = new Gauge();
+        metricsEventPublisher.registerMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY, gauge);
+
+        assertSame(gauge, metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY));
+        assertThrows(IllegalStateException.class,
+                () -> metricsEventPublisher.registerMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY, new Gauge()));
+
+        // A metric, which is not registered by the meter, is created on the first look up
+        Gauge totalCapacity = metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY);
+        assertSame(totalCapacity, metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_TOTAL_CAPACITY));
+    }
+
+    @Test
+    void testStreamingPathPublishesNoMetricEvents() throws Exception {
+        MetricsEventPublisher metricsEventPublisher = spy(new MetricsEventPublisher());
+        ChangeStreamEvent event = mock(ChangeStreamEvent.class);
+
+        StreamEventQueue queue = new StreamEventQueue(16, metricsEventPublisher);
+        List<ChangeStreamEvent> drained = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            queue.put(event);
+            queue.take();
+            queue.put(event);
+            queue.drainTo(drained, 16);
+        }
+
+        ChangeStreamResultSet resultSet = mock(ChangeStreamResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        ChangeStreamDao changeStreamDao = mock(ChangeStreamDao.class);
+        when(changeStreamDao.streamQuery(any(), any(), any(), anyLong())).thenReturn(resultSet);
+        ChangeStreamRecordMapper mapper = mock(ChangeStreamRecordMapper.class);
+        when(mapper.toChangeStreamEvents(any(Partition.class), any(ChangeStreamResultSet.class), any())).thenReturn(List.of(event));
+        SpannerChangeStreamService service = new SpannerChangeStreamService("task", changeStreamDao, mapper,
+                Duration.ofMillis(1000), metricsEventPublisher);
+        Partition partition = new Partition("token", Set.of(), Timestamp.ofTimeMicroseconds(1L), null, "originParent");
+        service.getEvents(partition, drained::add, mock(PartitionEventListener.class));
+
+        TaskSyncContextHolder taskSyncContextHolder = new TaskSyncContextHolder(metricsEventPublisher);
+        TaskSyncContext context = TaskSyncContext.builder().taskUid("task").build();
+        taskSyncContextHolder.init(context);
+        taskSyncContextHolder.update(current -> current.toBuilder().build());
+
+        // The hot paths update the metrics, which are looked up once, instead of publishing events
+        verify(metricsEventPublisher, times(0)).publishMetricEvent(any());
+        assertEquals(16, metricsEventPublisher.getMetric(MetricKey.SPANNER_EVENT_QUEUE_REMAINING_CAPACITY).get());
+        assertNotNull(metricsEventPublisher.getMetric(MetricKey.DELAY_CHANGE_STREAM_EVENTS).getLastValue());
+        assertEquals("task", metricsEventPublisher.getMetric(MetricKey.TASK_SYNC_CONTEXT).get().getTaskUid());
+    }
+
+    /**
+     * Measures the bytes allocated by the streaming thread, while it updates the metrics
+     * of the queue, of the change stream delay and of the task sync context.
+     */
+    @Test
+    @Tag("performance")
+    void testStreamingPathAllocationBenchmark(TestReporter testReporter) throws InterruptedException {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
+        StreamEventQueue queue = new StreamEventQueue(16, metricsEventPublisher);
+        Statistics delay = metricsEventPublisher.getMetric(MetricKey.DELAY_CHANGE_STREAM_EVENTS);
+        ValueGauge<TaskSyncContext> taskSyncContext = metricsEventPublisher.getMetric(MetricKey.TASK_SYNC_CONTEXT);
+        TaskSyncContext context = TaskSyncContext.builder().taskUid("task").build();
+        ChangeStreamEvent event = mock(ChangeStreamEvent.class);
+
+        int iterations = 100_000;
+        long threadId = Thread.currentThread().getId();
+        // The first round warms up the streaming path
+        for (int round = 0; round < 3; round++) {
+            long start = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                queue.put(event);
+                queue.take();
+                delay.update(i & 1023);
+                taskSyncContext.set(context);
+            }
+            long metricBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+            testReporter.publishEntry(round == 0 ? "warmup" : "round " + round,
+                    String.format("%.2f allocated bytes per event", (double) metricBytes / iterations));
+        }
+    }
+
+    private static LatencyMetricEvent logLatency(LatencyTimestampsStore store, SourceRecord sourceRecord) {
+        MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher(store);
+        AtomicReference<LatencyMetricEvent> event = new AtomicReference<>();
+        metricsEventPublisher.subscribe(LatencyMetricEvent.class, event::set);
+
+        store.addEmitTimestamp(sourceRecord, 1700L);
+        store.addPollTimestamp(sourceRecord, 1900L);
+        store.addPublishTimestamp(sourceRecord, 2000L);
+        metricsEventPublisher.logLatency(sourceRecord);
+
+        assertNotNull(event.get());
+        return event.get();
+    }
+
+    private static SourceRecord dataChangeRecord() {
+        Schema sourceSchema = SchemaBuilder.struct()
+                .field(SourceInfo.TIMESTAMP_KEY, Schema.INT64_SCHEMA)
+                .field(SourceInfo.READ_AT_TIMESTAMP_KEY, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(SourceInfo.LOW_WATERMARK_KEY, Schema.OPTIONAL_INT64_SCHEMA)
+                .build();
+        Schema valueSchema = SchemaBuilder.struct().field(SourceInfo.SOURCE_KEY, sourceSchema).build();
+        Struct source = new Struct(sourceSchema)
+                .put(SourceInfo.TIMESTAMP_KEY, 1000L)
+                .put(SourceInfo.READ_AT_TIMESTAMP_KEY, 1500L);
+        return new SourceRecord(Map.of(), Map.of(), "Topic", null, null, null, valueSchema,
+                new Struct(valueSchema).put(SourceInfo.SOURCE_KEY, source), null, SourceRecordUtils.from(1L));
+    }
+
+    // Size of the headers in a Kafka record, the names and the long values
+    private static int headersSize(SourceRecord sourceRecord) {
+        int size = 0;
+        for (Header header : sourceRecord.headers()) {
+            size += header.key().length() + Long.BYTES;
+        }
+        return size;
+    }
 }
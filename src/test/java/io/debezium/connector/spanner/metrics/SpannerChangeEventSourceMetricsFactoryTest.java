@@ -34,7 +34,7 @@ class SpannerChangeEventSourceMetricsFactoryTest {
         SpannerConnectorConfig connectorConfig = Mockito.mock(SpannerConnectorConfig.class);
 
         SpannerChangeEventSourceMetricsFactory spannerChangeEventSourceMetricsFactory = new SpannerChangeEventSourceMetricsFactory(
-                new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null));
+                new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null));
         SpannerSourceTaskContext spannerSourceTaskContext = mock(SpannerSourceTaskContext.class);
         when(spannerSourceTaskContext.getConnectorType()).thenReturn("Connector Type");
         when(spannerSourceTaskContext.getConnectorName()).thenReturn("Connector Name");
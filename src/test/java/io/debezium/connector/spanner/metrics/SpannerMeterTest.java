@@ -26,10 +26,8 @@ import com.google.cloud.Timestamp;
 
 import io.debezium.config.Configuration;
 import io.debezium.config.Field;
-import io.debezium.connector.base.ChangeEventQueue;
 import io.debezium.connector.spanner.SpannerConnectorConfig;
 import io.debezium.connector.spanner.SpannerConnectorTask;
-import io.debezium.connector.spanner.SpannerErrorHandler;
 import io.debezium.connector.spanner.function.BlockingSupplier;
 import io.debezium.connector.spanner.metrics.latency.LatencyCalculator;
 import io.debezium.connector.spanner.metrics.latency.Statistics;
@@ -49,9 +47,7 @@ class SpannerMeterTest {
         Configuration configuration1 = mock(Configuration.class);
         when(configuration1.getString((Field) any())).thenReturn("String");
         when(configuration1.asProperties()).thenReturn(new Properties());
-        SpannerErrorHandler spannerErrorHandler = new SpannerErrorHandler(mock(SpannerConnectorTask.class),
-                (ChangeEventQueue<?>) mock(ChangeEventQueue.class));
-        SpannerMeter actualSpannerMeter = new SpannerMeter(task, connectorConfig, spannerErrorHandler, lowWatermarkSupplier);
+        SpannerMeter actualSpannerMeter = new SpannerMeter(task, connectorConfig, lowWatermarkSupplier);
 
         assertTrue(actualSpannerMeter.getCapturedTables().isEmpty());
         assertNull(actualSpannerMeter.getTaskUid());
@@ -79,7 +75,7 @@ class SpannerMeterTest {
     void testCaptureTable() {
         SpannerConnectorConfig connectorConfig = Mockito.mock(SpannerConnectorConfig.class);
 
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         spannerMeter.captureTable(new TableId("Catalog Name", "Schema Name", "Table Name"));
         assertEquals(1, spannerMeter.getCapturedTables().size());
     }
@@ -88,7 +84,7 @@ class SpannerMeterTest {
     void testReset() {
         SpannerConnectorConfig connectorConfig = Mockito.mock(SpannerConnectorConfig.class);
 
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         spannerMeter.captureTable(new TableId("Catalog Name", "Schema Name", "Table Name"));
         assertEquals(1, spannerMeter.getCapturedTables().size());
         spannerMeter.reset();
@@ -99,7 +95,7 @@ class SpannerMeterTest {
     void testGetTaskUid() {
         SpannerConnectorConfig connectorConfig = Mockito.mock(SpannerConnectorConfig.class);
 
-        assertNull(new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null).getTaskUid());
+        assertNull(new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null).getTaskUid());
     }
 
     private static Stream<Arguments> lowWatermarkLagProvider() {
@@ -114,7 +110,7 @@ class SpannerMeterTest {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
         when(connectorConfig.isLowWatermarkEnabled()).thenReturn(lowWatermarkEnabled);
         SpannerMeter spannerMeter = new SpannerMeter(
-                new SpannerConnectorTask(), connectorConfig, null, () -> Timestamp.ofTimeMicroseconds(0L));
+                new SpannerConnectorTask(), connectorConfig, () -> Timestamp.ofTimeMicroseconds(0L));
         Long lowWatermarkLag = spannerMeter.getLowWatermarkLag();
         if (expected == null) {
             assertNull(lowWatermarkLag);
@@ -135,7 +131,7 @@ class SpannerMeterTest {
     void testGetLowWatermark(Boolean lowWatermarkEnabled, Timestamp expected) throws InterruptedException {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
         when(connectorConfig.isLowWatermarkEnabled()).thenReturn(lowWatermarkEnabled);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null,
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig,
                 () -> Timestamp.ofTimeMicroseconds(0L));
         Timestamp lowWatermark = spannerMeter.getLowWatermark();
         assertEquals(expected, lowWatermark);
@@ -144,28 +140,28 @@ class SpannerMeterTest {
     @Test
     void testGetNumberOfPartitionsDetected() {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         assertEquals(0, spannerMeter.getNumberOfPartitionsDetected());
     }
 
     @Test
     void testGetNumberOfQueriesIssuedTotal() {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         assertEquals(0, spannerMeter.getNumberOfQueriesIssuedTotal());
     }
 
     @Test
     void testGetNumberOfActiveQueries() {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         assertEquals(0, spannerMeter.getNumberOfActiveQueries());
     }
 
     @Test
     void testGetErrorCount() {
         SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
-        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, null, () -> null);
+        SpannerMeter spannerMeter = new SpannerMeter(new SpannerConnectorTask(), connectorConfig, () -> null);
         assertEquals(0, spannerMeter.getErrorCount());
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.task.EpochOffsetHolder;
+import io.debezium.connector.spanner.task.TaskSyncContext;
+
+class TaskSyncContextSummaryTest {
+
+    @Test
+    void testSummaryOfContext() {
+        TaskState currentTaskState = taskState("task-0", 3, PartitionStateEnum.RUNNING, 1);
+        TaskState otherTaskState = taskState("task-1", 2, PartitionStateEnum.FINISHED, 0);
+        TaskSyncContext context = context(currentTaskState, Map.of("task-1", otherTaskState), 5, 100);
+
+        TaskSyncContextSummary summary = new TaskSyncContextSummary();
+        summary.update(context);
+
+        assertEquals(3, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(2, summary.getPartitionCount(PartitionStateEnum.FINISHED));
+        assertEquals(0, summary.getPartitionCount(PartitionStateEnum.CREATED));
+        assertEquals(1, summary.getSharedPartitionCount());
+        assertEquals(2, summary.getTaskCount());
+        assertEquals(5, summary.getRebalanceGenerationId());
+        assertEquals(100, summary.getEpochOffset());
+        assertTrue(summary.getSizeInBytes() > 6 * "token-task-0-0".length());
+    }
+
+    @Test
+    void testOnlyReplacedTaskStatesAreCountedAgain() {
+        TaskState currentTaskState = taskState("task-0", 3, PartitionStateEnum.RUNNING, 0);
+        Map<String, TaskState> taskStates = new HashMap<>();
+        taskStates.put("task-1", taskState("task-1", 2, PartitionStateEnum.RUNNING, 0));
+        taskStates.put("task-2", taskState("task-2", 4, PartitionStateEnum.SCHEDULED, 0));
+
+        TaskSyncContextSummary summary = new TaskSyncContextSummary();
+        summary.update(context(currentTaskState, Map.copyOf(taskStates), 1, 10));
+        long sizeInBytes = summary.getSizeInBytes();
+        assertEquals(5, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(4, summary.getPartitionCount(PartitionStateEnum.SCHEDULED));
+
+        // The current task finishes its partitions, task-2 leaves
+        taskStates.remove("task-2");
+        summary.update(context(taskState("task-0", 3, PartitionStateEnum.FINISHED, 0), Map.copyOf(taskStates), 2, 20));
+
+        assertEquals(2, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(3, summary.getPartitionCount(PartitionStateEnum.FINISHED));
+        assertEquals(0, summary.getPartitionCount(PartitionStateEnum.SCHEDULED));
+        assertEquals(2, summary.getTaskCount());
+        assertEquals(2, summary.getRebalanceGenerationId());
+        assertEquals(20, summary.getEpochOffset());
+        assertTrue(summary.getSizeInBytes() < sizeInBytes);
+
+        summary.reset();
+        assertEquals(0, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(0, summary.getTaskCount());
+    }
+
+    @Test
+    void testCurrentTaskStateWinsOverReceivedState() {
+        TaskState currentTaskState = taskState("task-0", 3, PartitionStateEnum.RUNNING, 0);
+        // A stale state of the current task received from the sync topic
+        TaskState staleTaskState = taskState("task-0", 1, PartitionStateEnum.CREATED, 0);
+
+        TaskSyncContextSummary summary = new TaskSyncContextSummary();
+        summary.update(context(currentTaskState, Map.of("task-0", staleTaskState), 1, 0));
+
+        assertEquals(3, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(0, summary.getPartitionCount(PartitionStateEnum.CREATED));
+        assertEquals(1, summary.getTaskCount());
+    }
+
+    @Test
+    void testTaskStateWithoutPartitions() {
+        TaskState currentTaskState = TaskState.builder().taskUid("task-0").build();
+        TaskState otherTaskState = taskState("task-1", 2, PartitionStateEnum.RUNNING, 1);
+
+        TaskSyncContextSummary summary = new TaskSyncContextSummary();
+        summary.update(context(currentTaskState, Map.of("task-1", otherTaskState), 1, 0));
+
+        assertEquals(2, summary.getPartitionCount(PartitionStateEnum.RUNNING));
+        assertEquals(1, summary.getSharedPartitionCount());
+        assertEquals(2, summary.getTaskCount());
+    }
+
+    private static TaskSyncContext context(TaskState currentTaskState, Map<String, TaskState> taskStates,
+                                           long rebalanceGenerationId, long epochOffset) {
+        return TaskSyncContext.builder()
+                .taskUid(currentTaskState.getTaskUid())
+                .currentTaskState(currentTaskState)
+                .taskStates(taskStates)
+                .rebalanceGenerationId(rebalanceGenerationId)
+                .epochOffsetHolder(new EpochOffsetHolder(epochOffset))
+                .build();
+    }
+
+    private static TaskState taskState(String taskUid, int partitions, PartitionStateEnum state, int sharedPartitions) {
+        return TaskState.builder()
+                .taskUid(taskUid)
+                .consumerId("consumer-" + taskUid)
+                .partitions(partitions(taskUid, partitions, state, ""))
+                .sharedPartitions(partitions(taskUid, sharedPartitions, PartitionStateEnum.CREATED, "shared-"))
+                .build();
+    }
+
+    private static List<PartitionState> partitions(String taskUid, int count, PartitionStateEnum state, String prefix) {
+        List<PartitionState> partitions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            partitions.add(PartitionState.builder()
+                    .token("token-" + prefix + taskUid + "-" + i)
+                    .state(state)
+                    .parents(Set.of("parent"))
+                    .assigneeTaskUid(taskUid)
+                    .build());
+        }
+        return partitions;
+    }
+}
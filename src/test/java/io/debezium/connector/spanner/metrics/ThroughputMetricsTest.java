@@ -0,0 +1,113 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ThroughputMetricsTest {
+
+    private static final int PARTITIONS = 5_000;
+    private static final int TABLES = 50;
+    private static final int TOP = 10;
+    private static final Duration RATE_INTERVAL = Duration.ofSeconds(10);
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void testSkewedWorkload() {
+        ThroughputMetrics partitions = new ThroughputMetrics(now::get, RATE_INTERVAL);
+        ThroughputMetrics tables = new ThroughputMetrics(now::get, RATE_INTERVAL);
+        Random random = new Random(3);
+
+        // The first read starts the rate interval of every key
+        for (int i = 0; i < PARTITIONS; i++) {
+            record(partitions, tables, i, 1, 100, now.get());
+        }
+        partitions.getTopByRecordsRate(TOP);
+        tables.getTopByRecordsRate(TOP);
+
+        // Half of the records go to the hot partition of the hot table,
+        // the lagging partition reads commits of a minute ago
+        int events = 200_000;
+        for (int i = 0; i < events; i++) {
+            int partition = random.nextBoolean() ? 0 : 1 + random.nextInt(PARTITIONS - 1);
+            long commitTimestamp = partition == 7 ? now.get() - 60_000 : now.get() - random.nextInt(100);
+            record(partitions, tables, partition, 1, partition == 0 ? 1_000 : 100, commitTimestamp);
+        }
+        now.addAndGet(RATE_INTERVAL.toMillis());
+
+        List<ThroughputSnapshot> topPartitions = partitions.getTopByRecordsRate(TOP);
+        assertEquals(TOP, topPartitions.size());
+        assertEquals("token-0", topPartitions.get(0).getKey());
+        assertEquals(events / 2, topPartitions.get(0).getRecordsPerSecond() * 10, events / 100);
+        for (int i = 1; i < topPartitions.size(); i++) {
+            assertTrue(topPartitions.get(i - 1).getRecordsPerSecond() >= topPartitions.get(i).getRecordsPerSecond());
+        }
+        assertEquals("token-0", partitions.getTopByBytesRate(TOP).get(0).getKey());
+
+        List<ThroughputSnapshot> laggingPartitions = partitions.getTopByLag(TOP);
+        assertEquals("token-7", laggingPartitions.get(0).getKey());
+        assertTrue(laggingPartitions.get(0).getLagMilliSeconds() >= 60_000);
+
+        List<ThroughputSnapshot> topTables = tables.getTopByRecordsRate(TOP);
+        assertEquals(TOP, topTables.size());
+        assertEquals("table-0", topTables.get(0).getKey());
+        assertEquals("table-7", tables.getTopByLag(TOP).get(0).getKey());
+
+        // Only the top keys are exposed, however many are tracked
+        assertEquals(PARTITIONS, partitions.size());
+        assertEquals(TABLES, tables.size());
+    }
+
+    @Test
+    void testRateIsKeptWithinInterval() {
+        ThroughputMetrics metrics = new ThroughputMetrics(now::get, RATE_INTERVAL);
+        metrics.record("token", 0, 0, now.get());
+        assertEquals(0.0, metrics.getTopByRecordsRate(TOP).get(0).getRecordsPerSecond());
+
+        metrics.record("token", 100, 10_000, now.get() - RATE_INTERVAL.toMillis());
+        now.addAndGet(RATE_INTERVAL.toMillis());
+        ThroughputSnapshot snapshot = metrics.getTopByRecordsRate(TOP).get(0);
+        assertEquals(10.0, snapshot.getRecordsPerSecond());
+        assertEquals(1_000.0, snapshot.getBytesPerSecond());
+        assertEquals(RATE_INTERVAL.toMillis(), snapshot.getLagMilliSeconds());
+
+        // Read again within the interval, the rate of the previous interval is kept
+        now.addAndGet(1_000);
+        snapshot = metrics.getTopByRecordsRate(TOP).get(0);
+        assertEquals(10.0, snapshot.getRecordsPerSecond());
+        assertEquals(RATE_INTERVAL.toMillis(), snapshot.getLagMilliSeconds());
+    }
+
+    @Test
+    void testRemoveFinishedPartition() {
+        ThroughputMetrics metrics = new ThroughputMetrics(now::get, RATE_INTERVAL);
+        metrics.record("token-1", 1, 100, now.get());
+        metrics.record("token-2", 1, 100, now.get());
+
+        metrics.remove("token-1");
+
+        assertEquals(1, metrics.size());
+        assertEquals("token-2", metrics.getTopByLag(TOP).get(0).getKey());
+
+        metrics.reset();
+        assertTrue(metrics.getTopByLag(TOP).isEmpty());
+    }
+
+    private static void record(ThroughputMetrics partitions, ThroughputMetrics tables, int partition, int records, long bytes,
+                               long commitTimestamp) {
+        partitions.record("token-" + partition, records, bytes, commitTimestamp);
+        tables.record("table-" + partition % TABLES, records, bytes, commitTimestamp);
+    }
+}
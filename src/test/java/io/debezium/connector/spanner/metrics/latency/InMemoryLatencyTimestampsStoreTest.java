@@ -0,0 +1,75 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.jupiter.api.Test;
+
+class InMemoryLatencyTimestampsStoreTest {
+
+    @Test
+    void testTimestampsKeptUntilRemoved() {
+        InMemoryLatencyTimestampsStore store = new InMemoryLatencyTimestampsStore(10);
+        SourceRecord record = record();
+
+        store.addEmitTimestamp(record, 1L);
+        store.addPollTimestamp(record, 2L);
+        store.addPublishTimestamp(record, 3L);
+
+        assertFalse(record.headers().iterator().hasNext());
+
+        LatencyTimestamps timestamps = store.remove(record);
+        assertEquals(1L, timestamps.getEmitAtTimestamp());
+        assertEquals(2L, timestamps.getPollAtTimestamp());
+        assertEquals(3L, timestamps.getPublishAtTimestamp());
+
+        assertNull(store.remove(record));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRecordsAreKeyedByIdentity() {
+        InMemoryLatencyTimestampsStore store = new InMemoryLatencyTimestampsStore(10);
+        SourceRecord first = record();
+        SourceRecord second = record();
+        assertEquals(first, second);
+
+        store.addEmitTimestamp(first, 1L);
+        store.addEmitTimestamp(second, 2L);
+
+        assertEquals(2, store.size());
+        assertEquals(1L, store.remove(first).getEmitAtTimestamp());
+        assertEquals(2L, store.remove(second).getEmitAtTimestamp());
+    }
+
+    @Test
+    void testNumberOfRecordsIsBounded() {
+        InMemoryLatencyTimestampsStore store = new InMemoryLatencyTimestampsStore(2);
+        SourceRecord third = record();
+
+        store.addEmitTimestamp(record(), 1L);
+        store.addEmitTimestamp(record(), 1L);
+        store.addEmitTimestamp(third, 1L);
+        store.addPublishTimestamp(third, 2L);
+
+        assertEquals(2, store.size());
+        assertNull(store.remove(third));
+
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    private static SourceRecord record() {
+        return new SourceRecord(Map.of("partitionToken", "token"), Map.of(), "Topic", Schema.STRING_SCHEMA, "Value");
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.metrics.latency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import com.datadoghq.sketch.ddsketch.DDSketch;
+import com.datadoghq.sketch.ddsketch.DDSketches;
+
+class QuantileRecorderTest {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+
+    @Test
+    void testEmptyRecorder() {
+        QuantileRecorder recorder = new QuantileRecorder(RELATIVE_ACCURACY);
+
+        assertEquals(0, recorder.getCount());
+        assertNull(recorder.getValueAtQuantile(0.5));
+        assertNull(recorder.getValuesAtQuantiles(QUANTILES)[2]);
+    }
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal latencies with some zero and negative values
+            int kind = random.nextInt(100);
+            values[i] = kind == 0 ? 0 : (long) Math.exp(5 + 2 * random.nextGaussian()) * (kind == 1 ? -1 : 1);
+        }
+
+        QuantileRecorder recorder = new QuantileRecorder(RELATIVE_ACCURACY);
+        DDSketch sketch = DDSketches.unboundedDense(RELATIVE_ACCURACY);
+        for (long value : values) {
+            recorder.record(value);
+            sketch.accept(value);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(values.length, recorder.getCount());
+        Double[] actual = recorder.getValuesAtQuantiles(0.0, 0.001, 0.01, 0.5, 0.95, 0.99, 1.0);
+        double[] quantiles = { 0.0, 0.001, 0.01, 0.5, 0.95, 0.99, 1.0 };
+        for (int i = 0; i < quantiles.length; i++) {
+            long expected = sorted[(int) Math.floor(quantiles[i] * (sorted.length - 1))];
+            assertWithinAccuracy(expected, actual[i], "quantile " + quantiles[i]);
+            // Both the recorder and the sketch are within the relative accuracy of the exact value
+            double sketchValue = sketch.getValueAtQuantile(quantiles[i]);
+            assertWithinAccuracy(sketchValue, actual[i], 2 * RELATIVE_ACCURACY / (1 - RELATIVE_ACCURACY), "sketch quantile " + quantiles[i]);
+        }
+    }
+
+    @Test
+    void testReset() {
+        QuantileRecorder recorder = new QuantileRecorder(RELATIVE_ACCURACY);
+        recorder.record(100);
+        recorder.record(Long.MAX_VALUE);
+        recorder.record(Long.MIN_VALUE);
+
+        assertEquals(3, recorder.getCount());
+        assertWithinAccuracy(Long.MAX_VALUE, recorder.getValueAtQuantile(1.0), "max");
+        assertWithinAccuracy(Long.MIN_VALUE, recorder.getValueAtQuantile(0.0), "min");
+
+        recorder.reset();
+
+        assertEquals(0, recorder.getCount());
+        assertNull(recorder.getValueAtQuantile(0.5));
+    }
+
+    @Test
+    void testBucketsAreAllocatedForRecordedRange() {
+        QuantileRecorder recorder = new QuantileRecorder(RELATIVE_ACCURACY);
+        assertEquals(0, recorder.getAllocatedCounters());
+
+        // Latencies of up to an hour in milliseconds
+        for (long value = 1; value <= 3_600_000; value += 997) {
+            recorder.record(value);
+        }
+        int counters = recorder.getAllocatedCounters();
+        assertTrue(counters > 0 && counters <= 1_024, "Allocated counters: " + counters);
+
+        recorder.record(Long.MAX_VALUE);
+        recorder.record(-1);
+        assertTrue(recorder.getAllocatedCounters() > counters);
+
+        recorder.reset();
+        assertEquals(0, recorder.getCount());
+        assertTrue(recorder.getAllocatedCounters() > counters);
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        QuantileRecorder recorder = new QuantileRecorder(RELATIVE_ACCURACY);
+        int threads = 8;
+        int valuesPerThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            writers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 1; i <= valuesPerThread; i++) {
+                    recorder.record(i);
+                }
+            });
+            writers[t].start();
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals((long) threads * valuesPerThread, recorder.getCount());
+        assertWithinAccuracy(valuesPerThread / 2, recorder.getValueAtQuantile(0.5), "median");
+    }
+
+    @Test
+    @Tag("performance")
+    void testStatisticsUpdateBenchmark(TestReporter testReporter) {
+        int iterations = 2_000_000;
+        long[] values = new long[1024];
+        Random random = new Random(11);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(5 + 2 * random.nextGaussian());
+        }
+
+        Statistics statistics = new Statistics(Duration.ofMinutes(1));
+        DDSketch sketch = DDSketches.unboundedDense(RELATIVE_ACCURACY);
+        for (int round = 0; round < 3; round++) {
+            long recorderNanos = measure(iterations, value -> statistics.update(value), values);
+            // Previous recording: a synchronized sketch fed with boxed values
+            long sketchNanos = measure(iterations, value -> {
+                Long boxed = value;
+                synchronized (sketch) {
+                    sketch.accept(boxed);
+                }
+            }, values);
+
+            testReporter.publishEntry(round == 0 ? "warmup" : "round " + round,
+                    String.format("Statistics.update: %.1f ns/value, synchronized sketch: %.1f ns/value",
+                            (double) recorderNanos / iterations, (double) sketchNanos / iterations));
+        }
+
+        Double p99 = statistics.getValueAtP99();
+        assertTrue(p99 != null && p99 > 0);
+    }
+
+    private interface ValueConsumer {
+        void accept(long value);
+    }
+
+    private static long measure(int iterations, ValueConsumer consumer, long[] values) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            consumer.accept(values[i & (values.length - 1)]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void assertWithinAccuracy(double expected, Double actual, String message) {
+        assertWithinAccuracy(expected, actual, RELATIVE_ACCURACY, message);
+    }
+
+    private static void assertWithinAccuracy(double expected, Double actual, double relativeAccuracy, String message) {
+        double tolerance = Math.abs(expected) * relativeAccuracy * 1.0001 + 1e-9;
+        assertTrue(actual != null && Math.abs(actual - expected) <= tolerance,
+                message + ": expected " + expected + ", actual " + actual);
+    }
+}
@@ -14,7 +14,7 @@ class StatisticsTest {
 
     @Test
     void updateAndReset() {
-        Statistics statistics = new Statistics(Duration.ofSeconds(10), null);
+        Statistics statistics = new Statistics(Duration.ofSeconds(10));
         statistics.update(148);
         statistics.update(197);
         statistics.update(98);
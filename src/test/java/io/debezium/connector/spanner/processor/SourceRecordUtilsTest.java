@@ -8,6 +8,7 @@ package io.debezium.connector.spanner.processor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -39,7 +40,45 @@ class SourceRecordUtilsTest {
 
     @Test
     void testFrom() {
-        assertFalse(SourceRecordUtils.from("1234").isEmpty());
+        assertFalse(SourceRecordUtils.from(1234L).isEmpty());
+    }
+
+    @Test
+    void testExtractNumericRecordUid() {
+        SourceRecord sourceRecord = mock(SourceRecord.class);
+        when(sourceRecord.headers()).thenReturn(SourceRecordUtils.from(1234L));
+        assertEquals(1234L, SourceRecordUtils.extractRecordUid(sourceRecord));
+        assertTrue(SourceRecordUtils.isDataChangeRecord(sourceRecord));
+    }
+
+    @Test
+    void testExtractLegacyRecordUid() {
+        SourceRecord sourceRecord = mock(SourceRecord.class);
+        when(sourceRecord.headers()).thenReturn(SourceRecordUtils.from("aaaaaaba"));
+        assertEquals(27L, SourceRecordUtils.extractRecordUid(sourceRecord));
+
+        SourceRecord watermarkRecord = mock(SourceRecord.class);
+        when(watermarkRecord.headers()).thenReturn(SourceRecordUtils.from("watermark-1234"));
+        assertNull(SourceRecordUtils.extractRecordUid(watermarkRecord));
+        assertTrue(SourceRecordUtils.isDataChangeRecord(watermarkRecord));
+    }
+
+    @Test
+    void testDecodeLegacyRecordUid() {
+        assertEquals(1L, SourceRecordUtils.decodeLegacyRecordUid("aaaaaaaa"));
+        assertEquals(2L, SourceRecordUtils.decodeLegacyRecordUid("aaaaaaab"));
+        assertEquals(26L, SourceRecordUtils.decodeLegacyRecordUid("aaaaaaaz"));
+        assertEquals(27L, SourceRecordUtils.decodeLegacyRecordUid("aaaaaaba"));
+
+        // The sequence continues past "zzzzzzzz" by appending letters
+        long last = SourceRecordUtils.decodeLegacyRecordUid("zzzzzzzz");
+        assertEquals(last + 1, SourceRecordUtils.decodeLegacyRecordUid("zzzzzzzza"));
+        assertEquals(last + 26, SourceRecordUtils.decodeLegacyRecordUid("zzzzzzzzz"));
+        assertEquals(last + 27, SourceRecordUtils.decodeLegacyRecordUid("zzzzzzzzza"));
+
+        assertNull(SourceRecordUtils.decodeLegacyRecordUid("header"));
+        assertNull(SourceRecordUtils.decodeLegacyRecordUid("aaaaaaaA"));
+        assertNull(SourceRecordUtils.decodeLegacyRecordUid("aaaaaaaaa"));
     }
 
     @Test
@@ -85,7 +124,7 @@ class SourceRecordUtilsTest {
 
     @Test
     void testExtractPublishTimestamp() {
-        ConnectHeaders fromResult = SourceRecordUtils.from("1234");
+        ConnectHeaders fromResult = SourceRecordUtils.from(1234L);
         fromResult.addLong("publishAtTimestamp", 42L);
         SourceRecord sourceRecord = mock(SourceRecord.class);
         when(sourceRecord.headers()).thenReturn(fromResult);
@@ -94,7 +133,7 @@ class SourceRecordUtilsTest {
 
     @Test
     void testExtractPollTimestamp() {
-        ConnectHeaders fromResult = SourceRecordUtils.from("1234");
+        ConnectHeaders fromResult = SourceRecordUtils.from(1234L);
         fromResult.addLong("pollAtTimestamp", 42L);
         SourceRecord sourceRecord = mock(SourceRecord.class);
         when(sourceRecord.headers()).thenReturn(fromResult);
@@ -64,7 +64,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.getString((Field) any())).thenReturn("String");
         when(config.asProperties()).thenReturn(new Properties());
         SpannerChangeRecordEmitter actualSpannerChangeRecordEmitter = new SpannerChangeRecordEmitter(
-                "1234", ModType.INSERT, mod, initialSpannerPartition, mock(SpannerOffsetContext.class), mock(Clock.class),
+                1234L, ModType.INSERT, mod, initialSpannerPartition, mock(SpannerOffsetContext.class), mock(Clock.class),
                 new SpannerConnectorConfig(config));
 
         SpannerPartition partition = actualSpannerChangeRecordEmitter.getPartition();
@@ -94,7 +94,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.asProperties()).thenReturn(new Properties());
         assertEquals(expected,
                 new SpannerChangeRecordEmitter(
-                        "1234", modType, mod, SpannerPartition.getInitialSpannerPartition(),
+                        1234L, modType, mod, SpannerPartition.getInitialSpannerPartition(),
                         mock(SpannerOffsetContext.class), mock(Clock.class), new SpannerConnectorConfig(config)).getOperation());
     }
 
@@ -114,7 +114,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.getString((Field) any())).thenReturn("String");
         when(config.asProperties()).thenReturn(new Properties());
 
-        SpannerChangeRecordEmitter spannerChangeRecordEmitter = spy(new SpannerChangeRecordEmitter("1234", ModType.INSERT,
+        SpannerChangeRecordEmitter spannerChangeRecordEmitter = spy(new SpannerChangeRecordEmitter(1234L, ModType.INSERT,
                 mod, SpannerPartition.getInitialSpannerPartition(), spannerOffsetContext, clock, new SpannerConnectorConfig(config)));
         Function<Mod, Struct> function = (Function<Mod, Struct>) mock(Function.class);
         when(function.apply(any())).thenThrow(new IllegalArgumentException());
@@ -163,7 +163,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.getString((Field) any())).thenReturn("String");
         when(config.asProperties()).thenReturn(new Properties());
 
-        SpannerChangeRecordEmitter spannerChangeRecordEmitter = spy(new SpannerChangeRecordEmitter("1234", ModType.INSERT,
+        SpannerChangeRecordEmitter spannerChangeRecordEmitter = spy(new SpannerChangeRecordEmitter(1234L, ModType.INSERT,
                 mod, SpannerPartition.getInitialSpannerPartition(), spannerOffsetContext, clock, new SpannerConnectorConfig(config)));
         Function<Mod, Struct> function = (Function<Mod, Struct>) mock(Function.class);
         when(function.apply(any())).thenThrow(new IllegalArgumentException());
@@ -208,7 +208,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.getString((Field) any())).thenReturn("String");
         when(config.asProperties()).thenReturn(new Properties());
 
-        SpannerChangeRecordEmitter spannerChangeRecordEmitter = new SpannerChangeRecordEmitter("1234", ModType.INSERT,
+        SpannerChangeRecordEmitter spannerChangeRecordEmitter = new SpannerChangeRecordEmitter(1234L, ModType.INSERT,
                 mod, SpannerPartition.getInitialSpannerPartition(), spannerOffsetContext, clock, new SpannerConnectorConfig(config));
         TableId id = TableId.getTableId("Table Name");
         ConnectSchema keySchema = new ConnectSchema(Schema.Type.INT8);
@@ -240,7 +240,7 @@ class SpannerChangeRecordEmitterTest {
         when(config.getString((Field) any())).thenReturn("String");
         when(config.asProperties()).thenReturn(new Properties());
 
-        SpannerChangeRecordEmitter spannerChangeRecordEmitter = new SpannerChangeRecordEmitter("1234", ModType.INSERT,
+        SpannerChangeRecordEmitter spannerChangeRecordEmitter = new SpannerChangeRecordEmitter(1234L, ModType.INSERT,
                 mod, SpannerPartition.getInitialSpannerPartition(), mock(SpannerOffsetContext.class), mock(Clock.class), new SpannerConnectorConfig(config));
         TableId id = TableId.getTableId("Table Name");
         ConnectSchema keySchema = new ConnectSchema(Schema.Type.INT8);
@@ -5,24 +5,52 @@
  */
 package io.debezium.connector.spanner.schema;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.kafka.connect.data.ConnectSchema;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.cloud.spanner.Dialect;
+
+import io.debezium.connector.spanner.BeforeImageMode;
+import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.config.SpannerColumnFilter;
 import io.debezium.connector.spanner.db.dao.SchemaDao;
 import io.debezium.connector.spanner.db.metadata.SchemaRegistry;
 import io.debezium.connector.spanner.db.metadata.TableId;
+import io.debezium.connector.spanner.db.mapper.MapperUtils;
+import io.debezium.connector.spanner.db.model.LazyJsonNode;
+import io.debezium.connector.spanner.db.model.Mod;
+import io.debezium.connector.spanner.db.model.schema.Column;
 import io.debezium.connector.spanner.db.model.schema.TableSchema;
+import io.debezium.connector.spanner.schema.mapper.FieldJsonNodeValueMapper;
 import io.debezium.schema.SchemaNameAdjuster;
 
 class KafkaSpannerTableSchemaFactoryTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String[] COLUMN_TYPES = { "INT64", "STRING", "FLOAT64", "BOOL" };
+
     @Test
     void testGetTableSchema() {
         SchemaNameAdjuster schemaNameAdjuster = mock(SchemaNameAdjuster.class);
@@ -36,4 +64,243 @@ class KafkaSpannerTableSchemaFactoryTest {
 
         assertNotNull(kafkaSpannerTableSchemaFactory.getTableSchema(TableId.getTableId("Table Name")));
     }
+
+    @Test
+    void testStructsFromMod() {
+        TableSchema table = new TableSchema("Table", List.of(
+                Column.create("id", "INT64", true, 1, false, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("name", "STRING", false, 2, true, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("score", "FLOAT64", false, 3, true, Dialect.GOOGLE_STANDARD_SQL)));
+        KafkaSpannerTableSchema tableSchema = getTableSchema(table);
+
+        ObjectNode keys = OBJECT_MAPPER.createObjectNode().put("id", "1");
+        // The values are not in the column order and contain a column, which is not watched
+        ObjectNode newValues = OBJECT_MAPPER.createObjectNode().put("score", 2.5).put("other", "x").put("name", "n");
+        ObjectNode oldValues = OBJECT_MAPPER.createObjectNode().put("score", 1.5);
+        Mod mod = new Mod(0, keys, oldValues, newValues);
+
+        Struct key = tableSchema.getKeyStructFromMod(mod);
+        assertEquals(1L, key.get("id"));
+
+        Struct newValue = tableSchema.getNewValueStructFromMod(mod);
+        assertEquals(1L, newValue.get("id"));
+        assertEquals("n", newValue.get("name"));
+        assertEquals(2.5, newValue.get("score"));
+
+        Struct oldValue = tableSchema.getOldValueStructFromMod(mod);
+        assertEquals(1L, oldValue.get("id"));
+        assertNull(oldValue.get("name"));
+        assertEquals(1.5, oldValue.get("score"));
+
+        // The same structs are read from the JSON text, which is not parsed yet
+        Mod rawMod = new Mod(0, LazyJsonNode.of(keys.toString(), MapperUtils::getJsonNode),
+                LazyJsonNode.of(oldValues.toString(), MapperUtils::getJsonNode), LazyJsonNode.of(newValues.toString(), MapperUtils::getJsonNode));
+        assertEquals(key, tableSchema.getKeyStructFromMod(rawMod));
+        assertEquals(newValue, tableSchema.getNewValueStructFromMod(rawMod));
+        assertEquals(oldValue, tableSchema.getOldValueStructFromMod(rawMod));
+        assertFalse(rawMod.isParsed());
+    }
+
+    @Test
+    void testProjectedColumns() {
+        TableSchema table = new TableSchema("Table", List.of(
+                Column.create("id", "INT64", true, 1, false, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("name", "STRING", false, 2, true, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("photo", "BYTES", false, 3, true, Dialect.GOOGLE_STANDARD_SQL)));
+        SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
+        when(connectorConfig.columnIncludeList()).thenReturn("Table\\.name");
+        KafkaSpannerTableSchema tableSchema = getTableSchema(table, new SpannerColumnFilter(connectorConfig));
+
+        assertEquals(List.of("id", "name"),
+                tableSchema.valueSchema().fields().stream().map(Field::name).collect(Collectors.toList()));
+        assertEquals(List.of("id"), tableSchema.keySchema().fields().stream().map(Field::name).collect(Collectors.toList()));
+
+        // The value of the projected out column is not valid Base64, so it would fail if it was decoded
+        Mod mod = new Mod(0, LazyJsonNode.of("{\"id\":\"1\"}", MapperUtils::getJsonNode), LazyJsonNode.of(null, MapperUtils::getJsonNode),
+                LazyJsonNode.of("{\"name\":\"n\",\"photo\":\"!\"}", MapperUtils::getJsonNode));
+        Struct value = tableSchema.getNewValueStructFromMod(mod);
+        assertEquals(1L, value.get("id"));
+        assertEquals("n", value.get("name"));
+    }
+
+    @Test
+    void testBeforeImageModes() {
+        TableSchema table = new TableSchema("Table", List.of(
+                Column.create("id", "INT64", true, 1, false, Dialect.GOOGLE_STANDARD_SQL),
+                Column.create("name", "STRING", false, 2, true, Dialect.GOOGLE_STANDARD_SQL)));
+
+        Struct oldValue = getTableSchema(table, BeforeImageMode.FULL).getOldValueStructFromMod(updateMod());
+        assertEquals(1L, oldValue.get("id"));
+        assertEquals("old", oldValue.get("name"));
+
+        // The old values are not valid JSON, so they would fail if they were parsed
+        Mod mod = updateMod("{");
+        oldValue = getTableSchema(table, BeforeImageMode.KEYS_ONLY).getOldValueStructFromMod(mod);
+        assertEquals(1L, oldValue.get("id"));
+        assertNull(oldValue.get("name"));
+        assertFalse(mod.oldValues().isParsed());
+
+        mod = updateMod("{");
+        assertNull(getTableSchema(table, BeforeImageMode.NONE).getOldValueStructFromMod(mod));
+        assertFalse(mod.oldValues().isParsed());
+        assertEquals("new", getTableSchema(table, BeforeImageMode.NONE).getNewValueStructFromMod(mod).get("name"));
+    }
+
+    @Test
+    void testBeforeImageModeRecordSize() {
+        int columns = 50;
+        int mods = 200;
+
+        List<Column> tableColumns = new ArrayList<>();
+        tableColumns.add(Column.create("id", "INT64", true, 0, false, Dialect.GOOGLE_STANDARD_SQL));
+        for (int i = 0; i < columns; i++) {
+            tableColumns.add(Column.create("column" + i, "STRING", false, i + 1, true, Dialect.GOOGLE_STANDARD_SQL));
+        }
+        TableSchema table = new TableSchema("Table", tableColumns);
+
+        // Updates of a single column with the full old row, as NEW_ROW_AND_OLD_VALUES style streams send them
+        List<String[]> rows = new ArrayList<>();
+        for (int m = 0; m < mods; m++) {
+            ObjectNode oldValues = OBJECT_MAPPER.createObjectNode();
+            for (int i = 0; i < columns; i++) {
+                oldValues.put("column" + i, "value" + i + "-" + m);
+            }
+            rows.add(new String[]{ OBJECT_MAPPER.createObjectNode().put("id", String.valueOf(m)).toString(), oldValues.toString(),
+                    OBJECT_MAPPER.createObjectNode().put("column0", "updated" + m).toString() });
+        }
+
+        long fullBytes = 0;
+        for (BeforeImageMode mode : BeforeImageMode.values()) {
+            KafkaSpannerTableSchema tableSchema = getTableSchema(table, mode);
+            long bytes = 0;
+            for (Mod mod : toUpdateMods(rows)) {
+                bytes += estimatedSize(tableSchema.getOldValueStructFromMod(mod)) + estimatedSize(tableSchema.getNewValueStructFromMod(mod));
+            }
+
+            if (mode == BeforeImageMode.FULL) {
+                fullBytes = bytes;
+            }
+            else {
+                assertTrue(bytes < fullBytes, mode + " " + bytes + " bytes, FULL " + fullBytes + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void testColumnPlanMatchesLookupByName() {
+        int columns = 200;
+        int mods = 200;
+
+        List<Column> tableColumns = new ArrayList<>();
+        tableColumns.add(Column.create("id", "INT64", true, 0, false, Dialect.GOOGLE_STANDARD_SQL));
+        for (int i = 0; i < columns; i++) {
+            tableColumns.add(Column.create("column" + i, COLUMN_TYPES[i % COLUMN_TYPES.length], false, i + 1, true,
+                    Dialect.GOOGLE_STANDARD_SQL));
+        }
+        TableSchema table = new TableSchema("Table", tableColumns);
+        KafkaSpannerTableSchema tableSchema = getTableSchema(table);
+
+        List<String[]> rows = new ArrayList<>();
+        for (int m = 0; m < mods; m++) {
+            ObjectNode keys = OBJECT_MAPPER.createObjectNode().put("id", String.valueOf(m));
+            ObjectNode values = OBJECT_MAPPER.createObjectNode();
+            for (int i = 0; i < columns; i++) {
+                switch (i % COLUMN_TYPES.length) {
+                    case 0:
+                        values.put("column" + i, String.valueOf(m + i));
+                        break;
+                    case 1:
+                        values.put("column" + i, "value" + i);
+                        break;
+                    case 2:
+                        values.put("column" + i, m * 0.5);
+                        break;
+                    default:
+                        values.put("column" + i, i % 2 == 0);
+                }
+            }
+            rows.add(new String[]{ keys.toString(), values.toString() });
+        }
+
+        for (Mod mod : toMods(rows)) {
+            assertEquals(legacyNewValueStruct(tableSchema.valueSchema(), table, mod), tableSchema.getNewValueStructFromMod(mod));
+        }
+    }
+
+    private static List<Mod> toMods(List<String[]> rows) {
+        List<Mod> mods = new ArrayList<>(rows.size());
+        for (int m = 0; m < rows.size(); m++) {
+            mods.add(new Mod(m, LazyJsonNode.of(rows.get(m)[0], MapperUtils::getJsonNode),
+                    LazyJsonNode.of(null, MapperUtils::getJsonNode), LazyJsonNode.of(rows.get(m)[1], MapperUtils::getJsonNode)));
+        }
+        return mods;
+    }
+
+    private static List<Mod> toUpdateMods(List<String[]> rows) {
+        List<Mod> mods = new ArrayList<>(rows.size());
+        for (int m = 0; m < rows.size(); m++) {
+            mods.add(new Mod(m, LazyJsonNode.of(rows.get(m)[0], MapperUtils::getJsonNode),
+                    LazyJsonNode.of(rows.get(m)[1], MapperUtils::getJsonNode), LazyJsonNode.of(rows.get(m)[2], MapperUtils::getJsonNode)));
+        }
+        return mods;
+    }
+
+    private static Mod updateMod(String oldValues) {
+        return new Mod(0, LazyJsonNode.of("{\"id\":\"1\"}", MapperUtils::getJsonNode), LazyJsonNode.of(oldValues, MapperUtils::getJsonNode),
+                LazyJsonNode.of("{\"name\":\"new\"}", MapperUtils::getJsonNode));
+    }
+
+    private static Mod updateMod() {
+        return updateMod("{\"name\":\"old\"}");
+    }
+
+    // Size of the struct in a schemaless JSON record, the field names and the values as text
+    private static long estimatedSize(Struct struct) {
+        if (struct == null) {
+            return 4;
+        }
+        long size = 2;
+        for (Field field : struct.schema().fields()) {
+            Object value = struct.get(field);
+            size += field.name().length() + 4 + (value == null ? 4 : value.toString().length() + 2);
+        }
+        return size;
+    }
+
+    private KafkaSpannerTableSchema getTableSchema(TableSchema table) {
+        return getTableSchema(table, SpannerColumnFilter.INCLUDE_ALL, BeforeImageMode.FULL);
+    }
+
+    private KafkaSpannerTableSchema getTableSchema(TableSchema table, SpannerColumnFilter columnFilter) {
+        return getTableSchema(table, columnFilter, BeforeImageMode.FULL);
+    }
+
+    private KafkaSpannerTableSchema getTableSchema(TableSchema table, BeforeImageMode beforeImageMode) {
+        return getTableSchema(table, SpannerColumnFilter.INCLUDE_ALL, beforeImageMode);
+    }
+
+    private KafkaSpannerTableSchema getTableSchema(TableSchema table, SpannerColumnFilter columnFilter, BeforeImageMode beforeImageMode) {
+        SchemaNameAdjuster schemaNameAdjuster = mock(SchemaNameAdjuster.class);
+        SchemaRegistry schemaRegistry = spy(new SchemaRegistry("Stream Name", new SchemaDao(null), mock(Runnable.class)));
+        doReturn(table).when(schemaRegistry).getWatchedTable(any());
+
+        KafkaSpannerTableSchemaFactory kafkaSpannerTableSchemaFactory = spy(new KafkaSpannerTableSchemaFactory(null,
+                schemaNameAdjuster, schemaRegistry, new ConnectSchema(Schema.Type.INT8), columnFilter, beforeImageMode));
+        doReturn(null).when(kafkaSpannerTableSchemaFactory).buildEnvelope(any(), any());
+
+        return kafkaSpannerTableSchemaFactory.getTableSchema(TableId.getTableId(table.getName()));
+    }
+
+    // The struct generator, which looked up the fields and the values by column name
+    private static Struct legacyNewValueStruct(Schema valueSchema, TableSchema table, Mod mod) {
+        Struct valueStruct = new Struct(valueSchema);
+        table.columns().forEach(column -> {
+            Field field = valueSchema.field(column.getName());
+            JsonNode node = mod.getNewValueNode(column.getName());
+            if (node != null) {
+                valueStruct.put(field, FieldJsonNodeValueMapper.getValue(field, node));
+            }
+        });
+        return valueStruct;
+    }
 }
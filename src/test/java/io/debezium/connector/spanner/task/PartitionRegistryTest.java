@@ -0,0 +1,413 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.task;
+
+import static io.debezium.connector.spanner.task.TaskStateUtil.inProgressPartitionState;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+
+import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.db.stream.ChangeStream;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
+import io.debezium.connector.spanner.task.operation.RemoveFinishedPartitionOperation;
+import io.debezium.connector.spanner.task.operation.TakePartitionForStreamingOperation;
+
+class PartitionRegistryTest {
+
+    private static final String TASK_UID = "task-0";
+    private static final PartitionStateEnum[] STATES = PartitionStateEnum.values();
+
+    @Test
+    void testPersistentHashMapWithCollidingKeys() {
+        // "Aa" and "BB" have the same hash code
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer> empty()
+                .put("Aa", 1)
+                .put("BB", 2)
+                .put("C", 3);
+        PersistentHashMap<String, Integer> removed = map.remove("Aa");
+
+        assertEquals(3, map.size());
+        assertEquals(1, (int) map.get("Aa"));
+        assertEquals(2, (int) map.get("BB"));
+        assertEquals(2, removed.size());
+        assertNull(removed.get("Aa"));
+        assertEquals(2, (int) removed.get("BB"));
+        assertSame(map, map.put("C", 3));
+        assertSame(removed, removed.remove("Aa"));
+        assertTrue(removed.remove("BB").remove("C").isEmpty());
+    }
+
+    @Test
+    void testRegistryMatchesTaskStatesAfterRandomChanges() {
+        Random random = new Random(13);
+        Map<String, TaskState> taskStates = new HashMap<>();
+        for (int task = 1; task < 5; task++) {
+            taskStates.put("task-" + task, randomTaskState(random, "task-" + task));
+        }
+        TaskSyncContext context = TaskSyncContext.builder()
+                .taskUid(TASK_UID)
+                .currentTaskState(randomTaskState(random, TASK_UID))
+                .taskStates(Map.copyOf(taskStates))
+                .build();
+        assertMatches(context);
+
+        for (int i = 0; i < 300; i++) {
+            String taskUid = "task-" + random.nextInt(6);
+            TaskState taskState = TASK_UID.equals(taskUid) ? context.getCurrentTaskState() : taskStates.get(taskUid);
+            switch (random.nextInt(4)) {
+                case 0:
+                    taskState = randomTaskState(random, taskUid);
+                    break;
+                case 1:
+                    taskState = taskStates.containsKey(taskUid) ? null : taskState;
+                    break;
+                default:
+                    taskState = taskState == null ? null : changePartitions(random, taskState);
+                    break;
+            }
+
+            if (TASK_UID.equals(taskUid)) {
+                if (taskState != null) {
+                    context = context.toBuilder().currentTaskState(taskState).build();
+                }
+                else {
+                    // A stale state of the current task received from the sync topic
+                    taskStates.put(TASK_UID, randomTaskState(random, TASK_UID));
+                    context = context.toBuilder().taskStates(Map.copyOf(taskStates)).build();
+                }
+            }
+            else {
+                if (taskState == null) {
+                    taskStates.remove(taskUid);
+                }
+                else {
+                    taskStates.put(taskUid, taskState);
+                }
+                context = context.toBuilder().taskStates(Map.copyOf(taskStates)).build();
+            }
+            assertMatches(context);
+        }
+
+        assertSame(context.getPartitionRegistry(), context.toBuilder().isLeader(true).build().getPartitionRegistry());
+    }
+
+    /**
+     * The operations run by a task on every task state change in a connector with 50 tasks and 20,000 partitions,
+     * while the state of one of the other tasks is changed before every run
+     */
+    @Test
+    void testOperationChainWithLargeContext() {
+        int tasks = 50;
+        int partitionsPerTask = 400;
+        int iterations = 20;
+        Random random = new Random(29);
+
+        Map<String, TaskState> taskStates = new HashMap<>();
+        for (int task = 1; task < tasks; task++) {
+            taskStates.put("task-" + task, largeTaskState("task-" + task, partitionsPerTask));
+        }
+        // The children of the partitions finished by the current task are still running in task-2
+        Map<String, PartitionState> children = new HashMap<>(taskStates.get("task-2").getPartitionsMap());
+        for (int i = 0; i < 10; i++) {
+            String token = "token-task-2-" + i;
+            children.put(token, children.get(token).toBuilder().parents(Set.of("token-finished-" + i)).build());
+        }
+        taskStates.put("task-2", taskStates.get("task-2").toBuilder().partitionsMap(children).build());
+        // The current task streams partitions, which are ready for streaming, and removes the finished ones
+        List<PartitionState> partitions = new ArrayList<>(largeTaskState(TASK_UID, partitionsPerTask - 30).getPartitions());
+        for (int i = 0; i < 20; i++) {
+            // The half of them is streamed already by task-1
+            String token = i % 2 == 0 ? "token-task-1-" + i : "token-ready-" + i;
+            partitions.add(partition(token, PartitionStateEnum.READY_FOR_STREAMING, Set.of("parent-" + i)));
+        }
+        for (int i = 0; i < 10; i++) {
+            partitions.add(partition("token-finished-" + i, PartitionStateEnum.FINISHED, Set.of("parent-" + i)).toBuilder()
+                    .finishedTimestamp(Timestamp.ofTimeSecondsAndNanos(1_000, 0))
+                    .build());
+        }
+        TaskState currentTaskState = TaskState.builder()
+                .taskUid(TASK_UID)
+                .partitions(partitions)
+                .sharedPartitions(List.of())
+                .build();
+        TaskSyncContext context = TaskSyncContext.builder()
+                .taskUid(TASK_UID)
+                .currentTaskState(currentTaskState)
+                .taskStates(Map.copyOf(taskStates))
+                .build();
+
+        ChangeStream changeStream = mock(ChangeStream.class);
+        when(changeStream.submitPartition(any())).thenReturn(true);
+        PartitionFactory partitionFactory = mock(PartitionFactory.class);
+        SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
+        when(connectorConfig.getFinishedPartitionDeletionDelay()).thenReturn(Duration.ZERO);
+        SpannerEventDispatcher dispatcher = mock(SpannerEventDispatcher.class);
+
+        for (int i = 0; i < iterations; i++) {
+            String taskUid = "task-" + (3 + random.nextInt(tasks - 3));
+            taskStates.put(taskUid, changeState(random, taskStates.get(taskUid)));
+            Map<String, TaskState> receivedTaskStates = Map.copyOf(taskStates);
+
+            TaskSyncContext updated = context.toBuilder().taskStates(receivedTaskStates).build();
+            TaskSyncContext result = new TakePartitionForStreamingOperation(changeStream, partitionFactory).doOperation(updated);
+            result = new RemoveFinishedPartitionOperation(dispatcher, connectorConfig).doOperation(result);
+            int numPartitions = result.getNumPartitions() + result.getNumSharedPartitions();
+            boolean duplication = result.checkDuplication(false, "benchmark");
+            boolean existing = TaskStateUtil.allPartitionTokens(result).contains("token-ready-1");
+
+            // The same results, computed by full scans of the task states
+            int scannedPartitions = scanNumPartitions(result) + scanNumSharedPartitions(result);
+            boolean scannedDuplication = scanDuplication(result);
+            boolean scannedExisting = scanAllPartitionTokens(result).contains("token-ready-1");
+            Set<String> streaming = new HashSet<>();
+            Set<String> finished = new HashSet<>();
+            for (PartitionState partitionState : updated.getCurrentTaskState().getPartitions()) {
+                if (partitionState.getState() == PartitionStateEnum.READY_FOR_STREAMING
+                        && scanPartitionStreamingAlready(updated, partitionState.getToken())) {
+                    streaming.add(partitionState.getToken());
+                }
+                if (partitionState.getState() == PartitionStateEnum.FINISHED
+                        && scanAllChildrenFinished(updated, partitionState.getToken())) {
+                    finished.add(partitionState.getToken());
+                }
+            }
+
+            assertEquals(scannedPartitions, numPartitions);
+            assertEquals(scannedDuplication, duplication);
+            assertEquals(scannedExisting, existing);
+            assertEquals(10, streaming.size());
+            assertTrue(finished.isEmpty());
+            Map<PartitionStateEnum, Long> states = result.getCurrentTaskState().getPartitions().stream()
+                    .collect(Collectors.groupingBy(PartitionState::getState, Collectors.counting()));
+            assertEquals(10, (long) states.get(PartitionStateEnum.SCHEDULED));
+            assertEquals(10, (long) states.get(PartitionStateEnum.FINISHED));
+            assertFalse(states.containsKey(PartitionStateEnum.READY_FOR_STREAMING));
+        }
+    }
+
+    private static void assertMatches(TaskSyncContext context) {
+        PartitionRegistry registry = context.getPartitionRegistry();
+        Set<String> tokens = scanAllPartitionTokens(context);
+        assertEquals(tokens, new HashSet<>(registry.getTokens()));
+        assertEquals(scanNumPartitions(context), registry.getNumPartitions());
+        assertEquals(scanNumSharedPartitions(context), registry.getNumSharedPartitions());
+        assertEquals(scanDuplication(context), context.checkDuplication(false, "test"));
+
+        List<PartitionState> owned = context.getAllTaskStates().values().stream()
+                .flatMap(taskState -> taskState.getPartitions().stream())
+                .collect(Collectors.toList());
+        List<PartitionState> all = allPartitionStates(context);
+        for (PartitionStateEnum state : STATES) {
+            assertEquals(owned.stream().filter(p -> p.getState() == state).map(PartitionState::getToken).collect(Collectors.toSet()),
+                    new HashSet<>(registry.getOwnedTokens(state)));
+        }
+        assertEquals(all.stream().filter(p -> inProgressPartitionState(p.getState())).map(PartitionState::getToken).distinct().count(),
+                registry.getNumInProgressTokens());
+        assertEquals(all.stream().filter(p -> !inProgressPartitionState(p.getState())).map(PartitionState::getToken).distinct().count(),
+                registry.getNumFinishedTokens());
+        for (int parent = 0; parent < 20; parent++) {
+            String parentToken = "token-" + parent;
+            assertEquals(all.stream().filter(p -> p.getParents().contains(parentToken)).map(PartitionState::getToken).collect(Collectors.toSet()),
+                    registry.getChildren(parentToken));
+        }
+        for (String token : tokens) {
+            assertEquals(all.stream().filter(p -> p.getToken().equals(token)).map(PartitionState::toString).sorted().collect(Collectors.toList()),
+                    registry.getEntries(token).stream().map(entry -> entry.getPartitionState().toString()).sorted().collect(Collectors.toList()));
+        }
+
+        // The incrementally updated registry is the same as the registry built from scratch
+        PartitionRegistry rebuilt = PartitionRegistry.EMPTY.update(context.getTaskStates(), context.getCurrentTaskState());
+        assertEquals(rebuilt.getNumPartitions(), registry.getNumPartitions());
+        assertEquals(rebuilt.getDuplicatedPartitions(), registry.getDuplicatedPartitions());
+        assertEquals(rebuilt.getDuplicatedSharedPartitions(), registry.getDuplicatedSharedPartitions());
+    }
+
+    private static TaskState randomTaskState(Random random, String taskUid) {
+        Map<String, PartitionState> partitions = new HashMap<>();
+        Map<String, PartitionState> sharedPartitions = new HashMap<>();
+        int count = random.nextInt(30);
+        for (int i = 0; i < count; i++) {
+            PartitionState partition = randomPartition(random);
+            if (random.nextInt(5) == 0) {
+                sharedPartitions.put(partition.getToken(), partition);
+            }
+            else {
+                partitions.put(partition.getToken(), partition);
+            }
+        }
+        return TaskState.builder()
+                .taskUid(taskUid)
+                .partitionsMap(partitions)
+                .sharedPartitionsMap(sharedPartitions)
+                .build();
+    }
+
+    private static PartitionState randomPartition(Random random) {
+        int token = random.nextInt(100);
+        Set<String> parents = token % 9 == 0
+                ? Set.of("token-" + random.nextInt(20), "token-" + (20 + random.nextInt(20)))
+                : Set.of("token-" + random.nextInt(20));
+        return partition("token-" + token, STATES[random.nextInt(STATES.length)], parents);
+    }
+
+    // Adds, changes, shares and removes a few partitions, the other partition states are kept
+    private static TaskState changePartitions(Random random, TaskState taskState) {
+        Map<String, PartitionState> partitions = new HashMap<>(taskState.getPartitionsMap());
+        Map<String, PartitionState> sharedPartitions = new HashMap<>(taskState.getSharedPartitionsMap());
+        int changes = 1 + random.nextInt(3);
+        for (int c = 0; c < changes; c++) {
+            List<String> tokens = new ArrayList<>(partitions.keySet());
+            String token = tokens.isEmpty() ? null : tokens.get(random.nextInt(tokens.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    PartitionState added = randomPartition(random);
+                    partitions.put(added.getToken(), added);
+                    break;
+                case 1:
+                    if (token != null) {
+                        sharedPartitions.put(token, partitions.remove(token));
+                    }
+                    break;
+                case 2:
+                    if (token != null) {
+                        partitions.remove(token);
+                    }
+                    break;
+                default:
+                    if (token != null) {
+                        partitions.put(token, partitions.get(token).toBuilder()
+                                .state(STATES[random.nextInt(STATES.length)])
+                                .build());
+                    }
+                    break;
+            }
+        }
+        return taskState.toBuilder()
+                .partitionsMap(partitions)
+                .sharedPartitionsMap(sharedPartitions)
+                .build();
+    }
+
+    // Schedules or runs one of the partitions again
+    private static TaskState changeState(Random random, TaskState taskState) {
+        Map<String, PartitionState> partitions = new HashMap<>(taskState.getPartitionsMap());
+        PartitionState partition = partitions.get("token-" + taskState.getTaskUid() + "-" + random.nextInt(partitions.size()));
+        partitions.put(partition.getToken(), partition.toBuilder()
+                .state(partition.getState() == PartitionStateEnum.RUNNING ? PartitionStateEnum.SCHEDULED : PartitionStateEnum.RUNNING)
+                .build());
+        return taskState.toBuilder().partitionsMap(partitions).build();
+    }
+
+    private static TaskState largeTaskState(String taskUid, int count) {
+        Map<String, PartitionState> partitions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            PartitionState partition = partition("token-" + taskUid + "-" + i, PartitionStateEnum.RUNNING, Set.of("parent-" + i));
+            partitions.put(partition.getToken(), partition);
+        }
+        return TaskState.builder()
+                .taskUid(taskUid)
+                .partitionsMap(partitions)
+                .sharedPartitionsMap(Map.of())
+                .build();
+    }
+
+    private static PartitionState partition(String token, PartitionStateEnum state, Set<String> parents) {
+        return PartitionState.builder()
+                .token(token)
+                .state(state)
+                .startTimestamp(Timestamp.ofTimeSecondsAndNanos(1_000, 0))
+                .parents(parents)
+                .build();
+    }
+
+    private static List<PartitionState> allPartitionStates(TaskSyncContext context) {
+        return context.getAllTaskStates().values().stream()
+                .flatMap(taskState -> Stream.concat(taskState.getPartitions().stream(), taskState.getSharedPartitions().stream()))
+                .collect(Collectors.toList());
+    }
+
+    // The scans over all the task states, which the registry replaces
+
+    private static Set<String> scanAllPartitionTokens(TaskSyncContext context) {
+        return allPartitionStates(context).stream()
+                .map(PartitionState::getToken)
+                .collect(Collectors.toSet());
+    }
+
+    private static Map<String, List<PartitionState>> scanInProgressPartitions(TaskSyncContext context) {
+        return context.getAllTaskStates().values().stream()
+                .flatMap(taskState -> taskState.getPartitions().stream())
+                .filter(partitionState -> inProgressPartitionState(partitionState.getState()))
+                .collect(Collectors.groupingBy(PartitionState::getToken));
+    }
+
+    private static Map<String, List<PartitionState>> scanSharedPartitions(TaskSyncContext context) {
+        Map<String, List<PartitionState>> partitions = scanInProgressPartitions(context);
+        return context.getAllTaskStates().values().stream()
+                .flatMap(taskState -> taskState.getSharedPartitions().stream())
+                .filter(partitionState -> !partitions.containsKey(partitionState.getToken()))
+                .collect(Collectors.groupingBy(PartitionState::getToken));
+    }
+
+    private static int scanNumPartitions(TaskSyncContext context) {
+        return scanInProgressPartitions(context).size();
+    }
+
+    private static int scanNumSharedPartitions(TaskSyncContext context) {
+        return scanSharedPartitions(context).size();
+    }
+
+    private static boolean scanDuplication(TaskSyncContext context) {
+        return Stream.concat(scanInProgressPartitions(context).values().stream(), scanSharedPartitions(context).values().stream())
+                .anyMatch(partitionStates -> partitionStates.size() > 1);
+    }
+
+    private static boolean scanPartitionStreamingAlready(TaskSyncContext context, String token) {
+        return context.getTaskStates().values().stream()
+                .flatMap(taskState -> taskState.getPartitions().stream())
+                .filter(partitionState -> partitionState.getToken().equals(token))
+                .anyMatch(partitionState -> partitionState.getState() == PartitionStateEnum.SCHEDULED
+                        || partitionState.getState() == PartitionStateEnum.RUNNING
+                        || partitionState.getState() == PartitionStateEnum.FINISHED
+                        || partitionState.getState() == PartitionStateEnum.REMOVED);
+    }
+
+    private static boolean scanAllChildrenFinished(TaskSyncContext context, String token) {
+        List<PartitionState> all = allPartitionStates(context);
+        return all.stream()
+                .filter(partitionState -> partitionState.getParents().contains(token))
+                .map(PartitionState::getToken)
+                .collect(Collectors.toSet())
+                .stream()
+                .allMatch(child -> all.stream()
+                        .filter(partitionState -> child.equals(partitionState.getToken()))
+                        .allMatch(partitionState -> !inProgressPartitionState(partitionState.getState())));
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import io.debezium.connector.spanner.kafka.event.proto.SyncEventProtos;
+import io.debezium.connector.spanner.kafka.internal.ProducerFactory;
+import io.debezium.connector.spanner.kafka.internal.TaskSyncPublisher;
+import io.debezium.connector.spanner.kafka.internal.model.MessageTypeEnum;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.RebalanceState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskSyncEvent;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFormat;
+import io.debezium.connector.spanner.kafka.internal.proto.SyncEventFromProtoMapper;
+
+/**
+ * Replays the states of a task published as full states and as deltas,
+ * and compares the states merged by another task
+ */
+class SyncEventDeltaReplayTest {
+
+    private static final String SENDER = "task-1";
+    private static final String RECEIVER = "task-0";
+
+    @Test
+    void testDeltaReplayMatchesFullStateReplay() throws InvalidProtocolBufferException {
+        List<TaskState> states = generateStates(new Random(5), 1_000, 200);
+
+        List<byte[]> fullRecords = new ArrayList<>();
+        publish(newPublisher(0, fullRecords), states);
+        List<byte[]> deltaRecords = new ArrayList<>();
+        publish(newPublisher(50, deltaRecords), states);
+
+        TaskSyncContext fullContext = receiverContext();
+        TaskSyncContext deltaContext = receiverContext();
+        int deltas = 0;
+        for (int i = 0; i < states.size(); i++) {
+            TaskSyncEvent fullEvent = decode(fullRecords.get(i));
+            TaskSyncEvent deltaEvent = decode(deltaRecords.get(i));
+            if (deltaEvent.getMessageType() == MessageTypeEnum.DELTA) {
+                deltas++;
+            }
+            fullContext = merge(fullContext, fullEvent);
+            deltaContext = merge(deltaContext, deltaEvent);
+
+            assertSameState(states.get(i), fullContext.getTaskStates().get(SENDER));
+            assertSameState(fullContext.getTaskStates().get(SENDER), deltaContext.getTaskStates().get(SENDER));
+        }
+        // Every 51st regular message is the full state
+        assertEquals(states.size() - 1 - (states.size() - 1) / 51, deltas);
+
+        long fullBytes = fullRecords.stream().mapToLong(record -> record.length).sum();
+        long deltaBytes = deltaRecords.stream().mapToLong(record -> record.length).sum();
+        assertTrue(deltaBytes * 10 < fullBytes, "full " + fullBytes + " bytes, delta " + deltaBytes + " bytes");
+    }
+
+    @Test
+    void testMissedDeltaIsRecoveredBySnapshot() throws InvalidProtocolBufferException {
+        List<TaskState> states = generateStates(new Random(7), 100, 6);
+        List<byte[]> records = new ArrayList<>();
+        TaskSyncPublisher publisher = newPublisher(100, records);
+        publish(publisher, states.subList(0, 5));
+
+        TaskSyncContext context = receiverContext();
+        context = merge(context, decode(records.get(0)));
+        context = merge(context, decode(records.get(1)));
+
+        // The delta of the state 2 is lost
+        TaskSyncEvent afterGap = decode(records.get(3));
+        assertEquals(MessageTypeEnum.DELTA, afterGap.getMessageType());
+        assertTrue(SyncEventMerger.hasDeltaGap(context, afterGap));
+        TaskSyncContext skipped = SyncEventMerger.mergeDelta(context, afterGap);
+        assertSameState(states.get(1), skipped.getTaskStates().get(SENDER));
+
+        // The requested full state is a new base for the next deltas
+        publisher.requestSnapshot();
+        publisher.send(regular(states.get(5)));
+        TaskSyncEvent snapshot = decode(records.get(5));
+        assertEquals(MessageTypeEnum.REGULAR, snapshot.getMessageType());
+        context = merge(skipped, snapshot);
+        assertSameState(states.get(5), context.getTaskStates().get(SENDER));
+        assertFalse(SyncEventMerger.hasDeltaGap(context, afterGap));
+    }
+
+    @Test
+    void testSnapshotRequestIsPublished() throws InvalidProtocolBufferException {
+        List<byte[]> records = new ArrayList<>();
+        TaskSyncPublisher publisher = newPublisher(100, records);
+        List<TaskState> states = generateStates(new Random(11), 10, 2);
+        publish(publisher, states);
+
+        publisher.send(regular(states.get(1)).toBuilder().snapshotRequests(Set.of("task-2")).build());
+
+        TaskSyncEvent event = decode(records.get(2));
+        assertEquals(Set.of("task-2"), event.getSnapshotRequests());
+        assertEquals(MessageTypeEnum.DELTA, event.getMessageType());
+        assertTrue(event.getTaskStateDelta().getPartitions().isEmpty());
+    }
+
+    private static TaskSyncContext merge(TaskSyncContext context, TaskSyncEvent event) {
+        switch (event.getMessageType()) {
+            case REBALANCE_ANSWER:
+                return SyncEventMerger.mergeRebalanceAnswer(context, event);
+            case DELTA:
+                return SyncEventMerger.mergeDelta(context, event);
+            default:
+                return SyncEventMerger.mergeIncrementalTaskSyncEvent(context, event);
+        }
+    }
+
+    private static void publish(TaskSyncPublisher publisher, List<TaskState> states) {
+        // The receiver learns about the sender from its rebalance answer
+        publisher.send(regular(states.get(0)).toBuilder().messageType(MessageTypeEnum.REBALANCE_ANSWER).build());
+        for (int i = 1; i < states.size(); i++) {
+            publisher.send(regular(states.get(i)));
+        }
+    }
+
+    private static TaskSyncEvent regular(TaskState state) {
+        return TaskSyncEvent.builder()
+                .taskUid(SENDER)
+                .consumerId(state.getConsumerId())
+                .rebalanceGenerationId(1)
+                .messageTimestamp(state.getStateTimestamp())
+                .messageType(MessageTypeEnum.REGULAR)
+                .taskStates(Map.of(SENDER, state))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TaskSyncPublisher newPublisher(int deltaSnapshotInterval, List<byte[]> records) {
+        MockProducer<String, byte[]> producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer()) {
+            @Override
+            public synchronized Future<RecordMetadata> send(ProducerRecord<String, byte[]> record, Callback callback) {
+                records.add(record.value());
+                return super.send(record, callback);
+            }
+        };
+        ProducerFactory<String, byte[]> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.createProducer()).thenReturn(producer);
+        return new TaskSyncPublisher(SENDER, "sync-topic", 0, deltaSnapshotInterval, SyncEventFormat.V1, producerFactory, null, e -> {
+            throw e;
+        });
+    }
+
+    private static TaskSyncEvent decode(byte[] record) throws InvalidProtocolBufferException {
+        return SyncEventFromProtoMapper.mapFromProto(SyncEventProtos.SyncEvent.parseFrom(record));
+    }
+
+    private static TaskSyncContext receiverContext() {
+        return TaskSyncContext.builder()
+                .taskUid(RECEIVER)
+                .consumerId("consumer-0")
+                .rebalanceState(RebalanceState.NEW_EPOCH_STARTED)
+                .currentTaskState(TaskState.builder()
+                        .taskUid(RECEIVER)
+                        .consumerId("consumer-0")
+                        .partitions(List.of())
+                        .sharedPartitions(List.of())
+                        .build())
+                .build();
+    }
+
+    /**
+     * The successive states of the sender: partitions are created, go through their states,
+     * are shared with other tasks and are removed
+     */
+    private static List<TaskState> generateStates(Random random, int initialPartitions, int count) {
+        Map<String, PartitionState> partitions = new HashMap<>();
+        Map<String, PartitionState> sharedPartitions = new HashMap<>();
+        int nextToken = 0;
+        for (; nextToken < initialPartitions; nextToken++) {
+            PartitionState partition = partition("token-" + nextToken, PartitionStateEnum.values()[random.nextInt(5)]);
+            partitions.put(partition.getToken(), partition);
+        }
+
+        List<TaskState> states = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int changes = 1 + random.nextInt(4);
+            for (int c = 0; c < changes; c++) {
+                List<String> tokens = new ArrayList<>(partitions.keySet());
+                String token = tokens.isEmpty() ? null : tokens.get(random.nextInt(tokens.size()));
+                switch (random.nextInt(5)) {
+                    case 0:
+                        PartitionState created = partition("token-" + nextToken++, PartitionStateEnum.CREATED);
+                        partitions.put(created.getToken(), created);
+                        break;
+                    case 1:
+                        if (token != null) {
+                            sharedPartitions.put(token, partitions.remove(token));
+                        }
+                        break;
+                    case 2:
+                        if (!sharedPartitions.isEmpty()) {
+                            sharedPartitions.remove(sharedPartitions.keySet().iterator().next());
+                        }
+                        break;
+                    default:
+                        if (token != null) {
+                            PartitionState partition = partitions.get(token);
+                            if (partition.getState() == PartitionStateEnum.REMOVED) {
+                                partitions.remove(token);
+                            }
+                            else {
+                                partitions.put(token, partition.toBuilder()
+                                        .state(PartitionStateEnum.values()[partition.getState().ordinal() + 1])
+                                        .finishedTimestamp(partition.getState() == PartitionStateEnum.RUNNING ? Timestamp.ofTimeSecondsAndNanos(i, 0) : null)
+                                        .build());
+                            }
+                        }
+                        break;
+                }
+            }
+            states.add(TaskState.builder()
+                    .taskUid(SENDER)
+                    .consumerId("consumer-1")
+                    .rebalanceGenerationId(1)
+                    .stateTimestamp(1_000 + i)
+                    .partitionsMap(new HashMap<>(partitions))
+                    .sharedPartitionsMap(new HashMap<>(sharedPartitions))
+                    .build());
+        }
+        return states;
+    }
+
+    private static PartitionState partition(String token, PartitionStateEnum state) {
+        return PartitionState.builder()
+                .token(token)
+                .state(state)
+                .startTimestamp(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 0))
+                .parents(Set.of("parent-" + token))
+                .assigneeTaskUid(SENDER)
+                .originParent("parent-" + token)
+                .build();
+    }
+
+    // PartitionState is equal by token only, so all the fields are compared by their string form
+    private static void assertSameState(TaskState expected, TaskState actual) {
+        assertEquals(expected.getStateTimestamp(), actual.getStateTimestamp());
+        assertEquals(expected.getConsumerId(), actual.getConsumerId());
+        assertEquals(describe(expected.getPartitionsMap()), describe(actual.getPartitionsMap()));
+        assertEquals(describe(expected.getSharedPartitionsMap()), describe(actual.getSharedPartitionsMap()));
+    }
+
+    private static List<String> describe(Map<String, PartitionState> partitions) {
+        return partitions.values().stream()
+                .map(PartitionState::toString)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
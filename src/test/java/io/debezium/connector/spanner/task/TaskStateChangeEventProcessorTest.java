@@ -0,0 +1,185 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.spanner.task;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+
+import io.debezium.connector.spanner.SpannerConnectorConfig;
+import io.debezium.connector.spanner.db.model.Partition;
+import io.debezium.connector.spanner.db.stream.ChangeStream;
+import io.debezium.connector.spanner.kafka.internal.TaskSyncPublisher;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionState;
+import io.debezium.connector.spanner.kafka.internal.model.PartitionStateEnum;
+import io.debezium.connector.spanner.kafka.internal.model.RebalanceState;
+import io.debezium.connector.spanner.kafka.internal.model.TaskState;
+import io.debezium.connector.spanner.metrics.MetricsEventPublisher;
+import io.debezium.connector.spanner.processor.SpannerEventDispatcher;
+import io.debezium.connector.spanner.task.state.NewPartitionsEvent;
+import io.debezium.connector.spanner.task.state.PartitionStatusUpdateEvent;
+import io.debezium.connector.spanner.task.state.TaskStateChangeEvent;
+
+class TaskStateChangeEventProcessorTest {
+
+    private static final String TASK_UID = "task-0";
+    private static final int SPLITS = 1_000;
+
+    /**
+     * Every split of a partition queues its two child partitions and the end of the parent partition
+     */
+    @Test
+    void testBurstOfSplitsIsProcessedInOnePass() throws InterruptedException {
+        List<TaskStateChangeEvent> events = new ArrayList<>();
+        for (int i = 0; i < SPLITS; i++) {
+            events.add(new NewPartitionsEvent(List.of(child(i, "a"), child(i, "b"))));
+            events.add(new PartitionStatusUpdateEvent("parent-" + i, PartitionStateEnum.FINISHED));
+        }
+
+        // Each event runs the operations and publishes the task state, as before
+        Harness perEvent = new Harness();
+        for (TaskStateChangeEvent event : events) {
+            perEvent.handler.processEvent(event);
+        }
+        perEvent.assertSplitsDone();
+
+        // The events queued during the burst are processed together
+        Harness batched = new Harness();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        TaskStateChangeEventProcessor processor = new TaskStateChangeEventProcessor(4 * SPLITS, batched.holder,
+                batched.handler, error::set, new MetricsEventPublisher());
+        for (TaskStateChangeEvent event : events) {
+            processor.processEvent(event);
+        }
+        processor.startProcessing();
+        try {
+            await().atMost(Duration.ofSeconds(60)).until(() -> batched.scheduledChildren() == 2 * SPLITS);
+        }
+        finally {
+            processor.stopProcessing();
+        }
+        batched.assertSplitsDone();
+        assertNull(error.get());
+
+        assertEquals(events.size(), perEvent.updates.get());
+        assertEquals(events.size(), perEvent.sends.get());
+        // The periodic sync event may be processed separately
+        assertTrue(batched.updates.get() <= 2);
+        assertTrue(batched.sends.get() <= 2);
+    }
+
+    @Test
+    void testLatestStatusOfPartitionIsApplied() throws InterruptedException {
+        Harness harness = new Harness();
+
+        harness.handler.processEvents(List.of(
+                new PartitionStatusUpdateEvent("parent-0", PartitionStateEnum.SCHEDULED),
+                new PartitionStatusUpdateEvent("parent-1", PartitionStateEnum.FINISHED),
+                new PartitionStatusUpdateEvent("parent-0", PartitionStateEnum.RUNNING)));
+
+        Map<String, PartitionState> partitions = harness.holder.get().getCurrentTaskState().getPartitionsMap();
+        assertEquals(PartitionStateEnum.RUNNING, partitions.get("parent-0").getState());
+        assertEquals(PartitionStateEnum.FINISHED, partitions.get("parent-1").getState());
+        assertTrue(partitions.get("parent-1").getFinishedTimestamp() != null);
+        assertEquals(1, harness.updates.get());
+        assertEquals(1, harness.sends.get());
+    }
+
+    private static Partition child(int split, String suffix) {
+        return Partition.builder()
+                .token("child-" + split + "-" + suffix)
+                .parentTokens(Set.of("parent-" + split))
+                .startTimestamp(Timestamp.ofTimeSecondsAndNanos(2_000, 0))
+                .originPartitionToken("parent-" + split)
+                .build();
+    }
+
+    /**
+     * Task with the parent partitions, which counts the updates of the task sync context and the publishes
+     */
+    private static class Harness {
+        private final AtomicInteger updates = new AtomicInteger();
+        private final AtomicInteger sends = new AtomicInteger();
+        private final TaskSyncContextHolder holder;
+        private final TaskStateChangeEventHandler handler;
+
+        Harness() {
+            this.holder = new TaskSyncContextHolder(new MetricsEventPublisher()) {
+                @Override
+                public TaskSyncContext updateAndGet(UnaryOperator<TaskSyncContext> updateFunction) {
+                    updates.incrementAndGet();
+                    return super.updateAndGet(updateFunction);
+                }
+            };
+            List<PartitionState> partitions = new ArrayList<>();
+            for (int i = 0; i < SPLITS; i++) {
+                partitions.add(PartitionState.builder()
+                        .token("parent-" + i)
+                        .state(PartitionStateEnum.RUNNING)
+                        .startTimestamp(Timestamp.ofTimeSecondsAndNanos(1_000, 0))
+                        .parents(Set.of("Parent0"))
+                        .assigneeTaskUid(TASK_UID)
+                        .build());
+            }
+            holder.init(TaskSyncContext.builder()
+                    .taskUid(TASK_UID)
+                    .consumerId("consumer-0")
+                    .rebalanceState(RebalanceState.NEW_EPOCH_STARTED)
+                    .currentTaskState(TaskState.builder()
+                            .taskUid(TASK_UID)
+                            .consumerId("consumer-0")
+                            .partitions(partitions)
+                            .sharedPartitions(List.of())
+                            .build())
+                    .build());
+
+            TaskSyncPublisher publisher = mock(TaskSyncPublisher.class);
+            doAnswer(invocation -> sends.incrementAndGet()).when(publisher).send(any());
+            ChangeStream changeStream = mock(ChangeStream.class);
+            when(changeStream.submitPartition(any())).thenReturn(true);
+            SpannerConnectorConfig connectorConfig = mock(SpannerConnectorConfig.class);
+            when(connectorConfig.getFinishedPartitionDeletionDelay()).thenReturn(Duration.ofHours(1));
+
+            this.handler = new TaskStateChangeEventHandler(holder, publisher, changeStream, mock(PartitionFactory.class),
+                    mock(SpannerEventDispatcher.class), () -> {
+                    }, connectorConfig, e -> {
+                        throw e;
+                    });
+        }
+
+        long scheduledChildren() {
+            return holder.get().getCurrentTaskState().getPartitions().stream()
+                    .filter(partitionState -> partitionState.getToken().startsWith("child-"))
+                    .filter(partitionState -> partitionState.getState() == PartitionStateEnum.SCHEDULED)
+                    .count();
+        }
+
+        void assertSplitsDone() {
+            Map<PartitionStateEnum, Long> states = holder.get().getCurrentTaskState().getPartitions().stream()
+                    .collect(Collectors.groupingBy(PartitionState::getState, Collectors.counting()));
+            assertEquals(Map.of(PartitionStateEnum.FINISHED, (long) SPLITS, PartitionStateEnum.SCHEDULED, 2L * SPLITS), states);
+        }
+    }
+}
@@ -22,7 +22,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -44,8 +43,7 @@ import io.debezium.pipeline.ErrorHandler;
 class LeaderActionServiceTest {
     private static final String TASK_UID = "leader-007";
 
-    @Mock
-    private MetricsEventPublisher metricsEventPublisher;
+    private final MetricsEventPublisher metricsEventPublisher = new MetricsEventPublisher();
 
     private TaskSyncContextHolder taskSyncContextHolder;
     private LeaderService leaderService;